@@ -0,0 +1,58 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.admin;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * CompiledSchema
+ * <p/>
+ * A compiled XML schema shared by the validators and configuration models
+ * of the SwitchYard runtime.
+ */
+public interface CompiledSchema {
+
+    /**
+     * @return the schema language URI (e.g. XML Schema, RELAX NG).
+     */
+    String getSchemaLanguage();
+
+    /**
+     * @return the locations of the schema documents.
+     */
+    List<String> getLocations();
+
+    /**
+     * @return the catalogs used to resolve the schema documents.
+     */
+    Set<String> getCatalogs();
+
+    /**
+     * @return the time, in milliseconds, spent compiling the schema.
+     */
+    long getCompileTime();
+
+    /**
+     * @return the number of bytes allocated compiling the schema; -1 if not
+     *         known.
+     */
+    long getAllocatedBytes();
+
+    /**
+     * @return the number of times the compiled schema was reused.
+     */
+    long getHitCount();
+
+}
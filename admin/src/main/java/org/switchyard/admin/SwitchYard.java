@@ -92,4 +92,11 @@ public interface SwitchYard extends MessageMetricsAware {
      */
     Map<String,String> getProperties();
 
+    /**
+     * List of compiled XML schemas currently cached by the SwitchYard runtime.
+     * 
+     * @return compiled schemas with their compile time and memory usage
+     */
+    List<CompiledSchema> getCompiledSchemas();
+
 }
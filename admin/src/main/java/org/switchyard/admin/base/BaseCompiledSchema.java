@@ -0,0 +1,70 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.admin.base;
+
+import java.util.List;
+import java.util.Set;
+
+import org.switchyard.admin.CompiledSchema;
+import org.switchyard.config.model.SchemaCache.SchemaStatistics;
+
+/**
+ * BaseCompiledSchema
+ * 
+ * Base implementation for {@link CompiledSchema}.
+ */
+public class BaseCompiledSchema implements CompiledSchema {
+
+    private final SchemaStatistics _statistics;
+
+    /**
+     * Create a new BaseCompiledSchema.
+     * 
+     * @param statistics statistics recorded by the schema cache
+     */
+    public BaseCompiledSchema(SchemaStatistics statistics) {
+        _statistics = statistics;
+    }
+
+    @Override
+    public String getSchemaLanguage() {
+        return _statistics.getSchemaLanguage();
+    }
+
+    @Override
+    public List<String> getLocations() {
+        return _statistics.getLocations();
+    }
+
+    @Override
+    public Set<String> getCatalogs() {
+        return _statistics.getCatalogs();
+    }
+
+    @Override
+    public long getCompileTime() {
+        return _statistics.getCompileTime();
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return _statistics.getAllocatedBytes();
+    }
+
+    @Override
+    public long getHitCount() {
+        return _statistics.getHitCount();
+    }
+
+}
@@ -27,11 +27,14 @@ import java.util.concurrent.ConcurrentMap;
 import javax.xml.namespace.QName;
 
 import org.switchyard.admin.Application;
+import org.switchyard.admin.CompiledSchema;
 import org.switchyard.admin.Component;
 import org.switchyard.admin.Reference;
 import org.switchyard.admin.Service;
 import org.switchyard.admin.SwitchYard;
 import org.switchyard.common.version.Versions;
+import org.switchyard.config.model.SchemaCache;
+import org.switchyard.config.model.SchemaCache.SchemaStatistics;
 
 /**
  * In-memory representation of System admin contract. Note that Service objects
@@ -284,6 +287,15 @@ public class BaseSwitchYard extends BaseMessageMetricsAware implements SwitchYar
         _properties.remove(name);
     }
 
+    @Override
+    public List<CompiledSchema> getCompiledSchemas() {
+        List<CompiledSchema> schemas = new ArrayList<CompiledSchema>();
+        for (SchemaStatistics statistics : SchemaCache.getStatistics()) {
+            schemas.add(new BaseCompiledSchema(statistics));
+        }
+        return schemas;
+    }
+
     @Override
     public void resetMessageMetrics() {
         for (final Service service : _services) {
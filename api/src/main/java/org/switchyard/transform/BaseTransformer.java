@@ -88,6 +88,13 @@ public abstract class BaseTransformer<F, T> implements Transformer<F, T> {
     @Override
     public abstract T transform(F from);
 
+    /**
+     * Releases what this transformer holds on to, once it has been unregistered
+     * and is no longer used.  Does nothing by default.
+     */
+    public void destroy() {
+    }
+
     /**
      * Get the type QName for the specified Java type.
      * <p/>
@@ -69,6 +69,13 @@ public abstract class BaseValidator<T> implements Validator<T> {
         }
     }
 
+    /**
+     * Releases what this validator holds on to, once it has been unregistered
+     * and is no longer used.  Does nothing by default.
+     */
+    public void destroy() {
+    }
+
     /**
      * Create validation result which indicates valid result.
      * @return valid result
@@ -139,6 +139,40 @@ public interface BusMessages {
      */
     @Message(id = 10816, value = "Camel Bus accepts only CamelExchanges")
     IllegalArgumentException onlyCamelExchanges();
-    
-    
+
+    /**
+     * processorNotRegistered method definition.
+     * @param name name
+     * @return SwitchYardException
+     */
+    @Message(id = 10817, value = "Processor %s is not registered in Camel Exchange Bus registry")
+    SwitchYardException processorNotRegistered(String name);
+
+    /**
+     * failedToResolveEndpoint method definition.
+     * @param endpoint endpoint
+     * @param e e
+     * @return SwitchYardException
+     */
+    @Message(id = 10818, value = "Failed to resolve Camel endpoint %s")
+    SwitchYardException failedToResolveEndpoint(String endpoint, @Cause Exception e);
+
+    /**
+     * asyncDispatchLimitReached method definition.
+     * @param endpoint endpoint
+     * @param limit limit
+     * @return SwitchYardException
+     */
+    @Message(id = 10819, value = "Unable to dispatch exchange to %s, limit of %d exchanges in flight reached")
+    SwitchYardException asyncDispatchLimitReached(String endpoint, int limit);
+
+    /**
+     * asyncDispatchRejected method definition.
+     * @param endpoint endpoint
+     * @param e e
+     * @return SwitchYardException
+     */
+    @Message(id = 10820, value = "Executor rejected exchange dispatched to %s")
+    SwitchYardException asyncDispatchRejected(String endpoint, @Cause Exception e);
+
 }
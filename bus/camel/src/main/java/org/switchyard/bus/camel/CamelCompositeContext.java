@@ -13,7 +13,9 @@
  */
 package org.switchyard.bus.camel;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.camel.Exchange;
@@ -32,6 +34,10 @@ public class CamelCompositeContext implements Context {
     private final Exchange _exchange;
     private final Message _message;
 
+    // property views are stateless, so they are created once per name and reused
+    private Map<String, Property> _messageProperties;
+    private Map<String, Property> _exchangeProperties;
+
     /**
      * Creates new Context with {@link Scope#EXCHANGE} as default scope.
      * 
@@ -87,18 +93,53 @@ public class CamelCompositeContext implements Context {
 
     private Property getMessageProperty(String name) {
         if (_message.hasHeaders() && _message.getHeaders().containsKey(name)) {
-            return new CamelMessageProperty(_message, name);
+            return messageProperty(name);
         }
         return null;
     }
 
     private Property getExchangeProperty(String name) {
         if (_exchange.hasProperties() && _exchange.getProperties().containsKey(name)) {
-            return new CamelExchangeProperty(_exchange, name);
+            return exchangeProperty(name);
         }
         return null;
     }
 
+    private Property messageProperty(String name) {
+        if (_messageProperties == null) {
+            _messageProperties = new HashMap<String, Property>();
+        }
+        Property property = _messageProperties.get(name);
+        if (property == null) {
+            property = new CamelMessageProperty(_message, name);
+            _messageProperties.put(name, property);
+        }
+        return property;
+    }
+
+    private Property exchangeProperty(String name) {
+        if (_exchangeProperties == null) {
+            _exchangeProperties = new HashMap<String, Property>();
+        }
+        Property property = _exchangeProperties.get(name);
+        if (property == null) {
+            property = new CamelExchangeProperty(_exchange, name);
+            _exchangeProperties.put(name, property);
+        }
+        return property;
+    }
+
+    /**
+     * Checks if this context is a view of given exchange and message.
+     * 
+     * @param exchange Camel exchange.
+     * @param message Camel message.
+     * @return True if context maps scopes to given exchange and message.
+     */
+    boolean isViewOf(Exchange exchange, Message message) {
+        return _exchange == exchange && _message == message;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public <T> T getPropertyValue(String name) {
@@ -121,14 +162,14 @@ public class CamelCompositeContext implements Context {
         case EXCHANGE:
             if (_exchange.hasProperties()) {
                 for (String prop : _exchange.getProperties().keySet()) {
-                    properties.add(new CamelExchangeProperty(_exchange, prop));
+                    properties.add(exchangeProperty(prop));
                 }
             }
             break;
         default:
             if (_message.hasHeaders()) {
                 for (String prop : _message.getHeaders().keySet()) {
-                    properties.add(new CamelMessageProperty(_message, prop));
+                    properties.add(messageProperty(prop));
                 }
             }
             break;
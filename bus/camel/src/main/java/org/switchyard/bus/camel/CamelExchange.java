@@ -98,7 +98,12 @@ public class CamelExchange implements Exchange {
 
     @Override
     public Context getContext() {
-        return new CamelCompositeContext(_exchange, getMessage());
+        CamelMessage message = getMessage();
+        if (message.getExchange() == _exchange) {
+            // message caches composite view of itself and its exchange
+            return message.getContext();
+        }
+        return new CamelCompositeContext(_exchange, message);
     }
 
     @Override
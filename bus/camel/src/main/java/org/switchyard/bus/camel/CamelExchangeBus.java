@@ -15,12 +15,14 @@
 package org.switchyard.bus.camel;
 
 import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
 
 import javax.xml.namespace.QName;
 
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.impl.SimpleRegistry;
 import org.apache.camel.model.ModelHelper;
+import org.apache.camel.spi.ExecutorServiceManager;
 import org.jboss.logging.Logger;
 import org.switchyard.ServiceDomain;
 import org.switchyard.ServiceReference;
@@ -35,6 +37,37 @@ import org.switchyard.spi.ExchangeBus;
  */
 public class CamelExchangeBus implements ExchangeBus {
 
+    /**
+     * Domain property used to run the try, catch and finally blocks of mediation
+     * for each service reference as precompiled processors instead of
+     * chain of Camel route steps.
+     */
+    public static final String COMPILED_PIPELINE = "org.switchyard.bus.camel.compiledPipeline";
+
+    /**
+     * Domain property used to dispatch exchanges asynchronously. Routes are run
+     * by thread pool created from Camel thread pool profile registered with
+     * service name as id, or by default thread pool if such profile does not exist.
+     */
+    public static final String ASYNC_DISPATCH = "org.switchyard.bus.camel.asyncDispatch";
+
+    /**
+     * Domain property limiting number of exchanges dispatched asynchronously
+     * to single service which are processed at once. Defaults to
+     * {@value #DEFAULT_MAX_IN_FLIGHT}, zero or less means no limit.
+     */
+    public static final String ASYNC_MAX_IN_FLIGHT = "org.switchyard.bus.camel.asyncMaxInFlight";
+
+    /**
+     * Domain property with time in milliseconds a caller waits for in-flight
+     * exchange to complete when limit is reached. Defaults to
+     * {@value #DEFAULT_ACQUIRE_TIMEOUT}.
+     */
+    public static final String ASYNC_ACQUIRE_TIMEOUT = "org.switchyard.bus.camel.asyncAcquireTimeout";
+
+    static final int DEFAULT_MAX_IN_FLIGHT = 1000;
+    static final long DEFAULT_ACQUIRE_TIMEOUT = 30000;
+
     private Logger _logger = Logger.getLogger(CamelExchangeBus.class);
 
     private HashMap<QName, ExchangeDispatcher> _dispatchers = 
@@ -42,6 +75,12 @@ public class CamelExchangeBus implements ExchangeBus {
 
     private SwitchYardCamelContext _camelContext;
 
+    private boolean _compiledPipeline;
+
+    private boolean _asyncDispatch;
+    private int _maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+    private long _acquireTimeout = DEFAULT_ACQUIRE_TIMEOUT;
+
     /**
      * Create a new Camel exchange bus provider.
      * @param context the CamelContext instance used by this provider
@@ -56,6 +95,11 @@ public class CamelExchangeBus implements ExchangeBus {
             _logger.debug("Initialization of CamelExchangeBus for domain " + domain.getName());
         }
 
+        _compiledPipeline = isEnabled(domain.getProperty(COMPILED_PIPELINE));
+        _asyncDispatch = isEnabled(domain.getProperty(ASYNC_DISPATCH));
+        _maxInFlight = (int) toLong(domain.getProperty(ASYNC_MAX_IN_FLIGHT), DEFAULT_MAX_IN_FLIGHT);
+        _acquireTimeout = toLong(domain.getProperty(ASYNC_ACQUIRE_TIMEOUT), DEFAULT_ACQUIRE_TIMEOUT);
+
         SimpleRegistry registry = _camelContext.getWritebleRegistry();
         for (Processors processor : Processors.values()) {
             registry.put(processor.name(), processor.create(domain));
@@ -80,6 +124,9 @@ public class CamelExchangeBus implements ExchangeBus {
     @Override
     public synchronized void stop() {
         try {
+            for (ExchangeDispatcher dispatcher : _dispatchers.values()) {
+                release(dispatcher);
+            }
             _dispatchers.clear();
             _camelContext.stop();
         } catch (Exception ex) {
@@ -99,12 +146,16 @@ public class CamelExchangeBus implements ExchangeBus {
         }
 
         String endpoint = "direct:" + reference.getName();
-        RouteBuilder rb = new CamelExchangeBusRouteBuilder(endpoint, reference);
+        RouteBuilder rb = new CamelExchangeBusRouteBuilder(endpoint, reference, _compiledPipeline);
 
         try {
             // TODO - remove this logic once the test framework is able 
             // to hot-replace a service endpoint.
             if (_camelContext.getRoute(endpoint) != null) {
+                ExchangeDispatcher replaced = _dispatchers.get(reference.getName());
+                if (replaced != null) {
+                    release(replaced);
+                }
                 _camelContext.removeRoute(endpoint);
                 if (_logger.isInfoEnabled()) {
                     BusLogger.ROOT_LOGGER.removeRoute(endpoint);
@@ -121,9 +172,107 @@ public class CamelExchangeBus implements ExchangeBus {
         }
 
         ExchangeDispatcher dispatcher = new ExchangeDispatcher(_camelContext, reference);
+        if (_asyncDispatch) {
+            dispatcher.setAsyncDispatch(createExecutor(dispatcher, reference), _maxInFlight, _acquireTimeout);
+        }
         _dispatchers.put(reference.getName(), dispatcher);
         return dispatcher;
     }
 
+    /**
+     * Checks if dispatchers created by this bus use precompiled pipeline.
+     * 
+     * @return True if mediation is run by precompiled processors.
+     */
+    public boolean isCompiledPipeline() {
+        return _compiledPipeline;
+    }
+
+    /**
+     * Turns precompiled pipeline on or off for dispatchers created after this call.
+     * 
+     * @param compiledPipeline True if mediation should be run by precompiled processors.
+     */
+    public void setCompiledPipeline(boolean compiledPipeline) {
+        _compiledPipeline = compiledPipeline;
+    }
+
+    /**
+     * Checks if dispatchers created by this bus send exchanges asynchronously.
+     * 
+     * @return True if routes are run by thread pool.
+     */
+    public boolean isAsyncDispatch() {
+        return _asyncDispatch;
+    }
+
+    /**
+     * Turns asynchronous dispatch on or off for dispatchers created after this call.
+     * 
+     * @param asyncDispatch True if routes should be run by thread pool.
+     */
+    public void setAsyncDispatch(boolean asyncDispatch) {
+        _asyncDispatch = asyncDispatch;
+    }
+
+    /**
+     * Sets limit of in-flight exchanges for dispatchers created after this call.
+     * 
+     * @param maxInFlight Maximum number of exchanges processed at once by single
+     * dispatcher, zero or less means no limit.
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        _maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Sets time callers wait for in-flight exchange to complete for dispatchers
+     * created after this call.
+     * 
+     * @param acquireTimeout Time in milliseconds.
+     */
+    public void setAcquireTimeout(long acquireTimeout) {
+        _acquireTimeout = acquireTimeout;
+    }
+
+    private ExecutorService createExecutor(ExchangeDispatcher dispatcher, ServiceReference reference) {
+        ExecutorServiceManager manager = _camelContext.getExecutorServiceManager();
+        String profile = reference.getName().toString();
+        String name = "SwitchYard " + reference.getName();
+        if (manager.getThreadPoolProfile(profile) != null) {
+            return manager.newThreadPool(dispatcher, name, profile);
+        }
+        return manager.newDefaultThreadPool(dispatcher, name);
+    }
+
+    private void release(ExchangeDispatcher dispatcher) {
+        dispatcher.invalidate();
+        ExecutorService executor = dispatcher.getExecutor();
+        if (executor != null) {
+            _camelContext.getExecutorServiceManager().shutdownGraceful(executor);
+        }
+    }
+
+    private static long toLong(Object property, long defaultValue) {
+        if (property instanceof Number) {
+            return ((Number) property).longValue();
+        }
+        if (property != null) {
+            try {
+                return Long.parseLong(property.toString().trim());
+            } catch (NumberFormatException nfe) {
+                return defaultValue;
+            }
+        }
+        return defaultValue;
+    }
+
+    private static boolean isEnabled(Object property) {
+        if (property instanceof Boolean) {
+            return ((Boolean) property).booleanValue();
+        }
+        return property != null && Boolean.valueOf(property.toString());
+    }
+
 }
 
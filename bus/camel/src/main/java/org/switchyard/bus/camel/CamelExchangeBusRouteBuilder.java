@@ -36,6 +36,7 @@ import org.apache.camel.builder.ErrorHandlerBuilder;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.model.ExpressionNode;
 import org.apache.camel.model.FilterDefinition;
+import org.apache.camel.model.ProcessorDefinition;
 import org.apache.camel.model.RouteDefinition;
 import org.apache.camel.model.TryDefinition;
 import org.apache.camel.spi.InterceptStrategy;
@@ -44,12 +45,18 @@ import org.switchyard.ExchangePattern;
 import org.switchyard.ServiceReference;
 import org.switchyard.bus.camel.audit.AuditInterceptStrategy;
 import org.switchyard.bus.camel.audit.FaultInterceptStrategy;
+import org.switchyard.bus.camel.processors.CompiledPipelineProcessor;
+import org.switchyard.bus.camel.processors.Processors;
 import org.switchyard.common.camel.SwitchYardCamelContext;
 import org.switchyard.metadata.ServiceOperation;
 import org.switchyard.metadata.qos.Throttling;
 
 /**
  * Route builder which creates mediation necessary to handle communication inside SwitchYard.
+ * 
+ * With compiled pipeline, the route keeps its doTry/doCatch/doFinally structure
+ * and throttling, but each of these blocks is a single processor, so intercept
+ * strategies registered in camel context wrap whole blocks instead of each step.
  */
 public class CamelExchangeBusRouteBuilder extends RouteBuilder {
 
@@ -76,8 +83,40 @@ public class CamelExchangeBusRouteBuilder extends RouteBuilder {
         }
     };
 
+    /**
+     * Steps executed as main part of mediation.
+     */
+    static final Processors[] TRY_STEPS = {
+        CONSUMER_INTERCEPT, ADDRESSING, TRANSACTION_HANDLER, SECURITY_PROCESS,
+        GENERIC_POLICY, VALIDATION, TRANSFORMATION, VALIDATION,
+        PROVIDER_INTERCEPT, PROVIDER_CALLBACK, PROVIDER_INTERCEPT,
+        SECURITY_CLEANUP, TRANSACTION_HANDLER
+    };
+
+    /**
+     * Steps executed when main part of mediation fails.
+     */
+    static final Processors[] CATCH_STEPS = {
+        ERROR_HANDLING, PROVIDER_INTERCEPT, SECURITY_CLEANUP, TRANSACTION_HANDLER
+    };
+
+    /**
+     * Steps executed always at the end of mediation.
+     */
+    static final Processors[] FINALLY_STEPS = {
+        CONSUMER_INTERCEPT, CONSUMER_CALLBACK
+    };
+
+    /**
+     * Steps executed for IN_OUT exchanges after main or catch steps.
+     */
+    static final Processors[] IN_OUT_STEPS = {
+        VALIDATION, TRANSFORMATION, VALIDATION
+    };
+
     private String _endpoint;
     private ServiceReference _reference;
+    private boolean _compiled;
 
     /**
      * Dedicated route builder which dynamically creates SwitchYard mediation
@@ -87,8 +126,24 @@ public class CamelExchangeBusRouteBuilder extends RouteBuilder {
      * @param endpoint Endpoint address.
      */
     public CamelExchangeBusRouteBuilder(String endpoint, ServiceReference reference) {
+        this(endpoint, reference, false);
+    }
+
+    /**
+     * Dedicated route builder which dynamically creates SwitchYard mediation
+     * from given endpoint.
+     * 
+     * @param reference ServiceReference representing the consumer
+     * @param endpoint Endpoint address.
+     * @param compiled True if try, catch and finally blocks of mediation should
+     * each be executed by single {@link CompiledPipelineProcessor} instead of
+     * chain of route steps. Intercept strategies then wrap whole blocks instead
+     * of each step.
+     */
+    public CamelExchangeBusRouteBuilder(String endpoint, ServiceReference reference, boolean compiled) {
         _endpoint = endpoint;
         _reference = reference;
+        _compiled = compiled;
     }
 
     @Override
@@ -110,9 +165,12 @@ public class CamelExchangeBusRouteBuilder extends RouteBuilder {
             throw BusMessages.MESSAGES.maxOneExceptionHandler(handlers.keySet());
         }
 
-        // add default intercept strategy using @Audit annotation
+        // add default intercept strategy using @Audit annotation, compiled
+        // pipeline calls auditors on its own
         definition.addInterceptStrategy(new FaultInterceptStrategy());
-        definition.addInterceptStrategy(new AuditInterceptStrategy());
+        if (!_compiled) {
+            definition.addInterceptStrategy(new AuditInterceptStrategy());
+        }
 
         for (Entry<String, InterceptStrategy> interceptEntry : lookup(InterceptStrategy.class).entrySet()) {
             if (log.isDebugEnabled()) {
@@ -132,41 +190,38 @@ public class CamelExchangeBusRouteBuilder extends RouteBuilder {
 
         TryDefinition tryDefinition = definition.doTry();
         addThrottling(tryDefinition);
-        
-        tryDefinition
-            .processRef(CONSUMER_INTERCEPT.name())
-            .processRef(ADDRESSING.name())
-            .processRef(TRANSACTION_HANDLER.name())
-            .processRef(SECURITY_PROCESS.name())
-            .processRef(GENERIC_POLICY.name())
-            .processRef(VALIDATION.name())
-            .processRef(TRANSFORMATION.name())
-            .processRef(VALIDATION.name())
-            .processRef(PROVIDER_INTERCEPT.name())
-            .processRef(PROVIDER_CALLBACK.name())
-            .processRef(PROVIDER_INTERCEPT.name())
-            .processRef(SECURITY_CLEANUP.name())
-            .processRef(TRANSACTION_HANDLER.name())
+
+        if (_compiled) {
+            tryDefinition.process(new CompiledPipelineProcessor(getContext(), TRY_STEPS, IN_OUT_STEPS));
+            tryDefinition.doCatch(Exception.class)
+                .process(new CompiledPipelineProcessor(getContext(), CATCH_STEPS, IN_OUT_STEPS));
+            tryDefinition.doFinally()
+                .process(new CompiledPipelineProcessor(getContext(), FINALLY_STEPS));
+            return;
+        }
+
+        processRefs(tryDefinition, TRY_STEPS)
             .addOutput(createFilterDefinition());
-        
-        tryDefinition
-            .doCatch(Exception.class)
-            .processRef(ERROR_HANDLING.name())
-            .processRef(PROVIDER_INTERCEPT.name())
-            .processRef(SECURITY_CLEANUP.name())
-            .processRef(TRANSACTION_HANDLER.name())
+
+        processRefs(tryDefinition.doCatch(Exception.class), CATCH_STEPS)
             .addOutput(createFilterDefinition());
-        
-        tryDefinition.doFinally()
-            .processRef(CONSUMER_INTERCEPT.name())
-            .processRef(CONSUMER_CALLBACK.name());
+
+        processRefs(tryDefinition.doFinally(), FINALLY_STEPS);
+    }
+
+    private TryDefinition processRefs(TryDefinition definition, Processors... steps) {
+        for (Processors step : steps) {
+            definition.processRef(step.name());
+        }
+        return definition;
     }
 
     private ExpressionNode createFilterDefinition() {
-        return new FilterDefinition(IN_OUT_CHECK)
-            .processRef(VALIDATION.name())
-            .processRef(TRANSFORMATION.name())
-            .processRef(VALIDATION.name());
+        FilterDefinition filter = new FilterDefinition(IN_OUT_CHECK);
+        for (Processors step : IN_OUT_STEPS) {
+            filter.processRef(step.name());
+        }
+        return filter;
     }
 
     /**
@@ -183,7 +238,7 @@ public class CamelExchangeBusRouteBuilder extends RouteBuilder {
         return result;
     }
     
-    private void addThrottling(TryDefinition route) {
+    private void addThrottling(ProcessorDefinition<?> route) {
         Throttling throttling = _reference.getServiceMetadata().getThrottling();
         long timePeriodMS = throttling != null ? throttling.getTimePeriod() : Throttling.DEFAULT_TIME_PERIOD;
         route.filter(THROTTLE_CHECK)
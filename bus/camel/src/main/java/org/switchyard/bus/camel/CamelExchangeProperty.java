@@ -40,12 +40,19 @@ public class CamelExchangeProperty extends CamelPropertyBase {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     protected Map<String, Set<String>> getLabelsBag() {
-        if (!_exchange.getProperties().containsKey(CamelExchange.LABELS)) {
-            _exchange.setProperty(CamelExchange.LABELS, new HashMap<String, Set<String>>());
+        Map<String, Set<String>> bag = findLabelsBag();
+        if (bag == null) {
+            bag = new HashMap<String, Set<String>>();
+            _exchange.setProperty(CamelExchange.LABELS, bag);
         }
-        return _exchange.getProperty(CamelExchange.LABELS, Map.class);
+        return bag;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Map<String, Set<String>> findLabelsBag() {
+        return _exchange.hasProperties() ? (Map<String, Set<String>>) _exchange.getProperty(CamelExchange.LABELS) : null;
     }
 
     @Override
@@ -39,6 +39,8 @@ import org.switchyard.transform.TransformerRegistry;
  */
 public class CamelMessage extends SwitchYardMessage implements Message {
 
+    private CamelCompositeContext _context;
+
     /**
      * Creates new Camel message with specified exchange.
      * 
@@ -135,7 +137,12 @@ public class CamelMessage extends SwitchYardMessage implements Message {
 
     @Override
     public Context getContext() {
-        return new CamelCompositeContext(getExchange(), this);
+        CamelCompositeContext context = _context;
+        if (context == null || !context.isViewOf(getExchange(), this)) {
+            context = new CamelCompositeContext(getExchange(), this);
+            _context = context;
+        }
+        return context;
     }
 
     @Override
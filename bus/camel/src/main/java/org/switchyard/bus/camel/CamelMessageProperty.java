@@ -56,11 +56,18 @@ public class CamelMessageProperty extends CamelPropertyBase implements Property
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     protected Map<String, Set<String>> getLabelsBag() {
-        if (!_message.getHeaders().containsKey(CamelExchange.LABELS)) {
-            _message.setHeader(CamelExchange.LABELS, new HashMap<String, Set<String>>());
+        Map<String, Set<String>> bag = findLabelsBag();
+        if (bag == null) {
+            bag = new HashMap<String, Set<String>>();
+            _message.setHeader(CamelExchange.LABELS, bag);
         }
-        return _message.getHeader(CamelExchange.LABELS, Map.class);
+        return bag;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Map<String, Set<String>> findLabelsBag() {
+        return _message.hasHeaders() ? (Map<String, Set<String>>) _message.getHeader(CamelExchange.LABELS) : null;
     }
 }
@@ -13,9 +13,7 @@
  */
 package org.switchyard.bus.camel;
 
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -28,7 +26,7 @@ public abstract class CamelPropertyBase implements Property {
 
     @Override
     public Set<String> getLabels() {
-        Set<String> labels = getLabelsBag().get(getName());
+        Set<String> labels = findLabels();
         if (labels == null) {
             labels = Collections.emptySet();
         }
@@ -37,33 +35,49 @@ public abstract class CamelPropertyBase implements Property {
 
     @Override
     public Property addLabels(String... labels) {
-        if (!getLabelsBag().containsKey(getName())) {
-            getLabelsBag().put(getName(), new HashSet<String>());
+        Set<String> current = getOrCreateLabels();
+        for (String label : labels) {
+            current.add(label);
         }
-        getLabelsBag().get(getName()).addAll(Arrays.asList(labels));
         return this;
     }
     
     @Override
     public Property addLabels(Set<String> labels) {
-        if (!getLabelsBag().containsKey(getName())) {
-            getLabelsBag().put(getName(), new HashSet<String>());
-        }
-        getLabelsBag().get(getName()).addAll(labels);
+        getOrCreateLabels().addAll(labels);
         return this;
     }
 
     @Override
     public Property removeLabels(String... labels) {
-        if (getLabelsBag().containsKey(getName())) {
-            getLabelsBag().get(getName()).removeAll(Arrays.asList(labels));
+        Set<String> current = findLabels();
+        if (current != null) {
+            for (String label : labels) {
+                current.remove(label);
+            }
         }
         return this;
     }
 
     @Override
     public boolean hasLabel(String label) {
-        return getLabelsBag().containsKey(getName()) ? getLabelsBag().get(getName()).contains(label) : false;
+        Set<String> labels = findLabels();
+        return labels != null && labels.contains(label);
+    }
+
+    private Set<String> findLabels() {
+        Map<String, Set<String>> bag = findLabelsBag();
+        return bag == null ? null : bag.get(getName());
+    }
+
+    private Set<String> getOrCreateLabels() {
+        Map<String, Set<String>> bag = getLabelsBag();
+        Set<String> labels = bag.get(getName());
+        if (labels == null) {
+            labels = new LabelSet();
+            bag.put(getName(), labels);
+        }
+        return labels;
     }
 
     /**
@@ -73,6 +87,15 @@ public abstract class CamelPropertyBase implements Property {
      */
     protected abstract Map<String, Set<String>> getLabelsBag();
 
+    /**
+     * Retrieves bag with property labels without creating it when it doesn't exist yet.
+     * 
+     * @return Map to keep property labels or null.
+     */
+    protected Map<String, Set<String>> findLabelsBag() {
+        return getLabelsBag();
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
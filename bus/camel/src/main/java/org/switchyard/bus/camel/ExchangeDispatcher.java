@@ -14,13 +14,28 @@
 
 package org.switchyard.bus.camel;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.AsyncProcessor;
+import org.apache.camel.Endpoint;
+import org.apache.camel.Producer;
 import org.apache.camel.ProducerTemplate;
 import org.apache.camel.impl.DefaultExchange;
 import org.apache.camel.model.ModelCamelContext;
+import org.apache.camel.util.AsyncProcessorConverterHelper;
+import org.apache.camel.util.EventHelper;
+import org.apache.camel.util.ServiceHelper;
+import org.jboss.logging.Logger;
 import org.switchyard.Exchange;
 import org.switchyard.ExchangeHandler;
 import org.switchyard.ExchangePattern;
 import org.switchyard.ExchangePhase;
+import org.switchyard.HandlerException;
 import org.switchyard.ServiceReference;
 import org.switchyard.label.BehaviorLabel;
 import org.switchyard.metadata.qos.Throttling;
@@ -32,9 +47,14 @@ import org.switchyard.spi.Dispatcher;
  */
 public class ExchangeDispatcher implements Dispatcher {
 
+    private static final Logger LOG = Logger.getLogger(ExchangeDispatcher.class);
+
     private final ModelCamelContext _context;
     private ServiceReference _reference;
     private ProducerTemplate _producer;
+    private final String _endpointUri;
+    private volatile Target _target;
+    private volatile AsyncDispatch _async;
 
     /**
      * Create a new Dispatcher instance.
@@ -45,6 +65,8 @@ public class ExchangeDispatcher implements Dispatcher {
         _context = context;
         _reference = reference;
         _producer = context.createProducerTemplate();
+        _endpointUri = "direct:" + reference.getName();
+        _target = resolve();
     }
 
     @Override
@@ -84,8 +106,263 @@ public class ExchangeDispatcher implements Dispatcher {
                     Throttling.MAX_REQUESTS, throttling.getMaxRequests())
                     .addLabels(BehaviorLabel.TRANSIENT.label());
         }
-        _producer.send("direct:" + exchange.getConsumer().getName(), camelEx.getExchange());
-        
+        AsyncDispatch async = _async;
+        if (async != null) {
+            if (_reference.getName().equals(exchange.getConsumer().getName())) {
+                // resolve on caller thread, so that a missing route fails the send instead of the reply
+                target();
+            }
+            async.dispatch(camelEx.getExchange(), exchange.getConsumer().getName().toString());
+        } else if (_reference.getName().equals(exchange.getConsumer().getName())) {
+            send(camelEx.getExchange());
+        } else {
+            _producer.send("direct:" + exchange.getConsumer().getName(), camelEx.getExchange());
+        }
+    }
+
+    /**
+     * Switches this dispatcher to asynchronous mode. Exchanges are handed over
+     * to given executor and {@link #dispatch(Exchange)} returns immediately,
+     * replies are delivered to reply handler of exchange when route completes.
+     * Since handler chain runs on executor thread, transaction and other thread
+     * bound state of caller is not visible to it.
+     * 
+     * @param executor Executor running routes.
+     * @param maxInFlight Maximum number of exchanges being processed at once,
+     * zero or less means no limit.
+     * @param acquireTimeout Time in milliseconds caller waits for one of
+     * in-flight exchanges to complete when limit is reached.
+     */
+    public void setAsyncDispatch(ExecutorService executor, int maxInFlight, long acquireTimeout) {
+        _async = executor != null ? new AsyncDispatch(executor, maxInFlight, acquireTimeout) : null;
+    }
+
+    /**
+     * Checks if this dispatcher sends exchanges asynchronously.
+     * 
+     * @return True if exchanges are dispatched via executor.
+     */
+    public boolean isAsyncDispatch() {
+        return _async != null;
+    }
+
+    /**
+     * Returns executor used for asynchronous dispatch.
+     * 
+     * @return Executor or null if dispatcher works synchronously.
+     */
+    public ExecutorService getExecutor() {
+        AsyncDispatch async = _async;
+        return async != null ? async._executor : null;
+    }
+
+    /**
+     * Returns number of exchanges dispatched asynchronously which are still
+     * being processed.
+     * 
+     * @return Number of in-flight exchanges.
+     */
+    public int getInFlightCount() {
+        AsyncDispatch async = _async;
+        return async != null ? async._inFlight.get() : 0;
+    }
+
+    /**
+     * Drops endpoint and producer resolved by this dispatcher. They will be
+     * resolved again on next dispatch. Called when route serving this dispatcher
+     * is replaced or removed.
+     */
+    public void invalidate() {
+        Target target;
+        synchronized (this) {
+            target = _target;
+            _target = null;
+        }
+        if (target != null) {
+            try {
+                ServiceHelper.stopService(target._producer);
+            } catch (Exception e) {
+                LOG.debug("Failed to stop producer for " + _endpointUri, e);
+            }
+        }
+    }
+
+    // Direct endpoints are synchronous and in-VM, so the route is called on the
+    // caller thread without going through ProducerTemplate endpoint lookup and
+    // producer cache.
+    private void send(org.apache.camel.Exchange exchange) {
+        Target target = target();
+        exchange.setProperty(org.apache.camel.Exchange.TO_ENDPOINT, _endpointUri);
+        EventHelper.notifyExchangeSending(_context, exchange, target._endpoint);
+        long start = System.currentTimeMillis();
+        try {
+            target._producer.process(exchange);
+        } catch (Exception e) {
+            exchange.setException(e);
+        } finally {
+            EventHelper.notifyExchangeSent(_context, exchange, target._endpoint, System.currentTimeMillis() - start);
+        }
+    }
+
+    private Target target() {
+        Target target = _target;
+        return target != null ? target : resolveTarget();
+    }
+
+    private synchronized Target resolveTarget() {
+        if (_target == null) {
+            _target = resolve();
+        }
+        return _target;
+    }
+
+    private Target resolve() {
+        try {
+            Endpoint endpoint = _context.getEndpoint(_endpointUri);
+            Producer producer = endpoint.createProducer();
+            ServiceHelper.startService(producer);
+            return new Target(endpoint, producer);
+        } catch (Exception e) {
+            throw BusMessages.MESSAGES.failedToResolveEndpoint(_endpointUri, e);
+        }
+    }
+
+    /**
+     * Hands exchanges over to executor, limiting number of exchanges in flight.
+     */
+    private final class AsyncDispatch {
+        private final ExecutorService _executor;
+        private final Semaphore _permits;
+        private final int _maxInFlight;
+        private final long _acquireTimeout;
+        private final AtomicInteger _inFlight = new AtomicInteger();
+
+        AsyncDispatch(ExecutorService executor, int maxInFlight, long acquireTimeout) {
+            _executor = executor;
+            _maxInFlight = maxInFlight;
+            _permits = maxInFlight > 0 ? new Semaphore(maxInFlight) : null;
+            _acquireTimeout = acquireTimeout;
+        }
+
+        void dispatch(final org.apache.camel.Exchange exchange, final String consumer) {
+            acquire();
+            _inFlight.incrementAndGet();
+            try {
+                _executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (_reference.getName().toString().equals(consumer)) {
+                            process(exchange);
+                        } else {
+                            try {
+                                _producer.send("direct:" + consumer, exchange);
+                                replyOnFailure(exchange);
+                            } finally {
+                                release();
+                            }
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                release();
+                throw BusMessages.MESSAGES.asyncDispatchRejected(_endpointUri, e);
+            }
+        }
+
+        private void process(final org.apache.camel.Exchange exchange) {
+            final Target target;
+            try {
+                target = target();
+            } catch (RuntimeException e) {
+                try {
+                    exchange.setException(e);
+                    replyOnFailure(exchange);
+                } finally {
+                    release();
+                }
+                return;
+            }
+
+            exchange.setProperty(org.apache.camel.Exchange.TO_ENDPOINT, _endpointUri);
+            EventHelper.notifyExchangeSending(_context, exchange, target._endpoint);
+            final long start = System.currentTimeMillis();
+            AsyncCallback callback = new AsyncCallback() {
+                @Override
+                public void done(boolean doneSync) {
+                    try {
+                        EventHelper.notifyExchangeSent(_context, exchange, target._endpoint, System.currentTimeMillis() - start);
+                        replyOnFailure(exchange);
+                    } finally {
+                        release();
+                    }
+                }
+            };
+
+            AsyncProcessor processor = AsyncProcessorConverterHelper.convert(target._producer);
+            try {
+                processor.process(exchange, callback);
+            } catch (Throwable t) {
+                // async processors should not throw, but make sure permit is returned
+                exchange.setException(t);
+                callback.done(true);
+            }
+        }
+
+        // Nobody waits on the caller thread, so an exception the route did not turn
+        // into a fault has to be sent to the reply handler here.
+        private void replyOnFailure(org.apache.camel.Exchange exchange) {
+            Exception exception = exchange.getException();
+            if (exception == null || CamelExchange.isFault(exchange)) {
+                return;
+            }
+            CamelExchange syEx = new CamelExchange(exchange);
+            exchange.setException(null);
+            try {
+                syEx.sendFault(syEx.createMessage().setContent(new HandlerException(exception)));
+            } catch (Exception e) {
+                LOG.debug("Failed to turn exchange sent to " + _endpointUri + " into fault", e);
+            }
+            ExchangeHandler handler = syEx.getReplyHandler();
+            if (handler != null) {
+                handler.handleFault(syEx);
+            }
+        }
+
+        private void acquire() {
+            if (_permits == null) {
+                return;
+            }
+            boolean acquired;
+            try {
+                acquired = _permits.tryAcquire(_acquireTimeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+            if (!acquired) {
+                throw BusMessages.MESSAGES.asyncDispatchLimitReached(_endpointUri, _maxInFlight);
+            }
+        }
+
+        private void release() {
+            _inFlight.decrementAndGet();
+            if (_permits != null) {
+                _permits.release();
+            }
+        }
+    }
+
+    /**
+     * Resolved endpoint together with producer sending to it.
+     */
+    private static final class Target {
+        private final Endpoint _endpoint;
+        private final Producer _producer;
+
+        Target(Endpoint endpoint, Producer producer) {
+            _endpoint = endpoint;
+            _producer = producer;
+        }
     }
 
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.bus.camel;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.switchyard.label.BehaviorLabel;
+
+/**
+ * Compact set of property labels. Well known labels, such as
+ * {@link BehaviorLabel#TRANSIENT}, are kept as bits of single number, so in most
+ * cases set doesn't allocate anything except itself. Other labels are kept in
+ * a lazily created hash set.
+ */
+final class LabelSet extends AbstractSet<String> implements Serializable {
+
+    private static final long serialVersionUID = 4208143718960335405L;
+
+    private static final String[] WELL_KNOWN;
+
+    static {
+        BehaviorLabel[] labels = BehaviorLabel.values();
+        WELL_KNOWN = new String[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            WELL_KNOWN[i] = labels[i].label();
+        }
+    }
+
+    private int _bits;
+    private Set<String> _others;
+
+    @Override
+    public boolean add(String label) {
+        int index = indexOf(label);
+        if (index >= 0) {
+            int bits = _bits;
+            _bits |= 1 << index;
+            return bits != _bits;
+        }
+        if (_others == null) {
+            _others = new HashSet<String>(4);
+        }
+        return _others.add(label);
+    }
+
+    @Override
+    public boolean remove(Object label) {
+        int index = indexOf(label);
+        if (index >= 0) {
+            int bits = _bits;
+            _bits &= ~(1 << index);
+            return bits != _bits;
+        }
+        return _others != null && _others.remove(label);
+    }
+
+    @Override
+    public boolean contains(Object label) {
+        int index = indexOf(label);
+        if (index >= 0) {
+            return (_bits & (1 << index)) != 0;
+        }
+        return _others != null && _others.contains(label);
+    }
+
+    @Override
+    public int size() {
+        return Integer.bitCount(_bits) + (_others == null ? 0 : _others.size());
+    }
+
+    @Override
+    public void clear() {
+        _bits = 0;
+        _others = null;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int _index = nextBit(0);
+            private int _last = -1;
+            private final Iterator<String> _rest = _others == null ? null : _others.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return _index < WELL_KNOWN.length || (_rest != null && _rest.hasNext());
+            }
+
+            @Override
+            public String next() {
+                if (_index < WELL_KNOWN.length) {
+                    _last = _index;
+                    _index = nextBit(_index + 1);
+                    return WELL_KNOWN[_last];
+                }
+                if (_rest == null) {
+                    throw new NoSuchElementException();
+                }
+                _last = -1;
+                return _rest.next();
+            }
+
+            @Override
+            public void remove() {
+                if (_last >= 0) {
+                    _bits &= ~(1 << _last);
+                    _last = -1;
+                } else if (_rest != null) {
+                    _rest.remove();
+                } else {
+                    throw new IllegalStateException();
+                }
+            }
+        };
+    }
+
+    private int nextBit(int from) {
+        int index = from;
+        while (index < WELL_KNOWN.length && (_bits & (1 << index)) == 0) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int indexOf(Object label) {
+        for (int i = 0; i < WELL_KNOWN.length; i++) {
+            // labels are constants, so identity check covers most of calls
+            if (WELL_KNOWN[i] == label || WELL_KNOWN[i].equals(label)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -86,12 +86,27 @@ public class AuditInterceptStrategy implements InterceptStrategy {
      * False is returned when processor reference do not match any of @Auditor values.
      */
     private boolean matches(Auditor auditor, ProcessDefinition process) {
+        return matches(auditor, process.getRef());
+    }
+
+    /**
+     * Utility method used to verify if auditor instance matching a given processing step.
+     * 
+     * @param auditor Auditor to verify.
+     * @param step Processing step.
+     * @return True if given auditor have no annotation, annotation is empty or
+     * it contains given step.
+     */
+    public static boolean matches(Auditor auditor, Processors step) {
+        return matches(auditor, step.name());
+    }
+
+    private static boolean matches(Auditor auditor, String ref) {
         Audit annotation = auditor.getClass().getAnnotation(Audit.class);
         if (annotation == null || annotation.value().length == 0) {
             return true;
         }
 
-        String ref = process.getRef();
         for (Processors processor : annotation.value()) {
             if (processor.name().equals(ref)) {
                 return true;
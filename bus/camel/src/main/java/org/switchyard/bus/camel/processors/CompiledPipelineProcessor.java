@@ -0,0 +1,166 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.bus.camel.processors;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.switchyard.ExchangePattern;
+import org.switchyard.bus.camel.BusLogger;
+import org.switchyard.bus.camel.BusMessages;
+import org.switchyard.bus.camel.CamelExchange;
+import org.switchyard.bus.camel.audit.AuditInterceptStrategy;
+import org.switchyard.bus.camel.audit.Auditor;
+import org.switchyard.bus.camel.audit.CompositeAuditor;
+import org.switchyard.common.camel.SwitchYardCamelContext;
+
+/**
+ * Processor which runs one block of SwitchYard mediation, its try, catch or
+ * finally steps, as single step. Processing steps are resolved once, when
+ * processor is created, and executed against one SwitchYard view of the camel
+ * exchange.
+ * 
+ * The route built by {@link org.switchyard.bus.camel.CamelExchangeBusRouteBuilder}
+ * keeps its doTry/doCatch/doFinally structure around these blocks, so throttling
+ * and error handling are the same as for the regular route. Each processor calls
+ * auditors and applies the rule that exceptions thrown while exchange is already
+ * in FAULT state are logged and ignored for every step it runs. Intercept
+ * strategies registered in camel context however wrap each block as a whole,
+ * not the steps within it.
+ */
+public class CompiledPipelineProcessor implements Processor {
+
+    private static final Step[] NO_STEPS = new Step[0];
+
+    private final Step[] _steps;
+    private final Step[] _inOutSteps;
+
+    /**
+     * Creates new processor.
+     * 
+     * @param context Camel context used to resolve processors and auditors.
+     * @param steps Steps of the block.
+     */
+    public CompiledPipelineProcessor(SwitchYardCamelContext context, Processors[] steps) {
+        this(context, steps, null);
+    }
+
+    /**
+     * Creates new processor.
+     * 
+     * @param context Camel context used to resolve processors and auditors.
+     * @param steps Steps of the block.
+     * @param inOutSteps Steps executed after them for IN_OUT exchanges.
+     */
+    public CompiledPipelineProcessor(SwitchYardCamelContext context, Processors[] steps, Processors[] inOutSteps) {
+        Map<String, Auditor> auditors = context.getRegistry().lookupByType(Auditor.class);
+        _steps = resolve(context, auditors, steps);
+        _inOutSteps = inOutSteps != null ? resolve(context, auditors, inOutSteps) : NO_STEPS;
+    }
+
+    @Override
+    public void process(Exchange ex) throws Exception {
+        CamelExchange exchange = new CamelExchange(ex);
+        invoke(_steps, exchange);
+        if (_inOutSteps.length > 0
+            && exchange.getContract().getConsumerOperation().getExchangePattern() == ExchangePattern.IN_OUT) {
+            invoke(_inOutSteps, exchange);
+        }
+    }
+
+    private void invoke(Step[] steps, CamelExchange exchange) throws Exception {
+        for (Step step : steps) {
+            step.process(exchange);
+        }
+    }
+
+    private Step[] resolve(SwitchYardCamelContext context, Map<String, Auditor> auditors, Processors[] types) {
+        Step[] steps = new Step[types.length];
+        for (int i = 0; i < types.length; i++) {
+            Object processor = context.getWritebleRegistry().get(types[i].name());
+            if (!(processor instanceof Processor)) {
+                throw BusMessages.MESSAGES.processorNotRegistered(types[i].name());
+            }
+
+            List<Auditor> matching = new ArrayList<Auditor>();
+            if (auditors != null) {
+                for (Auditor auditor : auditors.values()) {
+                    if (AuditInterceptStrategy.matches(auditor, types[i])) {
+                        matching.add(auditor);
+                    }
+                }
+            }
+            steps[i] = new Step(types[i], (Processor) processor, matching.isEmpty() ? null : new CompositeAuditor(matching));
+        }
+        return steps;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CompiledPipelineProcessor [steps=%s, inOut=%s]",
+            Arrays.toString(_steps), Arrays.toString(_inOutSteps));
+    }
+
+    /**
+     * Single, resolved processing step.
+     */
+    private static final class Step {
+        private final Processors _type;
+        private final Processor _processor;
+        private final Auditor _auditor;
+
+        Step(Processors type, Processor processor, Auditor auditor) {
+            _type = type;
+            _processor = processor;
+            _auditor = auditor;
+        }
+
+        void process(CamelExchange exchange) throws Exception {
+            Exchange ex = exchange.getExchange();
+            if (_auditor != null) {
+                _auditor.beforeCall(_type, ex);
+            }
+
+            try {
+                if (_processor instanceof CamelExchangeProcessor) {
+                    ((CamelExchangeProcessor) _processor).process(exchange);
+                } else {
+                    _processor.process(ex);
+                }
+            } catch (Exception e) {
+                if (!CamelExchange.isFault(ex)) {
+                    throw e;
+                }
+                // exception thrown during handling FAULT state cannot be forwarded
+                // anywhere, because we already have problem to handle
+                BusLogger.ROOT_LOGGER.exceptionDuringFaultResponse(e);
+                return;
+            }
+
+            if (_auditor != null) {
+                _auditor.afterCall(_type, ex);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return _type.name();
+        }
+    }
+
+}
@@ -14,7 +14,6 @@
 package org.switchyard.bus.camel.processors;
 
 import org.apache.camel.Exchange;
-import org.apache.camel.Processor;
 import org.switchyard.ExchangeHandler;
 import org.switchyard.ExchangePattern;
 import org.switchyard.ExchangeState;
@@ -23,12 +22,15 @@ import org.switchyard.bus.camel.CamelExchange;
 /**
  * Processor used to call reply chain.
  */
-public class ConsumerCallbackProcessor implements Processor {
+public class ConsumerCallbackProcessor implements CamelExchangeProcessor {
 
     @Override
     public void process(Exchange ex) throws Exception {
-        org.switchyard.Exchange syEx = new CamelExchange(ex);
+        process(new CamelExchange(ex));
+    }
 
+    @Override
+    public void process(CamelExchange syEx) throws Exception {
         if (syEx.getState() == ExchangeState.FAULT) {
             ExchangeHandler handler = syEx.getReplyHandler();
             if (handler != null) {
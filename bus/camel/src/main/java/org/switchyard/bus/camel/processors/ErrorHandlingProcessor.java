@@ -18,7 +18,6 @@ import java.util.Map.Entry;
 
 import org.apache.camel.CamelContext;
 import org.apache.camel.Exchange;
-import org.apache.camel.Processor;
 import org.apache.camel.util.ExchangeHelper;
 import org.jboss.logging.Logger;
 import org.switchyard.ErrorListener;
@@ -32,7 +31,7 @@ import org.switchyard.bus.camel.CamelExchange;
  * Processor put at the beginning of OnExceptionDefinition which turns state of
  * SwitchYard exchange into FAULT.
  */
-public class ErrorHandlingProcessor implements Processor {
+public class ErrorHandlingProcessor implements CamelExchangeProcessor {
 
     /**
      * Logger.
@@ -41,7 +40,12 @@ public class ErrorHandlingProcessor implements Processor {
 
     @Override
     public void process(Exchange exchange) throws Exception {
-        CamelExchange ex = new CamelExchange(exchange);
+        process(new CamelExchange(exchange));
+    }
+
+    @Override
+    public void process(CamelExchange ex) throws Exception {
+        Exchange exchange = ex.getExchange();
         if (ex.getState() != ExchangeState.FAULT) {
             Exception exception = exchange.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class);
             notifyListeners(exchange.getContext(), ex, exception);
@@ -17,7 +17,6 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.apache.camel.Exchange;
-import org.apache.camel.Processor;
 import org.switchyard.ExchangeHandler;
 import org.switchyard.ExchangeState;
 import org.switchyard.bus.camel.CamelExchange;
@@ -25,7 +24,7 @@ import org.switchyard.bus.camel.CamelExchange;
 /**
  * Processor wrapping SwitchYard {@link ExchangeHandler} invocation.
  */
-public class HandlerProcessor implements Processor {
+public class HandlerProcessor implements CamelExchangeProcessor {
 
     /**
      * Wrapped handlers.
@@ -52,8 +51,11 @@ public class HandlerProcessor implements Processor {
 
     @Override
     public void process(Exchange ex) throws Exception {
-        org.switchyard.Exchange exchange = new CamelExchange(ex);
+        process(new CamelExchange(ex));
+    }
 
+    @Override
+    public void process(CamelExchange exchange) throws Exception {
         for (ExchangeHandler handler : _handlers) {
             if (exchange.getState() == ExchangeState.FAULT) {
                 handler.handleFault(exchange);
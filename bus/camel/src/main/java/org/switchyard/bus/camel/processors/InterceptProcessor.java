@@ -13,11 +13,7 @@
  */
 package org.switchyard.bus.camel.processors;
 
-import java.util.List;
-import java.util.Map;
-
 import org.apache.camel.Exchange;
-import org.apache.camel.Processor;
 import org.jboss.logging.Logger;
 import org.switchyard.ExchangeInterceptor;
 import org.switchyard.ExchangeState;
@@ -32,7 +28,7 @@ import org.switchyard.handlers.MessageTraceHandler;
  * target.  The provider and consumer targets happen to correspond to message trace points 
  * as well, so we have a big old hack here to invoke that handler directly.
  */
-public class InterceptProcessor implements Processor {
+public class InterceptProcessor implements CamelExchangeProcessor {
     
     private static final String INTERCEPT_PREFIX = "org.switchyard.bus.camel.intercept.";
     private static final String BEFORE = "before";
@@ -42,6 +38,7 @@ public class InterceptProcessor implements Processor {
     private String _property;
     private ServiceDomain _domain;
     private MessageTraceHandler _trace;
+    private InterceptorCache _interceptors;
     private static Logger _log = Logger.getLogger(InterceptProcessor.class);
     
     /**
@@ -54,12 +51,29 @@ public class InterceptProcessor implements Processor {
         _target = target;
         _property = INTERCEPT_PREFIX + _target;
         _trace = new MessageTraceHandler();
+        _interceptors = new InterceptorCache(target);
+        if (domain != null) {
+            _interceptors.observe(domain);
+        }
+    }
+
+    /**
+     * Gets cache of interceptors used by this processor.
+     * @return interceptor cache
+     */
+    public InterceptorCache getInterceptorCache() {
+        return _interceptors;
     }
 
     @Override
     public void process(Exchange ex) throws Exception {
-        traceMessage(ex);
-        fireInterceptors(ex);
+        process(new CamelExchange(ex));
+    }
+
+    @Override
+    public void process(CamelExchange syEx) throws Exception {
+        traceMessage(syEx);
+        fireInterceptors(syEx);
     }
 
     @Override
@@ -67,14 +81,13 @@ public class InterceptProcessor implements Processor {
         return "InterceptProcessor@" + System.identityHashCode(this);
     }
     
-    private void traceMessage(Exchange exchange) {
+    private void traceMessage(CamelExchange syEx) {
         // bail if tracing is not enabled
-        if (!traceEnabled(exchange)) {
+        if (!traceEnabled(syEx.getExchange())) {
             return;
         }
         
         try {
-            CamelExchange syEx = new CamelExchange(exchange);
             if (ExchangeState.FAULT.equals(syEx.getState())) {
                 _trace.handleFault(syEx);
             } else {
@@ -87,23 +100,16 @@ public class InterceptProcessor implements Processor {
         }
     }
     
-    private void fireInterceptors(Exchange ex) throws HandlerException {
-        Map<String, ExchangeInterceptor> interceptors = 
-                ex.getContext().getRegistry().lookupByType(ExchangeInterceptor.class);
-        
-        if (interceptors != null && interceptors.size() > 0) {
-            CamelExchange syEx = new CamelExchange(ex);
+    private void fireInterceptors(CamelExchange syEx) throws HandlerException {
+        Exchange ex = syEx.getExchange();
+        ExchangeInterceptor[] interceptors = _interceptors.getInterceptors(ex.getContext());
+        if (interceptors != null) {
             try {
                 // Seed these values up front so that interceptors don't mess with them
                 boolean callBefore = isBefore(ex);
                 boolean callAfter = isAfter(ex);
                 
-                for (ExchangeInterceptor interceptor : interceptors.values()) {
-                    // Is the interceptor targeting this processor?
-                    if (!matchesTarget(interceptor)) {
-                        continue;
-                    }
-                    
+                for (ExchangeInterceptor interceptor : interceptors) {
                     if (callBefore) {
                         interceptor.before(_target, syEx);
                     } else if (callAfter) {
@@ -177,9 +183,4 @@ public class InterceptProcessor implements Processor {
     private boolean isAfter(Exchange ex) {
         return BEFORE.equals(ex.getProperty(_property));
     }
-    
-    private boolean matchesTarget(ExchangeInterceptor interceptor) {
-        List<String> targets = interceptor.getTargets();
-        return targets != null && targets.contains(_target);
-    }
 }
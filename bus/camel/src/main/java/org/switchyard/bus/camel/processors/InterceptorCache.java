@@ -0,0 +1,180 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.bus.camel.processors;
+
+import java.util.ArrayList;
+import java.util.EventObject;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.camel.CamelContext;
+import org.switchyard.ExchangeInterceptor;
+import org.switchyard.ServiceDomain;
+import org.switchyard.common.camel.SwitchYardCamelContext;
+import org.switchyard.common.camel.VersionedRegistry;
+import org.switchyard.common.util.StripedCounter;
+import org.switchyard.event.EventObserver;
+import org.switchyard.event.ReferenceRegistrationEvent;
+import org.switchyard.event.ReferenceUnregistrationEvent;
+import org.switchyard.event.ServiceRegistrationEvent;
+import org.switchyard.event.ServiceUnregistrationEvent;
+
+/**
+ * Caches exchange interceptors registered in camel context which are targeting
+ * given interception point. Lookup in camel registry is repeated only when
+ * content of writable registry changes or cache is invalidated, either explicitly
+ * or by the registration events of an observed domain.
+ * 
+ * Interceptors may also come from CDI or JNDI, which can't report changes. They
+ * appear and go away as applications are deployed and undeployed, which register
+ * and unregister services and references, so a cache observing the domain sees them.
+ * 
+ * Contexts which don't use {@link VersionedRegistry} can't report changes, so
+ * for them every call results in a registry lookup.
+ */
+public class InterceptorCache implements EventObserver {
+
+    private static final ExchangeInterceptor[] NO_INTERCEPTORS = new ExchangeInterceptor[0];
+
+    private final String _target;
+    // bumped on invalidation, so a lookup racing with it cannot publish what it found
+    private final AtomicLong _generation = new AtomicLong();
+    private final StripedCounter _hits = new StripedCounter();
+    private final StripedCounter _misses = new StripedCounter();
+    private volatile Entry _entry;
+
+    /**
+     * Creates new cache.
+     * 
+     * @param target Interception target.
+     */
+    public InterceptorCache(String target) {
+        _target = target;
+    }
+
+    /**
+     * Returns interceptors targeting interception point of this cache.
+     * 
+     * @param context Camel context where interceptors are registered.
+     * @return Interceptors matching target or null if there are no interceptors
+     * registered in camel context at all.
+     */
+    public ExchangeInterceptor[] getInterceptors(CamelContext context) {
+        return getEntry(context)._interceptors;
+    }
+
+    /**
+     * Drops cached interceptors, so next call will look into registry again.
+     */
+    public void invalidate() {
+        _generation.incrementAndGet();
+        _entry = null;
+    }
+
+    /**
+     * Invalidates this cache whenever services or references are registered or
+     * unregistered in a domain.
+     * 
+     * @param domain Domain to observe.
+     * @return This cache.
+     */
+    public InterceptorCache observe(ServiceDomain domain) {
+        domain.addEventObserver(this, ServiceRegistrationEvent.class)
+            .addEventObserver(this, ServiceUnregistrationEvent.class)
+            .addEventObserver(this, ReferenceRegistrationEvent.class)
+            .addEventObserver(this, ReferenceUnregistrationEvent.class);
+        return this;
+    }
+
+    @Override
+    public void notify(EventObject event) {
+        invalidate();
+    }
+
+    /**
+     * Number of lookups served from cache.
+     * 
+     * @return Cache hits.
+     */
+    public long getHits() {
+        return _hits.sum();
+    }
+
+    /**
+     * Number of lookups which required query of camel registry.
+     * 
+     * @return Cache misses.
+     */
+    public long getMisses() {
+        return _misses.sum();
+    }
+
+    private Entry getEntry(CamelContext context) {
+        VersionedRegistry registry = getVersionedRegistry(context);
+        long generation = _generation.get();
+        Entry entry = _entry;
+        if (entry != null && registry != null && entry._generation == generation
+            && entry._context == context && entry._version == registry.getVersion()) {
+            _hits.increment();
+            return entry;
+        }
+
+        _misses.increment();
+        // read version before lookup, concurrent modification will invalidate entry again
+        long version = registry != null ? registry.getVersion() : -1;
+        entry = new Entry(context, generation, version, context.getRegistry().lookupByType(ExchangeInterceptor.class));
+        if (_generation.get() == generation) {
+            _entry = entry;
+        }
+        return entry;
+    }
+
+    private VersionedRegistry getVersionedRegistry(CamelContext context) {
+        if (context instanceof SwitchYardCamelContext) {
+            Object registry = ((SwitchYardCamelContext) context).getWritebleRegistry();
+            if (registry instanceof VersionedRegistry) {
+                return (VersionedRegistry) registry;
+            }
+        }
+        return null;
+    }
+
+    private final class Entry {
+        private final CamelContext _context;
+        private final long _generation;
+        private final long _version;
+        private final ExchangeInterceptor[] _interceptors;
+
+        Entry(CamelContext context, long generation, long version, Map<String, ExchangeInterceptor> interceptors) {
+            _context = context;
+            _generation = generation;
+            _version = version;
+            if (interceptors == null || interceptors.isEmpty()) {
+                _interceptors = null;
+                return;
+            }
+
+            List<ExchangeInterceptor> matching = new ArrayList<ExchangeInterceptor>();
+            for (ExchangeInterceptor interceptor : interceptors.values()) {
+                List<String> targets = interceptor.getTargets();
+                if (targets != null && targets.contains(_target)) {
+                    matching.add(interceptor);
+                }
+            }
+            _interceptors = matching.isEmpty() ? NO_INTERCEPTORS : matching.toArray(new ExchangeInterceptor[matching.size()]);
+        }
+    }
+
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.switchyard.bus.camel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.namespace.QName;
+
+import org.apache.camel.spi.ThreadPoolProfile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.switchyard.BaseHandler;
+import org.switchyard.Exchange;
+import org.switchyard.ExchangePattern;
+import org.switchyard.HandlerException;
+import org.switchyard.MockDomain;
+import org.switchyard.MockHandler;
+import org.switchyard.Service;
+import org.switchyard.ServiceReference;
+import org.switchyard.SwitchYardException;
+import org.switchyard.common.camel.SwitchYardCamelContextImpl;
+import org.switchyard.internal.ServiceReferenceImpl;
+import org.switchyard.metadata.InOnlyService;
+import org.switchyard.metadata.InOutService;
+import org.switchyard.metadata.ServiceInterface;
+
+/**
+ * Verifies asynchronous dispatch mode of Camel exchange bus.
+ */
+public class AsyncDispatchTest {
+
+    private MockDomain _domain;
+    private CamelExchangeBus _provider;
+    private SwitchYardCamelContextImpl _camelContext;
+
+    @Before
+    public void setUp() throws Exception {
+        _domain = new MockDomain();
+        _domain.setProperty(CamelExchangeBus.ASYNC_DISPATCH, "true");
+        _camelContext = new SwitchYardCamelContextImpl();
+        _camelContext.setServiceDomain(_domain);
+        _provider = new CamelExchangeBus(_camelContext);
+        _provider.init(_domain);
+        _camelContext.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        _camelContext.stop();
+    }
+
+    @Test
+    public void testReplyDeliveredAfterDispatchReturns() throws Exception {
+        QName name = new QName("testReplyDeliveredAfterDispatchReturns");
+        BlockingHandler provider = new BlockingHandler(true);
+        Service service = new MockService(name, new InOutService(), provider);
+        ServiceReference reference = new ServiceReferenceImpl(name, new InOutService(), null, null);
+        ExchangeDispatcher dispatch = _provider.createDispatcher(reference);
+        assertTrue(dispatch.isAsyncDispatch());
+
+        MockHandler consumer = new MockHandler();
+        send(dispatch, service, reference, consumer, ExchangePattern.IN_OUT);
+
+        // caller is not blocked by provider
+        assertTrue(provider._entered.await(5, TimeUnit.SECONDS));
+        assertEquals(0, consumer.getMessages().size());
+        assertEquals(1, dispatch.getInFlightCount());
+        assertFalse(Thread.currentThread().getName().equals(provider._thread));
+
+        provider._release.countDown();
+        consumer.waitForOKMessage();
+        assertEquals(1, consumer.getMessages().size());
+        waitForCompletion(dispatch);
+    }
+
+    @Test
+    public void testInFlightLimit() throws Exception {
+        _provider.setMaxInFlight(1);
+        _provider.setAcquireTimeout(100);
+
+        QName name = new QName("testInFlightLimit");
+        BlockingHandler provider = new BlockingHandler(false);
+        Service service = new MockService(name, new InOnlyService(), provider);
+        ServiceReference reference = new ServiceReferenceImpl(name, new InOnlyService(), null, null);
+        ExchangeDispatcher dispatch = _provider.createDispatcher(reference);
+
+        send(dispatch, service, reference, new MockHandler(), ExchangePattern.IN_ONLY);
+        assertTrue(provider._entered.await(5, TimeUnit.SECONDS));
+        try {
+            send(dispatch, service, reference, new MockHandler(), ExchangePattern.IN_ONLY);
+            fail("Second exchange should be rejected while first one is in flight");
+        } catch (SwitchYardException e) {
+            assertTrue(e.getMessage().contains("SWITCHYARD010819"));
+        }
+
+        provider._release.countDown();
+        waitForCompletion(dispatch);
+        // permit is returned, so next exchange goes through
+        send(dispatch, service, reference, new MockHandler(), ExchangePattern.IN_ONLY);
+        waitForCompletion(dispatch);
+    }
+
+    @Test
+    public void testServiceThreadPoolProfile() throws Exception {
+        QName name = new QName("urn:test", "testServiceThreadPoolProfile");
+        ThreadPoolProfile profile = new ThreadPoolProfile(name.toString());
+        profile.setPoolSize(1);
+        profile.setMaxPoolSize(1);
+        _camelContext.getExecutorServiceManager().registerThreadPoolProfile(profile);
+
+        ServiceReference reference = new ServiceReferenceImpl(name, new InOnlyService(), null, null);
+        ExchangeDispatcher dispatch = _provider.createDispatcher(reference);
+
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) dispatch.getExecutor();
+        assertEquals(1, executor.getMaximumPoolSize());
+    }
+
+    @Test
+    public void testExecutorShutdownOnRouteReplace() throws Exception {
+        QName name = new QName("testExecutorShutdownOnRouteReplace");
+        ServiceReference reference = new ServiceReferenceImpl(name, new InOnlyService(), null, null);
+        ExchangeDispatcher first = _provider.createDispatcher(reference);
+        ExchangeDispatcher second = _provider.createDispatcher(reference);
+
+        assertTrue(first.getExecutor().isShutdown());
+        assertFalse(second.getExecutor().isShutdown());
+    }
+
+    private void send(ExchangeDispatcher dispatch, Service service, ServiceReference reference,
+            MockHandler consumer, ExchangePattern pattern) {
+        Exchange exchange = dispatch.createExchange(consumer, pattern);
+        exchange.consumer(reference, reference.getInterface().getOperation(ServiceInterface.DEFAULT_OPERATION));
+        exchange.provider(service, service.getInterface().getOperation(ServiceInterface.DEFAULT_OPERATION));
+        exchange.send(exchange.createMessage().setContent("request"));
+    }
+
+    private void waitForCompletion(ExchangeDispatcher dispatch) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dispatch.getInFlightCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, dispatch.getInFlightCount());
+    }
+
+    /**
+     * Provider handler which waits until test lets it go.
+     */
+    private static class BlockingHandler extends BaseHandler {
+        private final CountDownLatch _entered = new CountDownLatch(1);
+        private final CountDownLatch _release = new CountDownLatch(1);
+        private final boolean _reply;
+        private volatile String _thread;
+
+        BlockingHandler(boolean reply) {
+            _reply = reply;
+        }
+
+        @Override
+        public void handleMessage(Exchange exchange) throws HandlerException {
+            _thread = Thread.currentThread().getName();
+            _entered.countDown();
+            try {
+                _release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new HandlerException(e);
+            }
+            if (_reply) {
+                exchange.send(exchange.createMessage().setContent("reply"));
+            }
+        }
+    }
+
+}
@@ -1,5 +1,9 @@
 package org.switchyard.bus.camel;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
 import javax.xml.namespace.QName;
 
 import junit.framework.Assert;
@@ -10,7 +14,9 @@ import org.junit.Test;
 import org.switchyard.Context;
 import org.switchyard.Exchange;
 import org.switchyard.ExchangePattern;
+import org.switchyard.Message;
 import org.switchyard.MockDomain;
+import org.switchyard.Property;
 import org.switchyard.Scope;
 import org.switchyard.ServiceReference;
 import org.switchyard.common.camel.SwitchYardCamelContextImpl;
@@ -60,4 +66,50 @@ public class CamelCompositeContextTest {
         Assert.assertNotNull(ctx2.getProperty("message-prop", Scope.MESSAGE));
         Assert.assertNull(ctx2.getProperty("exchange-prop", Scope.EXCHANGE));
     }
+
+    @Test
+    public void testViewsAreReused() throws Exception {
+        ServiceReference inOnly = new ServiceReferenceImpl(
+            new QName("views"), new InOnlyService(), _domain, null);
+        ExchangeDispatcher dispatch = _provider.createDispatcher(inOnly);
+
+        Exchange ex = dispatch.createExchange(null, ExchangePattern.IN_ONLY);
+        Context ctx = ex.getContext();
+        Assert.assertSame(ctx, ex.getContext());
+        Assert.assertSame(ctx, ex.getMessage().getContext());
+
+        Property property = ctx.setProperty("message-prop", "message-val");
+        Assert.assertSame(property, ctx.getProperty("message-prop"));
+        Assert.assertSame(property, ctx.getProperty("message-prop", Scope.MESSAGE));
+
+        // new message gets its own view
+        Message message = ex.createMessage();
+        Assert.assertNotSame(ctx, message.getContext());
+        Assert.assertNull(message.getContext().getProperty("message-prop", Scope.MESSAGE));
+    }
+
+    @Test
+    public void testLabels() throws Exception {
+        ServiceReference inOnly = new ServiceReferenceImpl(
+            new QName("labels"), new InOnlyService(), _domain, null);
+        ExchangeDispatcher dispatch = _provider.createDispatcher(inOnly);
+
+        Exchange ex = dispatch.createExchange(null, ExchangePattern.IN_ONLY);
+        Property property = ex.getContext().setProperty("prop", "val", Scope.EXCHANGE);
+        Assert.assertTrue(property.getLabels().isEmpty());
+        Assert.assertFalse(property.hasLabel(BehaviorLabel.TRANSIENT.label()));
+
+        property.addLabels(BehaviorLabel.TRANSIENT.label(), "custom");
+        Assert.assertTrue(property.hasLabel(BehaviorLabel.TRANSIENT.label()));
+        Assert.assertTrue(property.hasLabel("custom"));
+        Assert.assertEquals(new HashSet<String>(Arrays.asList(BehaviorLabel.TRANSIENT.label(), "custom")), property.getLabels());
+
+        property.removeLabels(BehaviorLabel.TRANSIENT.label());
+        Assert.assertFalse(property.hasLabel(BehaviorLabel.TRANSIENT.label()));
+        Assert.assertEquals(Collections.singleton("custom"), property.getLabels());
+
+        // labels are visible through any view of the same property
+        Assert.assertTrue(ex.getContext().getProperty("prop", Scope.EXCHANGE).hasLabel("custom"));
+    }
+
 }
@@ -18,6 +18,9 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.xml.namespace.QName;
@@ -41,10 +44,12 @@ import org.switchyard.HandlerException;
 import org.switchyard.MockDomain;
 import org.switchyard.MockHandler;
 import org.switchyard.ServiceReference;
+import org.switchyard.bus.camel.audit.Auditor;
 import org.switchyard.bus.camel.handler.ErrorInterceptor;
 import org.switchyard.bus.camel.handler.RuntimeErrorInHandler;
 import org.switchyard.bus.camel.handler.RuntimeErrorInterceptor;
 import org.switchyard.bus.camel.handler.TypeInterceptor;
+import org.switchyard.bus.camel.processors.Processors;
 import org.switchyard.common.camel.SwitchYardCamelContext;
 import org.switchyard.common.camel.SwitchYardCamelContextImpl;
 import org.switchyard.internal.ServiceReferenceImpl;
@@ -68,9 +73,19 @@ public class CamelExchangeBusTest {
         _camelContext.setServiceDomain(_domain);
         _provider = new CamelExchangeBus(_camelContext);
         _provider.init(_domain);
+        _provider.setCompiledPipeline(isCompiledPipeline());
         _camelContext.start();
     }
 
+    /**
+     * Allows subclasses to run the same scenarios against precompiled pipeline.
+     * 
+     * @return True if bus should use precompiled pipeline.
+     */
+    protected boolean isCompiledPipeline() {
+        return false;
+    }
+
     @After
     public void tearDown() throws Exception {
         _camelContext.stop();
@@ -270,6 +285,28 @@ public class CamelExchangeBusTest {
         Assert.assertEquals(outType, types.getOutType());
     }
 
+    @Test
+    public void testAuditedStepOrder() {
+        final List<Processors> steps = new ArrayList<Processors>();
+        _camelContext.getWritebleRegistry().put("auditor", new Auditor() {
+            @Override
+            public void beforeCall(Processors processor, org.apache.camel.Exchange exchange) {
+                steps.add(processor);
+            }
+            @Override
+            public void afterCall(Processors processor, org.apache.camel.Exchange exchange) {
+            }
+        });
+        ServiceReference ref = registerInOutService("inOut");
+        sendMessage(ref, TEST_CONTENT);
+
+        List<Processors> expected = new ArrayList<Processors>();
+        expected.addAll(Arrays.asList(CamelExchangeBusRouteBuilder.TRY_STEPS));
+        expected.addAll(Arrays.asList(CamelExchangeBusRouteBuilder.IN_OUT_STEPS));
+        expected.addAll(Arrays.asList(CamelExchangeBusRouteBuilder.FINALLY_STEPS));
+        assertEquals(expected, steps);
+    }
+
     @Test @Ignore
     public void testCustomErrorHandler() throws InterruptedException {
         final AtomicBoolean fired = new AtomicBoolean();
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.switchyard.bus.camel;
+
+import static org.junit.Assert.assertEquals;
+
+import javax.xml.namespace.QName;
+
+import org.junit.Test;
+import org.switchyard.BaseHandler;
+import org.switchyard.Exchange;
+import org.switchyard.ExchangeState;
+import org.switchyard.HandlerException;
+import org.switchyard.MockDomain;
+import org.switchyard.common.camel.SwitchYardCamelContextImpl;
+import org.switchyard.internal.ServiceReferenceImpl;
+import org.switchyard.metadata.InOutService;
+
+/**
+ * Checks that a regular Camel route and the precompiled pipeline deliver the
+ * same replies, and compares their speed.
+ */
+public class CompiledPipelineBenchmarkTest {
+
+    @Test
+    public void compareRouteWithCompiledPipeline() throws Exception {
+        boolean debug = false; // toggle this is you're interested in performance
+        int iterations = debug ? 20000 : 20;
+        long route = run(false, iterations);
+        long compiled = run(true, iterations);
+        if (debug) {
+            System.out.println(String.format("%d exchanges: route %d ms, compiled pipeline %d ms",
+                iterations, route / 1000000, compiled / 1000000));
+        }
+    }
+
+    private long run(boolean compiledPipeline, int iterations) throws Exception {
+        MockDomain domain = new MockDomain();
+        SwitchYardCamelContextImpl camelContext = new SwitchYardCamelContextImpl();
+        camelContext.setServiceDomain(domain);
+        CamelExchangeBus bus = new CamelExchangeBus(camelContext);
+        bus.init(domain);
+        bus.setCompiledPipeline(compiledPipeline);
+        camelContext.start();
+
+        try {
+            QName name = new QName("benchmark");
+            ServiceReferenceImpl reference = new ServiceReferenceImpl(name, new InOutService(), domain, null);
+            domain.registerService(name, new InOutService(), new EchoHandler());
+            reference.setDispatcher(bus.createDispatcher(reference));
+
+            // warm up
+            for (int i = 0; i < iterations / 10; i++) {
+                send(reference, i);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                send(reference, i);
+            }
+            return System.nanoTime() - start;
+        } finally {
+            camelContext.stop();
+        }
+    }
+
+    private void send(ServiceReferenceImpl reference, int i) {
+        Exchange exchange = reference.createExchange(new BaseHandler());
+        exchange.send(exchange.createMessage().setContent("benchmark" + i));
+        assertEquals(ExchangeState.OK, exchange.getState());
+        assertEquals("benchmark" + i, exchange.getMessage().getContent());
+    }
+
+    private static class EchoHandler extends BaseHandler {
+        @Override
+        public void handleMessage(Exchange exchange) throws HandlerException {
+            exchange.send(exchange.createMessage().setContent(exchange.getMessage().getContent()));
+        }
+    }
+
+}
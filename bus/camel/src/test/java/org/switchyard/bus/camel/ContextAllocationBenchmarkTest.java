@@ -0,0 +1,97 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.switchyard.bus.camel;
+
+import javax.xml.namespace.QName;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.switchyard.AllocationCounter;
+import org.switchyard.Context;
+import org.switchyard.Exchange;
+import org.switchyard.ExchangePattern;
+import org.switchyard.MockDomain;
+import org.switchyard.common.camel.SwitchYardCamelContextImpl;
+import org.switchyard.internal.ServiceReferenceImpl;
+import org.switchyard.label.BehaviorLabel;
+import org.switchyard.metadata.InOnlyService;
+
+/**
+ * Checks the context operations executed by bus handlers on every hop, and
+ * measures the heap they allocate.
+ */
+public class ContextAllocationBenchmarkTest {
+
+    private SwitchYardCamelContextImpl _camelContext;
+    private ExchangeDispatcher _dispatcher;
+
+    @Before
+    public void setUp() throws Exception {
+        MockDomain domain = new MockDomain();
+        _camelContext = new SwitchYardCamelContextImpl();
+        _camelContext.setServiceDomain(domain);
+        CamelExchangeBus bus = new CamelExchangeBus(_camelContext);
+        bus.init(domain);
+        _camelContext.start();
+        _dispatcher = bus.createDispatcher(new ServiceReferenceImpl(
+            new QName("allocation"), new InOnlyService(), domain, null));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        _camelContext.stop();
+    }
+
+    @Test
+    public void contextAccess() throws Exception {
+        Exchange exchange = _dispatcher.createExchange(null, ExchangePattern.IN_ONLY);
+        exchange.getContext().setProperty(Exchange.MESSAGE_ID, "id");
+        exchange.getContext().setProperty("transient", Boolean.TRUE)
+            .addLabels(BehaviorLabel.TRANSIENT.label());
+
+        boolean debug = false; // toggle this is you're interested in performance
+        int iterations = debug ? 200000 : 10;
+
+        // warm up
+        run(exchange, iterations);
+
+        long bytes = AllocationCounter.allocatedBytes();
+        long start = System.nanoTime();
+        run(exchange, iterations);
+        long time = System.nanoTime() - start;
+        bytes = AllocationCounter.allocatedSince(bytes);
+
+        Context context = exchange.getContext();
+        Assert.assertEquals("id", context.getPropertyValue(Exchange.MESSAGE_ID));
+        Assert.assertEquals(Boolean.TRUE, context.getPropertyValue("transient"));
+        Assert.assertTrue(context.getProperty("transient").hasLabel(BehaviorLabel.TRANSIENT.label()));
+        if (debug) {
+            System.out.println(String.format("%d context operations: %d ms, %s bytes allocated per operation",
+                iterations, time / 1000000, bytes < 0 ? "n/a" : String.valueOf(bytes / iterations)));
+        }
+    }
+
+    private void run(Exchange exchange, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            Context context = exchange.getContext();
+            context.getPropertyValue(Exchange.MESSAGE_ID);
+            context.getProperty("transient").hasLabel(BehaviorLabel.TRANSIENT.label());
+            context.setProperty("transient", Boolean.TRUE).addLabels(BehaviorLabel.TRANSIENT.label());
+        }
+    }
+
+}
@@ -85,6 +85,24 @@ public class ExchangeDispatcherTest {
                 sink.getLastExchange().getMessage().getContext().getProperty(Exchange.MESSAGE_ID));
     }
     
+    @Test
+    public void testDispatchAfterRouteReplaced() throws Exception {
+        QName name = new QName("testDispatchAfterRouteReplaced");
+        ExchangeSink sink = new ExchangeSink();
+        Service service = new MockService(name, new InOnlyService(), sink);
+        ServiceReference reference = new ServiceReferenceImpl(name, new InOnlyService(), null, null);
+        ExchangeDispatcher dispatch = _provider.createDispatcher(reference);
+        // replaces route, previous dispatcher has to resolve endpoint again
+        _provider.createDispatcher(reference);
+
+        Exchange exchange = dispatch.createExchange(sink, ExchangePattern.IN_ONLY);
+        exchange.consumer(reference, reference.getInterface().getOperation(ServiceInterface.DEFAULT_OPERATION));
+        exchange.provider(service, service.getInterface().getOperation(ServiceInterface.DEFAULT_OPERATION));
+        exchange.send(exchange.createMessage());
+
+        Assert.assertEquals(1, sink.getReceivedCount());
+    }
+
     @Test
     public void throttle() throws Exception {
         QName name = new QName("testDispatchInOnly");
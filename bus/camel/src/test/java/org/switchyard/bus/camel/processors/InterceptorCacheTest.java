@@ -0,0 +1,119 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.bus.camel.processors;
+
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.switchyard.BaseHandler;
+import org.switchyard.ExchangeInterceptor;
+import org.switchyard.MockDomain;
+import org.switchyard.bus.camel.handler.ErrorInterceptor;
+import org.switchyard.common.camel.SwitchYardCamelContextImpl;
+import org.switchyard.metadata.InOutService;
+
+public class InterceptorCacheTest {
+
+    private MockDomain _domain;
+    private SwitchYardCamelContextImpl _context;
+    private InterceptorCache _cache;
+
+    @Before
+    public void setUp() throws Exception {
+        _context = new SwitchYardCamelContextImpl();
+        _domain = new MockDomain();
+        _context.setServiceDomain(_domain);
+        _context.start();
+        _cache = new InterceptorCache(ExchangeInterceptor.PROVIDER);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        _context.stop();
+    }
+
+    @Test
+    public void noInterceptors() throws Exception {
+        Assert.assertNull(_cache.getInterceptors(_context));
+    }
+
+    @Test
+    public void filtersByTarget() throws Exception {
+        ErrorInterceptor provider = new ErrorInterceptor(true, ExchangeInterceptor.PROVIDER);
+        _context.getWritebleRegistry().put("provider", provider);
+        _context.getWritebleRegistry().put("consumer", new ErrorInterceptor(true, ExchangeInterceptor.CONSUMER));
+
+        ExchangeInterceptor[] interceptors = _cache.getInterceptors(_context);
+        Assert.assertEquals(1, interceptors.length);
+        Assert.assertSame(provider, interceptors[0]);
+    }
+
+    @Test
+    public void registryLookedUpOnlyOnChange() throws Exception {
+        _context.getWritebleRegistry().put("consumer", new ErrorInterceptor(true, ExchangeInterceptor.CONSUMER));
+        Assert.assertEquals(0, _cache.getInterceptors(_context).length);
+        Assert.assertEquals(0, _cache.getInterceptors(_context).length);
+        Assert.assertEquals(1, _cache.getHits());
+        Assert.assertEquals(1, _cache.getMisses());
+
+        _context.getWritebleRegistry().put("provider", new ErrorInterceptor(true, ExchangeInterceptor.PROVIDER));
+        Assert.assertEquals(1, _cache.getInterceptors(_context).length);
+        Assert.assertEquals(2, _cache.getMisses());
+
+        _context.getWritebleRegistry().remove("provider");
+        Assert.assertEquals(0, _cache.getInterceptors(_context).length);
+        Assert.assertEquals(3, _cache.getMisses());
+
+        _cache.invalidate();
+        _cache.getInterceptors(_context);
+        Assert.assertEquals(4, _cache.getMisses());
+        Assert.assertEquals(1, _cache.getHits());
+    }
+
+    @Test
+    public void invalidatedByRegistration() throws Exception {
+        _cache.observe(_domain);
+        _cache.getInterceptors(_context);
+        _cache.getInterceptors(_context);
+        Assert.assertEquals(1, _cache.getHits());
+        Assert.assertEquals(1, _cache.getMisses());
+
+        // as when an application brings its CDI interceptors along
+        _domain.registerService(new QName("Deployed"), new InOutService(), new BaseHandler());
+        _cache.getInterceptors(_context);
+        Assert.assertEquals(2, _cache.getMisses());
+    }
+
+    @Test
+    public void invalidatedDuringLookup() throws Exception {
+        // as when a registration event arrives while the registry is being read
+        _context.getWritebleRegistry().put("provider", new ErrorInterceptor(true, ExchangeInterceptor.PROVIDER) {
+            @Override
+            public List<String> getTargets() {
+                _cache.invalidate();
+                return super.getTargets();
+            }
+        });
+        _cache.getInterceptors(_context);
+        _cache.getInterceptors(_context);
+        Assert.assertEquals(0, _cache.getHits());
+        Assert.assertEquals(2, _cache.getMisses());
+    }
+
+}
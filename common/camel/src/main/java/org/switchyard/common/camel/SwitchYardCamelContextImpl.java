@@ -37,7 +37,7 @@ import org.switchyard.common.cdi.CDIUtil;
  */
 public class SwitchYardCamelContextImpl extends DefaultCamelContext implements SwitchYardCamelContext {
 
-    private final SimpleRegistry _writeableRegistry = new SimpleRegistry();
+    private final VersionedRegistry _writeableRegistry = new VersionedRegistry();
     private ServiceDomain _domain;
 
     private AtomicInteger _count = new AtomicInteger();
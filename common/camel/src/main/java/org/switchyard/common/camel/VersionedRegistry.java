@@ -0,0 +1,80 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.common.camel;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.camel.impl.SimpleRegistry;
+
+/**
+ * Simple registry which counts modifications. Allows components which cache
+ * results of registry lookups to find out when cached values became stale.
+ * 
+ * Only modifications made through {@link #put(String, Object)}, {@link #putAll(Map)},
+ * {@link #remove(Object)} and {@link #clear()} are counted.
+ */
+public class VersionedRegistry extends SimpleRegistry {
+
+    private static final long serialVersionUID = -3403545213744547813L;
+
+    private final AtomicLong _version = new AtomicLong();
+
+    /**
+     * Gets current version of registry content. Version changes every time
+     * an object is registered or unregistered.
+     * 
+     * @return Registry version.
+     */
+    public long getVersion() {
+        return _version.get();
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        try {
+            return super.put(key, value);
+        } finally {
+            _version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends Object> map) {
+        try {
+            super.putAll(map);
+        } finally {
+            _version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public Object remove(Object key) {
+        try {
+            return super.remove(key);
+        } finally {
+            _version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void clear() {
+        try {
+            super.clear();
+        } finally {
+            _version.incrementAndGet();
+        }
+    }
+
+}
@@ -41,4 +41,11 @@ public interface CommonCoreMessages {
      */
     @Message(id = 11406, value = ("Could not delete %s"))
     IOException couldNotDeleteFile(String filename);
+
+    /**
+     * streamNotMarked method definition.
+     * @return IOException
+     */
+    @Message(id = 11407, value = "Stream not marked")
+    IOException streamNotMarked();
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.common.io;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An OutputStream writing into a ByteBuffer, which is replaced by a larger one of the same kind
+ * (heap or direct) when it fills up.
+ */
+public class ByteBufferOutputStream extends OutputStream {
+
+    private final ByteBuffer _initial;
+    private final int _start;
+    private ByteBuffer _buffer;
+
+    /**
+     * Writes from the current position of a given ByteBuffer.
+     * @param buffer the ByteBuffer
+     */
+    public ByteBufferOutputStream(ByteBuffer buffer) {
+        _initial = buffer;
+        _start = buffer.position();
+        _buffer = buffer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(int b) {
+        ensureRemaining(1);
+        _buffer.put((byte)b);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureRemaining(len);
+        _buffer.put(b, off, len);
+    }
+
+    /**
+     * Writes the remaining bytes of a ByteBuffer.
+     * @param src the ByteBuffer
+     */
+    public void write(ByteBuffer src) {
+        ensureRemaining(src.remaining());
+        _buffer.put(src);
+    }
+
+    /**
+     * Gets the number of bytes written.
+     * @return the number of bytes written
+     */
+    public int getCount() {
+        return _buffer.position() - _start;
+    }
+
+    /**
+     * Whether the initial ByteBuffer was too small and had to be replaced.
+     * @return if the initial ByteBuffer was replaced
+     */
+    public boolean isGrown() {
+        return _buffer != _initial;
+    }
+
+    /**
+     * Gets a view of the bytes written, sharing their content.
+     * <p/>
+     * When the initial ByteBuffer was large enough, its position is moved past the written bytes.
+     * @return a ByteBuffer positioned at the first byte written and limited after the last one
+     */
+    public ByteBuffer toByteBuffer() {
+        int end = _buffer.position();
+        ByteBuffer view = _buffer.duplicate();
+        view.position(_start);
+        view.limit(end);
+        return view;
+    }
+
+    private void ensureRemaining(int len) {
+        if (_buffer.remaining() < len) {
+            int needed = _buffer.position() + len;
+            int capacity = Math.max(needed, _buffer.capacity() * 2);
+            ByteBuffer grown = _buffer.isDirect() ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+            ByteBuffer written = _buffer.duplicate();
+            written.flip();
+            grown.put(written);
+            if (_buffer == _initial) {
+                // leave the initial buffer where the caller had it
+                _initial.position(_start);
+            }
+            _buffer = grown;
+        }
+    }
+
+}
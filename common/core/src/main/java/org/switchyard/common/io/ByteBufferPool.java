@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.common.io;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of same-sized ByteBuffers, either heap or direct.
+ * <p/>
+ * Buffers of another capacity or kind, such as the larger ones replacing a pooled buffer that
+ * filled up, are not taken back.
+ */
+public final class ByteBufferPool {
+
+    /** The default size of pooled buffers. */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final ByteBufferPool HEAP = new ByteBufferPool(DEFAULT_BUFFER_SIZE,
+            Runtime.getRuntime().availableProcessors() * 2, false);
+
+    private final int _bufferSize;
+    private final int _maxPooled;
+    private final boolean _direct;
+    private final Queue<ByteBuffer> _pooled = new ConcurrentLinkedQueue<ByteBuffer>();
+    private final AtomicInteger _size = new AtomicInteger();
+
+    /**
+     * Creates a pool.
+     * @param bufferSize the capacity of each buffer
+     * @param maxPooled how many idle buffers are kept at most
+     * @param direct whether buffers are direct, for channel and socket writes
+     */
+    public ByteBufferPool(int bufferSize, int maxPooled, boolean direct) {
+        _bufferSize = bufferSize;
+        _maxPooled = maxPooled;
+        _direct = direct;
+    }
+
+    /**
+     * Gets the shared pool of heap buffers.
+     * @return the shared pool
+     */
+    public static ByteBufferPool getHeapPool() {
+        return HEAP;
+    }
+
+    /**
+     * Gets the capacity of each buffer.
+     * @return the buffer size
+     */
+    public int getBufferSize() {
+        return _bufferSize;
+    }
+
+    /**
+     * Whether buffers are direct.
+     * @return if buffers are direct
+     */
+    public boolean isDirect() {
+        return _direct;
+    }
+
+    /**
+     * Takes a cleared buffer from the pool, allocating one if the pool is empty.
+     * @return the buffer
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = _pooled.poll();
+        if (buffer == null) {
+            return _direct ? ByteBuffer.allocateDirect(_bufferSize) : ByteBuffer.allocate(_bufferSize);
+        }
+        _size.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Gives a buffer back to the pool.
+     * @param buffer the buffer, which must not be used afterwards
+     * @return whether the buffer was pooled
+     */
+    public boolean release(ByteBuffer buffer) {
+        if (buffer == null || buffer.capacity() != _bufferSize || buffer.isDirect() != _direct || buffer.isReadOnly()) {
+            return false;
+        }
+        if (_size.incrementAndGet() > _maxPooled) {
+            _size.decrementAndGet();
+            return false;
+        }
+        _pooled.offer(buffer);
+        return true;
+    }
+
+}
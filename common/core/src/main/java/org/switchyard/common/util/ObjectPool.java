@@ -0,0 +1,104 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.common.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of reusable objects which are expensive to create and not thread safe,
+ * such as marshallers and parsers.
+ * <p/>
+ * Unlike a ThreadLocal, the pool is owned by whoever creates it, so everything it holds
+ * goes away with its owner or on {@link #clear()}, whichever thread last used it.
+ * An object which failed should simply not be released, so that it is never reused.
+ *
+ * @param <T> the pooled type
+ */
+public abstract class ObjectPool<T> {
+
+    private final int _maxPooled;
+    private final Queue<T> _pooled = new ConcurrentLinkedQueue<T>();
+    private final AtomicInteger _size = new AtomicInteger();
+
+    /**
+     * Creates a pool keeping at most twice as many idle objects as there are processors.
+     */
+    protected ObjectPool() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    /**
+     * Creates a pool.
+     * @param maxPooled how many idle objects are kept at most
+     */
+    protected ObjectPool(int maxPooled) {
+        _maxPooled = maxPooled;
+    }
+
+    /**
+     * Creates a new object when the pool is empty.
+     * @return the new object
+     */
+    protected abstract T create();
+
+    /**
+     * Takes an object from the pool, creating one if the pool is empty.
+     * @return the object
+     */
+    public T acquire() {
+        T object = _pooled.poll();
+        if (object == null) {
+            return create();
+        }
+        _size.decrementAndGet();
+        return object;
+    }
+
+    /**
+     * Gives an object back to the pool.
+     * @param object the object, which must not be used afterwards
+     * @return whether the object was pooled
+     */
+    public boolean release(T object) {
+        if (object == null) {
+            return false;
+        }
+        if (_size.incrementAndGet() > _maxPooled) {
+            _size.decrementAndGet();
+            return false;
+        }
+        _pooled.offer(object);
+        return true;
+    }
+
+    /**
+     * Drops every idle object.
+     */
+    public void clear() {
+        while (_pooled.poll() != null) {
+            _size.decrementAndGet();
+        }
+    }
+
+    /**
+     * Gets how many idle objects are pooled.
+     * @return the number of idle objects
+     */
+    public int getPooled() {
+        return _size.get();
+    }
+
+}
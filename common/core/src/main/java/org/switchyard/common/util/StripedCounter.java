@@ -0,0 +1,80 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.common.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter spread over several cells, so threads updating it at once mostly update different cells
+ * instead of contending on one.  Reading it sums the cells.
+ */
+public final class StripedCounter {
+
+    private static final int STRIPES = stripes();
+    // cells a cache line apart, so the cells of different threads don't share one
+    private static final int SPACING = 8;
+
+    private final AtomicLongArray _cells = new AtomicLongArray(STRIPES * SPACING);
+
+    /**
+     * Adds to the counter.
+     * @param delta the amount to add
+     */
+    public void add(long delta) {
+        _cells.addAndGet(index(), delta);
+    }
+
+    /**
+     * Adds one to the counter.
+     */
+    public void increment() {
+        add(1);
+    }
+
+    /**
+     * Subtracts one from the counter.
+     */
+    public void decrement() {
+        add(-1);
+    }
+
+    /**
+     * Sums the cells, which is not atomic with respect to concurrent updates.
+     * @return the counter value
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < _cells.length(); i += SPACING) {
+            sum += _cells.get(i);
+        }
+        return sum;
+    }
+
+    private static int index() {
+        long id = Thread.currentThread().getId();
+        int hash = (int)(id ^ (id >>> 32)) * 0x9E3779B9;
+        return ((hash >>> 16) & (STRIPES - 1)) * SPACING;
+    }
+
+    private static int stripes() {
+        // a power of two at least the number of processors, up to 32
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int stripes = 1;
+        while (stripes < cpus && stripes < 32) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+
+}
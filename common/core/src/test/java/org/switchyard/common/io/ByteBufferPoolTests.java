@@ -0,0 +1,95 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.common.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * ByteBuffer pool and stream tests.
+ */
+public class ByteBufferPoolTests {
+
+    @Test
+    public void testPooling() throws Exception {
+        ByteBufferPool pool = new ByteBufferPool(16, 1, false);
+        ByteBuffer buffer = pool.acquire();
+        Assert.assertEquals(16, buffer.capacity());
+        buffer.put((byte)1);
+        Assert.assertTrue(pool.release(buffer));
+        ByteBuffer reused = pool.acquire();
+        Assert.assertSame(buffer, reused);
+        Assert.assertEquals(0, reused.position());
+        Assert.assertTrue(pool.release(reused));
+        Assert.assertFalse(pool.release(ByteBuffer.allocate(16)));
+        Assert.assertFalse(new ByteBufferPool(16, 1, true).release(ByteBuffer.allocate(16)));
+        Assert.assertFalse(pool.release(ByteBuffer.allocate(32)));
+    }
+
+    @Test
+    public void testOutputFits() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.position(2);
+        ByteBufferOutputStream out = new ByteBufferOutputStream(buffer);
+        out.write(new byte[] {1, 2, 3}, 0, 3);
+        Assert.assertFalse(out.isGrown());
+        Assert.assertEquals(3, out.getCount());
+        ByteBuffer view = out.toByteBuffer();
+        Assert.assertEquals(2, view.position());
+        Assert.assertEquals(3, view.remaining());
+        Assert.assertEquals(5, buffer.position());
+        Assert.assertEquals(3, view.get(4));
+    }
+
+    @Test
+    public void testOutputGrows() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4);
+        ByteBufferOutputStream out = new ByteBufferOutputStream(buffer);
+        for (int i = 0; i < 10; i++) {
+            out.write(i);
+        }
+        Assert.assertTrue(out.isGrown());
+        ByteBuffer view = out.toByteBuffer();
+        Assert.assertTrue(view.isDirect());
+        Assert.assertEquals(10, view.remaining());
+        Assert.assertEquals(0, buffer.position());
+        Assert.assertEquals(4, buffer.limit());
+        ByteBufferInputStream in = new ByteBufferInputStream(view);
+        byte[] bytes = new byte[16];
+        Assert.assertEquals(10, in.read(bytes, 0, 16));
+        Assert.assertEquals(9, bytes[9]);
+        Assert.assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void testInputMark() throws Exception {
+        ByteBufferInputStream in = new ByteBufferInputStream(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+        in.read();
+        try {
+            in.reset();
+            Assert.fail("reset without a mark");
+        } catch (IOException e) {
+            // expected
+        }
+        in.mark(2);
+        Assert.assertEquals(2, in.read());
+        in.reset();
+        Assert.assertEquals(2, in.read());
+    }
+
+}
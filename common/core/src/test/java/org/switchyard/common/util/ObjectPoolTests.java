@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.common.util;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * ObjectPool tests.
+ */
+public class ObjectPoolTests {
+
+    @Test
+    public void testPooling() throws Exception {
+        ObjectPool<StringBuilder> pool = new ObjectPool<StringBuilder>(1) {
+            @Override
+            protected StringBuilder create() {
+                return new StringBuilder();
+            }
+        };
+        StringBuilder first = pool.acquire();
+        StringBuilder second = pool.acquire();
+        Assert.assertNotSame(first, second);
+        Assert.assertTrue(pool.release(first));
+        Assert.assertFalse(pool.release(second));
+        Assert.assertFalse(pool.release(null));
+        Assert.assertEquals(1, pool.getPooled());
+        Assert.assertSame(first, pool.acquire());
+        Assert.assertEquals(0, pool.getPooled());
+        Assert.assertTrue(pool.release(first));
+        pool.clear();
+        Assert.assertEquals(0, pool.getPooled());
+        Assert.assertNotSame(first, pool.acquire());
+    }
+
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.config.model;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.validation.Schema;
+
+import org.xml.sax.SAXException;
+
+/**
+ * Process wide cache of compiled Schemas.
+ * <p/>
+ * Schemas are kept per class loader, the one the schema documents were
+ * located with, and keyed by schema language, the resolved locations of the
+ * schema documents and the catalogs used to resolve their imports.  A
+ * redeployed application gets a new class loader, so it never reuses a schema
+ * compiled from the documents of its previous deployment, even at the same
+ * locations.  The schemas of a class loader should be removed when its
+ * deployment is undeployed, and are otherwise dropped along with it.
+ * <p/>
+ * Concurrent requests for the same schema wait for a single compilation, so
+ * deployments can warm the cache up from several threads.  Compile time and
+ * the memory allocated while compiling are recorded for each schema.
+ */
+public final class SchemaCache {
+
+    // guarded by itself
+    private static final Map<ClassLoader, ConcurrentMap<Key, CachedSchema>> SCHEMAS
+        = new WeakHashMap<ClassLoader, ConcurrentMap<Key, CachedSchema>>();
+
+    private SchemaCache() {
+    }
+
+    /**
+     * Gets a compiled Schema, compiling it if it isn't cached yet.
+     * @param loader the class loader the schema documents were located with, may be null
+     * @param schemaLanguage the schema language URI
+     * @param locations resolved locations of the schema documents, in the order they are compiled
+     * @param catalogs catalogs used to resolve the schema documents, may be empty
+     * @param compiler compiles the Schema on a cache miss
+     * @return the Schema
+     * @throws SAXException the schema could not be compiled
+     */
+    public static Schema getSchema(ClassLoader loader, String schemaLanguage, List<String> locations,
+            Collection<String> catalogs, Callable<Schema> compiler) throws SAXException {
+        ConcurrentMap<Key, CachedSchema> schemas;
+        synchronized (SCHEMAS) {
+            schemas = SCHEMAS.get(loader);
+            if (schemas == null) {
+                schemas = new ConcurrentHashMap<Key, CachedSchema>();
+                SCHEMAS.put(loader, schemas);
+            }
+        }
+        Key key = new Key(schemaLanguage, locations, catalogs);
+        CachedSchema cached = schemas.get(key);
+        if (cached == null) {
+            CachedSchema compiling = new CachedSchema(key, compiler);
+            cached = schemas.putIfAbsent(key, compiling);
+            if (cached == null) {
+                cached = compiling;
+                compiling.compile();
+            } else {
+                cached._hits.incrementAndGet();
+            }
+        } else {
+            cached._hits.incrementAndGet();
+        }
+
+        try {
+            return cached._task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SAXException(e);
+        } catch (ExecutionException e) {
+            // let a later request try again
+            schemas.remove(key, cached);
+            Throwable cause = e.getCause();
+            if (cause instanceof SAXException) {
+                throw (SAXException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new SAXException((Exception)cause);
+        }
+    }
+
+    /**
+     * Statistics of the compiled schemas currently cached.
+     * @return schema statistics
+     */
+    public static List<SchemaStatistics> getStatistics() {
+        List<ConcurrentMap<Key, CachedSchema>> loaderSchemas;
+        synchronized (SCHEMAS) {
+            loaderSchemas = new ArrayList<ConcurrentMap<Key, CachedSchema>>(SCHEMAS.values());
+        }
+        List<SchemaStatistics> statistics = new ArrayList<SchemaStatistics>();
+        for (ConcurrentMap<Key, CachedSchema> schemas : loaderSchemas) {
+            for (CachedSchema cached : schemas.values()) {
+                if (cached._task.isDone()) {
+                    statistics.add(new SchemaStatistics(cached));
+                }
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * Removes the schemas compiled for a class loader, once its deployment is undeployed.
+     * @param loader the class loader the schema documents were located with, may be null
+     */
+    public static void remove(ClassLoader loader) {
+        synchronized (SCHEMAS) {
+            SCHEMAS.remove(loader);
+        }
+    }
+
+    /**
+     * Cache key.
+     */
+    private static final class Key {
+        private final String _schemaLanguage;
+        private final List<String> _locations;
+        private final Set<String> _catalogs;
+
+        Key(String schemaLanguage, List<String> locations, Collection<String> catalogs) {
+            _schemaLanguage = schemaLanguage;
+            _locations = Collections.unmodifiableList(new ArrayList<String>(locations));
+            _catalogs = Collections.unmodifiableSet(new TreeSet<String>(catalogs));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key)obj;
+            return _schemaLanguage.equals(other._schemaLanguage) && _locations.equals(other._locations)
+                    && _catalogs.equals(other._catalogs);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * _schemaLanguage.hashCode() + _locations.hashCode()) + _catalogs.hashCode();
+        }
+    }
+
+    /**
+     * Schema being compiled or compiled, with its statistics.
+     */
+    private static final class CachedSchema {
+        private final Key _key;
+        private final FutureTask<Schema> _task;
+        private final AtomicLong _hits = new AtomicLong();
+        private volatile long _compileTime;
+        private volatile long _allocatedBytes = -1;
+
+        CachedSchema(Key key, Callable<Schema> compiler) {
+            _key = key;
+            _task = new FutureTask<Schema>(compiler);
+        }
+
+        void compile() {
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            _task.run();
+            _compileTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (bytes >= 0) {
+                _allocatedBytes = allocatedBytes() - bytes;
+            }
+        }
+
+        private static long allocatedBytes() {
+            // com.sun.management.ThreadMXBean is not available on every VM
+            try {
+                Object bean = ManagementFactory.getThreadMXBean();
+                Method method = bean.getClass().getMethod("getThreadAllocatedBytes", long.class);
+                method.setAccessible(true);
+                return (Long)method.invoke(bean, Thread.currentThread().getId());
+            } catch (Exception e) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Statistics of a compiled schema.
+     */
+    public static final class SchemaStatistics {
+        private final String _schemaLanguage;
+        private final List<String> _locations;
+        private final Set<String> _catalogs;
+        private final long _compileTime;
+        private final long _allocatedBytes;
+        private final long _hits;
+
+        private SchemaStatistics(CachedSchema cached) {
+            _schemaLanguage = cached._key._schemaLanguage;
+            _locations = cached._key._locations;
+            _catalogs = cached._key._catalogs;
+            _compileTime = cached._compileTime;
+            _allocatedBytes = cached._allocatedBytes;
+            _hits = cached._hits.get();
+        }
+
+        /**
+         * @return the schema language URI
+         */
+        public String getSchemaLanguage() {
+            return _schemaLanguage;
+        }
+
+        /**
+         * @return resolved locations of the schema documents
+         */
+        public List<String> getLocations() {
+            return _locations;
+        }
+
+        /**
+         * @return catalogs used to resolve the schema documents
+         */
+        public Set<String> getCatalogs() {
+            return _catalogs;
+        }
+
+        /**
+         * @return time spent compiling the schema, in milliseconds
+         */
+        public long getCompileTime() {
+            return _compileTime;
+        }
+
+        /**
+         * @return bytes allocated while compiling the schema, -1 if not known
+         */
+        public long getAllocatedBytes() {
+            return _allocatedBytes;
+        }
+
+        /**
+         * @return number of times the cached schema was reused
+         */
+        public long getHitCount() {
+            return _hits;
+        }
+    }
+}
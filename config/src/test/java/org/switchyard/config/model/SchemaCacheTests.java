@@ -0,0 +1,157 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.config.model;
+
+import java.io.StringReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+
+import org.junit.Before;
+import org.junit.Assert;
+import org.junit.Test;
+import org.switchyard.config.model.SchemaCache.SchemaStatistics;
+import org.xml.sax.SAXException;
+
+/**
+ * SchemaCacheTests.
+ */
+public class SchemaCacheTests {
+
+    private static final String XSD = "<schema xmlns='http://www.w3.org/2001/XMLSchema'><element name='a' type='string'/></schema>";
+
+    private static final List<String> LOCATIONS = Arrays.asList("urn:test:a.xsd", "urn:test:b.xsd");
+
+    private final AtomicInteger _compiled = new AtomicInteger();
+
+    private final ClassLoader _loader = getClass().getClassLoader();
+
+    @Before
+    public void clear() {
+        SchemaCache.remove(_loader);
+    }
+
+    @Test
+    public void testSchemaShared() throws Exception {
+        Schema schema = getSchema(LOCATIONS, Collections.<String>emptySet());
+        Assert.assertSame(schema, getSchema(LOCATIONS, Collections.<String>emptySet()));
+        Assert.assertEquals(1, _compiled.get());
+
+        // a different catalog or document order is a different schema
+        Assert.assertNotSame(schema, getSchema(LOCATIONS, Collections.singleton("urn:test:catalog.xml")));
+        Assert.assertNotSame(schema, getSchema(Arrays.asList("urn:test:b.xsd", "urn:test:a.xsd"), Collections.<String>emptySet()));
+        Assert.assertEquals(3, _compiled.get());
+
+        SchemaCache.remove(_loader);
+        Assert.assertTrue(SchemaCache.getStatistics().isEmpty());
+    }
+
+    @Test
+    public void testSchemaPerClassLoader() throws Exception {
+        Schema schema = getSchema(LOCATIONS, Collections.<String>emptySet());
+        // a redeployment finds its documents at the same locations through another class loader
+        ClassLoader redeployed = new URLClassLoader(new URL[0], _loader);
+        Schema other = SchemaCache.getSchema(redeployed, XMLConstants.W3C_XML_SCHEMA_NS_URI, LOCATIONS,
+                Collections.<String>emptySet(), compiler());
+        Assert.assertNotSame(schema, other);
+        Assert.assertEquals(2, _compiled.get());
+        SchemaCache.remove(redeployed);
+        Assert.assertSame(schema, getSchema(LOCATIONS, Collections.<String>emptySet()));
+    }
+
+    @Test
+    public void testConcurrentWarmUp() throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Schema>> futures = new ArrayList<Future<Schema>>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(new Callable<Schema>() {
+                    public Schema call() throws Exception {
+                        start.await();
+                        return getSchema(LOCATIONS, Collections.<String>emptySet());
+                    }
+                }));
+            }
+            start.countDown();
+            Set<Schema> schemas = new HashSet<Schema>();
+            for (Future<Schema> future : futures) {
+                schemas.add(future.get());
+            }
+            Assert.assertEquals(1, schemas.size());
+            Assert.assertEquals(1, _compiled.get());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        SchemaStatistics statistics = SchemaCache.getStatistics().get(0);
+        Assert.assertEquals(XMLConstants.W3C_XML_SCHEMA_NS_URI, statistics.getSchemaLanguage());
+        Assert.assertEquals(LOCATIONS, statistics.getLocations());
+        Assert.assertEquals(7, statistics.getHitCount());
+        Assert.assertTrue(statistics.getCompileTime() >= 0);
+    }
+
+    @Test
+    public void testFailureNotCached() throws Exception {
+        Callable<Schema> broken = new Callable<Schema>() {
+            public Schema call() throws Exception {
+                _compiled.incrementAndGet();
+                return newFactory().newSchema(new StreamSource(new StringReader("<schema")));
+            }
+        };
+        for (int i = 0; i < 2; i++) {
+            try {
+                SchemaCache.getSchema(_loader, XMLConstants.W3C_XML_SCHEMA_NS_URI, LOCATIONS, Collections.<String>emptySet(), broken);
+                Assert.fail("Expected SAXException");
+            } catch (SAXException e) {
+                Assert.assertEquals(i + 1, _compiled.get());
+            }
+        }
+        Assert.assertTrue(SchemaCache.getStatistics().isEmpty());
+    }
+
+    private Schema getSchema(List<String> locations, Set<String> catalogs) throws SAXException {
+        return SchemaCache.getSchema(_loader, XMLConstants.W3C_XML_SCHEMA_NS_URI, locations, catalogs, compiler());
+    }
+
+    private Callable<Schema> compiler() {
+        return new Callable<Schema>() {
+            public Schema call() throws Exception {
+                _compiled.incrementAndGet();
+                return newFactory().newSchema(new StreamSource(new StringReader(XSD)));
+            }
+        };
+    }
+
+    private SchemaFactory newFactory() {
+        return SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+    }
+
+}
@@ -23,6 +23,7 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.xml.namespace.QName;
 
@@ -32,6 +33,7 @@ import org.switchyard.ServiceMetadata;
 import org.switchyard.ServiceReference;
 import org.switchyard.SwitchYardException;
 import org.switchyard.common.type.Classes;
+import org.switchyard.common.xml.QNameUtil;
 import org.switchyard.config.model.Model;
 import org.switchyard.config.model.ModelPuller;
 import org.switchyard.config.model.composite.BindingModel;
@@ -47,6 +49,7 @@ import org.switchyard.config.model.composite.InterfaceModel;
 import org.switchyard.config.model.switchyard.EsbInterfaceModel;
 import org.switchyard.config.model.switchyard.SwitchYardModel;
 import org.switchyard.config.model.switchyard.ThrottlingModel;
+import org.switchyard.config.model.transform.TransformModel;
 import org.switchyard.config.model.transform.TransformsModel;
 import org.switchyard.config.model.validate.ValidatesModel;
 import org.switchyard.deploy.Activator;
@@ -72,6 +75,7 @@ import org.switchyard.metadata.qos.Throttling;
 import org.switchyard.policy.Policy;
 import org.switchyard.policy.Policy.PolicyType;
 import org.switchyard.policy.PolicyFactory;
+import org.switchyard.serial.spi.SerializationProvider;
 
 /**
  * Deployment is a framework-independent representation of a deployed SwitchYard 
@@ -88,6 +92,7 @@ public class Deployment extends AbstractDeployment {
     private List<Activation> _components = new LinkedList<Activation>();
     private List<Activation> _serviceBindings = new LinkedList<Activation>();
     private List<Activation> _referenceBindings = new LinkedList<Activation>();
+    private ClassLoader _classLoader;
     
     /**
      * Create a new instance of Deployer from a configuration stream.
@@ -116,6 +121,7 @@ public class Deployment extends AbstractDeployment {
         // create a new domain and load transformer , validator and activator instances for lifecycle
         registerTransformers();
         registerValidators();
+        registerSerializedTypes();
         if (activators != null) {
             for (Activator activator : activators) {
                 Collection<String> activationTypes = activator.getActivationTypes();
@@ -181,6 +187,9 @@ public class Deployment extends AbstractDeployment {
 
         getValidatorRegistryLoader().unregisterValidators();
         getTransformerRegistryLoader().unregisterTransformers();
+        if (_classLoader != null) {
+            SerializationProvider.unregister(_classLoader);
+        }
 
         getDomain().getEventPublisher().publish(new ApplicationUndeployedEvent(this));
         getDomain().destroy();
@@ -276,6 +285,25 @@ public class Deployment extends AbstractDeployment {
         getValidatorRegistryLoader().registerValidators(validates);
     }
 
+    // the Java types transformed to and from are the ones the deployment's messages carry
+    private void registerSerializedTypes() {
+        _classLoader = Classes.getTCCL();
+        TransformsModel transforms = getConfig() != null ? getConfig().getTransforms() : null;
+        if (transforms == null) {
+            return;
+        }
+        Set<String> typeNames = new HashSet<String>();
+        for (TransformModel transform : transforms.getTransforms()) {
+            for (QName type : new QName[] {transform.getFrom(), transform.getTo()}) {
+                if (type != null && QNameUtil.isJavaMessageType(type)) {
+                    typeNames.add(type.getLocalPart().substring(QNameUtil.JAVA_TYPE.length() + 1));
+                }
+            }
+        }
+        _log.debug("Registering serialized types " + typeNames + " for deployment " + getName());
+        SerializationProvider.register(_classLoader, typeNames);
+    }
+
     private void deployReferenceBindings() {
         _log.debug("Deploying reference bindings for deployment " + getName());
         // activate bindings for each service
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.remote;
+
+/**
+ * Notified when an asynchronous remote invocation completes.
+ */
+public interface RemoteCallback {
+
+    /**
+     * Called with the reply of a completed invocation.
+     * @param reply reply message or null if the invoked service is in-only
+     */
+    public void onReply(RemoteMessage reply);
+
+    /**
+     * Called when an invocation fails.
+     * @param failure the failure, usually a java.io.IOException
+     */
+    public void onFailure(Throwable failure);
+}
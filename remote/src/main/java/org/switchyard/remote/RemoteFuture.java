@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.remote;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Future of the reply to an asynchronous remote invocation, which notifies a callback on completion.
+ */
+public class RemoteFuture extends FutureTask<RemoteMessage> {
+
+    private final RemoteCallback _callback;
+
+    /**
+     * Create a new RemoteFuture of an invocation.
+     * @param invocation the invocation
+     * @param callback notified of the reply or failure, or null
+     */
+    public RemoteFuture(Callable<RemoteMessage> invocation, RemoteCallback callback) {
+        super(invocation);
+        _callback = callback;
+    }
+
+    /**
+     * Create a RemoteFuture which has already failed.
+     * @param failure the failure
+     * @param callback notified of the failure, or null
+     * @return the failed future
+     */
+    public static RemoteFuture failed(final Exception failure, RemoteCallback callback) {
+        RemoteFuture future = new RemoteFuture(new Callable<RemoteMessage>() {
+            public RemoteMessage call() throws Exception {
+                throw failure;
+            }
+        }, callback);
+        future.run();
+        return future;
+    }
+
+    @Override
+    protected void done() {
+        if (_callback == null || isCancelled()) {
+            return;
+        }
+        RemoteMessage reply;
+        try {
+            reply = get();
+        } catch (ExecutionException ee) {
+            _callback.onFailure(ee.getCause());
+            return;
+        } catch (InterruptedException ie) {
+            // done, so get() does not wait
+            Thread.currentThread().interrupt();
+            _callback.onFailure(ie);
+            return;
+        }
+        _callback.onReply(reply);
+    }
+}
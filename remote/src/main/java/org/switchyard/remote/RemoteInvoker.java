@@ -13,6 +13,7 @@
  */
 package org.switchyard.remote;
 
+import java.util.concurrent.Future;
 
 /**
  * Client contract for remote service invocation.
@@ -26,4 +27,14 @@ public interface RemoteInvoker {
      * @throws java.io.IOException remote communication failure
      */
     public RemoteMessage invoke(RemoteMessage request) throws java.io.IOException;
+
+    /**
+     * Invoke a remote service using the specified RemoteMessage, without waiting for the reply.
+     * Failures, including a remote endpoint refusing more invocations in flight, are delivered
+     * through the returned future and the callback rather than thrown.
+     * @param request message
+     * @param callback notified of the reply or failure, or null
+     * @return future of the reply message, or of null if the invoked service is in-only
+     */
+    public Future<RemoteMessage> invokeAsync(RemoteMessage request, RemoteCallback callback);
 }
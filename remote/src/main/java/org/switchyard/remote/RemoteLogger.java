@@ -40,4 +40,31 @@ public interface RemoteLogger {
     @LogMessage(level = WARN)
     @Message(id = 13601, value="Failed to add remote endpoint %s to registry.")
     void failedAddEndpoint(String cacheKey, @Cause IOException ioEx);
+
+    /**
+     * circuitBreakerOpened method definition.
+     * @param endpoint endpoint
+     * @param failures failures
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 13602, value="Circuit breaker for remote endpoint %s opened after %d consecutive failures")
+    void circuitBreakerOpened(String endpoint, int failures);
+
+    /**
+     * outlierEjected method definition.
+     * @param endpoint endpoint
+     * @param latency latency
+     * @param otherLatency otherLatency
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 13603, value="Remote endpoint %s ejected as an outlier, with an average latency of %d ms against %d ms for the others")
+    void outlierEjected(String endpoint, long latency, long otherLatency);
+
+    /**
+     * circuitBreakerClosed method definition.
+     * @param endpoint endpoint
+     */
+    @LogMessage(level = INFO)
+    @Message(id = 13604, value="Circuit breaker for remote endpoint %s closed")
+    void circuitBreakerClosed(String endpoint);
 }
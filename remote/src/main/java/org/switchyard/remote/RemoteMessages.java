@@ -1,5 +1,6 @@
 package org.switchyard.remote;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 
 import org.jboss.logging.Messages;
@@ -38,4 +39,38 @@ public interface RemoteMessages {
      */
     @Message(id = 13401, value = "Invalid URL for remote endpoint: %s")
     IllegalArgumentException invalidURLForEndpoint(String endpoint, @Cause MalformedURLException mue);
+
+    /**
+     * noConnectionAvailable method definition.
+     * @param node node
+     * @param timeout timeout
+     * @return IOException
+     */
+    @Message(id = 13402, value = "No connection to %s became available within %d milliseconds")
+    IOException noConnectionAvailable(String node, int timeout);
+
+    /**
+     * tooManyInFlight method definition.
+     * @param node node
+     * @param maxInFlight maxInFlight
+     * @return IOException
+     */
+    @Message(id = 13403, value = "Invocations in flight to %s are at their maximum of %d")
+    IOException tooManyInFlight(String node, int maxInFlight);
+
+    /**
+     * noRemoteEndpointAvailable method definition.
+     * @param service service
+     * @return IOException
+     */
+    @Message(id = 13404, value = "All remote endpoints for service %s are being shed by their circuit breakers")
+    IOException noRemoteEndpointAvailable(String service);
+
+    /**
+     * invokerNameInUse method definition.
+     * @param name name
+     * @return IllegalArgumentException
+     */
+    @Message(id = 13405, value = "Another remote invoker has MBeans registered under the name %s")
+    IllegalArgumentException invokerNameInUse(String name);
 }
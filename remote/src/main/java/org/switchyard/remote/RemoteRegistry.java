@@ -35,7 +35,8 @@ public interface RemoteRegistry {
     public void removeEndpoint(RemoteEndpoint endpoint);
 
     /**
-     * Returns a list of all registered endpoints for a given service.
+     * Returns a list of all registered endpoints for a given service.  The list may be shared
+     * between callers and so cannot be modified.
      * @param serviceName name of the service
      * @return list of registered endpoints
      */
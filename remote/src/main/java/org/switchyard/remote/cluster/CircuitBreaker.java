@@ -0,0 +1,249 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.remote.cluster;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.switchyard.remote.RemoteLogger;
+
+/**
+ * Circuit breaker of a remote endpoint.  The breaker opens after a number of consecutive failed
+ * invocations, or when the endpoint is ejected as an outlier, and the endpoint is shed while it is
+ * open.  Once the open timeout has passed, the breaker is half open and lets a single invocation
+ * through to probe the endpoint: the breaker closes if it succeeds, and opens again if it fails.
+ * Only the probe closes the breaker, not invocations which were in flight when it opened: each
+ * invocation goes through with the {@link Permit} it was let through with, and only the probe's
+ * permit closes the breaker.
+ * A probe which never completes lets another through after another open timeout.
+ */
+public class CircuitBreaker implements CircuitBreakerMXBean {
+
+    /** Default consecutive failures which open the breaker. */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    /** Default time the breaker stays open before letting a probe through, in milliseconds. */
+    public static final long DEFAULT_OPEN_TIMEOUT = 10000;
+
+    /**
+     * States of a circuit breaker.
+     */
+    public enum State {
+        /** Invocations go through. */
+        CLOSED,
+        /** The endpoint is shed. */
+        OPEN,
+        /** A probe invocation has gone through. */
+        HALF_OPEN
+    }
+
+    /**
+     * Lets an invocation through the breaker, to be passed back to {@link CircuitBreaker#onSuccess(Permit)}.
+     */
+    public static final class Permit {
+        private Permit() {
+        }
+    }
+
+    // shared by every invocation let through while the breaker is closed
+    private static final Permit CLOSED_PERMIT = new Permit();
+
+    private final EndpointStatistics _statistics;
+    private final AtomicReference<State> _state = new AtomicReference<State>(State.CLOSED);
+    private final AtomicInteger _consecutiveFailures = new AtomicInteger();
+    private final AtomicLong _trips = new AtomicLong();
+    private final AtomicLong _ejections = new AtomicLong();
+    // when the breaker opened, or the last probe went through
+    private final AtomicLong _openedAt = new AtomicLong();
+    // the permit of the last probe let through, until it succeeds
+    private final AtomicReference<Permit> _probe = new AtomicReference<Permit>();
+    private volatile int _failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+    private volatile long _openTimeout = DEFAULT_OPEN_TIMEOUT;
+
+    /**
+     * Create a new CircuitBreaker.
+     * @param statistics the invocation statistics of the endpoint
+     */
+    public CircuitBreaker(EndpointStatistics statistics) {
+        _statistics = statistics;
+    }
+
+    /**
+     * Gets the invocation statistics of the endpoint.
+     * @return the invocation statistics
+     */
+    public EndpointStatistics getStatistics() {
+        return _statistics;
+    }
+
+    /**
+     * Whether an invocation may go through to the endpoint.  When the breaker is open and the open
+     * timeout has passed, this lets one probe invocation through, which must then be reported to
+     * {@link #onSuccess(Permit)} or {@link #onFailure()}.
+     * @return the permit of the invocation, or null if it may not go through
+     */
+    public Permit allowRequest() {
+        if (_state.get() == State.CLOSED) {
+            return CLOSED_PERMIT;
+        }
+        long now = System.currentTimeMillis();
+        long openedAt = _openedAt.get();
+        if (now - openedAt < _openTimeout || !_openedAt.compareAndSet(openedAt, now)) {
+            return null;
+        }
+        Permit probe = new Permit();
+        _probe.set(probe);
+        _state.set(State.HALF_OPEN);
+        return probe;
+    }
+
+    /**
+     * Whether the endpoint is being shed.
+     * @return true if the breaker is open or half open
+     */
+    public boolean isShedding() {
+        return _state.get() != State.CLOSED;
+    }
+
+    /**
+     * Records a successful invocation, which closes the breaker if it was the probe.  Invocations
+     * which started before the breaker opened leave it open, whether it opened on failures or on
+     * an ejection.
+     * @param permit the permit the invocation was let through with
+     */
+    public void onSuccess(Permit permit) {
+        _consecutiveFailures.set(0);
+        if (permit != null && permit != CLOSED_PERMIT && _probe.compareAndSet(permit, null)
+                && _state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            RemoteLogger.ROOT_LOGGER.circuitBreakerClosed(getEndpoint());
+        }
+    }
+
+    /**
+     * Records a failed invocation, which opens the breaker if it was a probe or the failures have
+     * reached the threshold.
+     */
+    public void onFailure() {
+        int failures = _consecutiveFailures.incrementAndGet();
+        State state = _state.get();
+        if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= _failureThreshold)) {
+            // the open time is set first, so a probe cannot slip through before it is
+            _openedAt.set(System.currentTimeMillis());
+            if (_state.getAndSet(State.OPEN) != State.OPEN) {
+                _trips.incrementAndGet();
+                RemoteLogger.ROOT_LOGGER.circuitBreakerOpened(getEndpoint(), failures);
+            }
+        }
+    }
+
+    /**
+     * Ejects the endpoint as an outlier, opening the breaker if it is closed.
+     * @param otherLatency the average latency of the other endpoints, in nanoseconds
+     * @return true if the breaker was opened
+     */
+    public boolean eject(long otherLatency) {
+        if (_state.get() != State.CLOSED) {
+            return false;
+        }
+        _openedAt.set(System.currentTimeMillis());
+        if (!_state.compareAndSet(State.CLOSED, State.OPEN)) {
+            return false;
+        }
+        _ejections.incrementAndGet();
+        RemoteLogger.ROOT_LOGGER.outlierEjected(getEndpoint(), getLatency(), TimeUnit.NANOSECONDS.toMillis(otherLatency));
+        return true;
+    }
+
+    @Override
+    public String getEndpoint() {
+        return _statistics.getEndpoint();
+    }
+
+    @Override
+    public State getState() {
+        return _state.get();
+    }
+
+    @Override
+    public int getConsecutiveFailures() {
+        return _consecutiveFailures.get();
+    }
+
+    @Override
+    public long getTrips() {
+        return _trips.get();
+    }
+
+    @Override
+    public long getEjections() {
+        return _ejections.get();
+    }
+
+    @Override
+    public int getFailureThreshold() {
+        return _failureThreshold;
+    }
+
+    @Override
+    public void setFailureThreshold(int failureThreshold) {
+        _failureThreshold = failureThreshold;
+    }
+
+    @Override
+    public long getOpenTimeout() {
+        return _openTimeout;
+    }
+
+    @Override
+    public void setOpenTimeout(long openTimeout) {
+        _openTimeout = openTimeout;
+    }
+
+    @Override
+    public long getInFlight() {
+        return _statistics.getInFlight();
+    }
+
+    @Override
+    public long getLatency() {
+        return TimeUnit.NANOSECONDS.toMillis(_statistics.getLatency());
+    }
+
+    @Override
+    public long getInvocations() {
+        return _statistics.getInvocations();
+    }
+
+    @Override
+    public long getFailures() {
+        return _statistics.getFailures();
+    }
+
+    @Override
+    public void trip() {
+        _openedAt.set(System.currentTimeMillis());
+        if (_state.getAndSet(State.OPEN) != State.OPEN) {
+            _trips.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void reset() {
+        _consecutiveFailures.set(0);
+        _probe.set(null);
+        _state.set(State.CLOSED);
+    }
+
+}
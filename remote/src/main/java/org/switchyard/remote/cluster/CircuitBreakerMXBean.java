@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.remote.cluster;
+
+/**
+ * CircuitBreakerMXBean
+ * <p/>
+ * Management interface of the circuit breaker of a remote endpoint, registered in the
+ * <code>org.switchyard.admin</code> domain alongside the other SwitchYard MBeans.
+ */
+public interface CircuitBreakerMXBean {
+
+    /**
+     * @return the remote endpoint.
+     */
+    String getEndpoint();
+
+    /**
+     * @return the state of the breaker.
+     */
+    CircuitBreaker.State getState();
+
+    /**
+     * @return the number of consecutive failed invocations.
+     */
+    int getConsecutiveFailures();
+
+    /**
+     * @return the number of times the breaker has opened on failures.
+     */
+    long getTrips();
+
+    /**
+     * @return the number of times the endpoint has been ejected as an outlier.
+     */
+    long getEjections();
+
+    /**
+     * @return the consecutive failures which open the breaker.
+     */
+    int getFailureThreshold();
+
+    /**
+     * @param failureThreshold the consecutive failures which open the breaker.
+     */
+    void setFailureThreshold(int failureThreshold);
+
+    /**
+     * @return how long the breaker stays open before letting a probe through, in milliseconds.
+     */
+    long getOpenTimeout();
+
+    /**
+     * @param openTimeout how long the breaker stays open before letting a probe through, in milliseconds.
+     */
+    void setOpenTimeout(long openTimeout);
+
+    /**
+     * @return the number of invocations in flight to the endpoint.
+     */
+    long getInFlight();
+
+    /**
+     * @return the moving average of the endpoint's latency, in milliseconds.
+     */
+    long getLatency();
+
+    /**
+     * @return the number of invocations of the endpoint completed.
+     */
+    long getInvocations();
+
+    /**
+     * @return the number of invocations of the endpoint failed.
+     */
+    long getFailures();
+
+    /**
+     * open the breaker, shedding the endpoint until a probe succeeds.
+     */
+    void trip();
+
+    /**
+     * close the breaker.
+     */
+    void reset();
+}
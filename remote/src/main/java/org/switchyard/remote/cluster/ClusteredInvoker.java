@@ -14,21 +14,84 @@
 package org.switchyard.remote.cluster;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
+import javax.management.ObjectName;
+import javax.xml.namespace.QName;
+
+import org.jboss.logging.Logger;
+import org.switchyard.remote.RemoteCallback;
 import org.switchyard.remote.RemoteEndpoint;
+import org.switchyard.remote.RemoteFuture;
 import org.switchyard.remote.RemoteInvoker;
 import org.switchyard.remote.RemoteMessage;
 import org.switchyard.remote.RemoteMessages;
 import org.switchyard.remote.RemoteRegistry;
 import org.switchyard.remote.http.HttpInvoker;
+import org.switchyard.remote.http.HttpTransport;
 
 /**
  * Cluster-aware implementation of RemoteInvoker which uses a load balance strategy in 
- * combination with a remote registry to invoke remote services.
+ * combination with a remote registry to invoke remote services.  The invoker times each
+ * invocation of an endpoint, and shares the statistics with load aware strategies.
+ * <p/>
+ * Each endpoint has a circuit breaker, which sheds the endpoint after consecutive failures, or
+ * when its latency makes it an outlier among the endpoints of its service.  Invocations of
+ * idempotent operations can also be retried on other endpoints when they fail, and hedged with
+ * an invocation of another endpoint when they are slow to reply.  Each asynchronous attempt,
+ * retry or hedge is admitted by the transport against the in-flight limit of the node it invokes.
+ * <p/>
+ * The breakers can be registered as MBeans in the <code>org.switchyard.admin</code> domain,
+ * named after the endpoint and this invoker, through {@link #registerMBeans(String)}.  Whoever
+ * registers them must call {@link #unregisterMBeans()} once the invoker is no longer used, since
+ * the MBean server otherwise keeps the invoker and its registry reachable.
  */
 public class ClusteredInvoker implements RemoteInvoker {
     
+    /** Operation name which marks every operation idempotent. */
+    public static final String ALL_OPERATIONS = "*";
+    /** Default factor of the other endpoints' latency beyond which an endpoint is ejected. */
+    public static final double DEFAULT_OUTLIER_FACTOR = 5.0;
+    
+    // invocations an endpoint needs before its latency is compared with the others
+    private static final int OUTLIER_MIN_INVOCATIONS = 10;
+    // the domain of the SwitchYard admin MBeans
+    private static final String MBEAN_DOMAIN = "org.switchyard.admin";
+    // names of the invokers with MBeans registered
+    private static final Set<String> MBEAN_NAMES = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    
+    private static Logger _log = Logger.getLogger(ClusteredInvoker.class);
+    
     private LoadBalanceStrategy _loadBalancer;
+    private HttpTransport _transport;
+    private InvocationStatistics _statistics;
+    private ConcurrentMap<String, HttpInvoker> _invokers = new ConcurrentHashMap<String, HttpInvoker>();
+    private ConcurrentMap<String, CircuitBreaker> _breakers = new ConcurrentHashMap<String, CircuitBreaker>();
+    private Set<ObjectName> _mbeans = new CopyOnWriteArraySet<ObjectName>();
+    private volatile String _name;
+    private volatile int _failureThreshold = CircuitBreaker.DEFAULT_FAILURE_THRESHOLD;
+    private volatile long _openTimeout = CircuitBreaker.DEFAULT_OPEN_TIMEOUT;
+    private volatile double _outlierFactor = DEFAULT_OUTLIER_FACTOR;
+    private volatile int _retries;
+    private volatile Set<String> _idempotentOperations = Collections.emptySet();
+    private volatile long _hedgeDelay;
     
     /**
      * Create a new ClusteredInvoker with the default load balance strategy (RoundRobin).
@@ -44,8 +107,158 @@ public class ClusteredInvoker implements RemoteInvoker {
      * @param loadBalancer load balance strategy
      */
     public ClusteredInvoker(RemoteRegistry registry, LoadBalanceStrategy loadBalancer) {
+        this(registry, loadBalancer, HttpTransport.getDefault());
+    }
+    
+    /**
+     * Create a new ClusteredInvoker with the specified load balance strategy and transport.
+     * @param registry remote registry
+     * @param loadBalancer load balance strategy
+     * @param transport the transport used to reach the endpoints
+     */
+    public ClusteredInvoker(RemoteRegistry registry, LoadBalanceStrategy loadBalancer, HttpTransport transport) {
         _loadBalancer = loadBalancer;
         _loadBalancer.setRegistry(registry);
+        _transport = transport;
+        if (loadBalancer instanceof LoadAwareStrategy) {
+            _statistics = ((LoadAwareStrategy)loadBalancer).getStatistics();
+        } else {
+            _statistics = new InvocationStatistics();
+        }
+    }
+    
+    /**
+     * Returns the statistics of the invocations made by this invoker.
+     * @return invocation statistics
+     */
+    public InvocationStatistics getStatistics() {
+        return _statistics;
+    }
+    
+    /**
+     * Returns the name the MBeans of this invoker are registered under.
+     * @return the name, or null if they are not registered
+     */
+    public String getName() {
+        return _name;
+    }
+    
+    /**
+     * Specifies the consecutive failures which open the circuit breaker of an endpoint.
+     * @param failureThreshold the consecutive failures
+     * @return this invoker (useful for chaining)
+     */
+    public ClusteredInvoker setFailureThreshold(int failureThreshold) {
+        _failureThreshold = failureThreshold;
+        for (CircuitBreaker breaker : _breakers.values()) {
+            breaker.setFailureThreshold(failureThreshold);
+        }
+        return this;
+    }
+    
+    /**
+     * Specifies how long the circuit breaker of an endpoint stays open before letting a probe through.
+     * @param openTimeout the open timeout, in milliseconds
+     * @return this invoker (useful for chaining)
+     */
+    public ClusteredInvoker setOpenTimeout(long openTimeout) {
+        _openTimeout = openTimeout;
+        for (CircuitBreaker breaker : _breakers.values()) {
+            breaker.setOpenTimeout(openTimeout);
+        }
+        return this;
+    }
+    
+    /**
+     * Specifies the factor of the other endpoints' average latency beyond which an endpoint is
+     * ejected as an outlier.  No more than half the endpoints of a service are shed at once.
+     * @param outlierFactor the factor, or 0 to never eject endpoints
+     * @return this invoker (useful for chaining)
+     */
+    public ClusteredInvoker setOutlierFactor(double outlierFactor) {
+        _outlierFactor = outlierFactor;
+        return this;
+    }
+    
+    /**
+     * Specifies how many times a failed invocation of an idempotent operation is retried, each
+     * time on an endpoint not yet tried.
+     * @param retries the retries
+     * @return this invoker (useful for chaining)
+     */
+    public ClusteredInvoker setRetries(int retries) {
+        _retries = retries;
+        return this;
+    }
+    
+    /**
+     * Specifies the operations which are idempotent, and so can be retried and hedged.
+     * @param operations the operation names, or {@link #ALL_OPERATIONS}
+     * @return this invoker (useful for chaining)
+     */
+    public ClusteredInvoker setIdempotentOperations(String... operations) {
+        _idempotentOperations = new HashSet<String>(Arrays.asList(operations));
+        return this;
+    }
+    
+    /**
+     * Specifies how long an invocation of an idempotent operation waits for a reply before it is
+     * hedged with an invocation of another endpoint, the first reply of the two being used.
+     * Asynchronous invocations are not hedged.
+     * @param hedgeDelay the hedge delay, in milliseconds, or 0 to never hedge
+     * @return this invoker (useful for chaining)
+     */
+    public ClusteredInvoker setHedgeDelay(long hedgeDelay) {
+        _hedgeDelay = hedgeDelay;
+        return this;
+    }
+    
+    /**
+     * Returns the circuit breakers of the endpoints invoked.
+     * @return the circuit breakers
+     */
+    public Collection<CircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableCollection(_breakers.values());
+    }
+    
+    /**
+     * Registers the circuit breakers of this invoker as MBeans, those of the endpoints invoked so
+     * far and those of the endpoints invoked from now on, until {@link #unregisterMBeans()} is called.
+     * @param name the name the MBeans are registered under, which no other invoker may be using
+     * @return this invoker (useful for chaining)
+     */
+    public synchronized ClusteredInvoker registerMBeans(String name) {
+        if (name.equals(_name)) {
+            return this;
+        }
+        if (!MBEAN_NAMES.add(name)) {
+            throw RemoteMessages.MESSAGES.invokerNameInUse(name);
+        }
+        unregisterMBeans();
+        _name = name;
+        for (CircuitBreaker breaker : _breakers.values()) {
+            registerMBean(breaker);
+        }
+        return this;
+    }
+    
+    /**
+     * Unregisters the MBeans of this invoker, which must be called once the invoker is no longer
+     * used if they were registered.
+     */
+    public synchronized void unregisterMBeans() {
+        for (ObjectName name : _mbeans) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            } catch (Exception ex) {
+                _log.debug("Failed to unregister SwitchYard MBean: " + name, ex);
+            }
+        }
+        _mbeans.clear();
+        if (_name != null) {
+            MBEAN_NAMES.remove(_name);
+            _name = null;
+        }
     }
     
     @Override
@@ -54,7 +267,333 @@ public class ClusteredInvoker implements RemoteInvoker {
         if (ep == null) {
             throw RemoteMessages.MESSAGES.noRemoteEndpointFound(request.getService().toString());
         }
-        return new HttpInvoker(ep.getEndpoint()).invoke(request);
+        Map<String, CircuitBreaker.Permit> tried = new ConcurrentHashMap<String, CircuitBreaker.Permit>();
+        ep = selectAvailable(request.getService(), ep, tried);
+        if (ep == null) {
+            throw RemoteMessages.MESSAGES.noRemoteEndpointAvailable(request.getService().toString());
+        }
+        if (_hedgeDelay > 0 && isIdempotent(request)) {
+            return invokeHedged(ep, request, tried);
+        }
+        return invoke(ep, request, tried);
+    }
+    
+    @Override
+    public Future<RemoteMessage> invokeAsync(RemoteMessage request, RemoteCallback callback) {
+        RemoteEndpoint ep = _loadBalancer.selectEndpoint(request.getService());
+        if (ep == null) {
+            return RemoteFuture.failed(RemoteMessages.MESSAGES.noRemoteEndpointFound(request.getService().toString()), callback);
+        }
+        Map<String, CircuitBreaker.Permit> tried = new ConcurrentHashMap<String, CircuitBreaker.Permit>();
+        ep = selectAvailable(request.getService(), ep, tried);
+        if (ep == null) {
+            return RemoteFuture.failed(RemoteMessages.MESSAGES.noRemoteEndpointAvailable(request.getService().toString()), callback);
+        }
+        return submit(ep, request, tried, callback);
+    }
+    
+    // invokes an endpoint, retrying idempotent operations on the endpoints not yet tried
+    private RemoteMessage invoke(RemoteEndpoint ep, RemoteMessage request, Map<String, CircuitBreaker.Permit> tried) throws IOException {
+        int retries = isIdempotent(request) ? _retries : 0;
+        while (true) {
+            try {
+                return attempt(ep, request, tried.get(ep.getEndpoint()));
+            } catch (IOException ioEx) {
+                RemoteEndpoint next = null;
+                if (retries-- > 0 && !Thread.currentThread().isInterrupted()) {
+                    next = selectAvailable(request.getService(), _loadBalancer.selectEndpoint(request.getService()), tried);
+                }
+                if (next == null) {
+                    throw ioEx;
+                }
+                if (_log.isDebugEnabled()) {
+                    _log.debug("Retrying " + request.getService() + " at endpoint " + next.getEndpoint(), ioEx);
+                }
+                ep = next;
+            }
+        }
+    }
+    
+    // invokes an endpoint, and another if there is no reply within the hedge delay
+    private RemoteMessage invokeHedged(RemoteEndpoint ep, RemoteMessage request, Map<String, CircuitBreaker.Permit> tried) throws IOException {
+        final BlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<Outcome>();
+        RemoteCallback callback = new RemoteCallback() {
+            public void onReply(RemoteMessage reply) {
+                outcomes.add(new Outcome(reply, null));
+            }
+            public void onFailure(Throwable failure) {
+                outcomes.add(new Outcome(null, failure));
+            }
+        };
+        List<Future<RemoteMessage>> futures = new ArrayList<Future<RemoteMessage>>(2);
+        futures.add(submit(ep, request, tried, callback));
+        try {
+            Outcome outcome = outcomes.poll(_hedgeDelay, TimeUnit.MILLISECONDS);
+            if (outcome == null) {
+                RemoteEndpoint hedge = selectAvailable(request.getService(), _loadBalancer.selectEndpoint(request.getService()), tried);
+                if (hedge != null) {
+                    futures.add(submit(hedge, request, tried, callback));
+                }
+                outcome = outcomes.take();
+            }
+            // the first reply wins, otherwise the last failure is thrown
+            for (int pending = futures.size() - 1; outcome.getFailure() != null && pending > 0; pending--) {
+                outcome = outcomes.take();
+            }
+            return outcome.getReply();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            for (Future<RemoteMessage> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+    
+    // invokes an endpoint asynchronously, retrying idempotent operations on the endpoints not yet tried
+    private Future<RemoteMessage> submit(RemoteEndpoint ep, RemoteMessage request, Map<String, CircuitBreaker.Permit> tried, RemoteCallback callback) {
+        AsyncInvocation invocation = new AsyncInvocation(request, tried, callback);
+        invocation.start(ep);
+        return invocation;
+    }
+    
+    // invokes an endpoint once, recording the outcome with its breaker and statistics
+    private RemoteMessage attempt(RemoteEndpoint ep, RemoteMessage request, CircuitBreaker.Permit permit) throws IOException {
+        CircuitBreaker breaker = getBreaker(ep.getEndpoint());
+        EndpointStatistics stats = breaker.getStatistics();
+        long start = stats.started();
+        boolean failed = true;
+        try {
+            RemoteMessage reply = getInvoker(ep.getEndpoint()).invoke(request);
+            failed = false;
+            return reply;
+        } finally {
+            stats.completed(start, failed);
+            if (failed) {
+                // a hedged invocation cancelled after losing is no fault of the endpoint
+                if (!Thread.currentThread().isInterrupted()) {
+                    breaker.onFailure();
+                }
+            } else {
+                breaker.onSuccess(permit);
+                checkOutlier(request.getService(), breaker);
+            }
+        }
+    }
+    
+    // the selected endpoint if it may be invoked, otherwise the next endpoint of the service which may be
+    private RemoteEndpoint selectAvailable(QName serviceName, RemoteEndpoint selected, Map<String, CircuitBreaker.Permit> tried) {
+        if (selected != null && isAvailable(selected, tried)) {
+            return selected;
+        }
+        List<RemoteEndpoint> eps = _loadBalancer.getRegistry().getEndpoints(serviceName);
+        int start = selected != null ? eps.indexOf(selected) + 1 : 0;
+        for (int i = 0; i < eps.size(); i++) {
+            RemoteEndpoint ep = eps.get((start + i) % eps.size());
+            if (ep != selected && isAvailable(ep, tried)) {
+                return ep;
+            }
+        }
+        return null;
+    }
+    
+    // an available endpoint counts as tried, along with the permit its breaker let it through with
+    private boolean isAvailable(RemoteEndpoint ep, Map<String, CircuitBreaker.Permit> tried) {
+        if (tried.containsKey(ep.getEndpoint())) {
+            return false;
+        }
+        CircuitBreaker.Permit permit = getBreaker(ep.getEndpoint()).allowRequest();
+        if (permit == null) {
+            return false;
+        }
+        tried.put(ep.getEndpoint(), permit);
+        return true;
+    }
+    
+    private boolean isIdempotent(RemoteMessage request) {
+        Set<String> operations = _idempotentOperations;
+        return operations.contains(ALL_OPERATIONS) || operations.contains(request.getOperation());
+    }
+    
+    // ejects the endpoint if its latency is beyond the outlier factor of the others' average
+    private void checkOutlier(QName serviceName, CircuitBreaker breaker) {
+        double factor = _outlierFactor;
+        if (factor <= 0 || breaker.getStatistics().getInvocations() < OUTLIER_MIN_INVOCATIONS) {
+            return;
+        }
+        List<RemoteEndpoint> eps = _loadBalancer.getRegistry().getEndpoints(serviceName);
+        int shedding = 0;
+        int others = 0;
+        long otherLatency = 0;
+        for (RemoteEndpoint ep : eps) {
+            CircuitBreaker other = getBreaker(ep.getEndpoint());
+            if (other == breaker) {
+                continue;
+            } else if (other.isShedding()) {
+                shedding++;
+            } else if (other.getStatistics().getLatency() > 0) {
+                others++;
+                otherLatency += other.getStatistics().getLatency();
+            }
+        }
+        if (others == 0 || (shedding + 1) * 2 > eps.size()) {
+            return;
+        }
+        otherLatency /= others;
+        if (breaker.getStatistics().getLatency() > factor * otherLatency) {
+            breaker.eject(otherLatency);
+        }
+    }
+    
+    private CircuitBreaker getBreaker(String endpoint) {
+        CircuitBreaker breaker = _breakers.get(endpoint);
+        if (breaker == null) {
+            breaker = new CircuitBreaker(_statistics.getStatistics(endpoint));
+            breaker.setFailureThreshold(_failureThreshold);
+            breaker.setOpenTimeout(_openTimeout);
+            CircuitBreaker existing = _breakers.putIfAbsent(endpoint, breaker);
+            if (existing != null) {
+                breaker = existing;
+            } else if (_name != null) {
+                registerMBean(breaker);
+            }
+        }
+        return breaker;
+    }
+    
+    private synchronized void registerMBean(CircuitBreaker breaker) {
+        if (_name == null) {
+            return;
+        }
+        ObjectName name = null;
+        try {
+            name = new ObjectName(MBEAN_DOMAIN + ":type=CircuitBreaker,name=" + ObjectName.quote(breaker.getEndpoint())
+                    + ",invoker=" + ObjectName.quote(_name));
+            if (_mbeans.contains(name)) {
+                return;
+            }
+            ManagementFactory.getPlatformMBeanServer().registerMBean(breaker, name);
+            _mbeans.add(name);
+        } catch (Exception ex) {
+            _log.debug("Failed to register SwitchYard MBean: " + name, ex);
+        }
+    }
+    
+    private HttpInvoker getInvoker(String endpoint) {
+        // invokers are kept per endpoint so the URL is only parsed once
+        HttpInvoker invoker = _invokers.get(endpoint);
+        if (invoker == null) {
+            invoker = new HttpInvoker(endpoint, _transport);
+            HttpInvoker existing = _invokers.putIfAbsent(endpoint, invoker);
+            if (existing != null) {
+                invoker = existing;
+            }
+        }
+        return invoker;
+    }
+    
+    // an asynchronous invocation, each attempt of which is submitted to the node it invokes
+    private final class AsyncInvocation extends RemoteFuture implements RemoteCallback {
+        private final RemoteMessage _request;
+        private final Map<String, CircuitBreaker.Permit> _tried;
+        // attempts follow one another, so only one thread at a time changes this
+        private int _retriesLeft;
+        private Future<RemoteMessage> _attempt;
+        
+        AsyncInvocation(RemoteMessage request, Map<String, CircuitBreaker.Permit> tried, RemoteCallback callback) {
+            super(new Callable<RemoteMessage>() {
+                public RemoteMessage call() throws Exception {
+                    throw new IllegalStateException();
+                }
+            }, callback);
+            _request = request;
+            _tried = tried;
+            _retriesLeft = isIdempotent(request) ? _retries : 0;
+        }
+        
+        void start(final RemoteEndpoint ep) {
+            final CircuitBreaker.Permit permit = _tried.get(ep.getEndpoint());
+            Future<RemoteMessage> attempt = _transport.submit(getInvoker(ep.getEndpoint()).getEndpoint(), new Callable<RemoteMessage>() {
+                public RemoteMessage call() throws Exception {
+                    return attempt(ep, _request, permit);
+                }
+            }, this);
+            synchronized (this) {
+                // an attempt already done may have been followed by the next one
+                if (!attempt.isDone()) {
+                    _attempt = attempt;
+                }
+            }
+            if (isCancelled()) {
+                attempt.cancel(true);
+            }
+        }
+        
+        @Override
+        public void run() {
+            // completed by its attempts, never run itself
+        }
+        
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Future<RemoteMessage> attempt;
+            synchronized (this) {
+                attempt = _attempt;
+            }
+            if (attempt != null) {
+                attempt.cancel(mayInterruptIfRunning);
+            }
+            return cancelled;
+        }
+        
+        public void onReply(RemoteMessage reply) {
+            set(reply);
+        }
+        
+        public void onFailure(Throwable failure) {
+            RemoteEndpoint next = null;
+            if (failure instanceof IOException && _retriesLeft-- > 0 && !isDone()) {
+                next = selectAvailable(_request.getService(), _loadBalancer.selectEndpoint(_request.getService()), _tried);
+            }
+            if (next == null) {
+                setException(failure);
+                return;
+            }
+            if (_log.isDebugEnabled()) {
+                _log.debug("Retrying " + _request.getService() + " at endpoint " + next.getEndpoint(), failure);
+            }
+            start(next);
+        }
+    }
+    
+    // the reply or failure of a hedged invocation
+    private static final class Outcome {
+        private final RemoteMessage _reply;
+        private final Throwable _failure;
+        
+        Outcome(RemoteMessage reply, Throwable failure) {
+            _reply = reply;
+            _failure = failure;
+        }
+        
+        RemoteMessage getReply() throws IOException {
+            if (_failure instanceof IOException) {
+                throw (IOException)_failure;
+            } else if (_failure instanceof RuntimeException) {
+                throw (RuntimeException)_failure;
+            } else if (_failure instanceof Error) {
+                throw (Error)_failure;
+            } else if (_failure != null) {
+                throw new IOException(_failure);
+            }
+            return _reply;
+        }
+        
+        Throwable getFailure() {
+            return _failure;
+        }
     }
     
 }
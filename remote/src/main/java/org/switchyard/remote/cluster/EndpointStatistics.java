@@ -0,0 +1,141 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.remote.cluster;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.switchyard.common.util.StripedCounter;
+
+/**
+ * Statistics of the invocations of a remote endpoint: how many are in flight, and an exponentially
+ * weighted moving average (EWMA) of their latency.  Updates are lock-free, so every invocation can
+ * record its timing without the invoking threads contending.
+ * <p/>
+ * The average forgets its samples as they age, decaying towards zero once an endpoint has not
+ * been invoked for a while, so that an endpoint which was once slow gets tried again.
+ */
+public class EndpointStatistics {
+
+    /** Weight of each new latency sample in the average. */
+    public static final double LATENCY_WEIGHT = 0.2;
+    /** How long the average takes to decay to about a third of itself when there are no new samples, in nanoseconds. */
+    public static final long LATENCY_DECAY = TimeUnit.SECONDS.toNanos(10);
+
+    private final String _endpoint;
+    private final StripedCounter _inFlight = new StripedCounter();
+    private final StripedCounter _invocations = new StripedCounter();
+    private final StripedCounter _failures = new StripedCounter();
+    // the average, as the bits of a double so it can be compared and set
+    private final AtomicLong _latency = new AtomicLong(Double.doubleToLongBits(0));
+    private volatile long _lastSample;
+
+    /**
+     * Create new statistics of an endpoint.
+     * @param endpoint the endpoint
+     */
+    public EndpointStatistics(String endpoint) {
+        _endpoint = endpoint;
+    }
+
+    /**
+     * Gets the endpoint.
+     * @return the endpoint
+     */
+    public String getEndpoint() {
+        return _endpoint;
+    }
+
+    /**
+     * Records the start of an invocation.
+     * @return the start time, to pass to {@link #completed(long, boolean)}
+     */
+    public long started() {
+        _inFlight.increment();
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the end of an invocation.  A failed invocation counts as at least twice as slow as
+     * the average, since failures are often quicker than replies, and a node which fails fast would
+     * otherwise look like the quickest.
+     * @param start the start time returned by {@link #started()}
+     * @param failed whether the invocation failed
+     */
+    public void completed(long start, boolean failed) {
+        long now = System.nanoTime();
+        _inFlight.decrement();
+        _invocations.increment();
+        long lastSample = _lastSample;
+        double sample = now - start;
+        if (failed) {
+            _failures.increment();
+            sample = Math.max(sample, 2 * decay(Double.longBitsToDouble(_latency.get()), lastSample, now));
+        }
+        while (true) {
+            long bits = _latency.get();
+            // the sample is blended into the average as it has decayed, not as it was last stored
+            double latency = decay(Double.longBitsToDouble(bits), lastSample, now);
+            double next = lastSample == 0 ? sample : latency + LATENCY_WEIGHT * (sample - latency);
+            if (_latency.compareAndSet(bits, Double.doubleToLongBits(next))) {
+                break;
+            }
+        }
+        _lastSample = now;
+    }
+
+    /**
+     * Gets the number of invocations in flight.
+     * @return the invocations in flight
+     */
+    public long getInFlight() {
+        return _inFlight.sum();
+    }
+
+    /**
+     * Gets the number of invocations completed.
+     * @return the invocations completed
+     */
+    public long getInvocations() {
+        return _invocations.sum();
+    }
+
+    /**
+     * Gets the number of invocations failed.
+     * @return the invocations failed
+     */
+    public long getFailures() {
+        return _failures.sum();
+    }
+
+    /**
+     * Gets the moving average of the latency, decayed by the time since the last sample.
+     * @return the average latency, in nanoseconds, or 0 if the endpoint has not been invoked
+     */
+    public long getLatency() {
+        long lastSample = _lastSample;
+        if (lastSample == 0) {
+            return 0;
+        }
+        return (long)decay(Double.longBitsToDouble(_latency.get()), lastSample, System.nanoTime());
+    }
+
+    private static double decay(double latency, long lastSample, long now) {
+        if (lastSample == 0 || now <= lastSample) {
+            return latency;
+        }
+        return latency * Math.exp(-(double)(now - lastSample) / LATENCY_DECAY);
+    }
+
+}
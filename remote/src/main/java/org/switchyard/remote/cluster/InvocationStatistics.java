@@ -0,0 +1,44 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.remote.cluster;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Statistics of the invocations of remote endpoints, collected by a ClusteredInvoker and read by
+ * load aware strategies to select endpoints.
+ */
+public class InvocationStatistics {
+
+    private ConcurrentMap<String, EndpointStatistics> _endpoints = new ConcurrentHashMap<String, EndpointStatistics>();
+
+    /**
+     * Gets the statistics of an endpoint, creating them if the endpoint has not been seen before.
+     * @param endpoint the endpoint
+     * @return the statistics of the endpoint
+     */
+    public EndpointStatistics getStatistics(String endpoint) {
+        EndpointStatistics stats = _endpoints.get(endpoint);
+        if (stats == null) {
+            stats = new EndpointStatistics(endpoint);
+            EndpointStatistics existing = _endpoints.putIfAbsent(endpoint, stats);
+            if (existing != null) {
+                stats = existing;
+            }
+        }
+        return stats;
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.remote.cluster;
+
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.switchyard.remote.RemoteEndpoint;
+
+/**
+ * Latency aware endpoint selection strategy, which selects the endpoint with the lowest moving
+ * average of its response latency.  The average is scaled by the number of invocations in flight,
+ * so that the quickest endpoint is not sent every invocation at once while its average catches up.
+ * Endpoints not yet invoked have no latency, so each is tried before the averages decide.
+ */
+public class LatencyStrategy extends LoadAwareStrategy {
+    
+    /**
+     * Create a new LatencyStrategy.
+     */
+    public LatencyStrategy() {
+        super();
+    }
+
+    @Override
+    public RemoteEndpoint selectEndpoint(QName serviceName) {
+        if (getRegistry() == null) {
+            return null;
+        }
+        
+        RemoteEndpoint selectedEp = null;
+        List<RemoteEndpoint> eps = getRegistry().getEndpoints(serviceName);
+        if (!eps.isEmpty()) {
+            // start from a random endpoint so ties don't all go to the first
+            int start = nextInt(eps.size());
+            double lowest = Double.MAX_VALUE;
+            for (int i = 0; i < eps.size(); i++) {
+                RemoteEndpoint ep = eps.get((start + i) % eps.size());
+                EndpointStatistics stats = getStatistics().getStatistics(ep.getEndpoint());
+                double cost = (double)stats.getLatency() * (stats.getInFlight() + 1);
+                if (cost < lowest) {
+                    lowest = cost;
+                    selectedEp = ep;
+                }
+            }
+        }
+        
+        return selectedEp;
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.remote.cluster;
+
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.switchyard.remote.RemoteEndpoint;
+
+/**
+ * Least in-flight endpoint selection strategy, which selects the endpoint with the fewest
+ * invocations waiting on a reply.  Endpoints with the same number in flight are selected 
+ * between at random.
+ */
+public class LeastInFlightStrategy extends LoadAwareStrategy {
+    
+    /**
+     * Create a new LeastInFlightStrategy.
+     */
+    public LeastInFlightStrategy() {
+        super();
+    }
+
+    @Override
+    public RemoteEndpoint selectEndpoint(QName serviceName) {
+        if (getRegistry() == null) {
+            return null;
+        }
+        
+        RemoteEndpoint selectedEp = null;
+        List<RemoteEndpoint> eps = getRegistry().getEndpoints(serviceName);
+        if (!eps.isEmpty()) {
+            // start from a random endpoint so ties don't all go to the first
+            int start = nextInt(eps.size());
+            long least = Long.MAX_VALUE;
+            for (int i = 0; i < eps.size(); i++) {
+                RemoteEndpoint ep = eps.get((start + i) % eps.size());
+                long inFlight = getStatistics().getStatistics(ep.getEndpoint()).getInFlight();
+                if (inFlight < least) {
+                    least = inFlight;
+                    selectedEp = ep;
+                }
+            }
+        }
+        
+        return selectedEp;
+    }
+
+}
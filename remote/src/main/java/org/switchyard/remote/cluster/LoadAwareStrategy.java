@@ -0,0 +1,58 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.remote.cluster;
+
+import java.util.Random;
+
+/**
+ * Abstract base class for strategies which select endpoints by their load, as recorded in the
+ * invocation statistics of the ClusteredInvoker using the strategy.
+ */
+public abstract class LoadAwareStrategy extends BaseStrategy {
+
+    // a Random per thread, so selecting endpoints at random doesn't contend on one seed
+    private static final ThreadLocal<Random> RANDOM = new ThreadLocal<Random>() {
+        @Override
+        protected Random initialValue() {
+            return new Random();
+        }
+    };
+
+    private InvocationStatistics _statistics = new InvocationStatistics();
+
+    /**
+     * Returns the invocation statistics used by the load balancing strategy.
+     * @return invocation statistics
+     */
+    public InvocationStatistics getStatistics() {
+        return _statistics;
+    }
+
+    /**
+     * Specifies the invocation statistics used by the load balancing strategy.
+     * @param statistics invocation statistics
+     */
+    public void setStatistics(InvocationStatistics statistics) {
+        _statistics = statistics;
+    }
+
+    /**
+     * Returns a random number between zero (inclusive) and a bound (exclusive).
+     * @param bound the bound
+     * @return the random number
+     */
+    protected static int nextInt(int bound) {
+        return RANDOM.get().nextInt(bound);
+    }
+}
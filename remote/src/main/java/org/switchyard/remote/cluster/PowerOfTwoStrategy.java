@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.remote.cluster;
+
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.switchyard.remote.RemoteEndpoint;
+
+/**
+ * Power of two choices endpoint selection strategy, which picks two endpoints at random and
+ * selects the one with fewer invocations in flight, or the lower average latency if they have the
+ * same number.  Comparing just two keeps selection constant time however many endpoints there are,
+ * while still steering invocations away from loaded endpoints.
+ */
+public class PowerOfTwoStrategy extends LoadAwareStrategy {
+    
+    /**
+     * Create a new PowerOfTwoStrategy.
+     */
+    public PowerOfTwoStrategy() {
+        super();
+    }
+
+    @Override
+    public RemoteEndpoint selectEndpoint(QName serviceName) {
+        if (getRegistry() == null) {
+            return null;
+        }
+        
+        List<RemoteEndpoint> eps = getRegistry().getEndpoints(serviceName);
+        if (eps.isEmpty()) {
+            return null;
+        } else if (eps.size() == 1) {
+            return eps.get(0);
+        }
+        
+        // two distinct endpoints: the second is picked from the others
+        int first = nextInt(eps.size());
+        int second = (first + 1 + nextInt(eps.size() - 1)) % eps.size();
+        EndpointStatistics stats1 = getStatistics().getStatistics(eps.get(first).getEndpoint());
+        EndpointStatistics stats2 = getStatistics().getStatistics(eps.get(second).getEndpoint());
+        long inFlight1 = stats1.getInFlight();
+        long inFlight2 = stats2.getInFlight();
+        if (inFlight1 != inFlight2) {
+            return eps.get(inFlight1 < inFlight2 ? first : second);
+        }
+        return eps.get(stats1.getLatency() <= stats2.getLatency() ? first : second);
+    }
+
+}
@@ -18,15 +18,20 @@ import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import org.jboss.logging.Logger;
 import org.switchyard.Property;
+import org.switchyard.internal.ContextProperty;
+import org.switchyard.remote.RemoteCallback;
 import org.switchyard.remote.RemoteInvoker;
 import org.switchyard.remote.RemoteMessage;
 import org.switchyard.remote.RemoteMessages;
 import org.switchyard.serial.FormatType;
 import org.switchyard.serial.Serializer;
 import org.switchyard.serial.SerializerFactory;
+import org.switchyard.serial.spi.SerializationProvider;
 
 /**
  * Remote service invoker which uses HTTP as a transport.
@@ -39,19 +44,35 @@ public class HttpInvoker implements RemoteInvoker {
     public static final String SERVICE_HEADER = "switchyard-service";
 
     private static Logger _log = Logger.getLogger(HttpInvoker.class);
+    static {
+        // registered from here, where they are visible, rather than looked up by the serialization formats
+        SerializationProvider.register(RemoteMessage.class, ContextProperty.class);
+    }
+
     private Serializer _serializer = SerializerFactory.create(FormatType.JSON, null, true);
     private URL _endpoint;
+    private HttpTransport _transport;
     
     /**
      * Create a new HttpInvoker from the specified URL string.
      * @param endpoint url string
      */
     public HttpInvoker(String endpoint) {
+        this(endpoint, HttpTransport.getDefault());
+    }
+    
+    /**
+     * Create a new HttpInvoker from the specified URL string and transport.
+     * @param endpoint url string
+     * @param transport the transport
+     */
+    public HttpInvoker(String endpoint, HttpTransport transport) {
         try {
             _endpoint = new URL(endpoint);
         } catch (MalformedURLException badURL) {
             throw RemoteMessages.MESSAGES.invalidURLForEndpoint(endpoint, badURL);
         }
+        _transport = transport;
     }
     
     /**
@@ -59,7 +80,33 @@ public class HttpInvoker implements RemoteInvoker {
      * @param endpoint the endpoint URL
      */
     public HttpInvoker(URL endpoint) {
+        this(endpoint, HttpTransport.getDefault());
+    }
+    
+    /**
+     * Create a new HttpInvoker with the specified URL and transport.
+     * @param endpoint the endpoint URL
+     * @param transport the transport
+     */
+    public HttpInvoker(URL endpoint, HttpTransport transport) {
         _endpoint = endpoint;
+        _transport = transport;
+    }
+
+    /**
+     * Gets the endpoint URL.
+     * @return the endpoint URL
+     */
+    public URL getEndpoint() {
+        return _endpoint;
+    }
+
+    /**
+     * Gets the transport.
+     * @return the transport
+     */
+    public HttpTransport getTransport() {
+        return _transport;
     }
 
     @Override
@@ -71,37 +118,53 @@ public class HttpInvoker implements RemoteInvoker {
             _log.debug("Invoking " + request.getService() + " at endpoint " + _endpoint.toString());
         }
         
-        // Initialize HTTP connection
-        conn = (HttpURLConnection)_endpoint.openConnection();
-        conn.setDoOutput(true);
-        conn.addRequestProperty(SERVICE_HEADER, request.getService().toString());
-        for (Property prop : request.getContext().getProperties(HttpInvokerLabel.HEADER.label())) {
-            conn.addRequestProperty(prop.getName(), prop.getValue().toString());
-        }
-        
-        conn.connect();
-        OutputStream os = conn.getOutputStream();
+        // Initialize HTTP connection, reusing a kept alive one where there is one
+        conn = _transport.open(_endpoint);
+        boolean completed = false;
         try {
-        // Write the request message
-            _serializer.serialize(request, RemoteMessage.class, os);
-            os.flush();
-        } finally { 
-            os.close();
-        }
-        
-        // Check for response and process accordingly
-        if (conn.getResponseCode() == 200) {
-            if (_log.isDebugEnabled()) {
-                _log.debug("Processing reply for service " + request.getService());
+            conn.setDoOutput(true);
+            conn.addRequestProperty(SERVICE_HEADER, request.getService().toString());
+            for (Property prop : request.getContext().getProperties(HttpInvokerLabel.HEADER.label())) {
+                conn.addRequestProperty(prop.getName(), prop.getValue().toString());
             }
-            InputStream is = conn.getInputStream();
+            
+            conn.connect();
+            OutputStream os = conn.getOutputStream();
             try {
+            // Write the request message
+                _serializer.serialize(request, RemoteMessage.class, os);
+                os.flush();
+            } finally { 
+                os.close();
+            }
+            
+            // Check for response and process accordingly
+            if (conn.getResponseCode() == 200) {
+                if (_log.isDebugEnabled()) {
+                    _log.debug("Processing reply for service " + request.getService());
+                }
+                // the transport reads the stream to the end and closes it, so the connection is kept
+                InputStream is = conn.getInputStream();
                 reply = _serializer.deserialize(is, RemoteMessage.class);
-            } finally {
-                is.close();
+            }
+            completed = true;
+        } finally {
+            if (completed) {
+                _transport.release(_endpoint, conn);
+            } else {
+                _transport.abort(_endpoint, conn);
             }
         }
         
         return reply;
     }
+
+    @Override
+    public Future<RemoteMessage> invokeAsync(final RemoteMessage request, RemoteCallback callback) {
+        return _transport.submit(_endpoint, new Callable<RemoteMessage>() {
+            public RemoteMessage call() throws Exception {
+                return invoke(request);
+            }
+        }, callback);
+    }
 }
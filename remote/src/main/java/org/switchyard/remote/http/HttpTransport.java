@@ -0,0 +1,346 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.remote.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.switchyard.remote.RemoteCallback;
+import org.switchyard.remote.RemoteFuture;
+import org.switchyard.remote.RemoteMessage;
+import org.switchyard.remote.RemoteMessages;
+
+/**
+ * HTTP transport shared by HttpInvokers, which keeps connections to each node alive between
+ * invocations and bounds how many are open to a node at once.
+ * <p/>
+ * Connections are reused through the JDK's keep-alive cache, which holds on to a connection once
+ * its response has been read to the end.  The transport drains every response, including error
+ * responses, so that each connection goes back to the cache.  The cache keeps up to
+ * <code>http.maxConnections</code> idle connections per node (5 by default), so raise that system
+ * property along with the maximum connections per node to keep more of them alive.
+ * <p/>
+ * Asynchronous invocations of a node run on an executor of its own, with a thread per connection
+ * the node may have open and a queue for the rest of its invocations in flight.  Invocations beyond
+ * the node's maximum in flight fail straight away instead of queuing up, and a slow node only ever
+ * holds up its own invocations, never those of other nodes.  A cancelled invocation counts as in
+ * flight until its thread is done with it.  Idle threads end after a while.
+ */
+public class HttpTransport {
+
+    /** Default maximum number of connections open to a node at once. */
+    public static final int DEFAULT_MAX_CONNECTIONS = 20;
+    /** Default connect timeout, in milliseconds. */
+    public static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+    /** Default read timeout, in milliseconds. */
+    public static final int DEFAULT_READ_TIMEOUT = 60000;
+    /** Default maximum number of asynchronous invocations in flight to a node at once. */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 200;
+
+    // how long an idle thread of a node's executor is kept, in seconds
+    private static final long THREAD_KEEP_ALIVE = 60;
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "switchyard-remote-http-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
+    private static final HttpTransport DEFAULT = new HttpTransport();
+
+    private final ConcurrentMap<String, Semaphore> _nodes = new ConcurrentHashMap<String, Semaphore>();
+    private final ConcurrentMap<String, NodeExecutor> _executors = new ConcurrentHashMap<String, NodeExecutor>();
+    private volatile int _maxConnections = DEFAULT_MAX_CONNECTIONS;
+    private volatile int _maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+    private volatile int _connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+    private volatile int _readTimeout = DEFAULT_READ_TIMEOUT;
+    private volatile boolean _keepAlive = true;
+
+    /**
+     * Gets the transport HttpInvokers share by default.
+     * @return the default transport
+     */
+    public static HttpTransport getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Gets the maximum number of connections open to a node at once.
+     * @return the maximum connections
+     */
+    public int getMaxConnections() {
+        return _maxConnections;
+    }
+
+    /**
+     * Sets the maximum number of connections open to a node at once.  Nodes already connected to
+     * keep the maximum they were first connected with.
+     * @param maxConnections the maximum connections
+     * @return this transport (useful for chaining)
+     */
+    public HttpTransport setMaxConnections(int maxConnections) {
+        _maxConnections = maxConnections;
+        return this;
+    }
+
+    /**
+     * Gets the maximum number of asynchronous invocations in flight to a node at once.
+     * @return the maximum invocations in flight
+     */
+    public int getMaxInFlight() {
+        return _maxInFlight;
+    }
+
+    /**
+     * Sets the maximum number of asynchronous invocations in flight to a node at once.  Nodes
+     * already invoked keep the maximum they were first invoked with.
+     * @param maxInFlight the maximum invocations in flight
+     * @return this transport (useful for chaining)
+     */
+    public HttpTransport setMaxInFlight(int maxInFlight) {
+        _maxInFlight = maxInFlight;
+        return this;
+    }
+
+    /**
+     * Gets the connect timeout, which also bounds the wait for a free connection.
+     * @return the connect timeout, in milliseconds
+     */
+    public int getConnectTimeout() {
+        return _connectTimeout;
+    }
+
+    /**
+     * Sets the connect timeout, which also bounds the wait for a free connection.
+     * @param connectTimeout the connect timeout, in milliseconds
+     * @return this transport (useful for chaining)
+     */
+    public HttpTransport setConnectTimeout(int connectTimeout) {
+        _connectTimeout = connectTimeout;
+        return this;
+    }
+
+    /**
+     * Gets the read timeout.
+     * @return the read timeout, in milliseconds
+     */
+    public int getReadTimeout() {
+        return _readTimeout;
+    }
+
+    /**
+     * Sets the read timeout.
+     * @param readTimeout the read timeout, in milliseconds
+     * @return this transport (useful for chaining)
+     */
+    public HttpTransport setReadTimeout(int readTimeout) {
+        _readTimeout = readTimeout;
+        return this;
+    }
+
+    /**
+     * Whether connections are kept alive between invocations.
+     * @return if kept alive
+     */
+    public boolean isKeepAlive() {
+        return _keepAlive;
+    }
+
+    /**
+     * Sets whether connections are kept alive between invocations.
+     * @param keepAlive if kept alive
+     * @return this transport (useful for chaining)
+     */
+    public HttpTransport setKeepAlive(boolean keepAlive) {
+        _keepAlive = keepAlive;
+        return this;
+    }
+
+    /**
+     * Opens a connection to an endpoint, waiting for one of its node's connections to free up.
+     * Every connection opened must be handed back through {@link #release(URL, HttpURLConnection)}
+     * or {@link #abort(URL, HttpURLConnection)}.
+     * @param endpoint the endpoint
+     * @return the connection
+     * @throws IOException if no connection became available in time, or the connection could not be opened
+     */
+    public HttpURLConnection open(URL endpoint) throws IOException {
+        String node = getNode(endpoint);
+        Semaphore permits = getPermits(node);
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(_connectTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            throw RemoteMessages.MESSAGES.noConnectionAvailable(node, _connectTimeout);
+        }
+        try {
+            HttpURLConnection conn = (HttpURLConnection)endpoint.openConnection();
+            conn.setConnectTimeout(_connectTimeout);
+            conn.setReadTimeout(_readTimeout);
+            conn.setUseCaches(false);
+            if (!_keepAlive) {
+                conn.setRequestProperty("Connection", "close");
+            }
+            return conn;
+        } catch (IOException ioe) {
+            permits.release();
+            throw ioe;
+        } catch (RuntimeException re) {
+            permits.release();
+            throw re;
+        }
+    }
+
+    /**
+     * Releases a connection opened by {@link #open(URL)} once its response has been read,
+     * reading what is left of the response so the connection can be reused.
+     * @param endpoint the endpoint
+     * @param conn the connection
+     */
+    public void release(URL endpoint, HttpURLConnection conn) {
+        try {
+            if (!_keepAlive || !drain(conn)) {
+                conn.disconnect();
+            }
+        } finally {
+            getPermits(getNode(endpoint)).release();
+        }
+    }
+
+    /**
+     * Releases a connection opened by {@link #open(URL)} after a failed exchange, closing it.
+     * @param endpoint the endpoint
+     * @param conn the connection
+     */
+    public void abort(URL endpoint, HttpURLConnection conn) {
+        try {
+            conn.disconnect();
+        } finally {
+            getPermits(getNode(endpoint)).release();
+        }
+    }
+
+    /**
+     * Runs an invocation of an endpoint asynchronously on its node's executor, unless the node
+     * already has the maximum number of invocations in flight.
+     * @param endpoint the endpoint
+     * @param invocation the invocation
+     * @param callback notified of the reply or failure, or null
+     * @return future of the reply
+     */
+    public Future<RemoteMessage> submit(URL endpoint, Callable<RemoteMessage> invocation, RemoteCallback callback) {
+        String node = getNode(endpoint);
+        NodeExecutor executor = getExecutor(node);
+        RemoteFuture future = new RemoteFuture(invocation, callback);
+        try {
+            executor.execute(future);
+        } catch (RejectedExecutionException ree) {
+            return RemoteFuture.failed(RemoteMessages.MESSAGES.tooManyInFlight(node, executor.getMaxInFlight()), callback);
+        }
+        return future;
+    }
+
+    private boolean drain(HttpURLConnection conn) {
+        try {
+            InputStream is = conn.getResponseCode() < HttpURLConnection.HTTP_BAD_REQUEST
+                    ? conn.getInputStream() : conn.getErrorStream();
+            if (is != null) {
+                byte[] buf = new byte[1024];
+                while (is.read(buf) != -1) {
+                    continue;
+                }
+                is.close();
+            }
+            return true;
+        } catch (IOException ioe) {
+            return false;
+        }
+    }
+
+    private NodeExecutor getExecutor(String node) {
+        NodeExecutor executor = _executors.get(node);
+        if (executor == null) {
+            executor = new NodeExecutor(_maxConnections, _maxInFlight);
+            NodeExecutor existing = _executors.putIfAbsent(node, executor);
+            if (existing != null) {
+                executor.shutdown();
+                executor = existing;
+            }
+        }
+        return executor;
+    }
+
+    private Semaphore getPermits(String node) {
+        Semaphore permits = _nodes.get(node);
+        if (permits == null) {
+            permits = new Semaphore(_maxConnections);
+            Semaphore existing = _nodes.putIfAbsent(node, permits);
+            if (existing != null) {
+                permits = existing;
+            }
+        }
+        return permits;
+    }
+
+    private static String getNode(URL endpoint) {
+        int port = endpoint.getPort() != -1 ? endpoint.getPort() : endpoint.getDefaultPort();
+        return endpoint.getProtocol() + "://" + endpoint.getHost() + ":" + port;
+    }
+
+    // threads for the connections a node may have open, and a queue for the rest of its invocations in flight
+    private static final class NodeExecutor extends ThreadPoolExecutor {
+        private final int _maxInFlight;
+
+        private NodeExecutor(int maxConnections, int maxInFlight) {
+            super(threads(maxConnections, maxInFlight), threads(maxConnections, maxInFlight),
+                    THREAD_KEEP_ALIVE, TimeUnit.SECONDS, queue(maxConnections, maxInFlight), THREAD_FACTORY);
+            allowCoreThreadTimeOut(true);
+            _maxInFlight = maxInFlight;
+        }
+
+        private int getMaxInFlight() {
+            return _maxInFlight;
+        }
+
+        private static int threads(int maxConnections, int maxInFlight) {
+            return Math.max(Math.min(maxConnections, maxInFlight), 1);
+        }
+
+        private static BlockingQueue<Runnable> queue(int maxConnections, int maxInFlight) {
+            int queued = maxInFlight - threads(maxConnections, maxInFlight);
+            return queued > 0 ? new LinkedBlockingQueue<Runnable>(queued) : new SynchronousQueue<Runnable>();
+        }
+    }
+
+}
@@ -14,15 +14,27 @@
 package org.switchyard.remote.infinispan;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.namespace.QName;
 
 import org.jboss.logging.Logger;
 import org.infinispan.Cache;
 import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryRemoved;
+import org.infinispan.notifications.cachelistener.event.CacheEntryCreatedEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryModifiedEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryRemovedEvent;
 import org.infinispan.notifications.cachemanagerlistener.annotation.ViewChanged;
 import org.infinispan.notifications.cachemanagerlistener.event.ViewChangedEvent;
 import org.infinispan.remoting.transport.Address;
@@ -32,21 +44,35 @@ import org.switchyard.remote.RemoteRegistry;
 import org.switchyard.serial.FormatType;
 import org.switchyard.serial.Serializer;
 import org.switchyard.serial.SerializerFactory;
+import org.switchyard.serial.spi.SerializationProvider;
 
 /**
  * Implementation of a distributed registry based on a replicated cache in Infinispan.
  * This class provides an implementation of the RemoteRegistry contract as well as a group
  * membership listener to detect node failures and remove endpoint registrations from that node.
+ * <p/>
+ * Each node keeps a local view of the cache, indexed by service name, which cache entry listeners
+ * keep up to date as endpoints are registered and removed anywhere in the cluster.  Looking up the
+ * endpoints for a service reads an immutable list from that view, without going to the cache or
+ * deserializing anything.
  */
 public class InfinispanRegistry implements RemoteRegistry {
 
     private static final QName ROOT_DOMAIN = new QName("all-domains");
     
     private static Logger _log = Logger.getLogger(InfinispanRegistry.class);
+    static {
+        SerializationProvider.register(RemoteEndpoint.class);
+    }
 
     private String _nodeName;
     private Cache<String, String> _serviceCache;
     private Serializer _serializer;
+    // endpoints by service and then by cache key, and the service of each cache key; guarded by _index
+    private final Map<QName, SortedMap<String, RemoteEndpoint>> _index = new HashMap<QName, SortedMap<String, RemoteEndpoint>>();
+    private final Map<String, QName> _keys = new HashMap<String, QName>();
+    // immutable endpoint lists published from the index, read without locking
+    private final ConcurrentMap<QName, List<RemoteEndpoint>> _endpoints = new ConcurrentHashMap<QName, List<RemoteEndpoint>>();
     
     /**
      * Create a new InfinispanRegistry using the specified replicated cache.
@@ -56,8 +82,13 @@ public class InfinispanRegistry implements RemoteRegistry {
         _serviceCache = serviceCache;
         _serializer = SerializerFactory.create(FormatType.JSON, null, true);
     
+        serviceCache.addListener(new EndpointListener());
         serviceCache.getCacheManager().addListener(new MemberDropListener());
         _nodeName = serviceCache.getCacheManager().getAddress().toString();
+        // pick up the endpoints already in the cache when the listener was added
+        for (String key : serviceCache.keySet()) {
+            indexScanned(key);
+        }
     }
     
     @Override
@@ -86,25 +117,9 @@ public class InfinispanRegistry implements RemoteRegistry {
 
     @Override
     public List<RemoteEndpoint> getEndpoints(QName serviceName) {
-        List<RemoteEndpoint> services = new LinkedList<RemoteEndpoint>();
-        // add remotes and prune the local entry
-        String serviceKey = createServiceKey(ROOT_DOMAIN, serviceName);
-        Set<String> nodes = _serviceCache.keySet();
-        if (nodes != null) {
-            for (String node : nodes) {
-                if (node.startsWith(serviceKey)) {
-                    String epStr = _serviceCache.get(node);
-                    // Catch a race condition where entry has been removed since keySet list was built
-                    if (epStr != null) {
-                        try {
-                            RemoteEndpoint ep = _serializer.deserialize(epStr.getBytes(), RemoteEndpoint.class);
-                            services.add(ep);
-                        } catch (java.io.IOException ioEx) {
-                            _log.warn("Failed to deserialize remote endpoint: " + epStr, ioEx);
-                        }
-                    }
-                }
-            }
+        List<RemoteEndpoint> services = _endpoints.get(serviceName);
+        if (services == null) {
+            services = Collections.emptyList();
         }
         return services;
     }
@@ -117,6 +132,133 @@ public class InfinispanRegistry implements RemoteRegistry {
         return createServiceKey(domain, service) + "/" + node;
     }
     
+    private void index(String key, String epStr) {
+        // catch a race condition where the entry has been removed since it was announced
+        if (epStr == null) {
+            return;
+        }
+        RemoteEndpoint ep;
+        try {
+            ep = _serializer.deserialize(epStr.getBytes(), RemoteEndpoint.class);
+        } catch (java.io.IOException ioEx) {
+            _log.warn("Failed to deserialize remote endpoint: " + epStr, ioEx);
+            return;
+        }
+        QName serviceName = ep.getServiceName();
+        if (serviceName == null) {
+            return;
+        }
+        synchronized (_index) {
+            QName previous = _keys.put(key, serviceName);
+            if (previous != null && !previous.equals(serviceName)) {
+                remove(previous, key);
+            }
+            SortedMap<String, RemoteEndpoint> eps = _index.get(serviceName);
+            if (eps == null) {
+                eps = new TreeMap<String, RemoteEndpoint>();
+                _index.put(serviceName, eps);
+            }
+            eps.put(key, ep);
+            publish(serviceName);
+        }
+    }
+    
+    // an entry found by the initial scan is read and indexed under the lock, so a removal announced
+    // to the listener meanwhile is either seen here or unindexes the entry after it
+    private void indexScanned(String key) {
+        synchronized (_index) {
+            String epStr = _serviceCache.get(key);
+            if (epStr != null && _serviceCache.containsKey(key)) {
+                index(key, epStr);
+            }
+        }
+    }
+    
+    private void unindex(String key) {
+        synchronized (_index) {
+            QName serviceName = _keys.remove(key);
+            if (serviceName != null) {
+                remove(serviceName, key);
+            }
+        }
+    }
+    
+    private void unindexNode(String node) {
+        synchronized (_index) {
+            Iterator<Map.Entry<String, QName>> keys = _keys.entrySet().iterator();
+            while (keys.hasNext()) {
+                Map.Entry<String, QName> entry = keys.next();
+                if (entry.getKey().endsWith("/" + node)) {
+                    keys.remove();
+                    remove(entry.getValue(), entry.getKey());
+                }
+            }
+        }
+    }
+    
+    // called holding the _index lock
+    private void remove(QName serviceName, String key) {
+        SortedMap<String, RemoteEndpoint> eps = _index.get(serviceName);
+        if (eps != null && eps.remove(key) != null) {
+            if (eps.isEmpty()) {
+                _index.remove(serviceName);
+            }
+            publish(serviceName);
+        }
+    }
+    
+    // called holding the _index lock
+    private void publish(QName serviceName) {
+        SortedMap<String, RemoteEndpoint> eps = _index.get(serviceName);
+        if (eps == null) {
+            _endpoints.remove(serviceName);
+        } else {
+            _endpoints.put(serviceName, Collections.unmodifiableList(new ArrayList<RemoteEndpoint>(eps.values())));
+        }
+    }
+    
+    /**
+     * Listeners for endpoint registrations, which keep the local view of the registry up to date
+     * with the cache on every node.
+     */
+    @Listener
+    public class EndpointListener {
+        /**
+         * Triggered when an endpoint is registered.  The event carries just the key, so the value
+         * is picked up from the cache if it is there yet, otherwise from the modification which
+         * follows.
+         * @param event creation details
+         */
+        @CacheEntryCreated
+        public void entryCreated(CacheEntryCreatedEvent<String, String> event) {
+            if (!event.isPre()) {
+                index(event.getKey(), _serviceCache.get(event.getKey()));
+            }
+        }
+        
+        /**
+         * Triggered when an endpoint registration is written.
+         * @param event modification details
+         */
+        @CacheEntryModified
+        public void entryModified(CacheEntryModifiedEvent<String, String> event) {
+            if (!event.isPre()) {
+                index(event.getKey(), event.getValue());
+            }
+        }
+        
+        /**
+         * Triggered when an endpoint registration is removed.
+         * @param event removal details
+         */
+        @CacheEntryRemoved
+        public void entryRemoved(CacheEntryRemovedEvent<String, String> event) {
+            if (!event.isPre()) {
+                unindex(event.getKey());
+            }
+        }
+    }
+    
     /**
      * Listeners for members which get dropped and removes any endpoint registrations for 
      * dropped nodes in the registry.
@@ -137,6 +279,8 @@ public class InfinispanRegistry implements RemoteRegistry {
         }
         
         void dropAllServices(Address address) {
+            // stop selecting the dropped node straight away, rather than once its removals replicate
+            unindexNode(address.toString());
             for (String node : _serviceCache.keySet()) {
                 if (node.endsWith("/" + address.toString())) {
                     _serviceCache.remove(node);
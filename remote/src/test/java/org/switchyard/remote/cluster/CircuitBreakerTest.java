@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.remote.cluster;
+
+import junit.framework.Assert;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CircuitBreakerTest {
+
+    private CircuitBreaker breaker;
+
+    @Before
+    public void setUp() throws Exception {
+        breaker = new CircuitBreaker(new EndpointStatistics("ep1"));
+        breaker.setFailureThreshold(3);
+        breaker.setOpenTimeout(100);
+    }
+
+    @Test
+    public void opensAfterConsecutiveFailures() {
+        breaker.onFailure();
+        breaker.onFailure();
+        // a success resets the count
+        breaker.onSuccess(breaker.allowRequest());
+        breaker.onFailure();
+        breaker.onFailure();
+        Assert.assertNotNull(breaker.allowRequest());
+        breaker.onFailure();
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assert.assertNull(breaker.allowRequest());
+        Assert.assertEquals(1, breaker.getTrips());
+    }
+
+    @Test
+    public void halfOpenProbe() throws Exception {
+        breaker.trip();
+        Assert.assertNull(breaker.allowRequest());
+        Thread.sleep(150);
+        // one probe goes through
+        Assert.assertNotNull(breaker.allowRequest());
+        Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        Assert.assertNull(breaker.allowRequest());
+        // and its failure opens the breaker again
+        breaker.onFailure();
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assert.assertNull(breaker.allowRequest());
+        Thread.sleep(150);
+        // while its success closes it
+        CircuitBreaker.Permit probe = breaker.allowRequest();
+        Assert.assertNotNull(probe);
+        breaker.onSuccess(probe);
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        Assert.assertNotNull(breaker.allowRequest());
+    }
+
+    @Test
+    public void eject() {
+        Assert.assertTrue(breaker.eject(0));
+        Assert.assertFalse(breaker.eject(0));
+        Assert.assertTrue(breaker.isShedding());
+        Assert.assertEquals(1, breaker.getEjections());
+        breaker.reset();
+        Assert.assertFalse(breaker.isShedding());
+    }
+
+    @Test
+    public void successWhileOpen() {
+        // invocations in flight when the breaker opened don't close it
+        CircuitBreaker.Permit inFlight = breaker.allowRequest();
+        breaker.eject(0);
+        breaker.onSuccess(inFlight);
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assert.assertNull(breaker.allowRequest());
+        breaker.reset();
+        inFlight = breaker.allowRequest();
+        breaker.trip();
+        breaker.onSuccess(inFlight);
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assert.assertNull(breaker.allowRequest());
+    }
+
+    @Test
+    public void successWhileHalfOpen() throws Exception {
+        // nor do they once the probe has gone through
+        CircuitBreaker.Permit inFlight = breaker.allowRequest();
+        breaker.trip();
+        Thread.sleep(150);
+        CircuitBreaker.Permit probe = breaker.allowRequest();
+        Assert.assertNotNull(probe);
+        breaker.onSuccess(inFlight);
+        Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onSuccess(probe);
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.remote.cluster;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import javax.management.ObjectName;
+import javax.xml.namespace.QName;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.switchyard.SwitchYardException;
+import org.switchyard.remote.RemoteEndpoint;
+import org.switchyard.remote.RemoteMessage;
+import org.switchyard.remote.RemoteRegistry;
+import org.switchyard.remote.http.HttpTransport;
+import org.switchyard.remote.http.MockHttpServer;
+
+public class ClusteredInvokerTest {
+
+    private static final QName TEST_SERVICE = new QName("ClusteredInvoker");
+    private RemoteRegistry registry = new MockRegistry();
+    private MockHttpServer server;
+    private ClusteredInvoker invoker;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockHttpServer().start();
+        invoker = new ClusteredInvoker(registry, new RoundRobinStrategy(), new HttpTransport());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        invoker.unregisterMBeans();
+        server.stop();
+    }
+
+    @Test
+    public void invoke() throws Exception {
+        registry.addEndpoint(new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint(server.getEndpoint()));
+        Assert.assertEquals("sync", invoker.invoke(new RemoteMessage().setService(TEST_SERVICE).setContent("sync")).getContent());
+    }
+
+    @Test
+    public void invokeAsync() throws Exception {
+        registry.addEndpoint(new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint(server.getEndpoint()));
+        Future<RemoteMessage> future = invoker.invokeAsync(new RemoteMessage().setService(TEST_SERVICE).setContent("async"), null);
+        Assert.assertEquals("async", future.get().getContent());
+    }
+
+    @Test
+    public void invokeAsyncNoEndpoints() throws Exception {
+        Future<RemoteMessage> future = invoker.invokeAsync(new RemoteMessage().setService(TEST_SERVICE), null);
+        try {
+            future.get();
+            Assert.fail("no endpoint should have been found");
+        } catch (ExecutionException ee) {
+            Assert.assertTrue(ee.getCause() instanceof SwitchYardException);
+        }
+    }
+
+    @Test
+    public void retryOnOtherNode() throws Exception {
+        // round robin tries the dead endpoint first
+        registry.addEndpoint(new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint(deadEndpoint()));
+        registry.addEndpoint(new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint(server.getEndpoint()));
+        invoker.setRetries(1).setIdempotentOperations("get");
+        RemoteMessage request = new RemoteMessage().setService(TEST_SERVICE).setOperation("get").setContent("retried");
+        Assert.assertEquals("retried", invoker.invoke(request).getContent());
+    }
+
+    @Test
+    public void retryAsyncOnOtherNode() throws Exception {
+        registry.addEndpoint(new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint(deadEndpoint()));
+        registry.addEndpoint(new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint(server.getEndpoint()));
+        invoker.setRetries(1).setIdempotentOperations("get");
+        RemoteMessage request = new RemoteMessage().setService(TEST_SERVICE).setOperation("get").setContent("retried");
+        Assert.assertEquals("retried", invoker.invokeAsync(request, null).get().getContent());
+    }
+
+    @Test(expected=IOException.class)
+    public void noRetryOfOtherOperations() throws Exception {
+        registry.addEndpoint(new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint(deadEndpoint()));
+        registry.addEndpoint(new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint(server.getEndpoint()));
+        invoker.setRetries(1).setIdempotentOperations("get");
+        invoker.invoke(new RemoteMessage().setService(TEST_SERVICE).setOperation("put"));
+    }
+
+    @Test
+    public void circuitBreakerSheds() throws Exception {
+        String dead = deadEndpoint();
+        registry.addEndpoint(new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint(dead));
+        registry.addEndpoint(new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint(server.getEndpoint()));
+        invoker.setFailureThreshold(1).registerMBeans("circuitBreakerSheds");
+        int failures = 0;
+        for (int i = 0; i < 10; i++) {
+            try {
+                invoker.invoke(new RemoteMessage().setService(TEST_SERVICE).setContent(i));
+            } catch (IOException ioEx) {
+                failures++;
+            }
+        }
+        // once open, the dead endpoint is no longer selected
+        Assert.assertEquals(1, failures);
+        Assert.assertEquals(9, server.getRequests());
+        ObjectName name = new ObjectName("org.switchyard.admin:type=CircuitBreaker,name=" + ObjectName.quote(dead)
+                + ",invoker=" + ObjectName.quote("circuitBreakerSheds"));
+        Assert.assertEquals("OPEN", ManagementFactory.getPlatformMBeanServer().getAttribute(name, "State"));
+    }
+
+    @Test
+    public void mbeanNameInUse() throws Exception {
+        invoker.registerMBeans("mbeanNameInUse");
+        ClusteredInvoker other = new ClusteredInvoker(registry, new RoundRobinStrategy(), new HttpTransport());
+        try {
+            other.registerMBeans("mbeanNameInUse");
+            Assert.fail("the name should have been in use");
+        } catch (IllegalArgumentException iae) {
+            Assert.assertNull(other.getName());
+        }
+        invoker.unregisterMBeans();
+        other.registerMBeans("mbeanNameInUse");
+        other.unregisterMBeans();
+    }
+
+    @Test
+    public void hedgedRequest() throws Exception {
+        MockHttpServer slow = new MockHttpServer().start().setDelay(2000);
+        try {
+            registry.addEndpoint(new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint(slow.getEndpoint()));
+            registry.addEndpoint(new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint(server.getEndpoint()));
+            invoker.setHedgeDelay(50).setIdempotentOperations(ClusteredInvoker.ALL_OPERATIONS);
+            long start = System.currentTimeMillis();
+            Assert.assertEquals("hedged", invoker.invoke(new RemoteMessage().setService(TEST_SERVICE).setContent("hedged")).getContent());
+            Assert.assertTrue(System.currentTimeMillis() - start < 1000);
+            Assert.assertEquals(1, server.getRequests());
+        } finally {
+            slow.stop();
+        }
+    }
+
+    @Test
+    public void outlierEjected() throws Exception {
+        MockHttpServer slow = new MockHttpServer().start().setDelay(50);
+        try {
+            registry.addEndpoint(new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint(server.getEndpoint()));
+            registry.addEndpoint(new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint(slow.getEndpoint()));
+            for (int i = 0; i < 40; i++) {
+                invoker.invoke(new RemoteMessage().setService(TEST_SERVICE).setContent(i));
+            }
+            Assert.assertTrue(slow.getRequests() < 20);
+            for (CircuitBreaker breaker : invoker.getCircuitBreakers()) {
+                Assert.assertEquals(breaker.getEndpoint().equals(slow.getEndpoint()) ? 1 : 0, breaker.getEjections());
+            }
+        } finally {
+            slow.stop();
+        }
+    }
+
+    private String deadEndpoint() throws Exception {
+        MockHttpServer dead = new MockHttpServer().start();
+        dead.stop();
+        return dead.getEndpoint();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.remote.cluster;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.namespace.QName;
+
+import junit.framework.Assert;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.switchyard.remote.RemoteEndpoint;
+import org.switchyard.remote.RemoteRegistry;
+
+public class LatencyStrategyTest {
+    
+    private static final QName TEST_SERVICE = new QName("LatencyStrategy");
+    private RemoteRegistry registry = new MockRegistry();
+    private LatencyStrategy latency = new LatencyStrategy();
+    
+    @Before
+    public void setUp() throws Exception {
+        latency.setRegistry(registry);
+    }
+
+    @Test
+    public void noEndpoints() {
+        Assert.assertNull(latency.selectEndpoint(TEST_SERVICE));
+    }
+    
+    @Test
+    public void oneEndpoint() {
+        registry.addEndpoint(new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint("ep1"));
+        Assert.assertNotNull(latency.selectEndpoint(TEST_SERVICE));
+    }
+    
+    @Test
+    public void lowestLatency() {
+        RemoteEndpoint ep1 = new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint("ep1");
+        RemoteEndpoint ep2 = new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint("ep2");
+        registry.addEndpoint(ep1);
+        registry.addEndpoint(ep2);
+        
+        // ep1 took 50ms, ep2 took 5ms
+        EndpointStatistics stats1 = latency.getStatistics().getStatistics(ep1.getEndpoint());
+        EndpointStatistics stats2 = latency.getStatistics().getStatistics(ep2.getEndpoint());
+        stats1.completed(stats1.started() - TimeUnit.MILLISECONDS.toNanos(50), false);
+        stats2.completed(stats2.started() - TimeUnit.MILLISECONDS.toNanos(5), false);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(ep2.getEndpoint(), latency.selectEndpoint(TEST_SERVICE).getEndpoint());
+        }
+        
+        // each failure makes ep2 look slower
+        for (int i = 0; i < 15; i++) {
+            stats2.completed(stats2.started(), true);
+        }
+        Assert.assertEquals(ep1.getEndpoint(), latency.selectEndpoint(TEST_SERVICE).getEndpoint());
+        Assert.assertEquals(15, stats2.getFailures());
+    }
+    
+    @Test
+    public void untriedEndpointFirst() {
+        RemoteEndpoint ep1 = new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint("ep1");
+        RemoteEndpoint ep2 = new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint("ep2");
+        registry.addEndpoint(ep1);
+        registry.addEndpoint(ep2);
+        
+        EndpointStatistics stats1 = latency.getStatistics().getStatistics(ep1.getEndpoint());
+        stats1.completed(stats1.started() - TimeUnit.MILLISECONDS.toNanos(1), false);
+        Assert.assertEquals(ep2.getEndpoint(), latency.selectEndpoint(TEST_SERVICE).getEndpoint());
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.remote.cluster;
+
+import javax.xml.namespace.QName;
+
+import junit.framework.Assert;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.switchyard.remote.RemoteEndpoint;
+import org.switchyard.remote.RemoteRegistry;
+
+public class LeastInFlightStrategyTest {
+    
+    private static final QName TEST_SERVICE = new QName("LeastInFlightStrategy");
+    private RemoteRegistry registry = new MockRegistry();
+    private LeastInFlightStrategy leastInFlight = new LeastInFlightStrategy();
+    
+    @Before
+    public void setUp() throws Exception {
+        leastInFlight.setRegistry(registry);
+    }
+
+    @Test
+    public void noEndpoints() {
+        Assert.assertNull(leastInFlight.selectEndpoint(TEST_SERVICE));
+    }
+    
+    @Test
+    public void oneEndpoint() {
+        registry.addEndpoint(new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint("ep1"));
+        Assert.assertNotNull(leastInFlight.selectEndpoint(TEST_SERVICE));
+    }
+    
+    @Test
+    public void fewestInFlight() {
+        RemoteEndpoint ep1 = new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint("ep1");
+        RemoteEndpoint ep2 = new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint("ep2");
+        registry.addEndpoint(ep1);
+        registry.addEndpoint(ep2);
+        
+        // two invocations in flight to ep1, one to ep2
+        EndpointStatistics stats1 = leastInFlight.getStatistics().getStatistics(ep1.getEndpoint());
+        EndpointStatistics stats2 = leastInFlight.getStatistics().getStatistics(ep2.getEndpoint());
+        long start = stats1.started();
+        stats1.started();
+        stats2.started();
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(ep2.getEndpoint(), leastInFlight.selectEndpoint(TEST_SERVICE).getEndpoint());
+        }
+        
+        // both have one in flight, so either may be selected
+        stats1.completed(start, false);
+        boolean ep1Selected = false;
+        for (int i = 0; i < 100; i++) {
+            ep1Selected |= ep1.getEndpoint().equals(leastInFlight.selectEndpoint(TEST_SERVICE).getEndpoint());
+        }
+        Assert.assertTrue(ep1Selected);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.remote.cluster;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.namespace.QName;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.switchyard.remote.RemoteEndpoint;
+import org.switchyard.remote.RemoteMessage;
+import org.switchyard.remote.RemoteRegistry;
+import org.switchyard.remote.http.HttpTransport;
+import org.switchyard.remote.http.MockHttpServer;
+
+public class StrategyComparisonTest {
+
+    private static final QName TEST_SERVICE = new QName("StrategyComparison");
+    // two quick nodes and one slow one
+    private static final long[] DELAYS = new long[] {2, 2, 30};
+    private MockHttpServer[] servers = new MockHttpServer[DELAYS.length];
+
+    @Before
+    public void setUp() throws Exception {
+        for (int i = 0; i < servers.length; i++) {
+            servers[i] = new MockHttpServer().start().setDelay(DELAYS[i]);
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (MockHttpServer server : servers) {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void compareStrategies() throws Exception {
+        boolean debug = false; // toggle this is you're interested in performance
+        int threads = 4;
+        int invocations = debug ? 500 : 10;
+        LoadBalanceStrategy[] strategies = new LoadBalanceStrategy[] {new RoundRobinStrategy(), new RandomStrategy(),
+            new LeastInFlightStrategy(), new LatencyStrategy(), new PowerOfTwoStrategy()};
+        int roundRobinSlow = 0;
+        for (LoadBalanceStrategy strategy : strategies) {
+            RemoteRegistry registry = new MockRegistry();
+            for (MockHttpServer server : servers) {
+                registry.addEndpoint(new RemoteEndpoint().setServiceName(TEST_SERVICE).setEndpoint(server.getEndpoint()));
+            }
+            ClusteredInvoker invoker = new ClusteredInvoker(registry, strategy, new HttpTransport());
+            int slowBefore = servers[servers.length - 1].getRequests();
+            long start = System.nanoTime();
+            Assert.assertEquals(threads * invocations, invokeConcurrently(invoker, threads, invocations));
+            long elapsed = System.nanoTime() - start;
+            int slow = servers[servers.length - 1].getRequests() - slowBefore;
+            if (strategy instanceof RoundRobinStrategy) {
+                roundRobinSlow = slow;
+            } else if (debug && strategy instanceof LatencyStrategy) {
+                // too few invocations to tell the strategies apart reliably otherwise
+                Assert.assertTrue(slow < roundRobinSlow);
+            }
+            if (debug) {
+                System.out.println(strategy.getClass().getSimpleName()
+                    + ": mean latency " + (elapsed / invocations / 1000) + " microseconds"
+                    + ", " + (slow * 100 / (threads * invocations)) + "% of invocations to the slow node");
+            }
+        }
+    }
+
+    private int invokeConcurrently(final ClusteredInvoker invoker, int threads, final int invocations) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(new Callable<Integer>() {
+                    public Integer call() throws Exception {
+                        int replies = 0;
+                        for (int i = 0; i < invocations; i++) {
+                            if (invoker.invoke(new RemoteMessage().setService(TEST_SERVICE).setContent(i)) != null) {
+                                replies++;
+                            }
+                        }
+                        return replies;
+                    }
+                }));
+            }
+            int replies = 0;
+            for (Future<Integer> future : futures) {
+                replies += future.get();
+            }
+            return replies;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
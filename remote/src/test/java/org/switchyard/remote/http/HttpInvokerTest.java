@@ -0,0 +1,240 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.remote.http;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.xml.namespace.QName;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.switchyard.remote.RemoteCallback;
+import org.switchyard.remote.RemoteMessage;
+
+public class HttpInvokerTest {
+
+    private static final QName TEST_SERVICE = new QName("HttpInvoker");
+    private MockHttpServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockHttpServer().start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+    }
+
+    @Test
+    public void invoke() throws Exception {
+        RemoteMessage request = new RemoteMessage().setService(TEST_SERVICE).setContent("hello");
+        request.getContext().setProperty("test-header", "header-value").addLabels(HttpInvokerLabel.HEADER.label());
+        RemoteMessage reply = new HttpInvoker(server.getEndpoint(), new HttpTransport()).invoke(request);
+        Assert.assertEquals("hello", reply.getContent());
+        Assert.assertEquals("header-value", reply.getContext().getPropertyValue("test-header"));
+    }
+
+    @Test
+    public void connectionReused() throws Exception {
+        HttpInvoker invoker = new HttpInvoker(server.getEndpoint(), new HttpTransport());
+        for (int i = 0; i < 10; i++) {
+            invoker.invoke(new RemoteMessage().setService(TEST_SERVICE).setContent(i));
+        }
+        Assert.assertEquals(10, server.getRequests());
+        Assert.assertEquals(1, server.getConnections());
+    }
+
+    @Test
+    public void connectionReusedAfterError() throws Exception {
+        HttpInvoker invoker = new HttpInvoker(server.getEndpoint(), new HttpTransport());
+        server.setStatus(500);
+        Assert.assertNull(invoker.invoke(new RemoteMessage().setService(TEST_SERVICE)));
+        server.setStatus(200);
+        Assert.assertEquals("ok", invoker.invoke(new RemoteMessage().setService(TEST_SERVICE).setContent("ok")).getContent());
+        Assert.assertEquals(1, server.getConnections());
+    }
+
+    @Test
+    public void keepAliveDisabled() throws Exception {
+        HttpInvoker invoker = new HttpInvoker(server.getEndpoint(), new HttpTransport().setKeepAlive(false));
+        for (int i = 0; i < 3; i++) {
+            invoker.invoke(new RemoteMessage().setService(TEST_SERVICE).setContent(i));
+        }
+        Assert.assertEquals(3, server.getConnections());
+    }
+
+    @Test
+    public void maxConnections() throws Exception {
+        server.setDelay(50);
+        final HttpInvoker invoker = new HttpInvoker(server.getEndpoint(), new HttpTransport().setMaxConnections(2));
+        Assert.assertEquals(8, invokeConcurrently(invoker, 8, 1));
+        Assert.assertTrue(server.getMaxActive() <= 2);
+    }
+
+    @Test(expected=IOException.class)
+    public void readTimeout() throws Exception {
+        server.setDelay(2000);
+        new HttpInvoker(server.getEndpoint(), new HttpTransport().setReadTimeout(100))
+            .invoke(new RemoteMessage().setService(TEST_SERVICE));
+    }
+
+    @Test
+    public void invokeAsync() throws Exception {
+        final AtomicReference<RemoteMessage> callbackReply = new AtomicReference<RemoteMessage>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        Future<RemoteMessage> future = new HttpInvoker(server.getEndpoint(), new HttpTransport())
+            .invokeAsync(new RemoteMessage().setService(TEST_SERVICE).setContent("async"), new RemoteCallback() {
+                public void onReply(RemoteMessage reply) {
+                    callbackReply.set(reply);
+                    latch.countDown();
+                }
+                public void onFailure(Throwable failure) {
+                    latch.countDown();
+                }
+            });
+        Assert.assertEquals("async", future.get().getContent());
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals("async", callbackReply.get().getContent());
+    }
+
+    @Test
+    public void fanOutAsync() throws Exception {
+        server.setDelay(100);
+        HttpInvoker invoker = new HttpInvoker(server.getEndpoint(), new HttpTransport());
+        List<Future<RemoteMessage>> futures = new ArrayList<Future<RemoteMessage>>();
+        // one calling thread, many invocations in flight
+        for (int i = 0; i < 10; i++) {
+            futures.add(invoker.invokeAsync(new RemoteMessage().setService(TEST_SERVICE).setContent(i), null));
+        }
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(Integer.valueOf(i), futures.get(i).get().getContent());
+        }
+        Assert.assertTrue(server.getMaxActive() > 1);
+    }
+
+    @Test
+    public void maxInFlight() throws Exception {
+        server.setDelay(500);
+        HttpInvoker invoker = new HttpInvoker(server.getEndpoint(), new HttpTransport().setMaxInFlight(1));
+        Future<RemoteMessage> first = invoker.invokeAsync(new RemoteMessage().setService(TEST_SERVICE).setContent("first"), null);
+        Future<RemoteMessage> second = invoker.invokeAsync(new RemoteMessage().setService(TEST_SERVICE).setContent("second"), null);
+        try {
+            second.get();
+            Assert.fail("second invocation should have been refused");
+        } catch (ExecutionException ee) {
+            Assert.assertTrue(ee.getCause() instanceof IOException);
+        }
+        Assert.assertEquals("first", first.get().getContent());
+    }
+
+    @Test
+    public void cancelledStillInFlight() throws Exception {
+        server.setDelay(500);
+        HttpInvoker invoker = new HttpInvoker(server.getEndpoint(), new HttpTransport().setMaxInFlight(1));
+        Future<RemoteMessage> first = invoker.invokeAsync(new RemoteMessage().setService(TEST_SERVICE).setContent("first"), null);
+        for (int i = 0; i < 100 && server.getRequests() == 0; i++) {
+            Thread.sleep(10);
+        }
+        first.cancel(true);
+        // the cancelled invocation still holds its connection until the reply comes back
+        Future<RemoteMessage> second = invoker.invokeAsync(new RemoteMessage().setService(TEST_SERVICE).setContent("second"), null);
+        try {
+            second.get();
+            Assert.fail("second invocation should have been refused");
+        } catch (ExecutionException ee) {
+            Assert.assertTrue(ee.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void slowNodeIsolated() throws Exception {
+        MockHttpServer slow = new MockHttpServer().setDelay(2000).start();
+        try {
+            HttpTransport transport = new HttpTransport().setMaxConnections(2).setMaxInFlight(4);
+            HttpInvoker slowInvoker = new HttpInvoker(slow.getEndpoint(), transport);
+            for (int i = 0; i < 4; i++) {
+                slowInvoker.invokeAsync(new RemoteMessage().setService(TEST_SERVICE).setContent(i), null);
+            }
+            // the slow node's invocations don't hold up those of another node
+            Future<RemoteMessage> fast = new HttpInvoker(server.getEndpoint(), transport)
+                .invokeAsync(new RemoteMessage().setService(TEST_SERVICE).setContent("fast"), null);
+            Assert.assertEquals("fast", fast.get(1, TimeUnit.SECONDS).getContent());
+        } finally {
+            slow.stop();
+        }
+    }
+
+    @Test
+    public void compareKeepAlive() throws Exception {
+        boolean debug = false; // toggle this is you're interested in performance
+        int invocations = debug ? 2000 : 10;
+        for (boolean keepAlive : new boolean[] {false, true}) {
+            HttpInvoker invoker = new HttpInvoker(server.getEndpoint(), new HttpTransport().setKeepAlive(keepAlive));
+            // warm up
+            invokeConcurrently(invoker, 4, invocations / 4);
+            long start = System.nanoTime();
+            invokeConcurrently(invoker, 1, invocations);
+            long sequential = System.nanoTime() - start;
+            start = System.nanoTime();
+            invokeConcurrently(invoker, 4, invocations);
+            long concurrent = System.nanoTime() - start;
+            if (debug) {
+                System.out.println("keepAlive=" + keepAlive
+                    + ": latency " + (sequential / invocations / 1000) + " microseconds"
+                    + ", throughput " + (invocations * 4 * 1000000000L / concurrent) + " invocations/second with 4 threads");
+            }
+        }
+    }
+
+    private int invokeConcurrently(final HttpInvoker invoker, int threads, final int invocations) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(new Callable<Integer>() {
+                    public Integer call() throws Exception {
+                        int replies = 0;
+                        for (int i = 0; i < invocations; i++) {
+                            if (invoker.invoke(new RemoteMessage().setService(TEST_SERVICE).setContent(i)) != null) {
+                                replies++;
+                            }
+                        }
+                        return replies;
+                    }
+                }));
+            }
+            int replies = 0;
+            for (Future<Integer> future : futures) {
+                replies += future.get();
+            }
+            return replies;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.remote.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.switchyard.remote.RemoteMessage;
+import org.switchyard.serial.FormatType;
+import org.switchyard.serial.Serializer;
+import org.switchyard.serial.SerializerFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * In-process stand-in for a remote SwitchYard node, which replies to each RemoteMessage with
+ * its content after an optional delay.
+ */
+public class MockHttpServer implements HttpHandler {
+
+    static {
+        // like a real node's web container, don't hold the reply body back behind its headers
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final Serializer _serializer = SerializerFactory.create(FormatType.JSON, null, true);
+    private final Set<Integer> _clientPorts = Collections.synchronizedSet(new HashSet<Integer>());
+    private final AtomicInteger _active = new AtomicInteger();
+    private final AtomicInteger _maxActive = new AtomicInteger();
+    private final AtomicInteger _requests = new AtomicInteger();
+    private volatile long _delay;
+    private volatile int _status = 200;
+    private HttpServer _server;
+    private ExecutorService _executor;
+
+    /**
+     * Starts the server on a free local port.
+     * @return this server
+     * @throws IOException could not start
+     */
+    public MockHttpServer start() throws IOException {
+        _server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        _server.createContext("/", this);
+        _executor = Executors.newCachedThreadPool();
+        _server.setExecutor(_executor);
+        _server.start();
+        return this;
+    }
+
+    /**
+     * Stops the server.
+     */
+    public void stop() {
+        _server.stop(0);
+        _executor.shutdownNow();
+    }
+
+    /**
+     * Gets the endpoint URL of the server.
+     * @return the endpoint URL
+     */
+    public String getEndpoint() {
+        return "http://localhost:" + _server.getAddress().getPort() + "/switchyard-remote";
+    }
+
+    /**
+     * Sets how long each reply is delayed.
+     * @param delay the delay, in milliseconds
+     * @return this server
+     */
+    public MockHttpServer setDelay(long delay) {
+        _delay = delay;
+        return this;
+    }
+
+    /**
+     * Sets the status code replies are sent with.
+     * @param status the status code
+     * @return this server
+     */
+    public MockHttpServer setStatus(int status) {
+        _status = status;
+        return this;
+    }
+
+    /**
+     * Gets the number of distinct client connections seen.
+     * @return the number of connections
+     */
+    public int getConnections() {
+        return _clientPorts.size();
+    }
+
+    /**
+     * Gets the most requests handled at once.
+     * @return the most requests handled at once
+     */
+    public int getMaxActive() {
+        return _maxActive.get();
+    }
+
+    /**
+     * Gets the number of requests handled.
+     * @return the number of requests
+     */
+    public int getRequests() {
+        return _requests.get();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            _requests.incrementAndGet();
+            _clientPorts.add(exchange.getRemoteAddress().getPort());
+            RemoteMessage request;
+            // only counted as active until the reply goes out, after which the client may reuse the connection
+            int active = _active.incrementAndGet();
+            try {
+                while (true) {
+                    int max = _maxActive.get();
+                    if (active <= max || _maxActive.compareAndSet(max, active)) {
+                        break;
+                    }
+                }
+                InputStream is = exchange.getRequestBody();
+                request = _serializer.deserialize(is, RemoteMessage.class);
+                is.close();
+                if (_delay > 0) {
+                    try {
+                        Thread.sleep(_delay);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            } finally {
+                _active.decrementAndGet();
+            }
+            RemoteMessage reply = new RemoteMessage()
+                .setService(request.getService())
+                .setContent(request.getContent());
+            String header = exchange.getRequestHeaders().getFirst("test-header");
+            if (header != null) {
+                reply.getContext().setProperty("test-header", header);
+            }
+            byte[] bytes = _serializer.serialize(reply, RemoteMessage.class);
+            exchange.sendResponseHeaders(_status, bytes.length);
+            OutputStream os = exchange.getResponseBody();
+            os.write(bytes);
+            os.close();
+        } finally {
+            exchange.close();
+        }
+    }
+
+}
@@ -13,6 +13,8 @@
  */
 package org.switchyard.remote.infinispan;
 
+import java.util.List;
+
 import javax.xml.namespace.QName;
 
 import junit.framework.Assert;
@@ -31,6 +33,7 @@ public class InfinispanRegistryTest {
 
     private InfinispanRegistry _registry;
     private DefaultCacheManager _cacheMgr;
+    private Cache<String, String> _cache;
     
     @Before
     public void setUp() {
@@ -39,8 +42,8 @@ public class InfinispanRegistryTest {
         
         _cacheMgr.defineConfiguration("test-cache", 
                 new ConfigurationBuilder().invocationBatching().enable().build());
-        Cache<String, String> cache = _cacheMgr.getCache("test-cache");
-        _registry = new InfinispanRegistry(cache);
+        _cache = _cacheMgr.getCache("test-cache");
+        _registry = new InfinispanRegistry(_cache);
     }
     
     @After
@@ -106,6 +109,34 @@ public class InfinispanRegistryTest {
         // still just one in the registry
         Assert.assertEquals(1, _registry.getEndpoints(ep1.getServiceName()).size());
     }
+    
+    @Test
+    public void registrationFromOtherNode() throws Exception {
+        RemoteEndpoint ep1 = new RemoteEndpoint()
+            .setDomainName(new QName("domain1"))
+            .setServiceName(new QName("urn:test:remote", "service1"));
+        _registry.addEndpoint(ep1);
+        
+        // another node's registration replicates into the cache
+        String localKey = "/all-domains/" + ep1.getServiceName() + "/" + ep1.getNode();
+        String remoteKey = "/all-domains/" + ep1.getServiceName() + "/other-node";
+        _cache.put(remoteKey, _cache.get(localKey).replace(ep1.getNode(), "other-node"));
+        List<RemoteEndpoint> eps = _registry.getEndpoints(ep1.getServiceName());
+        Assert.assertEquals(2, eps.size());
+        // the same list is handed out until the registrations change
+        Assert.assertSame(eps, _registry.getEndpoints(ep1.getServiceName()));
+        try {
+            eps.clear();
+            Assert.fail("endpoint list should not be modifiable");
+        } catch (UnsupportedOperationException uoEx) {
+            // expected
+        }
+        
+        // and is removed when that node's registration is
+        _cache.remove(remoteKey);
+        Assert.assertEquals(1, _registry.getEndpoints(ep1.getServiceName()).size());
+        Assert.assertEquals(ep1.getNode(), _registry.getEndpoints(ep1.getServiceName()).get(0).getNode());
+    }
 }
 
 class FakeAddress implements Address {
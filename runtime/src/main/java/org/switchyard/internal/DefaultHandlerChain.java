@@ -14,8 +14,9 @@
 
 package org.switchyard.internal;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.jboss.logging.Logger;
@@ -27,11 +28,14 @@ import org.switchyard.Message;
 import org.switchyard.runtime.RuntimeLogger;
 
 /**
- * Default handler chain.
+ * Default handler chain.  Handlers are kept in an immutable array which is
+ * replaced whenever the chain is modified, so executing the chain requires
+ * neither locking nor copying.
  */
 public class DefaultHandlerChain implements HandlerChain {
     private static Logger _logger = Logger.getLogger(DefaultHandlerChain.class);
-    private final LinkedList<HandlerRef> _chain = new LinkedList<HandlerRef>();
+    private static final HandlerRef[] EMPTY = new HandlerRef[0];
+    private volatile HandlerRef[] _chain = EMPTY;
     
     /**
      * Create a new handler chain with no handlers in it.
@@ -44,8 +48,8 @@ public class DefaultHandlerChain implements HandlerChain {
      * is not intended for external use - it's used by the clone() method.
      * @param handlers
      */
-    private DefaultHandlerChain(List<HandlerRef> handlers) {
-        _chain.addAll(handlers);
+    private DefaultHandlerChain(HandlerRef[] handlers) {
+        _chain = handlers;
     }
 
     /**
@@ -67,7 +71,11 @@ public class DefaultHandlerChain implements HandlerChain {
             ExchangeHandler handler) {
         HandlerRef handlerRef = new HandlerRef(handlerName, handler);
 
-        _chain.addFirst(handlerRef);
+        HandlerRef[] chain = _chain;
+        HandlerRef[] updated = new HandlerRef[chain.length + 1];
+        updated[0] = handlerRef;
+        System.arraycopy(chain, 0, updated, 1, chain.length);
+        _chain = updated;
         if (_logger.isDebugEnabled()) {
             _logger.debug("Added ExchangeHandler instance at start of Handler Chain: " + handlerRef);
         }
@@ -78,7 +86,10 @@ public class DefaultHandlerChain implements HandlerChain {
             ExchangeHandler handler) {
         HandlerRef handlerRef = new HandlerRef(handlerName, handler);
 
-        _chain.addLast(handlerRef);
+        HandlerRef[] chain = _chain;
+        HandlerRef[] updated = Arrays.copyOf(chain, chain.length + 1);
+        updated[chain.length] = handlerRef;
+        _chain = updated;
         if (_logger.isDebugEnabled()) {
             _logger.debug("Added ExchangeHandler instance at end of Handler Chain: " + handlerRef);
         }
@@ -86,10 +97,12 @@ public class DefaultHandlerChain implements HandlerChain {
     
     @Override
     public synchronized boolean replace(String handlerName, ExchangeHandler handler) {
-        for (int i = 0; i < _chain.size(); i++) {
-            if (_chain.get(i).getName().equals(handlerName)) {
-                _chain.remove(i);
-                _chain.add(i, new HandlerRef(handlerName, handler));
+        HandlerRef[] chain = _chain;
+        for (int i = 0; i < chain.length; i++) {
+            if (chain[i].getName().equals(handlerName)) {
+                HandlerRef[] updated = chain.clone();
+                updated[i] = new HandlerRef(handlerName, handler);
+                _chain = updated;
                 return true;
             }
         }
@@ -100,17 +113,18 @@ public class DefaultHandlerChain implements HandlerChain {
 
     @Override
     public synchronized ExchangeHandler remove(String handlerName) {
-        ExchangeHandler handler = null;
-
-        for (HandlerRef ref : _chain) {
-            if (ref.getName().equals(handlerName)) {
-                handler = ref.getHandler();
-                _chain.remove(ref);
-                break;
+        HandlerRef[] chain = _chain;
+        for (int i = 0; i < chain.length; i++) {
+            if (chain[i].getName().equals(handlerName)) {
+                HandlerRef[] updated = new HandlerRef[chain.length - 1];
+                System.arraycopy(chain, 0, updated, 0, i);
+                System.arraycopy(chain, i + 1, updated, i, chain.length - i - 1);
+                _chain = updated;
+                return chain[i].getHandler();
             }
         }
 
-        return handler;
+        return null;
     }
 
     @Override
@@ -124,37 +138,60 @@ public class DefaultHandlerChain implements HandlerChain {
 
     @Override
     public void handleFault(Exchange exchange) {
-        for (HandlerRef ref : listHandlers()) {
-            try {
-                if (_logger.isDebugEnabled()) {
-                    _logger.debug("Executing Fault ExchangeHandler (" + ref + ") on message Exchange instance (" + System.identityHashCode(exchange) + ").");
-                }
-                ref.getHandler().handleFault(exchange);
-            } catch (Exception e) {
-                RuntimeLogger.ROOT_LOGGER.handlerFailedHandleFault(ref.getName(), e);
-            }
+        HandlerRef[] chain = _chain;
+        boolean debug = _logger.isDebugEnabled();
+        for (HandlerRef ref : chain) {
+            handleFault(ref.getName(), ref.getHandler(), exchange, debug);
         }
     }
 
     @Override
     public void handleMessage(Exchange exchange) {
-        HandlerRef handlerRef = null;
+        HandlerRef[] chain = _chain;
+        boolean debug = _logger.isDebugEnabled();
+        for (HandlerRef ref : chain) {
+            if (!handleMessage(ref.getName(), ref.getHandler(), exchange, debug)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Runs a single handler on a fault, logging rather than propagating its failure.
+     * Shared with {@link ReplyChain}.
+     * @param name handler name
+     * @param handler handler
+     * @param exchange exchange carrying the fault
+     * @param debug whether debug logging is enabled
+     */
+    static void handleFault(String name, ExchangeHandler handler, Exchange exchange, boolean debug) {
         try {
-            for (HandlerRef ref : listHandlers()) {
-                handlerRef = ref;
-                if (_logger.isDebugEnabled()) {
-                    _logger.debug("Executing ExchangeHandler (" + ref + ") on message Exchange instance (" + System.identityHashCode(exchange) + ").");
-                }
-                ref.getHandler().handleMessage(exchange);
-
-                if (exchange.getState() == ExchangeState.FAULT) {
-                    // Exchange state has changed to FAULT.
-                    // Stop executing handlers....
-                    break;
-                }
+            if (debug) {
+                logExecution("Executing Fault ExchangeHandler (", name, handler, exchange);
             }
+            handler.handleFault(exchange);
+        } catch (Exception e) {
+            RuntimeLogger.ROOT_LOGGER.handlerFailedHandleFault(name, e);
+        }
+    }
+
+    /**
+     * Runs a single handler on a message, turning its failure into a fault.
+     * Shared with {@link ReplyChain}.
+     * @param name handler name
+     * @param handler handler
+     * @param exchange exchange carrying the message
+     * @param debug whether debug logging is enabled
+     * @return whether the following handlers should run
+     */
+    static boolean handleMessage(String name, ExchangeHandler handler, Exchange exchange, boolean debug) {
+        try {
+            if (debug) {
+                logExecution("Executing ExchangeHandler (", name, handler, exchange);
+            }
+            handler.handleMessage(exchange);
         } catch (HandlerException handlerEx) {
-            StringBuilder errorMsg = new StringBuilder(handlerEx.getClass().getName() + " was thrown by handler(" + handlerRef.getName() + "): " + handlerEx.getMessage());
+            StringBuilder errorMsg = new StringBuilder(handlerEx.getClass().getName() + " was thrown by handler(" + name + "): " + handlerEx.getMessage());
             Throwable cause = handlerEx;
             while ((cause = cause.getCause()) != null) {
                 errorMsg.append(" --- Caused by " + cause.getClass().getName() + ": " + cause.getMessage());
@@ -164,13 +201,18 @@ public class DefaultHandlerChain implements HandlerChain {
 
             Message faultMessage = exchange.createMessage().setContent(handlerEx);
             exchange.sendFault(faultMessage);
+            return false;
         }
+        // Exchange state has changed to FAULT.
+        // Stop executing handlers....
+        return exchange.getState() != ExchangeState.FAULT;
     }
     
     @Override
     public List<ExchangeHandler> getHandlers() {
-        List<ExchangeHandler> handlers = new LinkedList<ExchangeHandler>();
-        for (HandlerRef hr : listHandlers()) {
+        HandlerRef[] chain = _chain;
+        List<ExchangeHandler> handlers = new ArrayList<ExchangeHandler>(chain.length);
+        for (HandlerRef hr : chain) {
             handlers.add(hr.getHandler());
         }
         return Collections.unmodifiableList(handlers);
@@ -181,19 +223,25 @@ public class DefaultHandlerChain implements HandlerChain {
      * @return copy of the default chain.
      */
     public DefaultHandlerChain copy() {
+        HandlerRef[] chain = _chain;
         if (_logger.isDebugEnabled()) {
-            _logger.debug("Cloning DefaultHandlerChain from a its list of Handlers: " + listHandlers());
+            _logger.debug("Cloning DefaultHandlerChain from a its list of Handlers: " + Arrays.toString(chain));
         }
-        return new DefaultHandlerChain(listHandlers());
+        // the snapshot is never modified in place, so it can be shared
+        return new DefaultHandlerChain(chain);
     }
 
     @Override
     public String toString() {
-        return _chain.toString();
+        return Arrays.toString(_chain);
+    }
+
+    private static void logExecution(String prefix, String name, ExchangeHandler handler, Exchange exchange) {
+        _logger.debug(prefix + describe(name, handler) + ") on message Exchange instance (" + System.identityHashCode(exchange) + ").");
     }
 
-    private synchronized List<HandlerRef> listHandlers() {
-        return new LinkedList<HandlerRef>(_chain);
+    private static String describe(String name, ExchangeHandler handler) {
+        return "Name '" + name + "',  Class '" + handler.getClass().getName() + "'";
     }
 
     // sweet little struct
@@ -213,7 +261,7 @@ public class DefaultHandlerChain implements HandlerChain {
 
         @Override
         public String toString() {
-            return "Name '" + _name + "',  Class '" + _handler.getClass().getName() + "'";
+            return describe(_name, _handler);
         }
 
         private final ExchangeHandler _handler;
@@ -14,11 +14,12 @@
 
 package org.switchyard.internal;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.namespace.QName;
 
-import org.switchyard.BaseHandler;
 import org.switchyard.Exchange;
 import org.switchyard.ExchangeHandler;
 import org.switchyard.ExchangePattern;
@@ -45,7 +46,7 @@ public class LocalExchangeBus implements ExchangeBus {
         new ConcurrentHashMap<QName, Dispatcher>();
     
     private HandlerChain _requestChain;
-    private HandlerChain _replyChain;
+    private ReplyChain _replyChain;
     private ServiceDomain _domain;
     
     /**
@@ -74,11 +75,13 @@ public class LocalExchangeBus implements ExchangeBus {
         _requestChain.addLast("security-cleanup", new SecurityHandler(_domain, SecurityAction.CLEANUP));
         _requestChain.addLast("transaction-post-invoke", transactionHandler);
         
-        _replyChain = new DefaultHandlerChain();
-        _replyChain.addLast("validation-before-transform", validateHandler);
-        _replyChain.addLast("transformation", transformHandler);
-        _replyChain.addLast("validation-after-transform", validateHandler);
-        _replyChain.addLast(HandlerChain.CONSUMER_HANDLER, new BaseHandler());
+        // The reply chain is immutable and shared, the consumer handler is
+        // supplied by each exchange when the chain is executed.
+        Map<String, ExchangeHandler> replyHandlers = new LinkedHashMap<String, ExchangeHandler>();
+        replyHandlers.put("validation-before-transform", validateHandler);
+        replyHandlers.put("transformation", transformHandler);
+        replyHandlers.put("validation-after-transform", validateHandler);
+        _replyChain = new ReplyChain(replyHandlers);
     }
 
     @Override
@@ -94,9 +97,8 @@ public class LocalExchangeBus implements ExchangeBus {
     @Override
     public synchronized Dispatcher createDispatcher(ServiceReference reference) {
         HandlerChain requestChain = _requestChain.copy();
-        HandlerChain replyChain = _replyChain.copy();
         
-        Dispatcher dispatcher = new LocalDispatcher(_domain, reference, requestChain, replyChain);
+        Dispatcher dispatcher = new LocalDispatcher(_domain, reference, requestChain, _replyChain);
         _dispatchers.put(reference.getName(), dispatcher);
         
         return dispatcher;
@@ -111,16 +113,17 @@ public class LocalExchangeBus implements ExchangeBus {
 
 class LocalDispatcher implements Dispatcher {
     private HandlerChain _requestChain;
-    private HandlerChain _replyChain;
+    private ReplyChain _replyChain;
     private ServiceReference _reference;
     private ServiceDomain _domain;
 
     /**
      * Constructor.
      * @param _domain 
-     * @param handlerChain handler chain
+     * @param requestChain request handler chain
+     * @param replyChain shared reply handler chain
      */
-    LocalDispatcher(ServiceDomain domain, final ServiceReference reference, final HandlerChain requestChain, final HandlerChain replyChain) {
+    LocalDispatcher(ServiceDomain domain, final ServiceReference reference, final HandlerChain requestChain, final ReplyChain replyChain) {
         this._domain = domain;
         _reference = reference;
         _requestChain = requestChain;
@@ -134,11 +137,7 @@ class LocalDispatcher implements Dispatcher {
             _requestChain.handle(exchange);
             break;
         case OUT:
-            ExchangeHandler replyHandler = ((ExchangeImpl)exchange).getReplyHandler();
-            if (replyHandler != null) {
-                _replyChain.replace(HandlerChain.CONSUMER_HANDLER, replyHandler);
-            }
-            _replyChain.handle(exchange);
+            _replyChain.handle(exchange, ((ExchangeImpl)exchange).getReplyHandler());
             break;
         default:
             throw RuntimeMessages.MESSAGES.invalidPhaseForDispatch(exchange.getPhase().toString());
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.switchyard.internal;
+
+import java.util.Map;
+
+import org.jboss.logging.Logger;
+import org.switchyard.Exchange;
+import org.switchyard.ExchangeHandler;
+import org.switchyard.ExchangeState;
+
+/**
+ * Immutable chain of handlers processing reply messages, terminated by reply
+ * handler of given exchange. Since the chain never changes after creation it
+ * is shared by all dispatchers and executed without locking.  Each handler
+ * runs the way {@link DefaultHandlerChain} runs it.
+ */
+final class ReplyChain {
+    private static Logger _logger = Logger.getLogger(ReplyChain.class);
+
+    private final String[] _names;
+    private final ExchangeHandler[] _handlers;
+
+    /**
+     * Create a new reply chain.
+     * @param handlers handlers in execution order, keyed by name
+     */
+    ReplyChain(Map<String, ExchangeHandler> handlers) {
+        _names = new String[handlers.size() + 1];
+        _handlers = new ExchangeHandler[handlers.size() + 1];
+        int i = 0;
+        for (Map.Entry<String, ExchangeHandler> entry : handlers.entrySet()) {
+            _names[i] = entry.getKey();
+            _handlers[i++] = entry.getValue();
+        }
+        _names[i] = HandlerChain.CONSUMER_HANDLER;
+    }
+
+    /**
+     * Runs the chain followed by reply handler for the exchange.
+     * @param exchange exchange carrying reply
+     * @param replyHandler consumer handler, may be null
+     */
+    void handle(Exchange exchange, ExchangeHandler replyHandler) {
+        if (exchange.getState() == ExchangeState.FAULT) {
+            handleFault(exchange, replyHandler);
+        } else {
+            handleMessage(exchange, replyHandler);
+        }
+    }
+
+    private void handleFault(Exchange exchange, ExchangeHandler replyHandler) {
+        boolean debug = _logger.isDebugEnabled();
+        for (int i = 0; i < _handlers.length; i++) {
+            ExchangeHandler handler = i < _handlers.length - 1 ? _handlers[i] : replyHandler;
+            if (handler != null) {
+                DefaultHandlerChain.handleFault(_names[i], handler, exchange, debug);
+            }
+        }
+    }
+
+    private void handleMessage(Exchange exchange, ExchangeHandler replyHandler) {
+        boolean debug = _logger.isDebugEnabled();
+        for (int i = 0; i < _handlers.length; i++) {
+            ExchangeHandler handler = i < _handlers.length - 1 ? _handlers[i] : replyHandler;
+            if (handler != null && !DefaultHandlerChain.handleMessage(_names[i], handler, exchange, debug)) {
+                break;
+            }
+        }
+    }
+
+}
@@ -1,9 +1,20 @@
 package org.switchyard.internal.transform;
 
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.EventObject;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.xml.namespace.QName;
 
+import org.switchyard.event.EventObserver;
+import org.switchyard.event.TransformerAddedEvent;
+import org.switchyard.event.TransformerRemovedEvent;
 import org.switchyard.transform.TransformResolver;
 import org.switchyard.transform.TransformSequence;
 import org.switchyard.transform.Transformer;
@@ -11,18 +22,27 @@ import org.switchyard.transform.TransformerRegistry;
 
 /**
  * Base implementation of the TransformResolver strategy that facilitates resolving of 
- * direct/indirect transform sequences.
+ * direct/indirect transform sequences.  Resolved paths, including the ones which
+ * could not be found, are cached per from/to pair until a transformer is added
+ * to or removed from the registry.
  */
-public class BaseTransformResolver implements TransformResolver {
+public class BaseTransformResolver implements TransformResolver, EventObserver {
     
     /**
      * The maximum number of edges to travel in the graph to connect two nodes.
      */
     public static final int DEFAULT_HOPS = 2;
     
+    // marks pairs without transform path
+    private static final QName[] NO_PATH = new QName[0];
+
     private int _hops = DEFAULT_HOPS;
     private TransformerRegistry _registry;
 
+    private final ConcurrentHashMap<PathKey, QName[]> _paths = new ConcurrentHashMap<PathKey, QName[]>();
+    private final ConcurrentHashMap<QName, QName[]> _adjacency = new ConcurrentHashMap<QName, QName[]>();
+    private final AtomicLong _generation = new AtomicLong();
+
     /**
      * Create a new TransformResolver instance.
      */    
@@ -64,25 +84,41 @@ public class BaseTransformResolver implements TransformResolver {
         if (from == null || to == null) {
             return null;
         }
-        
-        // if there's a direct hit, set that and bail
-        if (_registry.hasTransformer(from, to)) {
-            return TransformSequence.from(from).to(to);
+
+        PathKey key = new PathKey(from, to);
+        QName[] path = _paths.get(key);
+        if (path == null) {
+            long generation = _generation.get();
+            path = cache(key, findPath(from, to), generation);
+        }
+        if (path == NO_PATH) {
+            return null;
         }
 
-        TransformSequence transformSequence = null;
-        LinkedList<QName> path = new LinkedList<QName>();
-        
-        // walk the graph to see if we can resolve the path
-        if (resolvePath(path, from, to, _hops)) {
-            transformSequence = TransformSequence.from(from);
-            for (QName type : path) {
-                transformSequence.to(type);
-            }
+        // sequences are consumed when applied, so each caller gets a new one
+        TransformSequence transformSequence = TransformSequence.from(from);
+        for (QName type : path) {
+            transformSequence.to(type);
         }
         return transformSequence;
     }
 
+    @Override
+    public void notify(EventObject event) {
+        if (event instanceof TransformerAddedEvent || event instanceof TransformerRemovedEvent) {
+            clearCache();
+        }
+    }
+
+    /**
+     * Drops all resolved paths.  Called when transformers in the registry change.
+     */
+    public void clearCache() {
+        _generation.incrementAndGet();
+        _paths.clear();
+        _adjacency.clear();
+    }
+
     /**
      * Get the associated TransformerRegistry.
      * @return TransformerRegistry.
@@ -97,35 +133,126 @@ public class BaseTransformResolver implements TransformResolver {
      */
     public void setRegistry(TransformerRegistry registry) {
         this._registry = registry;
+        clearCache();
     }
 
     /**
-     * Recursive depth-first(ish) search for connected types in the transform registry.  There
-     * is no path weighting applied, so the first connection wins. There is no logic to detect 
-     * cycles since the limit parameter prevents infinite loops.
+     * Searches for connected types in the transform registry, filling the path
+     * with types following fromType.  No more than limit edges are travelled.
      */
-    @SuppressWarnings("rawtypes")
     boolean resolvePath(LinkedList<QName> path, QName fromType, QName toType, int limit) {
-        // check search limit
-        if (limit < 0) {
+        QName[] found = findPath(fromType, toType, limit);
+        if (found == NO_PATH) {
             return false;
         }
-        --limit;
-        
-        // have we arrived at our destination?
-        if (fromType.equals(toType)) {
-            return true;
+        Collections.addAll(path, found);
+        return true;
+    }
+
+    private QName[] findPath(QName from, QName to) {
+        // if there's a direct hit, no need to walk the graph
+        if (_registry.hasTransformer(from, to)) {
+            return new QName[] {to};
         }
-        
-        // go fish
-        for (Transformer fromT : _registry.getTransformersFrom(fromType)) {
-            if (resolvePath(path, fromT.getTo(), toType, limit)) {
-                path.addFirst(fromT.getTo());
+        return findPath(from, to, _hops);
+    }
+
+    /**
+     * Breadth-first search returning the shortest path, visited types are
+     * tracked so cycles in the graph are not followed.
+     */
+    private QName[] findPath(QName from, QName to, int limit) {
+        if (from.equals(to)) {
+            return limit < 0 ? NO_PATH : new QName[0];
+        }
+
+        Map<QName, QName> previous = new HashMap<QName, QName>();
+        previous.put(from, null);
+        ArrayDeque<QName> level = new ArrayDeque<QName>();
+        level.add(from);
+        for (int depth = 0; depth < limit && !level.isEmpty(); depth++) {
+            ArrayDeque<QName> next = new ArrayDeque<QName>();
+            for (QName type : level) {
+                for (QName target : targetsOf(type)) {
+                    if (previous.containsKey(target)) {
+                        continue;
+                    }
+                    previous.put(target, type);
+                    if (target.equals(to)) {
+                        return toPath(previous, to, depth + 1);
+                    }
+                    next.add(target);
+                }
+            }
+            level = next;
+        }
+        return NO_PATH;
+    }
+
+    private QName[] toPath(Map<QName, QName> previous, QName to, int length) {
+        QName[] path = new QName[length];
+        QName type = to;
+        for (int i = length - 1; i >= 0; i--) {
+            path[i] = type;
+            type = previous.get(type);
+        }
+        return path;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private QName[] targetsOf(QName type) {
+        QName[] targets = _adjacency.get(type);
+        if (targets == null) {
+            long generation = _generation.get();
+            List<Transformer<?, ?>> transformers = _registry.getTransformersFrom(type);
+            targets = new QName[transformers.size()];
+            int i = 0;
+            for (Transformer fromT : transformers) {
+                targets[i++] = fromT.getTo();
+            }
+            _adjacency.put(type, targets);
+            if (generation != _generation.get()) {
+                // registry changed while reading it, as in cache()
+                _adjacency.remove(type, targets);
+            }
+        }
+        return targets;
+    }
+
+    private QName[] cache(PathKey key, QName[] path, long generation) {
+        _paths.put(key, path);
+        if (generation != _generation.get()) {
+            // registry changed while resolving, don't keep possibly stale result
+            _paths.remove(key, path);
+        }
+        return path;
+    }
+
+    private static final class PathKey {
+        private final QName _from;
+        private final QName _to;
+
+        PathKey(QName from, QName to) {
+            _from = from;
+            _to = to;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
                 return true;
             }
+            if (!(obj instanceof PathKey)) {
+                return false;
+            }
+            PathKey other = (PathKey) obj;
+            return _from.equals(other._from) && _to.equals(other._to);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * _from.hashCode() + _to.hashCode();
         }
-        
-        return false;
     }
-    
+
 }
@@ -15,11 +15,12 @@
 package org.switchyard.internal.transform;
 
 import java.io.Serializable;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.EventObject;
-import java.util.LinkedList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -29,6 +30,7 @@ import javax.xml.namespace.QName;
 
 import org.jboss.logging.Logger;
 import org.switchyard.common.xml.QNameUtil;
+import org.switchyard.event.EventObserver;
 import org.switchyard.event.EventPublisher;
 import org.switchyard.event.TransformerAddedEvent;
 import org.switchyard.event.TransformerRemovedEvent;
@@ -51,10 +53,15 @@ public class BaseTransformerRegistry implements TransformerRegistry {
      */
     private static final int DEFAULT_HASHCODE = 32;
 
+    /**
+     * Maximum number of from/to pairs remembered as having no transformer.
+     */
+    private static final int MAX_MISSES = 1024;
+
     private final ConcurrentHashMap<NameKey, Transformer<?,?>> _transformers =
         new ConcurrentHashMap<NameKey, Transformer<?,?>>();
-    private final ConcurrentHashMap<NameKey, Transformer<?,?>> _fallbackTransformers =
-        new ConcurrentHashMap<NameKey, Transformer<?,?>>();
+    // built on first use after a change, so registering many transformers doesn't rebuild it each time
+    private volatile TransformerIndex _index;
 
     private EventPublisher _eventPublisher;
     private TransformResolver _transformResolver = new BaseTransformResolver(this);
@@ -78,17 +85,21 @@ public class BaseTransformerRegistry implements TransformerRegistry {
 
     @Override
     public BaseTransformerRegistry addTransformer(Transformer<?, ?> transformer) {
-        _fallbackTransformers.clear();
-        _transformers.put(new NameKey(transformer.getFrom(),
-                transformer.getTo()), transformer);
+        synchronized (this) {
+            _transformers.put(new NameKey(transformer.getFrom(),
+                    transformer.getTo()), transformer);
+            _index = null;
+        }
         publishEvent(new TransformerAddedEvent(transformer));
         return this;
     }
 
     @Override
     public TransformerRegistry addTransformer(Transformer<?, ?> transformer, QName from, QName to) {
-        _fallbackTransformers.clear();
-        _transformers.put(new NameKey(from, to), transformer);
+        synchronized (this) {
+            _transformers.put(new NameKey(from, to), transformer);
+            _index = null;
+        }
         publishEvent(new TransformerAddedEvent(transformer));
         return null;
     }
@@ -107,9 +118,10 @@ public class BaseTransformerRegistry implements TransformerRegistry {
         Transformer<?,?> transformer = _transformers.get(nameKey);
 
         if (transformer == null) {
-            transformer = _fallbackTransformers.get(nameKey);
-            if (transformer == null && QNameUtil.isJavaMessageType(from)) {
-                transformer = getJavaFallbackTransformer(from, to);
+            TransformerIndex index = getIndex();
+            transformer = index._fallbackTransformers.get(nameKey);
+            if (transformer == null && QNameUtil.isJavaMessageType(from) && !index._misses.contains(nameKey)) {
+                transformer = getJavaFallbackTransformer(index, nameKey);
                 if (transformer != null && _log.isDebugEnabled()) {
                     _log.debug("Selecting fallback transformer: from '" + transformer.getFrom() + "' to '" + transformer.getTo() + "'. Type: " + transformer.getClass().getName());
                 } else if (_log.isDebugEnabled()) {
@@ -134,36 +146,37 @@ public class BaseTransformerRegistry implements TransformerRegistry {
         return _transformers.containsKey(nameKey);
     }
 
-    private Transformer<?, ?> getJavaFallbackTransformer(QName from, QName to) {
+    private Transformer<?, ?> getJavaFallbackTransformer(TransformerIndex index, NameKey nameKey) {
+        QName from = nameKey.getFrom();
+        QName to = nameKey.getTo();
         Class<?> javaType = QNameUtil.toJavaMessageType(from);
 
         if (javaType == null) {
             return null;
         }
 
-        Set<Map.Entry<NameKey,Transformer<?,?>>> entrySet = _transformers.entrySet();
         List<JavaSourceFallbackTransformer> fallbackTransforms = new ArrayList<JavaSourceFallbackTransformer>();
-        for (Map.Entry<NameKey,Transformer<?,?>> entry : entrySet) {
-            NameKey nameKey = entry.getKey();
-
-            // "to" must be an exact match...
-            if (nameKey.getTo().equals(to)) {
-                if (QNameUtil.isJavaMessageType(nameKey.getFrom())) {
-                    Class<?> candidateType = QNameUtil.toJavaMessageType(nameKey.getFrom());
-                    if (candidateType != null && candidateType.isAssignableFrom(javaType)) {
-                        fallbackTransforms.add(new JavaSourceFallbackTransformer(candidateType, entry.getValue()));
-                    }
+        // "to" must be an exact match...
+        for (Map.Entry<NameKey,Transformer<?,?>> entry : index.getTo(to)) {
+            NameKey candidateKey = entry.getKey();
+            if (QNameUtil.isJavaMessageType(candidateKey.getFrom())) {
+                Class<?> candidateType = QNameUtil.toJavaMessageType(candidateKey.getFrom());
+                if (candidateType != null && candidateType.isAssignableFrom(javaType)) {
+                    fallbackTransforms.add(new JavaSourceFallbackTransformer(candidateType, entry.getValue()));
                 }
             }
         }
 
         if (fallbackTransforms.size() == 0) {
-            // No fallback...
+            // No fallback, remember that so the next lookup doesn't scan again
+            if (index._misses.size() < MAX_MISSES) {
+                index._misses.add(nameKey);
+            }
             return null;
         }
         if (fallbackTransforms.size() == 1) {
             Transformer<?, ?> fallbackTransformer = fallbackTransforms.get(0).getTransformer();
-            addFallbackTransformer(fallbackTransformer, from, to);
+            index._fallbackTransformers.put(nameKey, fallbackTransformer);
             return fallbackTransformer;
         }
 
@@ -182,21 +195,22 @@ public class BaseTransformerRegistry implements TransformerRegistry {
         }
 
         // Closest super-type will be first in the list..
+        // Fallback transformers are cached so as to save on lookup times...
         Transformer<?, ?> fallbackTransformer = fallbackTransforms.get(0).getTransformer();
-        addFallbackTransformer(fallbackTransformer, from, to);
+        index._fallbackTransformers.put(nameKey, fallbackTransformer);
         return fallbackTransformer;
     }
 
-    private void addFallbackTransformer(Transformer<?, ?> fallbackTransformer, QName from, QName to) {
-        // Fallback transformers are cached so as to save on lookup times...
-        _fallbackTransformers.put(new NameKey(from, to), fallbackTransformer);
-    }
-
     @Override
     public boolean removeTransformer(Transformer<?, ?> transformer) {
-        _fallbackTransformers.clear();
-        boolean removed = _transformers.remove(
-                new NameKey(transformer.getFrom(), transformer.getTo())) != null;
+        boolean removed;
+        synchronized (this) {
+            removed = _transformers.remove(
+                    new NameKey(transformer.getFrom(), transformer.getTo())) != null;
+            if (removed) {
+                _index = null;
+            }
+        }
         if (removed) {
             publishEvent(new TransformerRemovedEvent(transformer));
         }
@@ -211,30 +225,57 @@ public class BaseTransformerRegistry implements TransformerRegistry {
     
     @Override
     public List<Transformer<?,?>> getTransformersFrom(QName type) {
-        List<Transformer<?,?>> transforms = new LinkedList<Transformer<?,?>>();
-        
-        for (NameKey key : _transformers.keySet()) {
-            if (key.getFrom() != null && key.getFrom().equals(type)) {
-                transforms.add(_transformers.get(key));
-            }
-        }
-        
-        return transforms;
+        return transformers(type != null ? getIndex()._from.get(type) : null);
     }
 
     @Override
     public List<Transformer<?,?>> getTransformersTo(QName type) {
-        List<Transformer<?,?>> transforms = new LinkedList<Transformer<?,?>>();
-        
-        for (NameKey key : _transformers.keySet()) {
-            if (key.getTo() != null && key.getTo().equals(type)) {
-                transforms.add(_transformers.get(key));
-            }
+        return transformers(type != null ? getIndex()._to.get(type) : null);
+    }
+
+    private static List<Transformer<?,?>> transformers(List<Map.Entry<NameKey, Transformer<?,?>>> entries) {
+        if (entries == null) {
+            return new ArrayList<Transformer<?,?>>(0);
+        }
+        List<Transformer<?,?>> transforms = new ArrayList<Transformer<?,?>>(entries.size());
+        for (Map.Entry<NameKey, Transformer<?,?>> entry : entries) {
+            transforms.add(entry.getValue());
         }
-        
         return transforms;
     }
 
+    // Gets the from/to indexes, rebuilding them if the registry changed since
+    // they were built.  Fallback and miss caches start afresh with a new index.
+    private TransformerIndex getIndex() {
+        TransformerIndex index = _index;
+        if (index == null) {
+            synchronized (this) {
+                index = _index;
+                if (index == null) {
+                    index = new TransformerIndex();
+                    for (Map.Entry<NameKey, Transformer<?,?>> entry : _transformers.entrySet()) {
+                        Map.Entry<NameKey, Transformer<?,?>> registration =
+                            new AbstractMap.SimpleImmutableEntry<NameKey, Transformer<?,?>>(entry);
+                        add(index._from, entry.getKey().getFrom(), registration);
+                        add(index._to, entry.getKey().getTo(), registration);
+                    }
+                    _index = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private static void add(Map<QName, List<Map.Entry<NameKey, Transformer<?,?>>>> index, QName type,
+            Map.Entry<NameKey, Transformer<?,?>> registration) {
+        List<Map.Entry<NameKey, Transformer<?,?>>> registrations = index.get(type);
+        if (registrations == null) {
+            registrations = new ArrayList<Map.Entry<NameKey, Transformer<?,?>>>(2);
+            index.put(type, registrations);
+        }
+        registrations.add(registration);
+    }
+
     @Override
     public void setTransfomResolver(TransformResolver resolver) {
         this._transformResolver = resolver;        
@@ -243,11 +284,36 @@ public class BaseTransformerRegistry implements TransformerRegistry {
     // Convenience method to guard against cases when an event publisher has 
     // not been set.
     private void publishEvent(EventObject event) {
+        // resolver caches are dropped right away, domain observers may be notified asynchronously
+        if (_transformResolver instanceof EventObserver) {
+            ((EventObserver) _transformResolver).notify(event);
+        }
         if (_eventPublisher != null) {
             _eventPublisher.publish(event);
         }
     }
 
+    /**
+     * Snapshot of transformers indexed by from and to types, together with
+     * lookup results which are valid only for this snapshot.  The maps are
+     * not modified once the index is published.
+     */
+    private static final class TransformerIndex {
+        private final Map<QName, List<Map.Entry<NameKey, Transformer<?,?>>>> _from =
+            new HashMap<QName, List<Map.Entry<NameKey, Transformer<?,?>>>>();
+        private final Map<QName, List<Map.Entry<NameKey, Transformer<?,?>>>> _to =
+            new HashMap<QName, List<Map.Entry<NameKey, Transformer<?,?>>>>();
+        private final ConcurrentHashMap<NameKey, Transformer<?,?>> _fallbackTransformers =
+            new ConcurrentHashMap<NameKey, Transformer<?,?>>();
+        private final Set<NameKey> _misses =
+            Collections.newSetFromMap(new ConcurrentHashMap<NameKey, Boolean>());
+
+        List<Map.Entry<NameKey, Transformer<?,?>>> getTo(QName type) {
+            List<Map.Entry<NameKey, Transformer<?,?>>> registrations = _to.get(type);
+            return registrations != null ? registrations : Collections.<Map.Entry<NameKey, Transformer<?,?>>>emptyList();
+        }
+    }
+
     private class NameKey extends Key<QName, QName> {
         NameKey(QName from, QName to) {
             super(from, to);
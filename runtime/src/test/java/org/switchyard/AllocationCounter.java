@@ -0,0 +1,69 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.switchyard;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+
+/**
+ * Reads the heap allocated by the current thread, for tests which compare the
+ * allocation of different implementations.
+ */
+public final class AllocationCounter {
+
+    private static final Method ALLOCATED_BYTES = allocatedBytesMethod();
+
+    private AllocationCounter() {
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread so far.
+     * @return allocated bytes, or -1 if the VM does not track allocation
+     */
+    public static long allocatedBytes() {
+        if (ALLOCATED_BYTES == null) {
+            return -1;
+        }
+        try {
+            return (Long)ALLOCATED_BYTES.invoke(ManagementFactory.getThreadMXBean(), Thread.currentThread().getId());
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread since an
+     * earlier reading.
+     * @param start earlier reading of {@link #allocatedBytes()}
+     * @return allocated bytes, or -1 if the VM does not track allocation
+     */
+    public static long allocatedSince(long start) {
+        return start < 0 ? -1 : allocatedBytes() - start;
+    }
+
+    private static Method allocatedBytesMethod() {
+        // com.sun.management.ThreadMXBean is not available on every VM
+        try {
+            Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+            if (!type.isInstance(ManagementFactory.getThreadMXBean())) {
+                return null;
+            }
+            return type.getMethod("getThreadAllocatedBytes", long.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+}
@@ -14,6 +14,9 @@
 
 package org.switchyard.internal;
 
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import javax.xml.namespace.QName;
 
 import org.junit.Assert;
@@ -87,7 +90,64 @@ public class DefaultHandlerChainTest {
         
         Assert.assertEquals(m4, _chain.getHandlers().get(1));
     }
-}
 
+    @Test
+    public void testOrderAfterModifications() {
+        MockHandler m1 = new MockHandler();
+        MockHandler m2 = new MockHandler();
+        MockHandler m3 = new MockHandler();
 
+        _chain.addLast("2", m2);
+        _chain.addFirst("1", m1);
+        _chain.addLast("3", m3);
+        Assert.assertEquals(Arrays.asList(m1, m2, m3), _chain.getHandlers());
+
+        Assert.assertSame(m2, _chain.remove("2"));
+        Assert.assertNull(_chain.remove("2"));
+        Assert.assertEquals(Arrays.asList(m1, m3), _chain.getHandlers());
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        MockHandler m1 = new MockHandler();
+        MockHandler m2 = new MockHandler();
+        _chain.addLast("1", m1);
 
+        HandlerChain copy = _chain.copy();
+        copy.addLast("2", m2);
+        _chain.replace("1", m2);
+
+        Assert.assertEquals(Arrays.asList(m2), _chain.getHandlers());
+        Assert.assertEquals(Arrays.asList(m1, m2), copy.getHandlers());
+    }
+
+    @Test
+    public void testModifyDuringExecution() throws Exception {
+        final MockDomain domain = new MockDomain();
+        ServiceReference reference = domain.createInOnlyService(new QName("modify"));
+        final Dispatcher dispatch = domain.getBus().createDispatcher(reference);
+        final Exchange ex = new ExchangeImpl(domain, dispatch).consumer(reference, new InOnlyOperation("foo"));
+
+        final AtomicInteger calls = new AtomicInteger();
+        // removes itself while the chain is being executed
+        _chain.addLast("self-removing", new BaseHandler() {
+            @Override
+            public void handleMessage(Exchange exchange) {
+                calls.incrementAndGet();
+                _chain.remove("self-removing");
+            }
+        });
+        _chain.addLast("counting", new BaseHandler() {
+            @Override
+            public void handleMessage(Exchange exchange) {
+                calls.incrementAndGet();
+            }
+        });
+
+        // running snapshot is not affected
+        _chain.handleMessage(ex);
+        Assert.assertEquals(2, calls.get());
+        _chain.handleMessage(ex);
+        Assert.assertEquals(3, calls.get());
+    }
+}
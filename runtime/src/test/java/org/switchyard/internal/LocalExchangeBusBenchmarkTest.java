@@ -0,0 +1,84 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.switchyard.internal;
+
+import java.util.concurrent.CountDownLatch;
+
+import javax.xml.namespace.QName;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.switchyard.BaseHandler;
+import org.switchyard.Exchange;
+import org.switchyard.MockDomain;
+import org.switchyard.ServiceReference;
+
+/**
+ * Measures in-out throughput of the local exchange bus with several threads
+ * sharing one service reference.
+ */
+public class LocalExchangeBusBenchmarkTest {
+
+    private static final int THREADS = 4;
+
+    @Test
+    public void benchmarkInOutThroughput() throws Exception {
+        boolean debug = false; // toggle this is you're interested in performance
+        final int iterations = debug ? 20000 : 10;
+        MockDomain domain = new MockDomain();
+        final ServiceReference service = domain.createInOutService(
+                new QName("Benchmark"), new LocalExchangeBusTest.EchoHandler());
+        final BaseHandler replyHandler = new BaseHandler();
+
+        // warm up
+        run(service, replyHandler, 1, iterations);
+
+        long start = System.nanoTime();
+        run(service, replyHandler, THREADS, iterations);
+        long elapsed = (System.nanoTime() - start) / 1000000;
+
+        if (debug) {
+            int exchanges = THREADS * iterations;
+            System.out.println(exchanges + " in-out exchanges on " + THREADS + " threads: " + elapsed + " ms, "
+                    + (exchanges * 1000L / Math.max(elapsed, 1)) + " exchanges/s");
+        }
+    }
+
+    private void run(final ServiceReference service, final BaseHandler replyHandler,
+            int threads, final int iterations) throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(threads);
+        final Throwable[] failure = new Throwable[1];
+        for (int t = 0; t < threads; t++) {
+            new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        for (int i = 0; i < iterations; i++) {
+                            Exchange exchange = service.createExchange(replyHandler);
+                            exchange.send(exchange.createMessage().setContent("request"));
+                        }
+                    } catch (Throwable e) {
+                        failure[0] = e;
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        done.await();
+        Assert.assertNull(failure[0]);
+    }
+
+}
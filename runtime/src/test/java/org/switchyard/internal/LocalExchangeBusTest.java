@@ -0,0 +1,121 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.switchyard.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.namespace.QName;
+
+import junit.framework.Assert;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.switchyard.BaseHandler;
+import org.switchyard.Exchange;
+import org.switchyard.HandlerException;
+import org.switchyard.MockDomain;
+import org.switchyard.ServiceReference;
+
+/**
+ * Unit tests for the LocalExchangeBus class.
+ */
+public class LocalExchangeBusTest {
+
+    private static final int THREADS = 8;
+    private static final int EXCHANGES = 2000;
+
+    private MockDomain _domain;
+
+    @Before
+    public void setUp() throws Exception {
+        _domain = new MockDomain();
+    }
+
+    @Test
+    public void testConcurrentRepliesReachOwnHandler() throws Exception {
+        final ServiceReference service = _domain.createInOutService(
+                new QName("ConcurrentReplies"), new EchoHandler());
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(THREADS);
+        final AtomicInteger misrouted = new AtomicInteger();
+        final List<Throwable> errors = new ArrayList<Throwable>();
+
+        for (int t = 0; t < THREADS; t++) {
+            final String owner = "thread-" + t;
+            new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < EXCHANGES; i++) {
+                            ReplyCollector replies = new ReplyCollector(owner + "-" + i, misrouted);
+                            Exchange exchange = service.createExchange(replies);
+                            exchange.send(exchange.createMessage().setContent(owner + "-" + i));
+                            if (replies._count.get() != 1) {
+                                misrouted.incrementAndGet();
+                            }
+                        }
+                    } catch (Throwable e) {
+                        synchronized (errors) {
+                            errors.add(e);
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }, owner).start();
+        }
+
+        start.countDown();
+        Assert.assertTrue(done.await(60, TimeUnit.SECONDS));
+        Assert.assertTrue("Unexpected errors " + errors, errors.isEmpty());
+        Assert.assertEquals("Replies delivered to wrong handler", 0, misrouted.get());
+    }
+
+    /**
+     * Sends back content of the request.
+     */
+    static class EchoHandler extends BaseHandler {
+        @Override
+        public void handleMessage(Exchange exchange) throws HandlerException {
+            exchange.send(exchange.createMessage().setContent(exchange.getMessage().getContent()));
+        }
+    }
+
+    /**
+     * Counts replies, marking ones which do not belong to the exchange it was created for.
+     */
+    static class ReplyCollector extends BaseHandler {
+        private final String _expected;
+        private final AtomicInteger _misrouted;
+        private final AtomicInteger _count = new AtomicInteger();
+
+        ReplyCollector(String expected, AtomicInteger misrouted) {
+            _expected = expected;
+            _misrouted = misrouted;
+        }
+
+        @Override
+        public void handleMessage(Exchange exchange) throws HandlerException {
+            _count.incrementAndGet();
+            if (!_expected.equals(exchange.getMessage().getContent())) {
+                _misrouted.incrementAndGet();
+            }
+        }
+    }
+}
@@ -22,6 +22,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.switchyard.transform.BaseTransformer;
+import org.switchyard.transform.TransformSequence;
 import org.switchyard.transform.Transformer;
 
 public class BaseTransformResolverTest {
@@ -121,6 +122,51 @@ public class BaseTransformResolverTest {
         Assert.assertFalse(resolved);
     }
     
+    @Test
+    public void shortestPathWins() {
+        registry.addTransformer(fromAtoB);
+        registry.addTransformer(fromBtoC);
+        registry.addTransformer(fromCtoD);
+        registry.addTransformer(createTransformer(B, D));
+
+        LinkedList<QName> list = new LinkedList<QName>();
+        Assert.assertTrue(resolver.resolvePath(list, A, D, 3));
+        Assert.assertEquals(2, list.size());
+        Assert.assertEquals(B, list.pop());
+        Assert.assertEquals(D, list.pop());
+    }
+
+    @Test
+    public void missingPathResolvedAfterTransformerAdded() {
+        registry.addTransformer(fromAtoB);
+        Assert.assertNull(registry.getTransformSequence(A, C));
+
+        registry.addTransformer(fromBtoC);
+        Assert.assertNotNull(registry.getTransformSequence(A, C));
+    }
+
+    @Test
+    public void cachedPathDroppedAfterTransformerRemoved() {
+        registry.addTransformer(fromAtoB);
+        registry.addTransformer(fromBtoC);
+        Assert.assertNotNull(registry.getTransformSequence(A, C));
+
+        registry.removeTransformer(fromBtoC);
+        Assert.assertNull(registry.getTransformSequence(A, C));
+    }
+
+    @Test
+    public void cachedSequenceIsNotShared() {
+        registry.addTransformer(fromAtoB);
+        registry.addTransformer(fromBtoC);
+        resolver.clearCache();
+
+        TransformSequence first = resolver.resolveSequence(A, C);
+        TransformSequence second = resolver.resolveSequence(A, C);
+        Assert.assertNotSame(first, second);
+        Assert.assertNotNull(first);
+    }
+
     @SuppressWarnings("rawtypes")
     Transformer createTransformer(QName from, QName to) {
         return new BaseTransformer(from, to) {
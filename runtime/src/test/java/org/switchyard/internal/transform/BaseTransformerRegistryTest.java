@@ -114,6 +114,42 @@ public class BaseTransformerRegistryTest {
         Assert.assertEquals(C, message.getContent());      
     }
 
+    @Test
+    public void testFallbackMissInvalidatedOnAdd() {
+        QName target = new QName("target1");
+        Assert.assertNull(_registry.getTransformer(getType(D.class), target));
+        // cached miss must not hide a transformer added later
+        addTransformer(B.class);
+        Transformer<?,?> transformer = _registry.getTransformer(getType(D.class), target);
+        Assert.assertNotNull(transformer);
+        Assert.assertEquals(getType(B.class), transformer.getFrom());
+
+        // a closer match replaces cached fallback
+        addTransformer(C.class);
+        Assert.assertEquals(getType(C.class), _registry.getTransformer(getType(D.class), target).getFrom());
+    }
+
+    @Test
+    public void testTransformersFromAndTo() {
+        final QName a = new QName("a");
+        final QName b = new QName("b");
+        final QName c = new QName("c");
+        TestTransformer2 aToB = new TestTransformer2(a, b);
+        TestTransformer2 aToC = new TestTransformer2(a, c);
+        TestTransformer2 cToB = new TestTransformer2(c, b);
+        _registry.addTransformer(aToB);
+        _registry.addTransformer(aToC);
+        _registry.addTransformer(cToB);
+
+        Assert.assertEquals(2, _registry.getTransformersFrom(a).size());
+        Assert.assertEquals(2, _registry.getTransformersTo(b).size());
+        Assert.assertTrue(_registry.getTransformersFrom(b).isEmpty());
+
+        _registry.removeTransformer(aToB);
+        Assert.assertEquals(Collections.singletonList(aToC), _registry.getTransformersFrom(a));
+        Assert.assertEquals(Collections.singletonList(cToB), _registry.getTransformersTo(b));
+    }
+
     private void addTransformer(Class<?> type) {
         QName fromType = getType(type);
         QName toType = new QName("target1");
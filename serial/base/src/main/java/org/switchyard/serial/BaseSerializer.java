@@ -14,10 +14,13 @@
 package org.switchyard.serial;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import org.switchyard.common.io.Buffers;
+import org.switchyard.common.io.ByteBufferInputStream;
+import org.switchyard.common.io.ByteBufferOutputStream;
+import org.switchyard.common.io.ByteBufferPool;
 
 /**
  * Base serializer implementation.
@@ -56,11 +59,44 @@ public abstract class BaseSerializer implements Serializer {
      */
     @Override
     public <T> byte[] serialize(T obj, Class<T> type) throws IOException {
-        ByteArrayOutputStream out = new ByteArrayOutputStream(getBufferSize());
+        // a pooled buffer, copied once to the exact size
+        ByteBufferPool pool = ByteBufferPool.getHeapPool();
+        ByteBuffer buffer = serialize(obj, type, pool);
+        try {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        } finally {
+            pool.release(buffer);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ByteBuffer serialize(T obj, Class<T> type, ByteBuffer buffer) throws IOException {
+        ByteBufferOutputStream out = new ByteBufferOutputStream(buffer);
         int count = serialize(obj, type, out);
-        byte[] bytes = out.toByteArray();
-        assert count == bytes.length;
-        return bytes;
+        assert count == out.getCount();
+        return out.toByteBuffer();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ByteBuffer serialize(T obj, Class<T> type, ByteBufferPool pool) throws IOException {
+        ByteBuffer buffer = pool.acquire();
+        try {
+            return serialize(obj, type, buffer);
+        } catch (IOException ioe) {
+            pool.release(buffer);
+            throw ioe;
+        } catch (RuntimeException re) {
+            pool.release(buffer);
+            throw re;
+        }
     }
 
     /**
@@ -71,6 +107,14 @@ public abstract class BaseSerializer implements Serializer {
         return deserialize(new ByteArrayInputStream(bytes), type);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T deserialize(ByteBuffer buffer, Class<T> type) throws IOException {
+        return deserialize(new ByteBufferInputStream(buffer), type);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -23,6 +23,8 @@ public enum CompressionType {
     /** GZIP. */
     GZIP,
     /** ZIP. */
-    ZIP;
+    ZIP,
+    /** LZ4, in self-describing frames. */
+    LZ4;
 
 }
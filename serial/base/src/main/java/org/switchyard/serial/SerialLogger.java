@@ -1,6 +1,10 @@
 package org.switchyard.serial;
 
+import static org.jboss.logging.Logger.Level.WARN;
+
 import org.jboss.logging.Logger;
+import org.jboss.logging.annotations.LogMessage;
+import org.jboss.logging.annotations.Message;
 import org.jboss.logging.annotations.MessageLogger;
 
 /**
@@ -15,4 +19,12 @@ public interface SerialLogger {
      * Default root logger.
      */
     SerialLogger ROOT_LOGGER = Logger.getMessageLogger(SerialLogger.class, SerialLogger.class.getPackage().getName());
+
+    /**
+     * schemaAlreadyInUse method definition.
+     * @param className className
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 15000, value = "A default schema of %s is already in use, so occurrences nested in other types keep their default field numbers.")
+    void schemaAlreadyInUse(String className);
 }
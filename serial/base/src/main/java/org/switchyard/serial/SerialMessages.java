@@ -1,5 +1,7 @@
 package org.switchyard.serial;
 
+import java.io.IOException;
+
 import org.jboss.logging.Messages;
 import org.jboss.logging.annotations.Message;
 import org.jboss.logging.annotations.MessageBundle;
@@ -26,4 +28,46 @@ public interface SerialMessages {
     @Message(id=15200, value = "Could not instantiate Throwable class: %s")
     SwitchYardException couldNotInstantiateThrowable(String className);
 
+    /**
+     * invalidAttachmentFrame method definition.
+     * @param length length
+     * @return IOException
+     */
+    @Message(id=15201, value = "Invalid graph attachment frame length: %d")
+    IOException invalidAttachmentFrame(int length);
+
+    /**
+     * invalidFieldNumber method definition.
+     * @param fieldName fieldName
+     * @param className className
+     * @param number number
+     * @return IllegalArgumentException
+     */
+    @Message(id=15202, value = "Field %s of %s needs a unique explicit field number from 1 to 65535, not %s")
+    IllegalArgumentException invalidFieldNumber(String fieldName, String className, Integer number);
+
+    /**
+     * invalidCompressedBlock method definition.
+     * @param codec codec
+     * @return IOException
+     */
+    @Message(id=15203, value = "Invalid %s compressed block")
+    IOException invalidCompressedBlock(String codec);
+
+    /**
+     * unknownCompressionCodec method definition.
+     * @param id id
+     * @return IOException
+     */
+    @Message(id=15204, value = "Unknown compression codec id: %d")
+    IOException unknownCompressionCodec(int id);
+
+    /**
+     * invalidCompressedBlockLength method definition.
+     * @param length length
+     * @return IOException
+     */
+    @Message(id=15205, value = "Invalid compressed block length: %d")
+    IOException invalidCompressedBlockLength(int length);
+
 }
@@ -16,6 +16,9 @@ package org.switchyard.serial;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.switchyard.common.io.ByteBufferPool;
 
 /**
  * Serializes and deserializes objects.
@@ -45,6 +48,30 @@ public interface Serializer {
      */
     public <T> int serialize(T obj, Class<T> type, OutputStream out) throws IOException;
 
+    /**
+     * Serializes an object of a type into a ByteBuffer, from its position.
+     * If the buffer fills up, a larger one of the same kind (heap or direct) is used instead.
+     * @param <T> the type of object
+     * @param obj the object
+     * @param type the type
+     * @param buffer the buffer
+     * @return a view of the serialized bytes, sharing their content
+     * @throws IOException something wicked this way comes
+     */
+    public <T> ByteBuffer serialize(T obj, Class<T> type, ByteBuffer buffer) throws IOException;
+
+    /**
+     * Serializes an object of a type into a buffer acquired from a pool.
+     * The returned buffer should be released to the pool once its content has been used.
+     * @param <T> the type of object
+     * @param obj the object
+     * @param type the type
+     * @param pool the pool
+     * @return a view of the serialized bytes, sharing their content
+     * @throws IOException something wicked this way comes
+     */
+    public <T> ByteBuffer serialize(T obj, Class<T> type, ByteBufferPool pool) throws IOException;
+
     /**
      * Deserializes a byte array to an object of a type.
      * @param <T> the type of object
@@ -65,6 +92,16 @@ public interface Serializer {
      */
     public <T> T deserialize(InputStream in, Class<T> type) throws IOException;
 
+    /**
+     * Deserializes the remaining bytes of a ByteBuffer to an object of a type.
+     * @param <T> the type of object
+     * @param buffer the buffer
+     * @param type the type
+     * @return the object
+     * @throws IOException something wicked this way comes
+     */
+    public <T> T deserialize(ByteBuffer buffer, Class<T> type) throws IOException;
+
     /**
      * Gets the type of format being used.
      * @return the format
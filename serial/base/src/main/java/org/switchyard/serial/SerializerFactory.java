@@ -13,9 +13,11 @@
  */
 package org.switchyard.serial;
 
+import org.switchyard.serial.compress.CodecSerializer;
 import org.switchyard.serial.compress.GZIPSerializer;
 import org.switchyard.serial.compress.ZIPSerializer;
 import org.switchyard.serial.graph.GraphSerializer;
+import org.switchyard.serial.spi.CompressionCodec;
 import org.switchyard.serial.spi.SerializationProvider;
 
 /**
@@ -72,6 +74,11 @@ public final class SerializerFactory {
                     serializer = new GZIPSerializer(serializer);
                 } else if (CompressionType.ZIP.equals(compression)) {
                     serializer = new ZIPSerializer(serializer);
+                } else {
+                    CompressionCodec codec = CompressionCodec.getCodec(compression);
+                    if (codec != null) {
+                        serializer = new CodecSerializer(serializer, codec);
+                    }
                 }
             }
         }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.serial.compress;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.switchyard.serial.SerialMessages;
+import org.switchyard.serial.spi.CompressionCodec;
+
+/**
+ * Reads a codec frame written by a {@link CodecOutputStream}, decompressing each block with
+ * the codec its header names.
+ */
+final class CodecInputStream extends InputStream {
+
+    private final DataInputStream _in;
+    private byte[] _block;
+    private byte[] _compressed;
+    private int _position;
+    private int _limit;
+    private boolean _started;
+    private boolean _finished;
+
+    CodecInputStream(InputStream in) {
+        _in = new DataInputStream(in);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read() throws IOException {
+        if (_position == _limit && !readBlock()) {
+            return -1;
+        }
+        return _block[_position++] & 0xFF;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (_position == _limit && !readBlock()) {
+            return -1;
+        }
+        int n = Math.min(len, _limit - _position);
+        System.arraycopy(_block, _position, b, off, n);
+        _position += n;
+        return n;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int available() throws IOException {
+        return _limit - _position;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        _in.close();
+    }
+
+    private boolean readBlock() throws IOException {
+        if (_finished) {
+            return false;
+        }
+        if (!_started) {
+            _started = true;
+            _in.readFully(new byte[CodecOutputStream.MAGIC.length]);
+        }
+        int length = _in.readInt();
+        if (length == 0) {
+            _finished = true;
+            return false;
+        }
+        if (length < 0 || length > CodecOutputStream.BLOCK_SIZE) {
+            throw SerialMessages.MESSAGES.invalidCompressedBlockLength(length);
+        }
+        if (_block == null || _block.length < length) {
+            _block = new byte[length];
+        }
+        int id = _in.readUnsignedByte();
+        if (id == CompressionCodec.STORED) {
+            _in.readFully(_block, 0, length);
+        } else {
+            CompressionCodec codec = CompressionCodec.getCodec(id);
+            if (codec == null) {
+                throw SerialMessages.MESSAGES.unknownCompressionCodec(id);
+            }
+            int compressedLength = _in.readInt();
+            if (compressedLength < 0 || compressedLength > codec.maxCompressedLength(length)) {
+                throw SerialMessages.MESSAGES.invalidCompressedBlock(codec.getName());
+            }
+            if (_compressed == null || _compressed.length < compressedLength) {
+                _compressed = new byte[compressedLength];
+            }
+            _in.readFully(_compressed, 0, compressedLength);
+            codec.decompress(_compressed, 0, compressedLength, _block, 0, length);
+        }
+        _position = 0;
+        _limit = length;
+        return true;
+    }
+
+}
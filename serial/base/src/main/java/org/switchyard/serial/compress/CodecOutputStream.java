@@ -0,0 +1,156 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.serial.compress;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.switchyard.serial.spi.CompressionCodec;
+
+/**
+ * Writes a codec frame: the magic bytes, then blocks of up to {@link #BLOCK_SIZE} bytes, each
+ * headed by its length, the id of the codec that compressed it and its compressed length,
+ * then a zero length.
+ * <p/>
+ * Blocks under the threshold, or that do not get any smaller, are stored as they are.
+ */
+final class CodecOutputStream extends OutputStream {
+
+    /** The bytes a codec frame starts with. */
+    static final byte[] MAGIC = new byte[] {0, 'S', 'Y', 'Z'};
+
+    /** The most bytes in a block. */
+    static final int BLOCK_SIZE = 65536;
+
+    private final DataOutputStream _out;
+    private final CompressionCodec _codec;
+    private final int _threshold;
+    private byte[] _block;
+    private byte[] _compressed;
+    private int _count;
+    private boolean _started;
+    private boolean _finished;
+
+    CodecOutputStream(OutputStream out, CompressionCodec codec, int threshold) {
+        _out = new DataOutputStream(out);
+        _codec = codec;
+        _threshold = threshold;
+        // most payloads are small, so the block only grows to the full size as needed
+        _block = new byte[1024];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(int b) throws IOException {
+        if (_count == _block.length) {
+            grow();
+        }
+        _block[_count++] = (byte)b;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (_count == _block.length) {
+                grow();
+            }
+            int n = Math.min(len, _block.length - _count);
+            System.arraycopy(b, off, _block, _count, n);
+            _count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Writes the last block and the end of the frame, leaving the underlying stream open.
+     * @throws IOException if the frame could not be written
+     */
+    void finish() throws IOException {
+        if (!_finished) {
+            _finished = true;
+            if (_count > 0 || !_started) {
+                writeBlock();
+            }
+            _out.writeInt(0);
+            _out.flush();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void flush() throws IOException {
+        // blocks are only written whole, so there is nothing of ours to flush early
+        _out.flush();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            _out.close();
+        }
+    }
+
+    private void grow() throws IOException {
+        if (_block.length < BLOCK_SIZE) {
+            byte[] block = new byte[Math.min(_block.length * 4, BLOCK_SIZE)];
+            System.arraycopy(_block, 0, block, 0, _count);
+            _block = block;
+        } else {
+            writeBlock();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (!_started) {
+            _started = true;
+            _out.write(MAGIC);
+        }
+        if (_count == 0) {
+            return;
+        }
+        _out.writeInt(_count);
+        if (_count >= _threshold) {
+            int max = _codec.maxCompressedLength(_count);
+            if (_compressed == null || _compressed.length < max) {
+                _compressed = new byte[max];
+            }
+            int length = _codec.compress(_block, 0, _count, _compressed, 0);
+            if (length < _count) {
+                _out.writeByte(_codec.getId());
+                _out.writeInt(length);
+                _out.write(_compressed, 0, length);
+                _count = 0;
+                return;
+            }
+        }
+        _out.writeByte(CompressionCodec.STORED);
+        _out.write(_block, 0, _count);
+        _count = 0;
+    }
+
+}
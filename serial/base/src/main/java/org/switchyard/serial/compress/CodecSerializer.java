@@ -0,0 +1,147 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.serial.compress;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipInputStream;
+
+import org.switchyard.common.io.CountingOutputStream;
+import org.switchyard.serial.Serializer;
+import org.switchyard.serial.WrapperSerializer;
+import org.switchyard.serial.spi.CompressionCodec;
+
+/**
+ * A wrapper serializer that performs compression/decompression with a {@link CompressionCodec},
+ * in frames that name the codec of each block.
+ * <p/>
+ * Payloads under the threshold are stored uncompressed, as compressing them costs more than
+ * it saves. On deserialization the compression is detected: codec frames are decompressed
+ * whatever registered codec wrote them, GZIP and ZIP streams are recognized by their headers,
+ * and anything else is handed to the wrapped serializer as it is.
+ */
+public final class CodecSerializer extends WrapperSerializer {
+
+    /** The default size below which payloads are stored uncompressed. */
+    public static final int DEFAULT_THRESHOLD = 512;
+
+    private static final byte[] GZIP_MAGIC = new byte[] {0x1f, (byte)0x8b, 8};
+    private static final byte[] ZIP_MAGIC = new byte[] {'P', 'K', 3, 4};
+
+    private final CompressionCodec _codec;
+    private int _threshold = DEFAULT_THRESHOLD;
+
+    /**
+     * Constructor with a serializer to wrap and a codec.
+     * @param serializer the serializer to wrap
+     * @param codec the codec
+     */
+    public CodecSerializer(Serializer serializer, CompressionCodec codec) {
+        super(serializer, codec.getCompression());
+        _codec = codec;
+    }
+
+    /**
+     * Gets the codec.
+     * @return the codec
+     */
+    public CompressionCodec getCodec() {
+        return _codec;
+    }
+
+    /**
+     * Gets the size below which payloads are stored uncompressed.
+     * @return the threshold
+     */
+    public int getThreshold() {
+        return _threshold;
+    }
+
+    /**
+     * Sets the size below which payloads are stored uncompressed.
+     * @param threshold the threshold
+     * @return this serializer (useful for chaining)
+     */
+    public CodecSerializer setThreshold(int threshold) {
+        _threshold = threshold;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> int serialize(T obj, Class<T> type, OutputStream out) throws IOException {
+        out = new CountingOutputStream(out);
+        CodecOutputStream codec = new CodecOutputStream(out, _codec, _threshold);
+        try {
+            getWrapped().serialize(obj, type, codec);
+            codec.finish();
+            codec.flush();
+        } finally {
+            if (isCloseEnabled()) {
+                codec.close();
+            }
+        }
+        return ((CountingOutputStream)out).getCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T deserialize(InputStream in, Class<T> type) throws IOException {
+        in = new BufferedInputStream(in, getBufferSize());
+        in.mark(CodecOutputStream.MAGIC.length);
+        byte[] head = new byte[CodecOutputStream.MAGIC.length];
+        int count = 0;
+        int n;
+        while (count < head.length && (n = in.read(head, count, head.length - count)) != -1) {
+            count += n;
+        }
+        in.reset();
+        if (startsWith(head, count, CodecOutputStream.MAGIC)) {
+            in = new CodecInputStream(in);
+        } else if (startsWith(head, count, GZIP_MAGIC)) {
+            in = new GZIPInputStream(in, getBufferSize());
+        } else if (startsWith(head, count, ZIP_MAGIC)) {
+            ZipInputStream zip = new ZipInputStream(in);
+            zip.getNextEntry();
+            in = zip;
+        }
+        try {
+            return getWrapped().deserialize(in, type);
+        } finally {
+            if (isCloseEnabled()) {
+                in.close();
+            }
+        }
+    }
+
+    private static boolean startsWith(byte[] head, int count, byte[] magic) {
+        if (count < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (head[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.serial.compress;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.switchyard.serial.CompressionType;
+import org.switchyard.serial.SerialMessages;
+import org.switchyard.serial.spi.CompressionCodec;
+
+/**
+ * A pure Java codec of the LZ4 block format, trading compression ratio for speed.
+ * <p/>
+ * Matches are found through a single hash table probe per position, skipping ahead faster
+ * the longer no match turns up, so data that does not compress passes through quickly.
+ */
+public final class LZ4Codec extends CompressionCodec {
+
+    /** The id of the codec. */
+    public static final int ID = 1;
+
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MF_LIMIT = 12;
+    private static final int MAX_DISTANCE = 65535;
+    private static final int HASH_LOG = 12;
+    private static final int SKIP_STRENGTH = 6;
+    private static final int ML_BITS = 4;
+    private static final int ML_MASK = (1 << ML_BITS) - 1;
+    private static final int RUN_MASK = (1 << (8 - ML_BITS)) - 1;
+
+    private static final ThreadLocal<int[]> TABLE = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1 << HASH_LOG];
+        }
+    };
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return CompressionType.LZ4.name();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompressionType getCompression() {
+        return CompressionType.LZ4;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int maxCompressedLength(int length) {
+        return length + (length / 255) + 16;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int compress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff) {
+        final int srcEnd = srcOff + srcLen;
+        int sOff = srcOff;
+        int dOff = destOff;
+        int anchor = srcOff;
+        if (srcLen > MF_LIMIT) {
+            final int mfLimit = srcEnd - MF_LIMIT;
+            final int matchLimit = srcEnd - LAST_LITERALS;
+            final int[] table = TABLE.get();
+            Arrays.fill(table, srcOff);
+            sOff++;
+            outer:
+            while (true) {
+                int ref;
+                int forwardOff = sOff;
+                int attempts = (1 << SKIP_STRENGTH) + 3;
+                do {
+                    sOff = forwardOff;
+                    forwardOff += attempts++ >>> SKIP_STRENGTH;
+                    if (forwardOff > mfLimit) {
+                        break outer;
+                    }
+                    int h = hash(readInt(src, sOff));
+                    ref = table[h];
+                    table[h] = sOff;
+                } while (sOff - ref > MAX_DISTANCE || readInt(src, ref) != readInt(src, sOff));
+                while (sOff > anchor && ref > srcOff && src[sOff - 1] == src[ref - 1]) {
+                    sOff--;
+                    ref--;
+                }
+                int tokenOff = dOff++;
+                dOff = writeLiterals(src, anchor, sOff - anchor, dest, tokenOff, dOff);
+                while (true) {
+                    int offset = sOff - ref;
+                    dest[dOff++] = (byte)offset;
+                    dest[dOff++] = (byte)(offset >>> 8);
+                    sOff += MIN_MATCH;
+                    ref += MIN_MATCH;
+                    int matchLen = 0;
+                    while (sOff < matchLimit && src[sOff] == src[ref]) {
+                        sOff++;
+                        ref++;
+                        matchLen++;
+                    }
+                    if (matchLen >= ML_MASK) {
+                        dest[tokenOff] |= ML_MASK;
+                        dOff = writeLength(matchLen - ML_MASK, dest, dOff);
+                    } else {
+                        dest[tokenOff] |= matchLen;
+                    }
+                    anchor = sOff;
+                    if (sOff > mfLimit) {
+                        break outer;
+                    }
+                    table[hash(readInt(src, sOff - 2))] = sOff - 2;
+                    int h = hash(readInt(src, sOff));
+                    ref = table[h];
+                    table[h] = sOff;
+                    if (sOff - ref > MAX_DISTANCE || readInt(src, ref) != readInt(src, sOff)) {
+                        sOff++;
+                        break;
+                    }
+                    // a match straight away, so no literals
+                    tokenOff = dOff++;
+                    dest[tokenOff] = 0;
+                }
+            }
+        }
+        int tokenOff = dOff++;
+        dOff = writeLiterals(src, anchor, srcEnd - anchor, dest, tokenOff, dOff);
+        return dOff - destOff;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void decompress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int destLen) throws IOException {
+        final int srcEnd = srcOff + srcLen;
+        final int destEnd = destOff + destLen;
+        int sOff = srcOff;
+        int dOff = destOff;
+        while (true) {
+            if (sOff >= srcEnd) {
+                throw SerialMessages.MESSAGES.invalidCompressedBlock(getName());
+            }
+            int token = src[sOff++] & 0xFF;
+            int literalLen = token >>> ML_BITS;
+            if (literalLen == RUN_MASK) {
+                int b;
+                do {
+                    if (sOff >= srcEnd) {
+                        throw SerialMessages.MESSAGES.invalidCompressedBlock(getName());
+                    }
+                    b = src[sOff++] & 0xFF;
+                    literalLen += b;
+                } while (b == 255 && literalLen < destLen);
+            }
+            if (literalLen > srcEnd - sOff || literalLen > destEnd - dOff) {
+                throw SerialMessages.MESSAGES.invalidCompressedBlock(getName());
+            }
+            System.arraycopy(src, sOff, dest, dOff, literalLen);
+            sOff += literalLen;
+            dOff += literalLen;
+            if (sOff == srcEnd) {
+                // the last sequence is literals only
+                break;
+            }
+            if (srcEnd - sOff < 2) {
+                throw SerialMessages.MESSAGES.invalidCompressedBlock(getName());
+            }
+            int offset = (src[sOff] & 0xFF) | ((src[sOff + 1] & 0xFF) << 8);
+            sOff += 2;
+            int ref = dOff - offset;
+            if (offset == 0 || ref < destOff) {
+                throw SerialMessages.MESSAGES.invalidCompressedBlock(getName());
+            }
+            int matchLen = token & ML_MASK;
+            if (matchLen == ML_MASK) {
+                int b;
+                do {
+                    if (sOff >= srcEnd) {
+                        throw SerialMessages.MESSAGES.invalidCompressedBlock(getName());
+                    }
+                    b = src[sOff++] & 0xFF;
+                    matchLen += b;
+                } while (b == 255 && matchLen < destLen);
+            }
+            matchLen += MIN_MATCH;
+            if (matchLen > destEnd - dOff) {
+                throw SerialMessages.MESSAGES.invalidCompressedBlock(getName());
+            }
+            if (offset >= matchLen) {
+                System.arraycopy(dest, ref, dest, dOff, matchLen);
+                dOff += matchLen;
+            } else {
+                // the match overlaps what it writes, so it repeats byte by byte
+                for (int i = 0; i < matchLen; i++) {
+                    dest[dOff++] = dest[ref++];
+                }
+            }
+        }
+        if (dOff != destEnd) {
+            throw SerialMessages.MESSAGES.invalidCompressedBlock(getName());
+        }
+    }
+
+    private static int writeLiterals(byte[] src, int srcOff, int length, byte[] dest, int tokenOff, int dOff) {
+        if (length >= RUN_MASK) {
+            dest[tokenOff] = (byte)(RUN_MASK << ML_BITS);
+            dOff = writeLength(length - RUN_MASK, dest, dOff);
+        } else {
+            dest[tokenOff] = (byte)(length << ML_BITS);
+        }
+        System.arraycopy(src, srcOff, dest, dOff, length);
+        return dOff + length;
+    }
+
+    private static int writeLength(int length, byte[] dest, int dOff) {
+        while (length >= 255) {
+            dest[dOff++] = (byte)255;
+            length -= 255;
+        }
+        dest[dOff++] = (byte)length;
+        return dOff;
+    }
+
+    private static int readInt(byte[] buf, int off) {
+        return (buf[off] & 0xFF) | ((buf[off + 1] & 0xFF) << 8) | ((buf[off + 2] & 0xFF) << 16) | (buf[off + 3] << 24);
+    }
+
+    private static int hash(int i) {
+        return (i * -1640531535) >>> ((MIN_MATCH * 8) - HASH_LOG);
+    }
+
+}
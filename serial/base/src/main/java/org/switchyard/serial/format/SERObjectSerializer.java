@@ -20,7 +20,10 @@ import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
+import org.switchyard.common.io.ByteBufferInputStream;
+import org.switchyard.common.io.ByteBufferOutputStream;
 import org.switchyard.common.io.CountingOutputStream;
 import org.switchyard.serial.BaseSerializer;
 import org.switchyard.serial.FormatType;
@@ -46,10 +49,7 @@ public final class SERObjectSerializer extends BaseSerializer {
     public <T> int serialize(T obj, Class<T> type, OutputStream out) throws IOException {
         out = new CountingOutputStream(new BufferedOutputStream(out, getBufferSize()));
         try {
-            @SuppressWarnings("resource")
-            ObjectOutputStream oos = new ObjectOutputStream(out);
-            oos.writeObject(obj);
-            oos.flush();
+            writeObject(obj, out);
         } finally {
             if (isCloseEnabled()) {
                 out.close();
@@ -64,16 +64,48 @@ public final class SERObjectSerializer extends BaseSerializer {
     @Override
     public <T> T deserialize(InputStream in, Class<T> type) throws IOException {
         in = new BufferedInputStream(in, getBufferSize());
+        try {
+            return readObject(in, type);
+        } finally {
+            if (isCloseEnabled()) {
+                in.close();
+            }
+        }
+    }
+
+    /**
+     * Serializes straight into the buffer, the object stream doing its own block buffering.
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ByteBuffer serialize(T obj, Class<T> type, ByteBuffer buffer) throws IOException {
+        ByteBufferOutputStream out = new ByteBufferOutputStream(buffer);
+        writeObject(obj, out);
+        return out.toByteBuffer();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T deserialize(ByteBuffer buffer, Class<T> type) throws IOException {
+        return readObject(new ByteBufferInputStream(buffer), type);
+    }
+
+    private void writeObject(Object obj, OutputStream out) throws IOException {
+        @SuppressWarnings("resource")
+        ObjectOutputStream oos = new ObjectOutputStream(out);
+        oos.writeObject(obj);
+        oos.flush();
+    }
+
+    private <T> T readObject(InputStream in, Class<T> type) throws IOException {
         try {
             ObjectInputStream ois = new ObjectInputStream(in);
             Object obj = ois.readObject();
             return type.cast(obj);
         } catch (ClassNotFoundException cnfe) {
             throw new IOException(cnfe);
-        } finally {
-            if (isCloseEnabled()) {
-                in.close();
-            }
         }
     }
 
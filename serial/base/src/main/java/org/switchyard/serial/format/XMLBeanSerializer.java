@@ -21,7 +21,10 @@ import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
+import org.switchyard.common.io.ByteBufferInputStream;
+import org.switchyard.common.io.ByteBufferOutputStream;
 import org.switchyard.common.io.CountingOutputStream;
 import org.switchyard.common.type.Classes;
 import org.switchyard.serial.BaseSerializer;
@@ -47,6 +50,22 @@ public final class XMLBeanSerializer extends BaseSerializer {
     @Override
     public <T> int serialize(T obj, Class<T> type, OutputStream out) throws IOException {
         out = new CountingOutputStream(new BufferedOutputStream(out, getBufferSize()));
+        encode(obj, out);
+        return ((CountingOutputStream)out).getCount();
+    }
+
+    /**
+     * Serializes straight into the buffer, the encoder doing its own buffering.
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ByteBuffer serialize(T obj, Class<T> type, ByteBuffer buffer) throws IOException {
+        ByteBufferOutputStream out = new ByteBufferOutputStream(buffer);
+        encode(obj, out);
+        return out.toByteBuffer();
+    }
+
+    private void encode(Object obj, OutputStream out) throws IOException {
         EL el = new EL();
         XMLEncoder enc = new XMLEncoder(out);
         try {
@@ -62,7 +81,6 @@ public final class XMLBeanSerializer extends BaseSerializer {
         if (ioe != null) {
             throw ioe;
         }
-        return ((CountingOutputStream)out).getCount();
     }
 
     /**
@@ -70,7 +88,18 @@ public final class XMLBeanSerializer extends BaseSerializer {
      */
     @Override
     public <T> T deserialize(InputStream in, Class<T> type) throws IOException {
-        in = new BufferedInputStream(in, getBufferSize());
+        return decode(new BufferedInputStream(in, getBufferSize()), type);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T deserialize(ByteBuffer buffer, Class<T> type) throws IOException {
+        return decode(new ByteBufferInputStream(buffer), type);
+    }
+
+    private <T> T decode(InputStream in, Class<T> type) throws IOException {
         EL el = new EL();
         XMLDecoder dec = new XMLDecoder(in, null, el, Classes.getTCCL());
         Object obj;
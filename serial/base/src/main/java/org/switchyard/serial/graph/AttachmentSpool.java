@@ -0,0 +1,156 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.serial.graph;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds a received graph attachment, in memory up to a threshold and in a temporary file above it.
+ * <p/>
+ * A temporary file is deleted when its stream is closed. If the consumer drops the stream without closing
+ * it, the file is deleted once the stream has been garbage collected, the next time an attachment is spooled.
+ */
+final class AttachmentSpool extends OutputStream {
+
+    private static final ReferenceQueue<InputStream> ORPHANS = new ReferenceQueue<InputStream>();
+    // keeps the references themselves reachable until their file is deleted
+    private static final Set<SpoolReference> SPOOLED = Collections.newSetFromMap(new ConcurrentHashMap<SpoolReference, Boolean>());
+
+    private final int _threshold;
+    private Memory _memory = new Memory();
+    private File _file;
+    private OutputStream _fileOut;
+
+    AttachmentSpool(int threshold) {
+        _threshold = threshold;
+        reap();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte)b}, 0, 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (_fileOut == null && _memory.size() + len > _threshold) {
+            _file = File.createTempFile("switchyard-attachment", ".tmp");
+            _fileOut = new BufferedOutputStream(new FileOutputStream(_file));
+            _memory.writeTo(_fileOut);
+            _memory = null;
+        }
+        if (_fileOut != null) {
+            _fileOut.write(b, off, len);
+        } else {
+            _memory.write(b, off, len);
+        }
+    }
+
+    /**
+     * Gets the spooled content, handing the temporary file over to the returned stream.
+     * @return the stream, deleting its temporary file when closed
+     * @throws IOException if the temporary file could not be written
+     */
+    InputStream toInputStream() throws IOException {
+        if (_fileOut == null) {
+            return _memory.toInputStream();
+        }
+        _fileOut.close();
+        _fileOut = null;
+        SpoolInputStream sis = new SpoolInputStream(_file);
+        _file = null;
+        return sis;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (_fileOut != null) {
+                _fileOut.close();
+            }
+        } finally {
+            if (_file != null) {
+                _file.delete();
+            }
+        }
+    }
+
+    private static void reap() {
+        SpoolReference orphan;
+        while ((orphan = (SpoolReference)ORPHANS.poll()) != null) {
+            orphan.delete();
+        }
+    }
+
+    private static final class SpoolInputStream extends FileInputStream {
+        private final SpoolReference _reference;
+        private SpoolInputStream(File file) throws IOException {
+            super(file);
+            _reference = new SpoolReference(this, file);
+        }
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                _reference.delete();
+            }
+        }
+    }
+
+    private static final class SpoolReference extends PhantomReference<InputStream> {
+        private final File _file;
+        private SpoolReference(InputStream referent, File file) {
+            super(referent, ORPHANS);
+            _file = file;
+            SPOOLED.add(this);
+        }
+        private void delete() {
+            if (SPOOLED.remove(this)) {
+                clear();
+                _file.delete();
+            }
+        }
+    }
+
+    private static final class Memory extends ByteArrayOutputStream {
+        private InputStream toInputStream() {
+            // no copy, the spool is done with the buffer
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
+
+}
@@ -13,9 +13,12 @@
  */
 package org.switchyard.serial.graph;
 
+import java.io.InputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -38,6 +41,8 @@ public final class Graph implements Serializable {
     private transient Map<Object, Integer> _ids;
     private transient AtomicInteger _sequence;
     private transient Queue<Runnable> _resolutions;
+    private transient StreamMode _streamMode = StreamMode.BASE64;
+    private transient List<InputStream> _attachments;
 
     /**
      * Default constructor.
@@ -52,6 +57,16 @@ public final class Graph implements Serializable {
         composeRoot(obj);
     }
 
+    /**
+     * Constructor which composes the specified root object, carrying streams the specified way.
+     * @param obj the specified root object
+     * @param streamMode how streams are carried
+     */
+    public Graph(Object obj, StreamMode streamMode) {
+        _streamMode = streamMode;
+        composeRoot(obj);
+    }
+
     /**
      * Gets the root node id.
      * @return the root node id
@@ -102,6 +117,49 @@ public final class Graph implements Serializable {
         _references.put(id, obj);
     }
 
+    /**
+     * Whether streams are carried the specified way.
+     * @param streamMode the stream mode
+     * @return if streams are carried that way
+     */
+    public boolean isStreamMode(StreamMode streamMode) {
+        return _streamMode == streamMode;
+    }
+
+    /**
+     * Adds a stream to be sent after the graph.
+     * @param attachment the stream
+     * @return the attachment index
+     */
+    public Integer addAttachment(InputStream attachment) {
+        if (_attachments == null) {
+            _attachments = new ArrayList<InputStream>();
+        }
+        _attachments.add(attachment);
+        return _attachments.size() - 1;
+    }
+
+    /**
+     * Gets a stream received after the graph.
+     * @param index the attachment index
+     * @return the stream, or null if there is no such attachment
+     */
+    public InputStream getAttachment(Integer index) {
+        if (_attachments == null || index < 0 || index >= _attachments.size()) {
+            return null;
+        }
+        return _attachments.get(index);
+    }
+
+    // not bean properties, so formats don't see them
+    List<InputStream> attachments() {
+        return _attachments;
+    }
+
+    void attachments(List<InputStream> attachments) {
+        _attachments = attachments;
+    }
+
     private Queue<Runnable> getResolutions() {
         if (_resolutions == null) {
             _resolutions = new ConcurrentLinkedQueue<Runnable>();
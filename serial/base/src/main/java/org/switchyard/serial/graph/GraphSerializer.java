@@ -13,26 +13,101 @@
  */
 package org.switchyard.serial.graph;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+import org.switchyard.common.io.ByteBufferInputStream;
+import org.switchyard.common.io.ByteBufferOutputStream;
+import org.switchyard.serial.SerialMessages;
 import org.switchyard.serial.Serializer;
 import org.switchyard.serial.WrapperSerializer;
 
 /**
  * A wrapper serializer that walks/handles object graphs before/after serialization/deserialization.
+ * <p/>
+ * InputStreams and DataSources in the graph are carried according to the {@link StreamMode}. By default,
+ * they are carried as Base64, which every peer understands; {@link StreamMode#BINARY} and
+ * {@link StreamMode#ATTACHMENT} must be opted into, once all receivers understand them. In attachment mode
+ * they are not held in the graph: the serialized graph is framed and followed by each stream, written
+ * in chunks as it is read. On deserialization the framing is detected whatever the mode, and attachments
+ * above the spool threshold are kept in temporary files, deleted once their stream is closed.
  *
  * @author David Ward &lt;<a href="mailto:dward@jboss.org">dward@jboss.org</a>&gt; &copy; 2012 Red Hat Inc.
  */
 public final class GraphSerializer extends WrapperSerializer {
 
+    /** The default size above which received attachments are spooled to disk. */
+    public static final int DEFAULT_SPOOL_THRESHOLD = 1024 * 1024;
+
+    // a serialized graph never starts with a zero byte, whatever the format
+    private static final byte[] ATTACHMENT_MAGIC = new byte[] {0, 'S', 'Y', 'A', 1};
+
+    private StreamMode _streamMode;
+    private int _spoolThreshold = DEFAULT_SPOOL_THRESHOLD;
+
     /**
      * Constructor with a serializer to wrap.
      * @param serializer the serializer to wrap
      */
     public GraphSerializer(Serializer serializer) {
+        this(serializer, null);
+    }
+
+    /**
+     * Constructor with a serializer to wrap and how streams are carried.
+     * @param serializer the serializer to wrap
+     * @param streamMode the stream mode (null means {@link StreamMode#BASE64})
+     */
+    public GraphSerializer(Serializer serializer, StreamMode streamMode) {
         super(serializer);
+        setStreamMode(streamMode);
+    }
+
+    /**
+     * Gets how streams are carried.
+     * @return the stream mode
+     */
+    public StreamMode getStreamMode() {
+        return _streamMode;
+    }
+
+    /**
+     * Sets how streams are carried.
+     * @param streamMode the stream mode (null means {@link StreamMode#BASE64})
+     * @return this instance (useful for chaining)
+     */
+    public GraphSerializer setStreamMode(StreamMode streamMode) {
+        _streamMode = streamMode != null ? streamMode : StreamMode.BASE64;
+        return this;
+    }
+
+    /**
+     * Gets the size above which received attachments are spooled to disk.
+     * @return the spool threshold
+     */
+    public int getSpoolThreshold() {
+        return _spoolThreshold;
+    }
+
+    /**
+     * Sets the size above which received attachments are spooled to disk.
+     * @param spoolThreshold the spool threshold
+     * @return this instance (useful for chaining)
+     */
+    public GraphSerializer setSpoolThreshold(int spoolThreshold) {
+        _spoolThreshold = spoolThreshold;
+        return this;
     }
 
     /**
@@ -40,16 +115,75 @@ public final class GraphSerializer extends WrapperSerializer {
      */
     @Override
     public <T> int serialize(T obj, Class<T> type, OutputStream out) throws IOException {
-        Graph graph = new Graph(obj);
+        Graph graph = null;
         try {
-            return getWrapped().serialize(graph, Graph.class, out);
+            graph = new Graph(obj, _streamMode);
+            List<InputStream> attachments = graph.attachments();
+            if (attachments == null) {
+                return getWrapped().serialize(graph, Graph.class, out);
+            }
+            return writeAttachments(graph, attachments, out);
         } finally {
+            closeAttachments(graph);
             if (isCloseEnabled()) {
                 out.close();
             }
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ByteBuffer serialize(T obj, Class<T> type, ByteBuffer buffer) throws IOException {
+        Graph graph = null;
+        try {
+            graph = new Graph(obj, _streamMode);
+            List<InputStream> attachments = graph.attachments();
+            if (attachments == null) {
+                return getWrapped().serialize(graph, Graph.class, buffer);
+            }
+            ByteBufferOutputStream out = new ByteBufferOutputStream(buffer);
+            writeAttachments(graph, attachments, out);
+            return out.toByteBuffer();
+        } finally {
+            closeAttachments(graph);
+        }
+    }
+
+    private void closeAttachments(Graph graph) throws IOException {
+        if (graph != null && graph.attachments() != null) {
+            for (InputStream attachment : graph.attachments()) {
+                attachment.close();
+            }
+        }
+    }
+
+    private int writeAttachments(Graph graph, List<InputStream> attachments, OutputStream out) throws IOException {
+        int bs = getBufferSize();
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(out, bs));
+        dos.write(ATTACHMENT_MAGIC);
+        // the graph itself is small once the streams are out of it
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(bs);
+        getWrapped().serialize(graph, Graph.class, baos);
+        dos.writeInt(baos.size());
+        baos.writeTo(dos);
+        dos.writeInt(attachments.size());
+        byte[] buff = new byte[bs];
+        for (InputStream attachment : attachments) {
+            int read;
+            while ((read = attachment.read(buff)) != -1) {
+                if (read > 0) {
+                    dos.writeInt(read);
+                    dos.write(buff, 0, read);
+                }
+            }
+            dos.writeInt(0);
+        }
+        dos.flush();
+        return dos.size();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -57,7 +191,13 @@ public final class GraphSerializer extends WrapperSerializer {
     @SuppressWarnings("unchecked")
     public <T> T deserialize(InputStream in, Class<T> type) throws IOException {
         try {
-            Graph graph = getWrapped().deserialize(in, Graph.class);
+            BufferedInputStream bis = new BufferedInputStream(in, getBufferSize());
+            Graph graph;
+            if (isAttachmentFramed(bis)) {
+                graph = readAttachments(new DataInputStream(bis));
+            } else {
+                graph = getWrapped().deserialize(bis, Graph.class);
+            }
             return (T)graph.decomposeRoot();
         } finally {
             if (isCloseEnabled()) {
@@ -66,4 +206,81 @@ public final class GraphSerializer extends WrapperSerializer {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T deserialize(ByteBuffer buffer, Class<T> type) throws IOException {
+        boolean framed = buffer.remaining() >= ATTACHMENT_MAGIC.length;
+        for (int i = 0; framed && i < ATTACHMENT_MAGIC.length; i++) {
+            framed = buffer.get(buffer.position() + i) == ATTACHMENT_MAGIC[i];
+        }
+        if (framed) {
+            return deserialize(new ByteBufferInputStream(buffer), type);
+        }
+        Graph graph = getWrapped().deserialize(buffer, Graph.class);
+        return (T)graph.decomposeRoot();
+    }
+
+    private boolean isAttachmentFramed(BufferedInputStream bis) throws IOException {
+        byte[] magic = new byte[ATTACHMENT_MAGIC.length];
+        bis.mark(magic.length);
+        int count = 0;
+        int read;
+        while (count < magic.length && (read = bis.read(magic, count, magic.length - count)) != -1) {
+            count += read;
+        }
+        if (count == magic.length && Arrays.equals(magic, ATTACHMENT_MAGIC)) {
+            return true;
+        }
+        bis.reset();
+        return false;
+    }
+
+    private Graph readAttachments(DataInputStream dis) throws IOException {
+        byte[] bytes = new byte[readLength(dis)];
+        dis.readFully(bytes);
+        Graph graph = getWrapped().deserialize(new ByteArrayInputStream(bytes), Graph.class);
+        int count = readLength(dis);
+        List<InputStream> attachments = new ArrayList<InputStream>(count);
+        byte[] buff = new byte[getBufferSize()];
+        try {
+            for (int i = 0; i < count; i++) {
+                AttachmentSpool spool = new AttachmentSpool(_spoolThreshold);
+                try {
+                    int length;
+                    while ((length = readLength(dis)) > 0) {
+                        while (length > 0) {
+                            int read = dis.read(buff, 0, Math.min(length, buff.length));
+                            if (read == -1) {
+                                throw SerialMessages.MESSAGES.invalidAttachmentFrame(length);
+                            }
+                            spool.write(buff, 0, read);
+                            length -= read;
+                        }
+                    }
+                    attachments.add(spool.toInputStream());
+                } finally {
+                    spool.close();
+                }
+            }
+        } catch (IOException ioe) {
+            for (InputStream attachment : attachments) {
+                attachment.close();
+            }
+            throw ioe;
+        }
+        graph.attachments(attachments);
+        return graph;
+    }
+
+    private int readLength(DataInputStream dis) throws IOException {
+        int length = dis.readInt();
+        if (length < 0) {
+            throw SerialMessages.MESSAGES.invalidAttachmentFrame(length);
+        }
+        return length;
+    }
+
 }
@@ -0,0 +1,28 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.serial.graph;
+
+/**
+ * How InputStream (and so DataSource) contents are carried in a graph.
+ */
+public enum StreamMode {
+
+    /** Base64 encoded into a String; the default, understood by every peer. */
+    BASE64,
+    /** Raw bytes, for formats with a native binary field type; receivers must understand it. */
+    BINARY,
+    /** Streamed in chunks after the serialized graph, never held in the graph itself; receivers must understand it. */
+    ATTACHMENT;
+
+}
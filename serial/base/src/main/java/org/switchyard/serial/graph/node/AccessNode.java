@@ -13,34 +13,16 @@
  */
 package org.switchyard.serial.graph.node;
 
-import java.beans.BeanInfo;
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
 import java.lang.reflect.Array;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import org.switchyard.common.type.reflect.Access;
-import org.switchyard.common.type.reflect.BeanAccess;
-import org.switchyard.common.type.reflect.FieldAccess;
-import org.switchyard.common.type.reflect.MethodAccess;
-import org.switchyard.serial.graph.AccessType;
-import org.switchyard.serial.graph.CoverageType;
-import org.switchyard.serial.graph.Exclude;
 import org.switchyard.serial.graph.Factory;
 import org.switchyard.serial.graph.Graph;
-import org.switchyard.serial.graph.Include;
-import org.switchyard.serial.graph.Strategy;
 
 /**
  * Reflection-based node for arbitrary objects.
@@ -98,11 +80,11 @@ public abstract class AccessNode implements Node {
         if (obj != null) {
             Class<?> clazz = obj.getClass();
             setClazz(NodeBuilder.build(clazz, graph));
-            for (Access<?> access : getAccessList(clazz)) {
-                if (!(access instanceof FieldAccess) && !access.isWriteable()) {
+            for (AccessPlan.Property property : getProperties(clazz)) {
+                if (!property.isField() && !property.isWriteable()) {
                     continue;
                 }
-                Object value = access.read(obj);
+                Object value = property.read(obj);
                 if (value != null) {
                     Map<String, Integer> ids = getIds();
                     if (ids == null) {
@@ -111,7 +93,7 @@ public abstract class AccessNode implements Node {
                     }
                     Integer id = NodeBuilder.build(value, graph);
                     if (id != null) {
-                        ids.put(access.getName(), id);
+                        ids.put(property.getName(), id);
                     }
                 }
             }
@@ -132,32 +114,31 @@ public abstract class AccessNode implements Node {
         final Object obj = factory.supports(clazz) ? factory.create(clazz, this) : null;
         Map<String, Integer> ids = getIds();
         if (obj != null && ids != null) {
-            for (final Access access : getAccessList(clazz)) {
-                final Integer id = ids.get(access.getName());
+            for (final AccessPlan.Property property : getProperties(clazz)) {
+                final Integer id = ids.get(property.getName());
                 if (id != null) {
                     graph.addResolution(new Runnable() {
                         public void run() {
                             Object value = graph.decomposeReference(id);
                             if (value != null) {
-                                boolean skip = !access.isWriteable();
-                                Class<?> accessType = access.getType();
-                                if (access instanceof FieldAccess) {
-                                    if (NodeBuilder.isCollection(accessType) && value instanceof Collection) {
-                                        ((Collection)access.read(obj)).addAll((Collection)value);
+                                boolean skip = !property.isWriteable();
+                                if (property.isField()) {
+                                    if (property.isCollection() && value instanceof Collection) {
+                                        ((Collection)property.read(obj)).addAll((Collection)value);
                                         skip = true;
-                                    } else if (NodeBuilder.isMap(accessType) && value instanceof Map) {
-                                        ((Map)access.read(obj)).putAll((Map)value);
+                                    } else if (property.isMap() && value instanceof Map) {
+                                        ((Map)property.read(obj)).putAll((Map)value);
                                         skip = true;
                                     }
                                 }
                                 if (!skip) {
-                                    if (NodeBuilder.isArray(accessType) && value.getClass().isArray()) {
+                                    if (property.isArray() && value.getClass().isArray()) {
                                         Object[] old_array = (Object[])value;
-                                        Object[] new_array = (Object[])Array.newInstance(accessType.getComponentType(), old_array.length);
+                                        Object[] new_array = (Object[])Array.newInstance(property.getType().getComponentType(), old_array.length);
                                         System.arraycopy(old_array, 0, new_array, 0, old_array.length);
                                         value = new_array;
                                     }
-                                    access.write(obj, value);
+                                    property.write(obj, value);
                                 }
                             }
                         }
@@ -168,80 +149,8 @@ public abstract class AccessNode implements Node {
         return obj;
     }
 
-    @SuppressWarnings("rawtypes")
-    private List<Access> getAccessList(Class<?> clazz) {
-        List<Access> accessList = new ArrayList<Access>();
-        if (clazz.getAnnotation(Deprecated.class) != null) {
-            return accessList;
-        }
-        Strategy strategy = clazz.getAnnotation(Strategy.class);
-        AccessType accessType = strategy != null ? strategy.access() : AccessType.BEAN;
-        CoverageType coverageType = strategy != null ? strategy.coverage() : CoverageType.INCLUSIVE;
-        switch (accessType) {
-            case BEAN:
-                BeanInfo info;
-                try {
-                    info = Introspector.getBeanInfo(clazz);
-                } catch (IntrospectionException ie) {
-                    throw new RuntimeException(ie);
-                }
-                for (PropertyDescriptor desc : info.getPropertyDescriptors()) {
-                    Method readMethod = desc.getReadMethod();
-                    if (((CoverageType.INCLUSIVE.equals(coverageType)
-                            && readMethod.getAnnotation(Exclude.class) == null)
-                            || (CoverageType.EXCLUSIVE.equals(coverageType)
-                                    && readMethod.getAnnotation(Include.class) != null))
-                                    && readMethod.getAnnotation(Deprecated.class) == null) {
-                        Access access = null;
-                        Method writeMethod = desc.getWriteMethod();
-                        if (writeMethod == null) {
-                            String readName = readMethod.getName();
-                            if (readName.startsWith("get") || readName.startsWith("is")) {
-                                String writeName = "set" + (readName.startsWith("get") ? readName.substring(3) : readName.substring(2));
-                                Class<?> declaringClass = readMethod.getDeclaringClass();
-                                try {
-                                    writeMethod = declaringClass.getDeclaredMethod(writeName, desc.getPropertyType());
-                                } catch (NoSuchMethodException nsme1) {
-                                    try {
-                                        writeMethod = declaringClass.getMethod(writeName, desc.getPropertyType());
-                                    } catch (NoSuchMethodException nsme2) {
-                                        writeMethod = null;
-                                    }
-                                }
-                                if (writeMethod != null) {
-                                    Class<?> returnClass = writeMethod.getReturnType();
-                                    if (returnClass == null || returnClass.isAssignableFrom(declaringClass)) {
-                                        access = new MethodAccess(readMethod, writeMethod);
-                                    }
-                                }
-                            }
-                        }
-                        if (access == null) {
-                            access = new BeanAccess(desc);
-                        }
-                        if (access.isReadable() && !getIgnoredAccessNames().contains(access.getName())) {
-                            accessList.add(access);
-                        }
-                    }
-                }
-                break;
-            case FIELD:
-                for (Field field : clazz.getDeclaredFields()) {
-                    if (((CoverageType.INCLUSIVE.equals(coverageType)
-                            && field.getAnnotation(Exclude.class) == null)
-                            || (CoverageType.EXCLUSIVE.equals(coverageType)
-                                    && field.getAnnotation(Include.class) != null))
-                                    && field.getAnnotation(Deprecated.class) == null
-                                    && !Modifier.isTransient(field.getModifiers())) {
-                        Access access = new FieldAccess(field);
-                        if (access.isReadable()) {
-                            accessList.add(access);
-                        }
-                    }
-                }
-                break;
-        }
-        return accessList;
+    private AccessPlan.Property[] getProperties(Class<?> clazz) {
+        return AccessPlan.get(clazz, getIgnoredAccessNames()).getProperties();
     }
 
 }
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.serial.graph.node;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.switchyard.common.type.reflect.Access;
+import org.switchyard.common.type.reflect.FieldAccess;
+import org.switchyard.common.type.reflect.MethodAccess;
+import org.switchyard.serial.graph.AccessType;
+import org.switchyard.serial.graph.CoverageType;
+import org.switchyard.serial.graph.Exclude;
+import org.switchyard.serial.graph.Include;
+import org.switchyard.serial.graph.Strategy;
+
+/**
+ * The properties an AccessNode reads and writes for a class, resolved once per class and
+ * set of ignored property names.
+ * <p/>
+ * Plans are cached weakly keyed on the class and softly referenced.  A plan strongly
+ * references its class through its methods and fields, so while it is cached its
+ * classloader stays reachable, until memory runs short and the plan is cleared.
+ */
+final class AccessPlan {
+
+    // the plans of a class, by the ignored names they were built for
+    private static final Map<Class<?>, ConcurrentMap<Set<String>, SoftReference<AccessPlan>>> PLANS =
+            Collections.synchronizedMap(new WeakHashMap<Class<?>, ConcurrentMap<Set<String>, SoftReference<AccessPlan>>>());
+
+    private final Property[] _properties;
+
+    private AccessPlan(Property[] properties) {
+        _properties = properties;
+    }
+
+    /**
+     * Gets the properties of the plan.
+     * @return the properties
+     */
+    Property[] getProperties() {
+        return _properties;
+    }
+
+    /**
+     * Gets the plan of a class, building and caching it on first use.
+     * @param clazz the class
+     * @param ignoredAccessNames the bean property names to leave out
+     * @return the plan
+     */
+    static AccessPlan get(Class<?> clazz, Set<String> ignoredAccessNames) {
+        ConcurrentMap<Set<String>, SoftReference<AccessPlan>> plans;
+        synchronized (PLANS) {
+            plans = PLANS.get(clazz);
+            if (plans == null) {
+                plans = new ConcurrentHashMap<Set<String>, SoftReference<AccessPlan>>();
+                PLANS.put(clazz, plans);
+            }
+        }
+        SoftReference<AccessPlan> ref = plans.get(ignoredAccessNames);
+        AccessPlan plan = ref != null ? ref.get() : null;
+        if (plan == null) {
+            plan = new AccessPlan(buildProperties(clazz, ignoredAccessNames));
+            plans.put(ignoredAccessNames, new SoftReference<AccessPlan>(plan));
+        }
+        return plan;
+    }
+
+    /**
+     * Drops all cached plans.
+     */
+    static void clear() {
+        PLANS.clear();
+    }
+
+    static boolean isCached(Class<?> clazz, Set<String> ignoredAccessNames) {
+        ConcurrentMap<Set<String>, SoftReference<AccessPlan>> plans = PLANS.get(clazz);
+        SoftReference<AccessPlan> ref = plans != null ? plans.get(ignoredAccessNames) : null;
+        return ref != null && ref.get() != null;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Property[] buildProperties(Class<?> clazz, Set<String> ignoredAccessNames) {
+        List<Property> properties = new ArrayList<Property>();
+        if (clazz.getAnnotation(Deprecated.class) != null) {
+            return new Property[0];
+        }
+        Strategy strategy = clazz.getAnnotation(Strategy.class);
+        AccessType accessType = strategy != null ? strategy.access() : AccessType.BEAN;
+        CoverageType coverageType = strategy != null ? strategy.coverage() : CoverageType.INCLUSIVE;
+        switch (accessType) {
+            case BEAN:
+                BeanInfo info;
+                try {
+                    info = Introspector.getBeanInfo(clazz);
+                } catch (IntrospectionException ie) {
+                    throw new RuntimeException(ie);
+                }
+                for (PropertyDescriptor desc : info.getPropertyDescriptors()) {
+                    Method readMethod = desc.getReadMethod();
+                    if (readMethod == null) {
+                        continue;
+                    }
+                    if (((CoverageType.INCLUSIVE.equals(coverageType)
+                            && readMethod.getAnnotation(Exclude.class) == null)
+                            || (CoverageType.EXCLUSIVE.equals(coverageType)
+                                    && readMethod.getAnnotation(Include.class) != null))
+                                    && readMethod.getAnnotation(Deprecated.class) == null) {
+                        Access access = null;
+                        Method writeMethod = desc.getWriteMethod();
+                        if (writeMethod == null) {
+                            String readName = readMethod.getName();
+                            if (readName.startsWith("get") || readName.startsWith("is")) {
+                                String writeName = "set" + (readName.startsWith("get") ? readName.substring(3) : readName.substring(2));
+                                Class<?> declaringClass = readMethod.getDeclaringClass();
+                                try {
+                                    writeMethod = declaringClass.getDeclaredMethod(writeName, desc.getPropertyType());
+                                } catch (NoSuchMethodException nsme1) {
+                                    try {
+                                        writeMethod = declaringClass.getMethod(writeName, desc.getPropertyType());
+                                    } catch (NoSuchMethodException nsme2) {
+                                        writeMethod = null;
+                                    }
+                                }
+                                if (writeMethod != null) {
+                                    Class<?> returnClass = writeMethod.getReturnType();
+                                    if (returnClass == null || returnClass.isAssignableFrom(declaringClass)) {
+                                        access = new MethodAccess(readMethod, writeMethod);
+                                    }
+                                }
+                            }
+                        }
+                        String name;
+                        if (access != null) {
+                            name = access.getName();
+                        } else {
+                            // same name and type as a BeanAccess, without looking the methods up on each call
+                            name = desc.getName();
+                            access = new MethodAccess(readMethod, desc.getWriteMethod());
+                        }
+                        if (!ignoredAccessNames.contains(name)) {
+                            properties.add(new Property(access, name, desc.getPropertyType(), false));
+                        }
+                    }
+                }
+                break;
+            case FIELD:
+                for (Field field : clazz.getDeclaredFields()) {
+                    if (((CoverageType.INCLUSIVE.equals(coverageType)
+                            && field.getAnnotation(Exclude.class) == null)
+                            || (CoverageType.EXCLUSIVE.equals(coverageType)
+                                    && field.getAnnotation(Include.class) != null))
+                                    && field.getAnnotation(Deprecated.class) == null
+                                    && !Modifier.isTransient(field.getModifiers())) {
+                        Access access = new FieldAccess(field);
+                        if (access.isReadable()) {
+                            properties.add(new Property(access, access.getName(), access.getType(), true));
+                        }
+                    }
+                }
+                break;
+        }
+        return properties.toArray(new Property[properties.size()]);
+    }
+
+    /**
+     * A property of a plan, with everything the nodes check about it resolved up front.
+     */
+    @SuppressWarnings("rawtypes")
+    static final class Property {
+
+        private final Access _access;
+        private final String _name;
+        private final Class<?> _type;
+        private final boolean _field;
+        private final boolean _writeable;
+        private final boolean _collection;
+        private final boolean _map;
+        private final boolean _array;
+
+        private Property(Access access, String name, Class<?> type, boolean field) {
+            _access = access;
+            _name = name;
+            _type = type;
+            _field = field;
+            _writeable = access.isWriteable();
+            _collection = NodeBuilder.isCollection(type);
+            _map = NodeBuilder.isMap(type);
+            _array = NodeBuilder.isArray(type);
+        }
+
+        String getName() {
+            return _name;
+        }
+
+        Class<?> getType() {
+            return _type;
+        }
+
+        boolean isField() {
+            return _field;
+        }
+
+        boolean isWriteable() {
+            return _writeable;
+        }
+
+        boolean isCollection() {
+            return _collection;
+        }
+
+        boolean isMap() {
+            return _map;
+        }
+
+        boolean isArray() {
+            return _array;
+        }
+
+        Object read(Object target) {
+            return _access.read(target);
+        }
+
+        @SuppressWarnings("unchecked")
+        void write(Object target, Object value) {
+            _access.write(target, value);
+        }
+    }
+
+}
@@ -13,8 +13,6 @@
  */
 package org.switchyard.serial.graph.node;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -23,16 +21,21 @@ import java.io.InputStream;
 import org.switchyard.common.codec.Base64;
 import org.switchyard.common.io.Buffers;
 import org.switchyard.serial.graph.Graph;
+import org.switchyard.serial.graph.StreamMode;
 
 /**
  * A node representing an InputStream.
  *
  * @author David Ward &lt;<a href="mailto:dward@jboss.org">dward@jboss.org</a>&gt; &copy; 2012 Red Hat Inc.
  */
-@SuppressWarnings("serial")
 public final class InputStreamNode implements Node {
 
+    // the computed value of the class before raw bytes and attachments were added
+    private static final long serialVersionUID = -2536397778326997579L;
+
     private String _base64;
+    private byte[] _bytes;
+    private Integer _attachment;
 
     /**
      * Default constructor.
@@ -55,32 +58,71 @@ public final class InputStreamNode implements Node {
         _base64 = base64;
     }
 
+    /**
+     * Gets the raw bytes.
+     * @return the raw bytes
+     */
+    public byte[] getBytes() {
+        return _bytes;
+    }
+
+    /**
+     * Sets the raw bytes.
+     * @param bytes the raw bytes
+     */
+    public void setBytes(byte[] bytes) {
+        _bytes = bytes;
+    }
+
+    /**
+     * Gets the graph attachment index.
+     * @return the graph attachment index
+     */
+    public Integer getAttachment() {
+        return _attachment;
+    }
+
+    /**
+     * Sets the graph attachment index.
+     * @param attachment the graph attachment index
+     */
+    public void setAttachment(Integer attachment) {
+        _attachment = attachment;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void compose(Object obj, Graph graph) {
+        InputStream is = (InputStream)obj;
+        if (graph.isStreamMode(StreamMode.ATTACHMENT)) {
+            // read and closed when the graph is written
+            setAttachment(graph.addAttachment(is));
+            return;
+        }
         int bs = Buffers.DEFAULT_SIZE;
-        BufferedInputStream bis = new BufferedInputStream((InputStream)obj, bs);
         ByteArrayOutputStream baos = new ByteArrayOutputStream(bs);
-        BufferedOutputStream bos = new BufferedOutputStream(baos, bs);
         byte[] buff = new byte[bs];
         int read = 0;
         try {
-            while ((read = bis.read(buff)) != -1) {
-                bos.write(buff, 0, read);
+            while ((read = is.read(buff)) != -1) {
+                baos.write(buff, 0, read);
             }
-            bos.flush();
         } catch (IOException ioe) {
             throw new RuntimeException(ioe);
         } finally {
             try {
-                bis.close();
+                is.close();
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
         }
-        setBase64(Base64.encode(baos.toByteArray()));
+        if (graph.isStreamMode(StreamMode.BINARY)) {
+            setBytes(baos.toByteArray());
+        } else {
+            setBase64(Base64.encode(baos.toByteArray()));
+        }
     }
 
     /**
@@ -88,6 +130,12 @@ public final class InputStreamNode implements Node {
      */
     @Override
     public Object decompose(Graph graph) {
+        if (getAttachment() != null) {
+            return graph.getAttachment(getAttachment());
+        }
+        if (getBytes() != null) {
+            return new ByteArrayInputStream(getBytes());
+        }
         return new ByteArrayInputStream(Base64.decode(getBase64()));
     }
 
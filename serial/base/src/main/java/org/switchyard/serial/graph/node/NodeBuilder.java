@@ -16,9 +16,11 @@ package org.switchyard.serial.graph.node;
 import java.io.InputStream;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Map;
 import java.util.UUID;
+import java.util.WeakHashMap;
 
 import javax.activation.DataSource;
 import javax.xml.namespace.QName;
@@ -42,6 +44,46 @@ public final class NodeBuilder {
         Number.class
     };
 
+    // the dispatch result per class, weakly keyed so classloaders can still be collected
+    private static final Map<Class<?>, Kind> KINDS =
+            Collections.synchronizedMap(new WeakHashMap<Class<?>, Kind>());
+
+    /**
+     * The node kind built for a class.
+     */
+    enum Kind {
+        /** Kept as is in the graph. */
+        SIMPLE,
+        /** An array of simple types, kept as is in the graph. */
+        SIMPLE_ARRAY,
+        /** An {@link ArrayNode}. */
+        ARRAY,
+        /** A {@link ClassNode}. */
+        CLASS,
+        /** A {@link CollectionNode}. */
+        COLLECTION,
+        /** A {@link MapNode}. */
+        MAP,
+        /** A {@link DOMNode}. */
+        DOM,
+        /** A {@link QNameNode}. */
+        QNAME,
+        /** A {@link DataSourceNode}. */
+        DATA_SOURCE,
+        /** An {@link InputStreamNode}. */
+        INPUT_STREAM,
+        /** A {@link UUIDNode}. */
+        UUID,
+        /** A {@link StackTraceElementNode}. */
+        STACK_TRACE_ELEMENT,
+        /** A {@link ThrowableAccessNode}. */
+        THROWABLE,
+        /** A {@link DefaultAccessNode}. */
+        ACCESSIBLE,
+        /** The {@link NoopNode}. */
+        NOOP
+    }
+
     /**
      * Builds a node representing the specified object and adds it to the graph.
      * @param obj the specified object
@@ -53,65 +95,54 @@ public final class NodeBuilder {
         if (id == 0 || graph.getReference(id) != null) {
             return id;
         }
-        Class<?> clazz = obj.getClass();
-        if (isSimple(clazz)) {
-            graph.putReference(id, obj);
-        } else if (isArray(clazz)) {
-            if (isSimple(clazz.getComponentType())) {
+        Node node;
+        switch (getKind(obj.getClass())) {
+            case SIMPLE:
+            case SIMPLE_ARRAY:
                 graph.putReference(id, obj);
-            } else {
-                Node node = new ArrayNode();
-                graph.putReference(id, node);
-                node.compose(obj, graph);
-            }
-        } else if (isClass(clazz)) {
-            Node node = new ClassNode();
-            graph.putReference(id, node);
-            node.compose(obj, graph);
-        } else if (isCollection(clazz)) {
-            Node node = new CollectionNode();
-            graph.putReference(id, node);
-            node.compose(obj, graph);
-        } else if (isMap(clazz)) {
-            Node node = new MapNode();
-            graph.putReference(id, node);
-            node.compose(obj, graph);
-        } else if (isDOM(clazz)) {
-            Node node = new DOMNode();
-            graph.putReference(id, node);
-            node.compose(obj, graph);
-        } else if (isQName(clazz)) {
-            Node node = new QNameNode();
-            graph.putReference(id, node);
-            node.compose(obj, graph);
-        } else if (isDataSource(clazz)) {
-            Node node = new DataSourceNode();
-            graph.putReference(id, node);
-            node.compose(obj, graph);
-        } else if (isInputStream(clazz)) {
-            Node node = new InputStreamNode();
-            graph.putReference(id, node);
-            node.compose(obj, graph);
-        } else if (isUUID(clazz)) {
-            Node node = new UUIDNode();
-            graph.putReference(id, node);
-            node.compose(obj, graph);
-        } else if (isStackTraceElement(clazz)) {
-            Node node = new StackTraceElementNode();
-            graph.putReference(id, node);
-            node.compose(obj, graph);
-        } else if (isAccessible(clazz)) {
-            Node node;
-            if (isThrowable(clazz)) {
+                return id;
+            case ARRAY:
+                node = new ArrayNode();
+                break;
+            case CLASS:
+                node = new ClassNode();
+                break;
+            case COLLECTION:
+                node = new CollectionNode();
+                break;
+            case MAP:
+                node = new MapNode();
+                break;
+            case DOM:
+                node = new DOMNode();
+                break;
+            case QNAME:
+                node = new QNameNode();
+                break;
+            case DATA_SOURCE:
+                node = new DataSourceNode();
+                break;
+            case INPUT_STREAM:
+                node = new InputStreamNode();
+                break;
+            case UUID:
+                node = new UUIDNode();
+                break;
+            case STACK_TRACE_ELEMENT:
+                node = new StackTraceElementNode();
+                break;
+            case THROWABLE:
                 node = new ThrowableAccessNode();
-            } else {
+                break;
+            case ACCESSIBLE:
                 node = new DefaultAccessNode();
-            }
-            graph.putReference(id, node);
-            node.compose(obj, graph);
-        } else {
-            graph.putReference(id, NoopNode.INSTANCE);
+                break;
+            default:
+                graph.putReference(id, NoopNode.INSTANCE);
+                return id;
         }
+        graph.putReference(id, node);
+        node.compose(obj, graph);
         return id;
     }
 
@@ -148,6 +179,10 @@ public final class NodeBuilder {
     }
 
     static boolean isSimple(Class<?> clazz) {
+        return getKind(clazz) == Kind.SIMPLE;
+    }
+
+    private static boolean checkSimple(Class<?> clazz) {
         if (clazz.isPrimitive() || clazz.isEnum()) {
             return true;
         }
@@ -172,7 +207,46 @@ public final class NodeBuilder {
     }
 
     static boolean isAccessible(Class<?> clazz) {
-        return Factory.getFactory(clazz).supports(clazz);
+        Kind kind = getKind(clazz);
+        return kind == Kind.ACCESSIBLE || kind == Kind.THROWABLE;
+    }
+
+    static Kind getKind(Class<?> clazz) {
+        Kind kind = KINDS.get(clazz);
+        if (kind == null) {
+            kind = checkKind(clazz);
+            KINDS.put(clazz, kind);
+        }
+        return kind;
+    }
+
+    private static Kind checkKind(Class<?> clazz) {
+        if (checkSimple(clazz)) {
+            return Kind.SIMPLE;
+        } else if (isArray(clazz)) {
+            return checkSimple(clazz.getComponentType()) ? Kind.SIMPLE_ARRAY : Kind.ARRAY;
+        } else if (isClass(clazz)) {
+            return Kind.CLASS;
+        } else if (isCollection(clazz)) {
+            return Kind.COLLECTION;
+        } else if (isMap(clazz)) {
+            return Kind.MAP;
+        } else if (isDOM(clazz)) {
+            return Kind.DOM;
+        } else if (isQName(clazz)) {
+            return Kind.QNAME;
+        } else if (isDataSource(clazz)) {
+            return Kind.DATA_SOURCE;
+        } else if (isInputStream(clazz)) {
+            return Kind.INPUT_STREAM;
+        } else if (isUUID(clazz)) {
+            return Kind.UUID;
+        } else if (isStackTraceElement(clazz)) {
+            return Kind.STACK_TRACE_ELEMENT;
+        } else if (Factory.getFactory(clazz).supports(clazz)) {
+            return isThrowable(clazz) ? Kind.THROWABLE : Kind.ACCESSIBLE;
+        }
+        return Kind.NOOP;
     }
 
     private NodeBuilder() {}
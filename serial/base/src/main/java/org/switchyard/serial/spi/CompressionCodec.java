@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.serial.spi;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.switchyard.common.type.Classes;
+import org.switchyard.common.util.ProviderRegistry;
+import org.switchyard.serial.CompressionType;
+
+/**
+ * Compresses and decompresses blocks of bytes for the {@link org.switchyard.serial.compress.CodecSerializer}.
+ * <p/>
+ * Codecs are found as providers of this class, and are known on the wire by their id, so
+ * a receiver decompresses whatever registered codec a sender picked.
+ */
+public abstract class CompressionCodec {
+
+    /** The id of blocks stored as they are, which no codec can take. */
+    public static final int STORED = 0;
+
+    private static final Map<Integer, CompressionCodec> IDS;
+    private static final Map<String, CompressionCodec> NAMES;
+    static {
+        Map<Integer, CompressionCodec> ids = new LinkedHashMap<Integer, CompressionCodec>();
+        Map<String, CompressionCodec> names = new LinkedHashMap<String, CompressionCodec>();
+        Iterable<CompressionCodec> codecs = ProviderRegistry.getProviders(CompressionCodec.class, Classes.getClassLoader(CompressionCodec.class));
+        for (CompressionCodec codec : codecs) {
+            Integer id = Integer.valueOf(codec.getId());
+            // the first codec of an id or name wins, as the primary serialization provider does
+            if (codec.getId() != STORED && !ids.containsKey(id) && !names.containsKey(codec.getName())) {
+                ids.put(id, codec);
+                names.put(codec.getName(), codec);
+            }
+        }
+        IDS = Collections.unmodifiableMap(ids);
+        NAMES = Collections.unmodifiableMap(names);
+    }
+
+    /**
+     * Gets the id the codec is known by on the wire, from 1 to 255.
+     * @return the id
+     */
+    public abstract int getId();
+
+    /**
+     * Gets the name of the codec.
+     * @return the name
+     */
+    public abstract String getName();
+
+    /**
+     * Gets the compression type the codec implements, if it is one of the built-in ones.
+     * @return the compression type, or null
+     */
+    public CompressionType getCompression() {
+        return null;
+    }
+
+    /**
+     * Gets the most bytes a block of a length can compress to.
+     * @param length the length
+     * @return the most compressed bytes
+     */
+    public abstract int maxCompressedLength(int length);
+
+    /**
+     * Compresses a block.
+     * @param src the bytes
+     * @param srcOff the offset of the first byte
+     * @param srcLen the number of bytes
+     * @param dest where to compress to, with room for {@link #maxCompressedLength(int)} bytes
+     * @param destOff the offset to compress to
+     * @return the number of compressed bytes
+     */
+    public abstract int compress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff);
+
+    /**
+     * Decompresses a block.
+     * @param src the compressed bytes
+     * @param srcOff the offset of the first compressed byte
+     * @param srcLen the number of compressed bytes
+     * @param dest where to decompress to
+     * @param destOff the offset to decompress to
+     * @param destLen the number of bytes the block decompresses to
+     * @throws IOException if the block is corrupt
+     */
+    public abstract void decompress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int destLen) throws IOException;
+
+    /**
+     * Gets the codec known by an id.
+     * @param id the id
+     * @return the codec, or null
+     */
+    public static final CompressionCodec getCodec(int id) {
+        return IDS.get(Integer.valueOf(id));
+    }
+
+    /**
+     * Gets the codec of a name.
+     * @param name the name
+     * @return the codec, or null
+     */
+    public static final CompressionCodec getCodec(String name) {
+        return NAMES.get(name);
+    }
+
+    /**
+     * Gets the codec of a built-in compression type.
+     * @param compression the compression type
+     * @return the codec, or null
+     */
+    public static final CompressionCodec getCodec(CompressionType compression) {
+        for (CompressionCodec codec : IDS.values()) {
+            if (compression.equals(codec.getCompression())) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+}
@@ -14,6 +14,7 @@
 package org.switchyard.serial.spi;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -34,11 +35,14 @@ import org.switchyard.serial.Serializer;
  */
 public abstract class SerializationProvider {
 
+    private static final List<SerializationProvider> PROVIDERS;
     private static final Map<FormatType, List<SerializationProvider>> MAP;
     static {
+        List<SerializationProvider> all = new ArrayList<SerializationProvider>();
         Map<FormatType, List<SerializationProvider>> map = new LinkedHashMap<FormatType, List<SerializationProvider>>();
         Iterable<SerializationProvider> providers = ProviderRegistry.getProviders(SerializationProvider.class, Classes.getClassLoader(SerializationProvider.class));
         for (SerializationProvider provider : providers) {
+            all.add(provider);
             for (FormatType format : provider.getSupportedFormats()) {
                 List<SerializationProvider> list = map.get(format);
                 if (list == null) {
@@ -51,6 +55,7 @@ public abstract class SerializationProvider {
         for (FormatType format : new LinkedHashSet<FormatType>(map.keySet())) {
             map.put(format, Collections.unmodifiableList(map.remove(format)));
         }
+        PROVIDERS = Collections.unmodifiableList(all);
         MAP = Collections.unmodifiableMap(map);
     }
 
@@ -67,6 +72,18 @@ public abstract class SerializationProvider {
      */
     public abstract Serializer newSerializer(FormatType format);
 
+    /**
+     * Prepares for serializing types ahead of their first use.  Does nothing by default.
+     * @param types the types
+     */
+    public void registerTypes(Collection<Class<?>> types) {}
+
+    /**
+     * Forgets the types a class loader defined, as its deployment goes away.  Does nothing by default.
+     * @param loader the class loader
+     */
+    public void unregisterTypes(ClassLoader loader) {}
+
     /**
      * Gets all providers that support a format.
      * @param format the format
@@ -86,4 +103,45 @@ public abstract class SerializationProvider {
         return providers.hasNext() ? providers.next() : null;
     }
 
+    /**
+     * Prepares every provider for serializing types ahead of their first use.
+     * @param types the types
+     */
+    public static final void register(Class<?>... types) {
+        List<Class<?>> list = new ArrayList<Class<?>>();
+        Collections.addAll(list, types);
+        for (SerializationProvider provider : PROVIDERS) {
+            provider.registerTypes(list);
+        }
+    }
+
+    /**
+     * Prepares every provider for serializing a deployment's types ahead of their first use.
+     * Types the class loader cannot load are skipped, and so are the JDK's own.
+     * @param loader the deployment's class loader
+     * @param typeNames the type names
+     */
+    public static final void register(ClassLoader loader, Collection<String> typeNames) {
+        List<Class<?>> list = new ArrayList<Class<?>>();
+        for (String name : typeNames) {
+            Class<?> type = Classes.forName(name, loader);
+            if (type != null && type.getClassLoader() != null) {
+                list.add(type);
+            }
+        }
+        for (SerializationProvider provider : PROVIDERS) {
+            provider.registerTypes(list);
+        }
+    }
+
+    /**
+     * Has every provider forget the types a class loader defined, as its deployment goes away.
+     * @param loader the deployment's class loader
+     */
+    public static final void unregister(ClassLoader loader) {
+        for (SerializationProvider provider : PROVIDERS) {
+            provider.unregisterTypes(loader);
+        }
+    }
+
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.serial.compress;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.switchyard.serial.CompressionType;
+import org.switchyard.serial.FormatType;
+import org.switchyard.serial.Serializer;
+import org.switchyard.serial.SerializerFactory;
+import org.switchyard.serial.spi.CompressionCodec;
+
+/**
+ * Tests the compression codecs, and compares the throughput and ratio of the compressions.
+ */
+public final class CompressionComparisonTest {
+
+    private static final Random RANDOM = new Random(42);
+
+    @Test
+    public void testCodecRegistered() throws Exception {
+        Assert.assertTrue(CompressionCodec.getCodec(LZ4Codec.ID) instanceof LZ4Codec);
+        Assert.assertTrue(CompressionCodec.getCodec(CompressionType.LZ4) instanceof LZ4Codec);
+        Assert.assertTrue(SerializerFactory.create(FormatType.SER_OBJECT, CompressionType.LZ4) instanceof CodecSerializer);
+    }
+
+    @Test
+    public void testLZ4RoundTrip() throws Exception {
+        CompressionCodec codec = new LZ4Codec();
+        byte[] random = new byte[200000];
+        RANDOM.nextBytes(random);
+        byte[] run = new byte[100000];
+        Arrays.fill(run, (byte)'a');
+        for (byte[] data : new byte[][] {new byte[0], new byte[] {1}, "thirteen byte".getBytes("UTF-8"), text(70000), random, run}) {
+            byte[] compressed = new byte[codec.maxCompressedLength(data.length) + 3];
+            int length = codec.compress(data, 0, data.length, compressed, 3);
+            byte[] decompressed = new byte[data.length];
+            codec.decompress(compressed, 3, length, decompressed, 0, data.length);
+            Assert.assertTrue(Arrays.equals(data, decompressed));
+        }
+        byte[] compressed = new byte[codec.maxCompressedLength(run.length)];
+        Assert.assertTrue(codec.compress(run, 0, run.length, compressed, 0) < run.length / 100);
+    }
+
+    @Test(expected=IOException.class)
+    public void testLZ4Corrupt() throws Exception {
+        CompressionCodec codec = new LZ4Codec();
+        byte[] data = text(1000);
+        byte[] compressed = new byte[codec.maxCompressedLength(data.length)];
+        int length = codec.compress(data, 0, data.length, compressed, 0);
+        codec.decompress(compressed, 0, length - 1, new byte[data.length], 0, data.length);
+    }
+
+    @Test
+    public void testThreshold() throws Exception {
+        Serializer ser = SerializerFactory.create(FormatType.SER_OBJECT, CompressionType.LZ4);
+        String small = "small";
+        byte[] bytes = ser.serialize(small, String.class);
+        // magic, block length, then the stored id
+        Assert.assertEquals(CompressionCodec.STORED, bytes[8]);
+        Assert.assertEquals(small, ser.deserialize(bytes, String.class));
+        String large = new String(text(100000), "UTF-8");
+        bytes = ser.serialize(large, String.class);
+        Assert.assertEquals(LZ4Codec.ID, bytes[8]);
+        Assert.assertTrue(bytes.length < large.length() / 2);
+        Assert.assertEquals(large, ser.deserialize(bytes, String.class));
+    }
+
+    @Test
+    public void testDetection() throws Exception {
+        Serializer lz4 = SerializerFactory.create(FormatType.SER_OBJECT, CompressionType.LZ4);
+        String value = new String(text(5000), "UTF-8");
+        for (CompressionType compression : new CompressionType[] {null, CompressionType.GZIP, CompressionType.ZIP}) {
+            byte[] bytes = SerializerFactory.create(FormatType.SER_OBJECT, compression).serialize(value, String.class);
+            Assert.assertEquals(value, lz4.deserialize(bytes, String.class));
+        }
+    }
+
+    @Test
+    public void testComparison() throws Exception {
+        boolean debug = false; // toggle this is you're interested in performance
+        int iterations = debug ? 200 : 1;
+        byte[] data = text(16384);
+        for (CompressionType compression : new CompressionType[] {CompressionType.GZIP, CompressionType.ZIP, CompressionType.LZ4}) {
+            Serializer ser = SerializerFactory.create(FormatType.SER_OBJECT, compression);
+            byte[] bytes = ser.serialize(data, byte[].class);
+            for (int i = 0; i < iterations; i++) {
+                // warm up
+                ser.deserialize(ser.serialize(data, byte[].class), byte[].class);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                bytes = ser.serialize(data, byte[].class);
+            }
+            long compressed = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                Assert.assertTrue(Arrays.equals(data, ser.deserialize(bytes, byte[].class)));
+            }
+            long decompressed = System.nanoTime();
+            if (debug) {
+                StringBuilder sb = new StringBuilder();
+                sb.append(compression);
+                sb.append(": ratio ");
+                sb.append((float)data.length / bytes.length);
+                sb.append(", compressed ");
+                sb.append(throughput(data.length, iterations, compressed - start));
+                sb.append(" MB/s, decompressed ");
+                sb.append(throughput(data.length, iterations, decompressed - compressed));
+                sb.append(" MB/s");
+                System.out.println(sb);
+            }
+        }
+    }
+
+    private static long throughput(int length, int iterations, long nanos) {
+        return ((long)length * iterations * 1000L) / Math.max(nanos, 1L);
+    }
+
+    // text of a RemoteMessage-ish shape: repeated names with varying values
+    private static byte[] text(int length) throws Exception {
+        List<String> words = new ArrayList<String>(Arrays.asList("service", "operation", "context", "property",
+                "exchange", "message", "content", "org.switchyard", "{urn:switchyard:test}", "label"));
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < length) {
+            sb.append(words.get(RANDOM.nextInt(words.size())));
+            sb.append(RANDOM.nextInt(1000));
+            sb.append(' ');
+        }
+        return sb.substring(0, length).getBytes("UTF-8");
+    }
+
+}
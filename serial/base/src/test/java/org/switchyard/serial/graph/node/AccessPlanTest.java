@@ -0,0 +1,141 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.serial.graph.node;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.switchyard.serial.graph.AccessType;
+import org.switchyard.serial.graph.Exclude;
+import org.switchyard.serial.graph.Strategy;
+
+/**
+ * Tests the cached access plans and node kinds.
+ */
+public final class AccessPlanTest {
+
+    @Before
+    public void clear() {
+        AccessPlan.clear();
+    }
+
+    @Test
+    public void testPlanIsCached() throws Exception {
+        Assert.assertFalse(AccessPlan.isCached(Bean.class, AccessNode.IGNORED_ACCESS_NAMES));
+        AccessPlan plan = AccessPlan.get(Bean.class, AccessNode.IGNORED_ACCESS_NAMES);
+        Assert.assertTrue(AccessPlan.isCached(Bean.class, AccessNode.IGNORED_ACCESS_NAMES));
+        Assert.assertSame(plan, AccessPlan.get(Bean.class, AccessNode.IGNORED_ACCESS_NAMES));
+    }
+
+    @Test
+    public void testBeanProperties() throws Exception {
+        Map<String, AccessPlan.Property> properties = properties(Bean.class, AccessNode.IGNORED_ACCESS_NAMES);
+        Assert.assertEquals(4, properties.size());
+        Assert.assertTrue(properties.get("name").isWriteable());
+        Assert.assertTrue(properties.get("URL").isWriteable());
+        Assert.assertFalse(properties.get("readOnly").isWriteable());
+        Assert.assertFalse(properties.containsKey("excluded"));
+        Bean bean = new Bean();
+        properties.get("name").write(bean, "foo");
+        Assert.assertEquals("foo", properties.get("name").read(bean));
+    }
+
+    @Test
+    public void testFieldProperties() throws Exception {
+        Map<String, AccessPlan.Property> properties = properties(Fields.class, AccessNode.IGNORED_ACCESS_NAMES);
+        Assert.assertEquals(2, properties.size());
+        AccessPlan.Property list = properties.get("_list");
+        Assert.assertTrue(list.isField());
+        Assert.assertTrue(list.isCollection());
+        Assert.assertFalse(list.isWriteable());
+        Assert.assertTrue(properties.get("_map").isMap());
+    }
+
+    @Test
+    public void testIgnoredNamesRebuildPlan() throws Exception {
+        Assert.assertTrue(properties(Bean.class, AccessNode.IGNORED_ACCESS_NAMES).containsKey("name"));
+        Assert.assertFalse(properties(Bean.class, ThrowableAccessNode.THROWABLE_IGNORED_ACCESS_NAMES).containsKey("message"));
+    }
+
+    @Test
+    public void testPlanCachedPerIgnoredNames() throws Exception {
+        AccessPlan plan = AccessPlan.get(Bean.class, AccessNode.IGNORED_ACCESS_NAMES);
+        AccessPlan throwablePlan = AccessPlan.get(Bean.class, ThrowableAccessNode.THROWABLE_IGNORED_ACCESS_NAMES);
+        Assert.assertNotSame(plan, throwablePlan);
+        // neither evicts the other
+        Assert.assertSame(plan, AccessPlan.get(Bean.class, AccessNode.IGNORED_ACCESS_NAMES));
+        Assert.assertSame(throwablePlan, AccessPlan.get(Bean.class, ThrowableAccessNode.THROWABLE_IGNORED_ACCESS_NAMES));
+    }
+
+    @Test
+    public void testNodeKinds() throws Exception {
+        Assert.assertEquals(NodeBuilder.Kind.SIMPLE, NodeBuilder.getKind(String.class));
+        Assert.assertEquals(NodeBuilder.Kind.SIMPLE_ARRAY, NodeBuilder.getKind(int[].class));
+        Assert.assertEquals(NodeBuilder.Kind.ARRAY, NodeBuilder.getKind(Bean[].class));
+        Assert.assertEquals(NodeBuilder.Kind.THROWABLE, NodeBuilder.getKind(IllegalStateException.class));
+        Assert.assertEquals(NodeBuilder.Kind.ACCESSIBLE, NodeBuilder.getKind(Bean.class));
+        Assert.assertTrue(NodeBuilder.isSimple(Integer.class));
+        Assert.assertFalse(NodeBuilder.isSimple(int[].class));
+        Assert.assertTrue(NodeBuilder.isAccessible(Bean.class));
+    }
+
+    private Map<String, AccessPlan.Property> properties(Class<?> clazz, java.util.Set<String> ignored) {
+        Map<String, AccessPlan.Property> properties = new HashMap<String, AccessPlan.Property>();
+        for (AccessPlan.Property property : AccessPlan.get(clazz, ignored).getProperties()) {
+            properties.put(property.getName(), property);
+        }
+        return properties;
+    }
+
+    public static final class Bean {
+        private String _name;
+        private String _url;
+        public String getName() {
+            return _name;
+        }
+        public void setName(String name) {
+            _name = name;
+        }
+        public String getURL() {
+            return _url;
+        }
+        public void setURL(String url) {
+            _url = url;
+        }
+        public String getReadOnly() {
+            return "readOnly";
+        }
+        @Exclude
+        public String getExcluded() {
+            return "excluded";
+        }
+        public String getMessage() {
+            return "message";
+        }
+    }
+
+    @Strategy(access=AccessType.FIELD)
+    public static final class Fields {
+        private final List<String> _list = new ArrayList<String>();
+        private Map<String, String> _map;
+        private transient String _ignored;
+    }
+
+}
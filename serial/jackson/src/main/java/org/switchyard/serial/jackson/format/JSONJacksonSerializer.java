@@ -17,6 +17,7 @@ import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import org.codehaus.jackson.JsonFactory;
 import org.codehaus.jackson.JsonGenerator;
@@ -24,6 +25,8 @@ import org.codehaus.jackson.JsonParser;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.codehaus.jackson.map.ObjectWriter;
 import org.codehaus.jackson.map.SerializationConfig;
+import org.switchyard.common.io.ByteBufferInputStream;
+import org.switchyard.common.io.ByteBufferOutputStream;
 import org.switchyard.common.io.CountingOutputStream;
 import org.switchyard.serial.BaseSerializer;
 import org.switchyard.serial.FormatType;
@@ -59,11 +62,7 @@ public final class JSONJacksonSerializer extends BaseSerializer {
     public <T> int serialize(T obj, Class<T> type, OutputStream out) throws IOException {
         out = new CountingOutputStream(new BufferedOutputStream(out, getBufferSize()));
         try {
-            ObjectWriter writer = OBJECT_MAPPER.writerWithType(type);
-            if (isPrettyPrint()) {
-                writer = writer.withDefaultPrettyPrinter();
-            }
-            writer.writeValue(out, obj);
+            getWriter(type).writeValue(out, obj);
         } finally {
             if (isCloseEnabled()) {
                 out.close();
@@ -72,6 +71,25 @@ public final class JSONJacksonSerializer extends BaseSerializer {
         return ((CountingOutputStream)out).getCount();
     }
 
+    /**
+     * Serializes straight into the buffer, Jackson doing its own (recycled) buffering.
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ByteBuffer serialize(T obj, Class<T> type, ByteBuffer buffer) throws IOException {
+        ByteBufferOutputStream out = new ByteBufferOutputStream(buffer);
+        getWriter(type).writeValue(out, obj);
+        return out.toByteBuffer();
+    }
+
+    private ObjectWriter getWriter(Class<?> type) {
+        ObjectWriter writer = OBJECT_MAPPER.writerWithType(type);
+        if (isPrettyPrint()) {
+            writer = writer.withDefaultPrettyPrinter();
+        }
+        return writer;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -88,4 +106,18 @@ public final class JSONJacksonSerializer extends BaseSerializer {
         return obj;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T deserialize(ByteBuffer buffer, Class<T> type) throws IOException {
+        if (buffer.hasArray()) {
+            int length = buffer.remaining();
+            T obj = OBJECT_MAPPER.readValue(buffer.array(), buffer.arrayOffset() + buffer.position(), length, type);
+            buffer.position(buffer.position() + length);
+            return obj;
+        }
+        return OBJECT_MAPPER.readValue(new ByteBufferInputStream(buffer), type);
+    }
+
 }
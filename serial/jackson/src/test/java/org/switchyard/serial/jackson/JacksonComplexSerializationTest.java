@@ -13,6 +13,11 @@
  */
 package org.switchyard.serial.jackson;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -22,8 +27,11 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.UUID;
 
+import javax.activation.DataSource;
+
 import junit.framework.Assert;
 
 import org.junit.Test;
@@ -33,6 +41,8 @@ import org.switchyard.common.xml.XMLHelper;
 import org.switchyard.serial.FormatType;
 import org.switchyard.serial.Serializer;
 import org.switchyard.serial.SerializerFactory;
+import org.switchyard.serial.graph.GraphSerializer;
+import org.switchyard.serial.graph.StreamMode;
 import org.switchyard.serial.jackson.JacksonSerializationData.Antennae;
 import org.switchyard.serial.jackson.JacksonSerializationData.Car;
 import org.switchyard.serial.jackson.JacksonSerializationData.CustomPart;
@@ -273,4 +283,69 @@ public final class JacksonComplexSerializationTest {
         Assert.assertNull(name.getLast());
     }
 
+    @Test
+    public void testStreamAttachments() throws Exception {
+        byte[] streamed = payload(100 * 1024);
+        byte[] attached = payload(10);
+        Map<String, Object> map = new HashMap<String, Object>();
+        map.put("stream", new ByteArrayInputStream(streamed));
+        map.put("dataSource", new BytesDataSource(attached));
+        GraphSerializer ser = new GraphSerializer(SerializerFactory.create(FormatType.JSON))
+            .setStreamMode(StreamMode.ATTACHMENT).setSpoolThreshold(1024);
+        byte[] bytes = ser.serialize(map, Map.class);
+        // no Base64 inflation, the streams follow the graph as is
+        Assert.assertTrue(bytes.length < streamed.length + 1024);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> actual = new GraphSerializer(SerializerFactory.create(FormatType.JSON)).deserialize(bytes, Map.class);
+        Assert.assertTrue(Arrays.equals(streamed, read((InputStream)actual.get("stream"))));
+        DataSource ds = (DataSource)actual.get("dataSource");
+        Assert.assertEquals("payload.bin", ds.getName());
+        Assert.assertEquals("application/octet-stream", ds.getContentType());
+        Assert.assertTrue(Arrays.equals(attached, read(ds.getInputStream())));
+    }
+
+    @Test
+    public void testNoAttachmentsNotFramed() throws Exception {
+        GraphSerializer ser = new GraphSerializer(SerializerFactory.create(FormatType.JSON)).setStreamMode(StreamMode.ATTACHMENT);
+        byte[] bytes = ser.serialize(new Name("me", "me", "me"), Name.class);
+        Assert.assertEquals('{', bytes[0]);
+        Assert.assertEquals("me", ser.deserialize(bytes, Name.class).getFirst());
+    }
+
+    private static byte[] payload(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] read(InputStream is) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buff = new byte[1024];
+        int read;
+        while ((read = is.read(buff)) != -1) {
+            baos.write(buff, 0, read);
+        }
+        is.close();
+        return baos.toByteArray();
+    }
+
+    private static final class BytesDataSource implements DataSource {
+        private final byte[] _bytes;
+        private BytesDataSource(byte[] bytes) {
+            _bytes = bytes;
+        }
+        public String getName() {
+            return "payload.bin";
+        }
+        public String getContentType() {
+            return "application/octet-stream";
+        }
+        public InputStream getInputStream() throws IOException {
+            return new ByteArrayInputStream(_bytes);
+        }
+        public OutputStream getOutputStream() throws IOException {
+            throw new UnsupportedOperationException();
+        }
+    }
+
 }
@@ -20,7 +20,6 @@ import java.io.OutputStream;
 import org.switchyard.serial.FormatType;
 
 import com.dyuproject.protostuff.JsonIOUtil;
-import com.dyuproject.protostuff.LinkedBuffer;
 import com.dyuproject.protostuff.Schema;
 
 /**
@@ -47,7 +46,7 @@ public abstract class BaseJSONProtostuffSerializer extends BaseProtostuffSeriali
     @Override
     public <T> void writeTo(OutputStream out, T obj, Schema<T> schema) throws IOException {
         try {
-            JsonIOUtil.writeTo(out, obj, schema, _numeric, LinkedBuffer.allocate(getBufferSize()));
+            JsonIOUtil.writeTo(out, obj, schema, _numeric, getLinkedBuffer());
             out.flush();
         } finally {
             if (isCloseEnabled()) {
@@ -62,7 +61,7 @@ public abstract class BaseJSONProtostuffSerializer extends BaseProtostuffSeriali
     @Override
     public <T> void mergeFrom(InputStream in, T obj, Schema<T> schema) throws IOException {
         try {
-            JsonIOUtil.mergeFrom(in, obj, schema, _numeric, LinkedBuffer.allocate(getBufferSize()));
+            JsonIOUtil.mergeFrom(in, obj, schema, _numeric, getLinkedBuffer());
         } finally {
             if (isCloseEnabled()) {
                 in.close();
@@ -70,4 +69,12 @@ public abstract class BaseJSONProtostuffSerializer extends BaseProtostuffSeriali
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> void mergeFrom(byte[] data, int offset, int length, T obj, Schema<T> schema) throws IOException {
+        JsonIOUtil.mergeFrom(data, offset, length, obj, schema, _numeric);
+    }
+
 }
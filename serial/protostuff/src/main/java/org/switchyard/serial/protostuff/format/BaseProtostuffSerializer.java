@@ -15,17 +15,21 @@ package org.switchyard.serial.protostuff.format;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
+import org.switchyard.common.io.ByteBufferInputStream;
+import org.switchyard.common.io.ByteBufferOutputStream;
 import org.switchyard.common.io.CountingOutputStream;
-import org.switchyard.common.type.reflect.Construction;
 import org.switchyard.serial.BaseSerializer;
 import org.switchyard.serial.FormatType;
+import org.switchyard.serial.protostuff.schema.ProtostuffSchemaRegistry;
 
+import com.dyuproject.protostuff.LinkedBuffer;
 import com.dyuproject.protostuff.Schema;
-import com.dyuproject.protostuff.runtime.RuntimeSchema;
 
 /**
  * Base Protostuff serializer.
@@ -34,6 +38,9 @@ import com.dyuproject.protostuff.runtime.RuntimeSchema;
  */
 public abstract class BaseProtostuffSerializer extends BaseSerializer {
 
+    // shared by every serializer, so a thread holds at most one buffer whatever the number of serializers
+    private static final ThreadLocal<SizedLinkedBuffer> LINKED_BUFFER = new ThreadLocal<SizedLinkedBuffer>();
+
     /**
      * Constructor with a format.
      * @param format the format
@@ -48,11 +55,38 @@ public abstract class BaseProtostuffSerializer extends BaseSerializer {
     @Override
     public <T> int serialize(T obj, Class<T> type, OutputStream out) throws IOException {
         out = new CountingOutputStream(new BufferedOutputStream(out, getBufferSize()));
-        Schema<T> schema = RuntimeSchema.getSchema(type);
+        Schema<T> schema = ProtostuffSchemaRegistry.getSchema(type);
         writeTo(out, obj, schema);
         return ((CountingOutputStream)out).getCount();
     }
 
+    /**
+     * Serializes straight into the buffer, without the stream buffering and counting layers.
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> ByteBuffer serialize(T obj, Class<T> type, ByteBuffer buffer) throws IOException {
+        ByteBufferOutputStream out = new ByteBufferOutputStream(buffer);
+        Schema<T> schema = ProtostuffSchemaRegistry.getSchema(type);
+        writeTo(out, obj, schema);
+        return out.toByteBuffer();
+    }
+
+    /**
+     * Gets this thread's cleared LinkedBuffer, sized by the buffer size.
+     * @return the LinkedBuffer
+     */
+    protected LinkedBuffer getLinkedBuffer() {
+        int size = getBufferSize();
+        SizedLinkedBuffer sized = LINKED_BUFFER.get();
+        if (sized == null || sized._size != size) {
+            sized = new SizedLinkedBuffer(LinkedBuffer.allocate(size), size);
+            LINKED_BUFFER.set(sized);
+            return sized._buffer;
+        }
+        return sized._buffer.clear();
+    }
+
     /**
      * Protostuff serialization mechanism.
      * @param <T> the type of object
@@ -69,8 +103,8 @@ public abstract class BaseProtostuffSerializer extends BaseSerializer {
     @Override
     public <T> T deserialize(InputStream in, Class<T> type) throws IOException {
         in = new BufferedInputStream(in, getBufferSize());
-        T obj = Construction.construct(type);
-        Schema<T> schema = RuntimeSchema.getSchema(type);
+        Schema<T> schema = ProtostuffSchemaRegistry.getSchema(type);
+        T obj = schema.newMessage();
         mergeFrom(in, obj, schema);
         return obj;
     }
@@ -85,4 +119,45 @@ public abstract class BaseProtostuffSerializer extends BaseSerializer {
      */
     public abstract <T> void mergeFrom(InputStream in, T obj, Schema<T> schema) throws IOException;
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T deserialize(ByteBuffer buffer, Class<T> type) throws IOException {
+        Schema<T> schema = ProtostuffSchemaRegistry.getSchema(type);
+        T obj = schema.newMessage();
+        if (buffer.hasArray()) {
+            int length = buffer.remaining();
+            mergeFrom(buffer.array(), buffer.arrayOffset() + buffer.position(), length, obj, schema);
+            buffer.position(buffer.position() + length);
+        } else {
+            mergeFrom(new ByteBufferInputStream(buffer), obj, schema);
+        }
+        return obj;
+    }
+
+    /**
+     * Protostuff deserialization mechanism for bytes already in memory.
+     * Formats able to read a byte array in place override this.
+     * @param <T> the type of object
+     * @param data the bytes
+     * @param offset the offset of the first byte
+     * @param length the number of bytes
+     * @param obj the object
+     * @param schema the schema
+     * @throws IOException something wicked this way comes
+     */
+    public <T> void mergeFrom(byte[] data, int offset, int length, T obj, Schema<T> schema) throws IOException {
+        mergeFrom(new ByteArrayInputStream(data, offset, length), obj, schema);
+    }
+
+    private static final class SizedLinkedBuffer {
+        private final LinkedBuffer _buffer;
+        private final int _size;
+        private SizedLinkedBuffer(LinkedBuffer buffer, int size) {
+            _buffer = buffer;
+            _size = size;
+        }
+    }
+
 }
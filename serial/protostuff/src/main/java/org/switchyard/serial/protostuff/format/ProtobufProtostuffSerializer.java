@@ -19,7 +19,6 @@ import java.io.OutputStream;
 
 import org.switchyard.serial.FormatType;
 
-import com.dyuproject.protostuff.LinkedBuffer;
 import com.dyuproject.protostuff.ProtobufIOUtil;
 import com.dyuproject.protostuff.Schema;
 
@@ -43,7 +42,7 @@ public final class ProtobufProtostuffSerializer extends BaseProtostuffSerializer
     @Override
     public <T> void writeTo(OutputStream out, T obj, Schema<T> schema) throws IOException {
         try {
-            ProtobufIOUtil.writeTo(out, obj, schema, LinkedBuffer.allocate(getBufferSize()));
+            ProtobufIOUtil.writeTo(out, obj, schema, getLinkedBuffer());
             out.flush();
         } finally {
             if (isCloseEnabled()) {
@@ -58,7 +57,7 @@ public final class ProtobufProtostuffSerializer extends BaseProtostuffSerializer
     @Override
     public <T> void mergeFrom(InputStream in, T obj, Schema<T> schema) throws IOException {
         try {
-            ProtobufIOUtil.mergeFrom(in, obj, schema, LinkedBuffer.allocate(getBufferSize()));
+            ProtobufIOUtil.mergeFrom(in, obj, schema, getLinkedBuffer());
         } finally {
             if (isCloseEnabled()) {
                 in.close();
@@ -66,4 +65,12 @@ public final class ProtobufProtostuffSerializer extends BaseProtostuffSerializer
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> void mergeFrom(byte[] data, int offset, int length, T obj, Schema<T> schema) throws IOException {
+        ProtobufIOUtil.mergeFrom(data, offset, length, obj, schema);
+    }
+
 }
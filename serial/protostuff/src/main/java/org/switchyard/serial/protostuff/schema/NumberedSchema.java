@@ -0,0 +1,400 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.serial.protostuff.schema;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.switchyard.serial.SerialMessages;
+
+import com.dyuproject.protostuff.ByteString;
+import com.dyuproject.protostuff.Input;
+import com.dyuproject.protostuff.Output;
+import com.dyuproject.protostuff.Schema;
+import com.dyuproject.protostuff.runtime.RuntimeSchema;
+
+/**
+ * A runtime schema whose fields go on the wire under explicitly assigned numbers instead of
+ * their declaration order, so that a type can gain, lose or reorder fields without breaking
+ * the nodes still running its previous version.
+ *
+ * @param <T> the type
+ */
+final class NumberedSchema<T> implements Schema<T> {
+
+    /** The highest explicit field number. */
+    static final int MAX_FIELD_NUMBER = 65535;
+
+    private final RuntimeSchema<T> _delegate;
+    private final int[] _toExplicit;
+    private final int[] _toRuntime;
+    private final String[] _names;
+    private final Map<String, Integer> _numbers;
+
+    /**
+     * Constructs a new NumberedSchema.
+     * @param delegate the runtime schema of the type
+     * @param fieldNumbers the explicit number of every field, by field name
+     */
+    NumberedSchema(RuntimeSchema<T> delegate, Map<String, Integer> fieldNumbers) {
+        _delegate = delegate;
+        String className = delegate.typeClass().getName();
+        int count = delegate.getFieldCount();
+        Map<Integer, String> runtimeNames = new HashMap<Integer, String>();
+        int maxRuntime = 0;
+        int maxExplicit = 0;
+        // runtime numbers are dense unless the type uses @Tag, so probe until every field is found
+        for (int number = 1; runtimeNames.size() < count; number++) {
+            String name = delegate.getFieldName(number);
+            if (name != null) {
+                Integer explicit = fieldNumbers.get(name);
+                if (explicit == null || explicit.intValue() < 1 || explicit.intValue() > MAX_FIELD_NUMBER) {
+                    throw SerialMessages.MESSAGES.invalidFieldNumber(name, className, explicit);
+                }
+                runtimeNames.put(number, name);
+                maxRuntime = number;
+                maxExplicit = Math.max(maxExplicit, explicit.intValue());
+            }
+        }
+        _toExplicit = new int[maxRuntime + 1];
+        _toRuntime = new int[maxExplicit + 1];
+        _names = new String[maxExplicit + 1];
+        _numbers = new HashMap<String, Integer>();
+        for (Map.Entry<Integer, String> entry : runtimeNames.entrySet()) {
+            int runtime = entry.getKey().intValue();
+            String name = entry.getValue();
+            Integer explicit = fieldNumbers.get(name);
+            if (_toRuntime[explicit.intValue()] != 0) {
+                throw SerialMessages.MESSAGES.invalidFieldNumber(name, className, explicit);
+            }
+            _toExplicit[runtime] = explicit.intValue();
+            _toRuntime[explicit.intValue()] = runtime;
+            _names[explicit.intValue()] = name;
+            _numbers.put(name, explicit);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getFieldName(int number) {
+        return number > 0 && number < _names.length ? _names[number] : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getFieldNumber(String name) {
+        Integer number = _numbers.get(name);
+        return number != null ? number.intValue() : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isInitialized(T message) {
+        return _delegate.isInitialized(message);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T newMessage() {
+        return _delegate.newMessage();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String messageName() {
+        return _delegate.messageName();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String messageFullName() {
+        return _delegate.messageFullName();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<? super T> typeClass() {
+        return _delegate.typeClass();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void mergeFrom(Input input, T message) throws IOException {
+        _delegate.mergeFrom(new NumberedInput(input), message);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeTo(Output output, T message) throws IOException {
+        _delegate.writeTo(new NumberedOutput(output), message);
+    }
+
+    private int toExplicit(int runtime) {
+        return _toExplicit[runtime];
+    }
+
+    private int toRuntime(int explicit) {
+        // fields this version does not know map past the runtime schema, which hands them back as unknown
+        if (explicit > 0 && explicit < _toRuntime.length && _toRuntime[explicit] != 0) {
+            return _toRuntime[explicit];
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Reads the explicit numbers off the wire and hands the runtime schema its own.
+     */
+    private final class NumberedInput implements Input {
+
+        private final Input _input;
+        private int _lastExplicit;
+
+        private NumberedInput(Input input) {
+            _input = input;
+        }
+
+        @Override
+        public <S> void handleUnknownField(int fieldNumber, Schema<S> schema) throws IOException {
+            _input.handleUnknownField(_lastExplicit, NumberedSchema.this);
+        }
+
+        @Override
+        public <S> int readFieldNumber(Schema<S> schema) throws IOException {
+            _lastExplicit = _input.readFieldNumber(NumberedSchema.this);
+            return _lastExplicit != 0 ? toRuntime(_lastExplicit) : 0;
+        }
+
+        @Override
+        public int readInt32() throws IOException {
+            return _input.readInt32();
+        }
+
+        @Override
+        public int readUInt32() throws IOException {
+            return _input.readUInt32();
+        }
+
+        @Override
+        public int readSInt32() throws IOException {
+            return _input.readSInt32();
+        }
+
+        @Override
+        public int readFixed32() throws IOException {
+            return _input.readFixed32();
+        }
+
+        @Override
+        public int readSFixed32() throws IOException {
+            return _input.readSFixed32();
+        }
+
+        @Override
+        public long readInt64() throws IOException {
+            return _input.readInt64();
+        }
+
+        @Override
+        public long readUInt64() throws IOException {
+            return _input.readUInt64();
+        }
+
+        @Override
+        public long readSInt64() throws IOException {
+            return _input.readSInt64();
+        }
+
+        @Override
+        public long readFixed64() throws IOException {
+            return _input.readFixed64();
+        }
+
+        @Override
+        public long readSFixed64() throws IOException {
+            return _input.readSFixed64();
+        }
+
+        @Override
+        public float readFloat() throws IOException {
+            return _input.readFloat();
+        }
+
+        @Override
+        public double readDouble() throws IOException {
+            return _input.readDouble();
+        }
+
+        @Override
+        public boolean readBool() throws IOException {
+            return _input.readBool();
+        }
+
+        @Override
+        public int readEnum() throws IOException {
+            return _input.readEnum();
+        }
+
+        @Override
+        public String readString() throws IOException {
+            return _input.readString();
+        }
+
+        @Override
+        public ByteString readBytes() throws IOException {
+            return _input.readBytes();
+        }
+
+        @Override
+        public byte[] readByteArray() throws IOException {
+            return _input.readByteArray();
+        }
+
+        @Override
+        public <S> S mergeObject(S value, Schema<S> schema) throws IOException {
+            return _input.mergeObject(value, schema);
+        }
+
+        @Override
+        public void transferByteRangeTo(Output output, boolean utf8String, int fieldNumber, boolean repeated) throws IOException {
+            _input.transferByteRangeTo(output, utf8String, toExplicit(fieldNumber), repeated);
+        }
+    }
+
+    /**
+     * Writes the runtime schema's fields under their explicit numbers.
+     */
+    private final class NumberedOutput implements Output {
+
+        private final Output _output;
+
+        private NumberedOutput(Output output) {
+            _output = output;
+        }
+
+        @Override
+        public void writeInt32(int fieldNumber, int value, boolean repeated) throws IOException {
+            _output.writeInt32(toExplicit(fieldNumber), value, repeated);
+        }
+
+        @Override
+        public void writeUInt32(int fieldNumber, int value, boolean repeated) throws IOException {
+            _output.writeUInt32(toExplicit(fieldNumber), value, repeated);
+        }
+
+        @Override
+        public void writeSInt32(int fieldNumber, int value, boolean repeated) throws IOException {
+            _output.writeSInt32(toExplicit(fieldNumber), value, repeated);
+        }
+
+        @Override
+        public void writeFixed32(int fieldNumber, int value, boolean repeated) throws IOException {
+            _output.writeFixed32(toExplicit(fieldNumber), value, repeated);
+        }
+
+        @Override
+        public void writeSFixed32(int fieldNumber, int value, boolean repeated) throws IOException {
+            _output.writeSFixed32(toExplicit(fieldNumber), value, repeated);
+        }
+
+        @Override
+        public void writeInt64(int fieldNumber, long value, boolean repeated) throws IOException {
+            _output.writeInt64(toExplicit(fieldNumber), value, repeated);
+        }
+
+        @Override
+        public void writeUInt64(int fieldNumber, long value, boolean repeated) throws IOException {
+            _output.writeUInt64(toExplicit(fieldNumber), value, repeated);
+        }
+
+        @Override
+        public void writeSInt64(int fieldNumber, long value, boolean repeated) throws IOException {
+            _output.writeSInt64(toExplicit(fieldNumber), value, repeated);
+        }
+
+        @Override
+        public void writeFixed64(int fieldNumber, long value, boolean repeated) throws IOException {
+            _output.writeFixed64(toExplicit(fieldNumber), value, repeated);
+        }
+
+        @Override
+        public void writeSFixed64(int fieldNumber, long value, boolean repeated) throws IOException {
+            _output.writeSFixed64(toExplicit(fieldNumber), value, repeated);
+        }
+
+        @Override
+        public void writeFloat(int fieldNumber, float value, boolean repeated) throws IOException {
+            _output.writeFloat(toExplicit(fieldNumber), value, repeated);
+        }
+
+        @Override
+        public void writeDouble(int fieldNumber, double value, boolean repeated) throws IOException {
+            _output.writeDouble(toExplicit(fieldNumber), value, repeated);
+        }
+
+        @Override
+        public void writeBool(int fieldNumber, boolean value, boolean repeated) throws IOException {
+            _output.writeBool(toExplicit(fieldNumber), value, repeated);
+        }
+
+        @Override
+        public void writeEnum(int fieldNumber, int value, boolean repeated) throws IOException {
+            _output.writeEnum(toExplicit(fieldNumber), value, repeated);
+        }
+
+        @Override
+        public void writeString(int fieldNumber, String value, boolean repeated) throws IOException {
+            _output.writeString(toExplicit(fieldNumber), value, repeated);
+        }
+
+        @Override
+        public void writeBytes(int fieldNumber, ByteString value, boolean repeated) throws IOException {
+            _output.writeBytes(toExplicit(fieldNumber), value, repeated);
+        }
+
+        @Override
+        public void writeByteArray(int fieldNumber, byte[] value, boolean repeated) throws IOException {
+            _output.writeByteArray(toExplicit(fieldNumber), value, repeated);
+        }
+
+        @Override
+        public void writeByteRange(boolean utf8String, int fieldNumber, byte[] value, int offset, int length, boolean repeated) throws IOException {
+            _output.writeByteRange(utf8String, toExplicit(fieldNumber), value, offset, length, repeated);
+        }
+
+        @Override
+        public <S> void writeObject(int fieldNumber, S value, Schema<S> schema, boolean repeated) throws IOException {
+            _output.writeObject(toExplicit(fieldNumber), value, schema, repeated);
+        }
+    }
+
+}
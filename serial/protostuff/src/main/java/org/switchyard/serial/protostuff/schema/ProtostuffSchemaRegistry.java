@@ -0,0 +1,241 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.serial.protostuff.schema;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.switchyard.serial.SerialLogger;
+import org.switchyard.serial.graph.Graph;
+import org.switchyard.serial.graph.node.ArrayNode;
+import org.switchyard.serial.graph.node.ClassNode;
+import org.switchyard.serial.graph.node.CollectionNode;
+import org.switchyard.serial.graph.node.DOMNode;
+import org.switchyard.serial.graph.node.DataSourceNode;
+import org.switchyard.serial.graph.node.DefaultAccessNode;
+import org.switchyard.serial.graph.node.InputStreamNode;
+import org.switchyard.serial.graph.node.MapNode;
+import org.switchyard.serial.graph.node.NoopNode;
+import org.switchyard.serial.graph.node.QNameNode;
+import org.switchyard.serial.graph.node.StackTraceElementNode;
+import org.switchyard.serial.graph.node.ThrowableAccessNode;
+import org.switchyard.serial.graph.node.UUIDNode;
+
+import com.dyuproject.protostuff.Schema;
+import com.dyuproject.protostuff.runtime.RuntimeSchema;
+
+/**
+ * Holds the Protostuff schemas the serializers use, each with the instantiator its type is
+ * created through on deserialization.
+ * <p/>
+ * Schemas are built once per type, either up front, for the graph nodes, or as modules and
+ * deployments register their types through the SerializationProvider, or else on first use.
+ * They are kept apart by the class loader which defined their types, so a deployment's
+ * schemas are dropped together when it is undeployed.  Protostuff itself also keeps the
+ * schemas of the types it has resolved, by class name, and it cannot be told to drop them:
+ * a type nested in a serialized one stays reachable from Protostuff after its deployment
+ * is undeployed, along with its class loader.
+ * <p/>
+ * A type is written with its fields numbered in declaration order, unless its fields carry
+ * Protostuff's <code>@Tag</code>, or it has been registered with explicit field numbers.
+ * Explicit numbers keep the wire format of a type stable across versions of it, so nodes
+ * running different versions can keep talking during a rolling upgrade.
+ */
+public final class ProtostuffSchemaRegistry {
+
+    // weakly keyed by class loader, and read without locking as every serialization looks it up
+    private static final ConcurrentMap<Object, ConcurrentMap<Class<?>, Schema<?>>> SCHEMAS
+        = new ConcurrentHashMap<Object, ConcurrentMap<Class<?>, Schema<?>>>();
+    private static final ReferenceQueue<ClassLoader> COLLECTED = new ReferenceQueue<ClassLoader>();
+    // the bootstrap class loader is null, and never collected
+    private static final ConcurrentMap<Class<?>, Schema<?>> BOOTSTRAP_SCHEMAS = new ConcurrentHashMap<Class<?>, Schema<?>>();
+
+    static {
+        register(Graph.class,
+                ArrayNode.class,
+                ClassNode.class,
+                CollectionNode.class,
+                DOMNode.class,
+                DataSourceNode.class,
+                DefaultAccessNode.class,
+                InputStreamNode.class,
+                MapNode.class,
+                NoopNode.class,
+                QNameNode.class,
+                StackTraceElementNode.class,
+                ThrowableAccessNode.class,
+                UUIDNode.class);
+    }
+
+    private ProtostuffSchemaRegistry() {}
+
+    /**
+     * Gets the schema of a type, building and registering it on first use.
+     * @param <T> the type
+     * @param type the type
+     * @return the schema
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Schema<T> getSchema(Class<T> type) {
+        ConcurrentMap<Class<?>, Schema<?>> schemas = getSchemas(type);
+        Schema<T> schema = (Schema<T>)schemas.get(type);
+        if (schema == null) {
+            schema = RuntimeSchema.getSchema(type);
+            Schema<T> existing = (Schema<T>)schemas.putIfAbsent(type, schema);
+            if (existing != null) {
+                schema = existing;
+            }
+        }
+        return schema;
+    }
+
+    /**
+     * Builds and registers the schemas of types ahead of their first use.
+     * @param types the types
+     */
+    public static void register(Class<?>... types) {
+        for (Class<?> type : types) {
+            getSchema(type);
+        }
+    }
+
+    /**
+     * Builds and registers the schema of a type, with its fields written under explicit numbers
+     * instead of in declaration order.
+     * <p/>
+     * Protostuff resolves the schema of a type nested in another once, so register explicit
+     * numbers before the type is first serialized.
+     * @param <T> the type
+     * @param type the type
+     * @param fieldNumbers the number of every serialized field, by field name, from 1 to 65535
+     * @return the schema
+     */
+    public static <T> Schema<T> register(Class<T> type, Map<String, Integer> fieldNumbers) {
+        Schema<T> schema = new NumberedSchema<T>(RuntimeSchema.createFrom(type), fieldNumbers);
+        if (!RuntimeSchema.register(type, schema)) {
+            SerialLogger.ROOT_LOGGER.schemaAlreadyInUse(type.getName());
+        }
+        getSchemas(type).put(type, schema);
+        return schema;
+    }
+
+    /**
+     * Drops the schemas of the types a class loader defined, as its deployment goes away.
+     * @param loader the class loader
+     */
+    public static void unregister(ClassLoader loader) {
+        if (loader != null) {
+            SCHEMAS.remove(new LoaderKey(loader));
+        }
+        expungeCollected();
+    }
+
+    /**
+     * Whether a type's schema is registered.
+     * @param type the type
+     * @return if registered
+     */
+    public static boolean isRegistered(Class<?> type) {
+        ClassLoader loader = type.getClassLoader();
+        ConcurrentMap<Class<?>, Schema<?>> schemas = loader != null ? SCHEMAS.get(new LoaderKey(loader)) : BOOTSTRAP_SCHEMAS;
+        return schemas != null && schemas.containsKey(type);
+    }
+
+    private static ConcurrentMap<Class<?>, Schema<?>> getSchemas(Class<?> type) {
+        ClassLoader loader = type.getClassLoader();
+        if (loader == null) {
+            return BOOTSTRAP_SCHEMAS;
+        }
+        ConcurrentMap<Class<?>, Schema<?>> schemas = SCHEMAS.get(new LoaderKey(loader));
+        if (schemas == null) {
+            expungeCollected();
+            schemas = new ConcurrentHashMap<Class<?>, Schema<?>>();
+            ConcurrentMap<Class<?>, Schema<?>> existing = SCHEMAS.putIfAbsent(new WeakLoaderKey(loader, COLLECTED), schemas);
+            if (existing != null) {
+                schemas = existing;
+            }
+        }
+        return schemas;
+    }
+
+    private static void expungeCollected() {
+        Reference<? extends ClassLoader> collected;
+        while ((collected = COLLECTED.poll()) != null) {
+            SCHEMAS.remove(collected);
+        }
+    }
+
+    // key of a class loader, equal to any other key of the same class loader
+    private interface ClassLoaderKey {
+        ClassLoader getClassLoader();
+    }
+
+    // looks up a class loader's schemas without creating a reference to it
+    private static final class LoaderKey implements ClassLoaderKey {
+        private final ClassLoader _loader;
+
+        LoaderKey(ClassLoader loader) {
+            _loader = loader;
+        }
+
+        @Override
+        public ClassLoader getClassLoader() {
+            return _loader;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(_loader);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ClassLoaderKey && ((ClassLoaderKey)obj).getClassLoader() == _loader;
+        }
+    }
+
+    // holds a class loader's schemas until it is collected
+    private static final class WeakLoaderKey extends WeakReference<ClassLoader> implements ClassLoaderKey {
+        private final int _hash;
+
+        WeakLoaderKey(ClassLoader loader, ReferenceQueue<ClassLoader> queue) {
+            super(loader, queue);
+            _hash = System.identityHashCode(loader);
+        }
+
+        @Override
+        public ClassLoader getClassLoader() {
+            return get();
+        }
+
+        @Override
+        public int hashCode() {
+            return _hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            ClassLoader loader = get();
+            return loader != null && obj instanceof ClassLoaderKey && ((ClassLoaderKey)obj).getClassLoader() == loader;
+        }
+    }
+
+}
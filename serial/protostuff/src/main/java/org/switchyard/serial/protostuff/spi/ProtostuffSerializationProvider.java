@@ -13,6 +13,7 @@
  */
 package org.switchyard.serial.protostuff.spi;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -27,6 +28,7 @@ import org.switchyard.serial.protostuff.format.NativeProtostuffSerializer;
 import org.switchyard.serial.protostuff.format.NumericJSONProtostuffSerializer;
 import org.switchyard.serial.protostuff.format.ProtobufProtostuffSerializer;
 import org.switchyard.serial.protostuff.format.XMLProtostuffSerializer;
+import org.switchyard.serial.protostuff.schema.ProtostuffSchemaRegistry;
 import org.switchyard.serial.spi.SerializationProvider;
 
 /**
@@ -65,4 +67,20 @@ public class ProtostuffSerializationProvider extends SerializationProvider {
         return c != null ? Construction.construct(c) : null;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void registerTypes(Collection<Class<?>> types) {
+        ProtostuffSchemaRegistry.register(types.toArray(new Class<?>[types.size()]));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void unregisterTypes(ClassLoader loader) {
+        ProtostuffSchemaRegistry.unregister(loader);
+    }
+
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.serial.protostuff;
+
+import java.nio.ByteBuffer;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.switchyard.common.io.ByteBufferPool;
+import org.switchyard.serial.CompressionType;
+import org.switchyard.serial.FormatType;
+import org.switchyard.serial.Serializer;
+import org.switchyard.serial.SerializerFactory;
+import org.switchyard.serial.protostuff.ProtostuffSerializationData.Car;
+import org.switchyard.serial.protostuff.ProtostuffSerializationData.Person;
+
+/**
+ * Tests the ByteBuffer methods of various serializers, uncompressed and compressed.
+ */
+public final class ProtostuffByteBufferSerializationTest {
+
+    @Test
+    public void testByteBuffers() throws Exception {
+        for (FormatType format : FormatType.values()) {
+            for (CompressionType compression : new CompressionType[] {null, CompressionType.ZIP, CompressionType.GZIP, CompressionType.LZ4}) {
+                doRun(SerializerFactory.create(format, compression, false));
+                doRun(SerializerFactory.create(format, compression, true));
+            }
+        }
+    }
+
+    private void doRun(Serializer serializer) throws Exception {
+        Car car = new Car(new Person("Dave"));
+        int length = serializer.serialize(car, Car.class).length;
+        // small direct buffers, so the pooled one gets replaced
+        ByteBufferPool pool = new ByteBufferPool(64, 1, true);
+        ByteBuffer buffer = serializer.serialize(car, Car.class, pool);
+        Assert.assertEquals(length, buffer.remaining());
+        car = serializer.deserialize(buffer, Car.class);
+        pool.release(buffer);
+        Assert.assertEquals("Dave", car.getDriver().getNickName());
+        // a heap buffer with room to spare is written in place, from its position
+        buffer = ByteBuffer.allocate(length + 10);
+        buffer.position(10);
+        ByteBuffer view = serializer.serialize(car, Car.class, buffer);
+        Assert.assertEquals(10, view.position());
+        Assert.assertEquals(length + 10, buffer.position());
+        Assert.assertEquals("Dave", serializer.deserialize(view, Car.class).getDriver().getNickName());
+    }
+
+}
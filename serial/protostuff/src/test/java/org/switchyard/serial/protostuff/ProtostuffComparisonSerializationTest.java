@@ -41,9 +41,11 @@ public final class ProtostuffComparisonSerializationTest {
         doRun(SerializerFactory.create(format, null, false), 0, false);
         doRun(SerializerFactory.create(format, CompressionType.ZIP, false), 4, false);
         doRun(SerializerFactory.create(format, CompressionType.GZIP, false), 4, false);
+        doRun(SerializerFactory.create(format, CompressionType.LZ4, false), 4, false);
         doRun(SerializerFactory.create(format, null, true), 4, false);
         doRun(SerializerFactory.create(format, CompressionType.ZIP, true), 8, false);
-        doRun(SerializerFactory.create(format, CompressionType.GZIP, true), 8, true);
+        doRun(SerializerFactory.create(format, CompressionType.GZIP, true), 8, false);
+        doRun(SerializerFactory.create(format, CompressionType.LZ4, true), 8, true);
     }
 
     private void doRun(Serializer serializer, int spaces, boolean newline) throws Exception {
@@ -13,6 +13,11 @@
  */
 package org.switchyard.serial.protostuff;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -22,8 +27,11 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.UUID;
 
+import javax.activation.DataSource;
+
 import junit.framework.Assert;
 
 import org.junit.Test;
@@ -33,6 +41,8 @@ import org.switchyard.common.xml.XMLHelper;
 import org.switchyard.serial.FormatType;
 import org.switchyard.serial.Serializer;
 import org.switchyard.serial.SerializerFactory;
+import org.switchyard.serial.graph.GraphSerializer;
+import org.switchyard.serial.graph.StreamMode;
 import org.switchyard.serial.protostuff.ProtostuffSerializationData.Antennae;
 import org.switchyard.serial.protostuff.ProtostuffSerializationData.Car;
 import org.switchyard.serial.protostuff.ProtostuffSerializationData.CustomPart;
@@ -273,4 +283,57 @@ public final class ProtostuffComplexSerializationTest {
         Assert.assertNull(name.getLast());
     }
 
+    @Test
+    public void testBinaryStream() throws Exception {
+        byte[] streamed = payload(100 * 1024);
+        Map<String, Object> map = new HashMap<String, Object>();
+        map.put("dataSource", new BytesDataSource(streamed));
+        // Base64 unless opted into, so peers that predate raw bytes can still read it
+        Assert.assertSame(StreamMode.BASE64, ((GraphSerializer)SerializerFactory.create(FormatType.GRAPH_PROTOSTUFF, null, true)).getStreamMode());
+        Serializer ser = new GraphSerializer(SerializerFactory.create(FormatType.GRAPH_PROTOSTUFF), StreamMode.BINARY);
+        byte[] bytes = ser.serialize(map, Map.class);
+        // raw bytes, not Base64
+        Assert.assertTrue(bytes.length < streamed.length + 1024);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> actual = new GraphSerializer(SerializerFactory.create(FormatType.GRAPH_PROTOSTUFF)).deserialize(bytes, Map.class);
+        DataSource ds = (DataSource)actual.get("dataSource");
+        Assert.assertTrue(Arrays.equals(streamed, read(ds.getInputStream())));
+    }
+
+    private static byte[] payload(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] read(InputStream is) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buff = new byte[1024];
+        int read;
+        while ((read = is.read(buff)) != -1) {
+            baos.write(buff, 0, read);
+        }
+        is.close();
+        return baos.toByteArray();
+    }
+
+    private static final class BytesDataSource implements DataSource {
+        private final byte[] _bytes;
+        private BytesDataSource(byte[] bytes) {
+            _bytes = bytes;
+        }
+        public String getName() {
+            return "payload.bin";
+        }
+        public String getContentType() {
+            return "application/octet-stream";
+        }
+        public InputStream getInputStream() throws IOException {
+            return new ByteArrayInputStream(_bytes);
+        }
+        public OutputStream getOutputStream() throws IOException {
+            throw new UnsupportedOperationException();
+        }
+    }
+
 }
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2014 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.serial.protostuff.schema;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.switchyard.serial.FormatType;
+import org.switchyard.serial.Serializer;
+import org.switchyard.serial.SerializerFactory;
+import org.switchyard.serial.graph.Graph;
+import org.switchyard.serial.graph.node.DefaultAccessNode;
+import org.switchyard.serial.spi.SerializationProvider;
+
+/**
+ * Tests the ProtostuffSchemaRegistry.
+ */
+public final class ProtostuffSchemaRegistryTest {
+
+    private static final FormatType[] NUMBERED_FORMATS = new FormatType[] {
+        FormatType.PROTOBUF, FormatType.NATIVE_PROTOSTUFF, FormatType.JSON_NUMERIC
+    };
+
+    @BeforeClass
+    public static void register() {
+        Map<String, Integer> numbers = new HashMap<String, Integer>();
+        numbers.put("_name", 1);
+        numbers.put("_count", 2);
+        ProtostuffSchemaRegistry.register(OldWidget.class, numbers);
+        numbers.put("_color", 3);
+        ProtostuffSchemaRegistry.register(NewWidget.class, numbers);
+    }
+
+    @Test
+    public void testGraphTypesRegistered() throws Exception {
+        Assert.assertTrue(ProtostuffSchemaRegistry.isRegistered(Graph.class));
+        Assert.assertTrue(ProtostuffSchemaRegistry.isRegistered(DefaultAccessNode.class));
+    }
+
+    @Test
+    public void testDeploymentTypes() throws Exception {
+        // a deployment of its own, so unregistering it leaves the other types be
+        URL location = ProtostuffSchemaRegistryTest.class.getProtectionDomain().getCodeSource().getLocation();
+        ClassLoader loader = new URLClassLoader(new URL[] {location}, null);
+        Class<?> widget = loader.loadClass(DeployedWidget.class.getName());
+        SerializationProvider.register(loader, Arrays.asList(widget.getName(), String.class.getName(), "org.example.Missing"));
+        Assert.assertTrue(ProtostuffSchemaRegistry.isRegistered(widget));
+        Assert.assertFalse(ProtostuffSchemaRegistry.isRegistered(String.class));
+        SerializationProvider.unregister(loader);
+        Assert.assertFalse(ProtostuffSchemaRegistry.isRegistered(widget));
+        Assert.assertTrue(ProtostuffSchemaRegistry.isRegistered(Graph.class));
+    }
+
+    @Test
+    public void testOldToNew() throws Exception {
+        for (FormatType format : NUMBERED_FORMATS) {
+            Serializer ser = SerializerFactory.create(format, null, false);
+            byte[] bytes = ser.serialize(new OldWidget("gear", 7), OldWidget.class);
+            NewWidget widget = ser.deserialize(bytes, NewWidget.class);
+            Assert.assertEquals(format.name(), "gear", widget.getName());
+            Assert.assertEquals(format.name(), 7, widget.getCount());
+            Assert.assertNull(format.name(), widget.getColor());
+        }
+    }
+
+    @Test
+    public void testNewToOld() throws Exception {
+        for (FormatType format : NUMBERED_FORMATS) {
+            Serializer ser = SerializerFactory.create(format, null, false);
+            byte[] bytes = ser.serialize(new NewWidget(9, "red", "cog"), NewWidget.class);
+            OldWidget widget = ser.deserialize(bytes, OldWidget.class);
+            Assert.assertEquals(format.name(), "cog", widget.getName());
+            Assert.assertEquals(format.name(), 9, widget.getCount());
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testDuplicateNumbers() throws Exception {
+        Map<String, Integer> numbers = new HashMap<String, Integer>();
+        numbers.put("_name", 1);
+        numbers.put("_count", 1);
+        ProtostuffSchemaRegistry.register(InvalidWidget.class, numbers);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMissingNumber() throws Exception {
+        Map<String, Integer> numbers = new HashMap<String, Integer>();
+        numbers.put("_name", 1);
+        ProtostuffSchemaRegistry.register(InvalidWidget.class, numbers);
+    }
+
+    public static final class OldWidget {
+        private String _name;
+        private int _count;
+        public OldWidget() {}
+        public OldWidget(String name, int count) {
+            _name = name;
+            _count = count;
+        }
+        public String getName() {
+            return _name;
+        }
+        public int getCount() {
+            return _count;
+        }
+    }
+
+    public static final class NewWidget {
+        // reordered, with a field added
+        private int _count;
+        private String _color;
+        private String _name;
+        public NewWidget() {}
+        public NewWidget(int count, String color, String name) {
+            _count = count;
+            _color = color;
+            _name = name;
+        }
+        public int getCount() {
+            return _count;
+        }
+        public String getColor() {
+            return _color;
+        }
+        public String getName() {
+            return _name;
+        }
+    }
+
+    public static final class DeployedWidget {
+        private String _name;
+        public String getName() {
+            return _name;
+        }
+    }
+
+    public static final class InvalidWidget {
+        private String _name;
+        private int _count;
+        public String getName() {
+            return _name;
+        }
+        public int getCount() {
+            return _count;
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.transform.config.model;
+
+/**
+ * Content produced by a Java to XML JAXB transformation.
+ */
+public enum JAXBResultType {
+    /**
+     * XML written to a String.
+     */
+    STRING,
+    /**
+     * XML encoded by the marshaller (UTF-8 by default) into a byte[].  This skips
+     * building a String, but the bytes are still copied once out of the output buffer.
+     */
+    BYTES,
+    /**
+     * DOM Element marshalled directly into a document tree.
+     */
+    DOM
+}
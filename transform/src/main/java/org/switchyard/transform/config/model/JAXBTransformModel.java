@@ -28,6 +28,12 @@ public interface JAXBTransformModel extends TransformModel {
 
     /** The "contextPath" name. */
     public static final String CONTEXT_PATH = "contextPath";
+
+    /** The "formatted" name. */
+    public static final String FORMATTED = "formatted";
+
+    /** The "resultType" name. */
+    public static final String RESULT_TYPE = "resultType";
     
     /**
      * Gets the contextPath attribute.
@@ -42,4 +48,30 @@ public interface JAXBTransformModel extends TransformModel {
      */
     public JAXBTransformModel setContextPath(String contextPath);
 
+    /**
+     * Gets the formatted attribute, true when not set.
+     * @return the formatted attribute
+     */
+    public boolean isFormatted();
+
+    /**
+     * Sets the formatted attribute.
+     * @param formatted whether marshalled XML should be pretty printed
+     * @return this JAXBTransformModel (useful for chaining)
+     */
+    public JAXBTransformModel setFormatted(boolean formatted);
+
+    /**
+     * Gets the resultType attribute.
+     * @return the resultType attribute
+     */
+    public String getResultType();
+
+    /**
+     * Sets the resultType attribute.
+     * @param resultType the resultType attribute
+     * @return this JAXBTransformModel (useful for chaining)
+     */
+    public JAXBTransformModel setResultType(String resultType);
+
 }
@@ -29,6 +29,9 @@ public interface XsltTransformModel extends TransformModel {
 
     /**  whether a warning should be reported as an Exception.   */
     String FAIL_ON_WARNING = "failOnWarning";
+
+    /** whether content should be streamed through the stylesheet instead of being parsed into DOM. */
+    String STREAMING = "streaming";
     
     /**
      * @return xslt identifier
@@ -55,4 +58,18 @@ public interface XsltTransformModel extends TransformModel {
      * @return model representation
      */
     XsltTransformModel setFailOnWarning(boolean failOnWarning);
+
+    /** Return whether the transformation reads and writes streams.
+     * If streaming attribute is "true", the content is passed to the stylesheet
+     * as a stream source and the result is written as a String, DOM is used
+     * only when the content already is a DOM node.
+     * @return whether the transformation is streamed
+     */
+    boolean isStreaming();
+
+    /** Set whether the transformation reads and writes streams.
+     * @param streaming whether the transformation is streamed
+     * @return model representation
+     */
+    XsltTransformModel setStreaming(boolean streaming);
 }
@@ -65,4 +65,39 @@ public class V1JAXBTransformModel extends V1BaseTransformModel implements JAXBTr
         setModelAttribute(CONTEXT_PATH, contextPath);
         return this;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isFormatted() {
+        String formatted = getModelAttribute(FORMATTED);
+        return formatted == null || Boolean.parseBoolean(formatted);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JAXBTransformModel setFormatted(boolean formatted) {
+        setModelAttribute(FORMATTED, Boolean.toString(formatted));
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getResultType() {
+        return getModelAttribute(RESULT_TYPE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JAXBTransformModel setResultType(String resultType) {
+        setModelAttribute(RESULT_TYPE, resultType);
+        return this;
+    }
 }
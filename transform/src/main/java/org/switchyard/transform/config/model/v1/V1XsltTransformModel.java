@@ -83,4 +83,22 @@ public class V1XsltTransformModel extends V1BaseTransformModel implements XsltTr
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isStreaming() {
+        String streaming = getModelAttribute(STREAMING);
+        return Boolean.parseBoolean(streaming);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public XsltTransformModel setStreaming(boolean streaming) {
+        setModelAttribute(STREAMING, Boolean.toString(streaming));
+        return this;
+    }
+
 }
@@ -47,4 +47,13 @@ public interface TransformLogger {
     @LogMessage(level = ERROR)
     @Message(id = 16602, value = "Exception while closing DOM InputSource: %s")
     void exceptionClosingDOMInputSource(String message);
+
+    /**
+     * unableToRegisterTransformerPool method definition.
+     * @param name name
+     * @param e e
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 16603, value = "Unable to register XSLT transformer pool MBean %s")
+    void unableToRegisterTransformerPool(String name, @Cause Exception e);
 }
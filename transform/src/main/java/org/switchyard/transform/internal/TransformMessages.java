@@ -559,4 +559,13 @@ public interface TransformMessages {
      */
     @Message(id=16862, value = "null 'domain' argument")
     IllegalArgumentException nullServiceDomainArgument();
+
+    /**
+     * transformerPoolExhausted method definition.
+     * @param size size
+     * @param timeout timeout
+     * @return SwitchYardException
+     */
+    @Message(id=16863, value = "All %d XSLT transformers are in use, none became available within %d ms")
+    SwitchYardException transformerPoolExhausted(int size, long timeout);
 }
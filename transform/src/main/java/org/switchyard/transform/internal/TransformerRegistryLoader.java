@@ -24,6 +24,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
+import javax.xml.bind.JAXBContext;
+
 import org.jboss.logging.Logger;
 import org.switchyard.ServiceDomain;
 import org.switchyard.common.cdi.CDIUtil;
@@ -31,9 +33,12 @@ import org.switchyard.common.type.Classes;
 import org.switchyard.config.model.ModelPuller;
 import org.switchyard.config.model.transform.TransformModel;
 import org.switchyard.config.model.transform.TransformsModel;
+import org.switchyard.transform.BaseTransformer;
 import org.switchyard.transform.Transformer;
 import org.switchyard.transform.TransformerRegistry;
 import org.switchyard.transform.config.model.JavaTransformModel;
+import org.switchyard.transform.jaxb.internal.JAXBContextCache;
+import org.switchyard.transform.jaxb.internal.JAXBTransformerFactory;
 
 /**
  * {@link TransformerRegistry} loader class.
@@ -59,6 +64,10 @@ public class TransformerRegistryLoader {
      * The registry instance into which the transforms were loaded.
      */
     private TransformerRegistry _transformerRegistry;
+    /**
+     * The class loader the transformers were registered with, which JAXB contexts are cached for.
+     */
+    private ClassLoader _classLoader;
     
     private Map<Class<?>, TransformerFactory<?>> _transformerFactories = 
             new HashMap<Class<?>, TransformerFactory<?>>();
@@ -101,7 +110,10 @@ public class TransformerRegistryLoader {
         if (transforms == null) {
             return;
         }
+        _classLoader = Thread.currentThread().getContextClassLoader();
 
+        // JAXB contexts are built up front in parallel and held until all transformers exist
+        List<JAXBContext> jaxbContexts = JAXBTransformerFactory.preloadContexts(transforms.getTransforms());
         try {
             for (TransformModel transformModel : transforms.getTransforms()) {
                 Collection<Transformer<?, ?>> transformers = newTransformers(transformModel);
@@ -139,15 +151,23 @@ public class TransformerRegistryLoader {
             // already been registered with the domain...
             unregisterTransformers();
             throw e;
+        } finally {
+            jaxbContexts.clear();
         }
     }
 
     /**
-     * Unregister all transformers.
+     * Unregister all transformers, and drop the JAXB contexts cached for them.
      */
     public void unregisterTransformers() {
         for (Transformer<?, ?> transformer : _transformers) {
             _transformerRegistry.removeTransformer(transformer);
+            if (transformer instanceof BaseTransformer) {
+                ((BaseTransformer<?, ?>) transformer).destroy();
+            }
+        }
+        if (_classLoader != null) {
+            JAXBContextCache.clear(_classLoader);
         }
     }
 
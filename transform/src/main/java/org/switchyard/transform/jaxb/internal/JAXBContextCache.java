@@ -0,0 +1,234 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.transform.jaxb.internal;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+import org.jboss.logging.Logger;
+
+/**
+ * JAXBContext instances shared by all JAXB transformers.
+ * <p/>
+ * Contexts are cached per classloader, the loader being held weakly so the
+ * cache doesn't keep an undeployed application alive.  Cached contexts are
+ * weakly referenced too: they are shared as long as a transformer uses them
+ * and rebuilt on demand otherwise.  Concurrent requests for the same context
+ * wait for a single build.
+ */
+public final class JAXBContextCache {
+
+    private static final Logger LOGGER = Logger.getLogger(JAXBContextCache.class);
+
+    private static final Map<ClassLoader, Contexts> CACHE =
+            Collections.synchronizedMap(new WeakHashMap<ClassLoader, Contexts>());
+
+    private JAXBContextCache() {
+    }
+
+    /**
+     * Gets the JAXBContext for a context path, using the thread context classloader.
+     * @param contextPath JAXB context path (Java packages separated by ':')
+     * @return shared JAXBContext
+     * @throws JAXBException failed to create the context
+     */
+    public static JAXBContext getContext(final String contextPath) throws JAXBException {
+        final ClassLoader loader = getContextClassLoader();
+        return contexts(loader).get(contextPath, new Callable<JAXBContext>() {
+            public JAXBContext call() throws JAXBException {
+                return JAXBContext.newInstance(contextPath, loader);
+            }
+        });
+    }
+
+    /**
+     * Gets the JAXBContext bound to a class, cached in the loader of that class.
+     * @param type class to be recognized by the context
+     * @return shared JAXBContext
+     * @throws JAXBException failed to create the context
+     */
+    public static JAXBContext getContext(final Class<?> type) throws JAXBException {
+        return contexts(type.getClassLoader()).get("class:" + type.getName(), new Callable<JAXBContext>() {
+            public JAXBContext call() throws JAXBException {
+                return JAXBContext.newInstance(type);
+            }
+        });
+    }
+
+    /**
+     * Builds contexts in parallel so they are ready when transformers are created.
+     * Failures are only logged, the transformer creation reports them.
+     * @param contextPaths context paths, resolved with the thread context classloader
+     * @param types classes each getting its own context
+     * @return contexts built, these must be held by the caller until used
+     */
+    public static List<JAXBContext> preload(Collection<String> contextPaths, Collection<Class<?>> types) {
+        List<Callable<JAXBContext>> tasks = new ArrayList<Callable<JAXBContext>>();
+        for (final String contextPath : contextPaths) {
+            tasks.add(new Callable<JAXBContext>() {
+                public JAXBContext call() throws JAXBException {
+                    return getContext(contextPath);
+                }
+            });
+        }
+        for (final Class<?> type : types) {
+            tasks.add(new Callable<JAXBContext>() {
+                public JAXBContext call() throws JAXBException {
+                    return getContext(type);
+                }
+            });
+        }
+
+        List<JAXBContext> contexts = new ArrayList<JAXBContext>();
+        if (tasks.isEmpty()) {
+            return contexts;
+        }
+        int threads = Math.min(tasks.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new PreloadThreadFactory(getContextClassLoader()));
+        try {
+            for (Future<JAXBContext> future : executor.invokeAll(tasks)) {
+                try {
+                    contexts.add(future.get());
+                } catch (ExecutionException e) {
+                    LOGGER.debug("Failed to preload JAXBContext", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        return contexts;
+    }
+
+    /**
+     * Drops all contexts cached for a classloader.
+     * @param loader classloader
+     */
+    public static void clear(ClassLoader loader) {
+        CACHE.remove(loader);
+    }
+
+    static int size(ClassLoader loader) {
+        Contexts contexts = CACHE.get(loader);
+        return contexts != null ? contexts.size() : 0;
+    }
+
+    private static Contexts contexts(ClassLoader loader) {
+        synchronized (CACHE) {
+            Contexts contexts = CACHE.get(loader);
+            if (contexts == null) {
+                contexts = new Contexts();
+                CACHE.put(loader, contexts);
+            }
+            return contexts;
+        }
+    }
+
+    private static ClassLoader getContextClassLoader() {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        return loader != null ? loader : JAXBContextCache.class.getClassLoader();
+    }
+
+    /**
+     * Contexts cached for one classloader.
+     */
+    private static final class Contexts {
+        private final ConcurrentMap<String, WeakReference<JAXBContext>> _built =
+                new ConcurrentHashMap<String, WeakReference<JAXBContext>>();
+        private final ConcurrentMap<String, FutureTask<JAXBContext>> _building =
+                new ConcurrentHashMap<String, FutureTask<JAXBContext>>();
+
+        JAXBContext get(String key, Callable<JAXBContext> factory) throws JAXBException {
+            WeakReference<JAXBContext> ref = _built.get(key);
+            JAXBContext context = ref != null ? ref.get() : null;
+            if (context != null) {
+                return context;
+            }
+
+            FutureTask<JAXBContext> task = new FutureTask<JAXBContext>(factory);
+            FutureTask<JAXBContext> building = _building.putIfAbsent(key, task);
+            if (building == null) {
+                building = task;
+                try {
+                    task.run();
+                    _built.put(key, new WeakReference<JAXBContext>(task.get()));
+                } catch (Exception e) {
+                    // failure is reported from the task below
+                    LOGGER.trace("Failed to create JAXBContext " + key, e);
+                } finally {
+                    _building.remove(key, task);
+                }
+            }
+            try {
+                return building.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new JAXBException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof JAXBException) {
+                    throw (JAXBException) e.getCause();
+                }
+                throw new JAXBException(e.getCause());
+            }
+        }
+
+        int size() {
+            int size = 0;
+            for (WeakReference<JAXBContext> ref : _built.values()) {
+                if (ref.get() != null) {
+                    size++;
+                }
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Daemon threads building contexts with the deployment classloader.
+     */
+    private static final class PreloadThreadFactory implements ThreadFactory {
+        private final ClassLoader _loader;
+
+        PreloadThreadFactory(ClassLoader loader) {
+            _loader = loader;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "SwitchYard-JAXBContext-preload");
+            thread.setDaemon(true);
+            thread.setContextClassLoader(_loader);
+            return thread;
+        }
+    }
+}
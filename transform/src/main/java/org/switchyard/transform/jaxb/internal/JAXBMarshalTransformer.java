@@ -14,22 +14,30 @@
 
 package org.switchyard.transform.jaxb.internal;
 
+import java.io.ByteArrayOutputStream;
 import java.io.StringWriter;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.namespace.QName;
+import javax.xml.transform.dom.DOMResult;
 
 import org.switchyard.Message;
 import org.switchyard.SwitchYardException;
+import org.switchyard.common.util.ObjectPool;
 import org.switchyard.common.xml.QNameUtil;
 import org.switchyard.config.model.Scannable;
 import org.switchyard.transform.BaseTransformer;
+import org.switchyard.transform.config.model.JAXBResultType;
 import org.switchyard.transform.internal.TransformMessages;
+import org.w3c.dom.Document;
 
 /**
  * JAXB Marshalling transformer.
+ * <p/>
+ * Marshallers are not thread safe, so each one is borrowed from a small pool
+ * owned by the transformer for the length of a single transformation.
  *
  * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
  *
@@ -40,6 +48,20 @@ import org.switchyard.transform.internal.TransformMessages;
 public class JAXBMarshalTransformer<F, T> extends BaseTransformer<Message, Message> {
 
     private JAXBContext _jaxbContext;
+    private boolean _formatted;
+    private JAXBResultType _resultType;
+    private final ObjectPool<Marshaller> _marshallers = new ObjectPool<Marshaller>() {
+        @Override
+        protected Marshaller create() {
+            try {
+                Marshaller marshaller = _jaxbContext.createMarshaller();
+                marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.valueOf(_formatted));
+                return marshaller;
+            } catch (JAXBException e) {
+                throw TransformMessages.MESSAGES.failedToCreateMarshaller(getFrom().toString(), e);
+            }
+        }
+    };
 
     /**
      * Public constructor.
@@ -49,12 +71,27 @@ public class JAXBMarshalTransformer<F, T> extends BaseTransformer<Message, Messa
      * @throws SwitchYardException Failed to create JAXBContext.
      */
     public JAXBMarshalTransformer(QName from, QName to, String contextPath) throws SwitchYardException {
+        this(from, to, contextPath, true, JAXBResultType.STRING);
+    }
+
+    /**
+     * Public constructor.
+     * @param from From type.
+     * @param to To type.
+     * @param contextPath JAXB context path (Java package).
+     * @param formatted whether the XML should be pretty printed.
+     * @param resultType content produced by the transformation.
+     * @throws SwitchYardException Failed to create JAXBContext.
+     */
+    public JAXBMarshalTransformer(QName from, QName to, String contextPath, boolean formatted, JAXBResultType resultType) throws SwitchYardException {
         super(from, to);
+        _formatted = formatted;
+        _resultType = resultType != null ? resultType : JAXBResultType.STRING;
         try {
             if (contextPath != null) {
-                _jaxbContext = JAXBContext.newInstance(contextPath);
+                _jaxbContext = JAXBContextCache.getContext(contextPath);
             } else {
-                _jaxbContext = JAXBContext.newInstance(QNameUtil.toJavaMessageType(from));
+                _jaxbContext = JAXBContextCache.getContext(QNameUtil.toJavaMessageType(from));
             }
         } catch (JAXBException e) {
             throw TransformMessages.MESSAGES.failedToCreateJAXBContext(from.toString(), e);
@@ -63,27 +100,51 @@ public class JAXBMarshalTransformer<F, T> extends BaseTransformer<Message, Messa
 
     @Override
     public Message transform(Message message) {
-        Marshaller marshaller;
-
-        try {
-            marshaller = _jaxbContext.createMarshaller();
-        } catch (JAXBException e) {
-            throw TransformMessages.MESSAGES.failedToCreateMarshaller(getFrom().toString(), e);
-        }
+        Marshaller marshaller = _marshallers.acquire();
 
         try {
-            StringWriter resultWriter = new StringWriter();
             Object javaObject = message.getContent();
             //JAXBElement jaxbElement = new JAXBElement(getTo(), QNameUtil.toJavaMessageType(getFrom()), javaObject);
 
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
-            marshaller.marshal(javaObject, resultWriter);
-
-            message.setContent(resultWriter.toString());
+            switch (_resultType) {
+            case BYTES:
+                ByteArrayOutputStream resultStream = new ByteArrayOutputStream();
+                marshaller.marshal(javaObject, resultStream);
+                message.setContent(resultStream.toByteArray());
+                break;
+            case DOM:
+                DOMResult result = new DOMResult();
+                marshaller.marshal(javaObject, result);
+                message.setContent(((Document)result.getNode()).getDocumentElement());
+                break;
+            default:
+                StringWriter resultWriter = new StringWriter();
+                marshaller.marshal(javaObject, resultWriter);
+                message.setContent(resultWriter.toString());
+            }
         } catch (JAXBException e) {
+            // don't give back a marshaller which may have been left in a broken state
             throw TransformMessages.MESSAGES.failedToMarshallForType(getFrom().toString(), e);
         }
+        _marshallers.release(marshaller);
 
         return message;
     }
+
+    @Override
+    public void destroy() {
+        _marshallers.clear();
+    }
+
+    boolean isFormatted() {
+        return _formatted;
+    }
+
+    JAXBResultType getResultType() {
+        return _resultType;
+    }
+
+    JAXBContext getJAXBContext() {
+        return _jaxbContext;
+    }
 }
@@ -16,10 +16,12 @@ package org.switchyard.transform.jaxb.internal;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import javax.xml.bind.JAXBContext;
 import javax.xml.bind.annotation.XmlElementDecl;
 import javax.xml.bind.annotation.XmlType;
 import javax.xml.namespace.QName;
@@ -29,8 +31,10 @@ import org.switchyard.ServiceDomain;
 import org.switchyard.SwitchYardException;
 import org.switchyard.common.type.Classes;
 import org.switchyard.common.xml.QNameUtil;
+import org.switchyard.config.model.transform.TransformModel;
 import org.switchyard.metadata.JavaTypes;
 import org.switchyard.transform.Transformer;
+import org.switchyard.transform.config.model.JAXBResultType;
 import org.switchyard.transform.config.model.JAXBTransformModel;
 import org.switchyard.transform.config.model.JavaTransformType;
 import org.switchyard.transform.internal.TransformMessages;
@@ -54,12 +58,47 @@ public class JAXBTransformerFactory implements TransformerFactory<JAXBTransformM
         QName toType = model.getTo();
 
         if (toJavaTransformType(fromType, toType) == JavaTransformType.JAVA2XML) {
-            return new JAXBMarshalTransformer(fromType, toType, model.getContextPath());
+            String resultType = model.getResultType();
+            return new JAXBMarshalTransformer(fromType, toType, model.getContextPath(), model.isFormatted(),
+                    resultType != null ? JAXBResultType.valueOf(resultType) : JAXBResultType.STRING);
         } else {
             return new JAXBUnmarshalTransformer(fromType, toType, model.getContextPath());
         }
     }
 
+    /**
+     * Builds the JAXBContexts needed by the JAXB transforms in parallel, ahead of
+     * creating the transformers.
+     * @param transforms transform models, non JAXB models are ignored
+     * @return contexts built, to be held until the transformers are created
+     */
+    public static List<JAXBContext> preloadContexts(Collection<TransformModel> transforms) {
+        List<String> contextPaths = new ArrayList<String>();
+        List<Class<?>> types = new ArrayList<Class<?>>();
+        for (TransformModel transform : transforms) {
+            if (!(transform instanceof JAXBTransformModel)) {
+                continue;
+            }
+            JAXBTransformModel model = (JAXBTransformModel) transform;
+            if (model.getContextPath() != null) {
+                contextPaths.add(model.getContextPath());
+            } else {
+                try {
+                    QName javaType = QNameUtil.isJavaMessageType(model.getFrom()) ? model.getFrom() : model.getTo();
+                    types.add(QNameUtil.toJavaMessageType(javaType));
+                } catch (RuntimeException e) {
+                    // reported when the transformer gets created
+                    _log.debug("Unable to preload JAXBContext for " + model.getFrom() + " to " + model.getTo(), e);
+                }
+            }
+        }
+        if (contextPaths.size() + types.size() < 2) {
+            // nothing to gain from building a single context on another thread
+            return new ArrayList<JAXBContext>();
+        }
+        return JAXBContextCache.preload(contextPaths, types);
+    }
+
     /**
      * Factory method for auto-adding JAXB Transformers for a Service interface.
      * @param serviceClass The Service class.
@@ -23,6 +23,7 @@ import javax.xml.transform.Source;
 
 import org.switchyard.Message;
 import org.switchyard.SwitchYardException;
+import org.switchyard.common.util.ObjectPool;
 import org.switchyard.common.xml.QNameUtil;
 import org.switchyard.config.model.Scannable;
 import org.switchyard.transform.BaseTransformer;
@@ -30,6 +31,9 @@ import org.switchyard.transform.internal.TransformMessages;
 
 /**
  * JAXB Unmarshalling transformer.
+ * <p/>
+ * Unmarshallers are not thread safe, so each one is borrowed from a small pool
+ * owned by the transformer for the length of a single transformation.
  *
  * @author <a href="mailto:tom.fennelly@gmail.com">tom.fennelly@gmail.com</a>
  *
@@ -40,6 +44,16 @@ import org.switchyard.transform.internal.TransformMessages;
 public class JAXBUnmarshalTransformer<F, T> extends BaseTransformer<Message, Message> {
 
     private JAXBContext _jaxbContext;
+    private final ObjectPool<Unmarshaller> _unmarshallers = new ObjectPool<Unmarshaller>() {
+        @Override
+        protected Unmarshaller create() {
+            try {
+                return _jaxbContext.createUnmarshaller();
+            } catch (JAXBException e) {
+                throw TransformMessages.MESSAGES.failedToCreateMarshaller(getTo().toString(), e);
+            }
+        }
+    };
 
     /**
      * Public constructor.
@@ -52,9 +66,9 @@ public class JAXBUnmarshalTransformer<F, T> extends BaseTransformer<Message, Mes
         super(from, to);
         try {
             if (contextPath != null) {
-                _jaxbContext = JAXBContext.newInstance(contextPath);
+                _jaxbContext = JAXBContextCache.getContext(contextPath);
             } else {
-                _jaxbContext = JAXBContext.newInstance(QNameUtil.toJavaMessageType(to));
+                _jaxbContext = JAXBContextCache.getContext(QNameUtil.toJavaMessageType(to));
             }
         } catch (JAXBException e) {
             throw TransformMessages.MESSAGES.failedToCreateJAXBContext(to.toString(), e);
@@ -63,13 +77,7 @@ public class JAXBUnmarshalTransformer<F, T> extends BaseTransformer<Message, Mes
 
     @Override
     public Message transform(Message message) {
-        Unmarshaller unmarshaller;
-
-        try {
-            unmarshaller = _jaxbContext.createUnmarshaller();
-        } catch (JAXBException e) {
-            throw TransformMessages.MESSAGES.failedToCreateMarshaller(getTo().toString(), e);
-        }
+        Unmarshaller unmarshaller = _unmarshallers.acquire();
 
         try {
             Object unmarshalledObject = unmarshaller.unmarshal(message.getContent(Source.class));
@@ -80,9 +88,20 @@ public class JAXBUnmarshalTransformer<F, T> extends BaseTransformer<Message, Mes
                 message.setContent(unmarshalledObject);
             }
         } catch (JAXBException e) {
+            // don't give back an unmarshaller which may have been left in a broken state
             throw TransformMessages.MESSAGES.failedToUnmarshallForType(getTo().toString(), e);
         }
+        _unmarshallers.release(unmarshaller);
 
         return message;
     }
+
+    @Override
+    public void destroy() {
+        _unmarshallers.clear();
+    }
+
+    JAXBContext getJAXBContext() {
+        return _jaxbContext;
+    }
 }
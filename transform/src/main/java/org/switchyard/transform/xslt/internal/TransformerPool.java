@@ -13,30 +13,66 @@
  */
 package org.switchyard.transform.xslt.internal;
 
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.xml.transform.ErrorListener;
 import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 
 import org.jboss.logging.Logger;
+import org.switchyard.transform.internal.TransformLogger;
+import org.switchyard.transform.internal.TransformMessages;
 
 /**
  * Provides a pool of javax.xml.transform.Transformer instances which are
- * created on demand and bounded by a pool maxSize.  If a pooled instance
- * is not available, clients block FIFO style until a transformer is returned
- * to the pool.
+ * created on demand and bounded by a pool maxSize.  Idle instances are kept in
+ * slots, each thread starts looking for one at its own slot so it usually gets
+ * back the transformer it used last time without contending with others.
+ * <p/>
+ * If a pooled instance is not available and the pool is exhausted, clients
+ * wait up to the acquire timeout and then fail.  Under burst up to burstSize
+ * additional transformers can be created, these are dropped when returned to
+ * a full pool.  Transformers idle for longer than the idle timeout are evicted.
  */
-public class TransformerPool {
+public class TransformerPool implements TransformerPoolMXBean {
+
+    /**
+     * Default time in milliseconds a client waits for a transformer.
+     */
+    public static final long DEFAULT_ACQUIRE_TIMEOUT = 30000;
+
+    /**
+     * Default time in milliseconds after which idle transformer is evicted.
+     */
+    public static final long DEFAULT_IDLE_TIMEOUT = 300000;
+
     private Logger _logger = Logger.getLogger(TransformerPool.class);
     
-    private BlockingQueue<Transformer> _pool;
-    private Templates _templates;
-    private AtomicInteger _count = new AtomicInteger(0);
-    private int _maxSize;
-    private ErrorListener _errorListener;
+    private final Templates _templates;
+    private final int _maxSize;
+    private final ErrorListener _errorListener;
+    private final AtomicReferenceArray<Slot> _slots;
+    private final Permits _permits;
+    private final AtomicInteger _size = new AtomicInteger(0);
+    private final AtomicLong _nextEviction = new AtomicLong(System.nanoTime());
+    private volatile int _burstSize;
+    private volatile long _acquireTimeout = DEFAULT_ACQUIRE_TIMEOUT;
+    private volatile long _idleTimeout = DEFAULT_IDLE_TIMEOUT;
+    private ObjectName _objectName;
+
+    private final AtomicLong _borrowed = new AtomicLong();
+    private final AtomicLong _created = new AtomicLong();
+    private final AtomicLong _evicted = new AtomicLong();
+    private final AtomicLong _waited = new AtomicLong();
+    private final AtomicLong _waitTime = new AtomicLong();
+    private final AtomicLong _timeouts = new AtomicLong();
     
     /**
      * Create a new Transformer pool.
@@ -57,50 +93,276 @@ public class TransformerPool {
         _templates = templates;
         _maxSize = maxSize;
         _errorListener = errorListener;
-        _pool = new ArrayBlockingQueue<Transformer>(maxSize, true);
-        
+        _slots = new AtomicReferenceArray<Slot>(maxSize);
+        _permits = new Permits(maxSize);
     }
 
     /**
      * Asks the pool for an available Transformer instance.  If a pooled
      * instance is available, then it is returned immediately.  If not, 
-     * a new instance will be created and added to the pool if the pool
-     * has not grown to maxSize yet.  Blocked clients are served in 
-     * FIFO order.
+     * a new instance will be created if the pool has not grown to maxSize
+     * (plus burstSize) yet, otherwise the client waits for one to be returned.
      * @return Transformer instance
-     * @throws Exception failed during creation of a transformer instance
+     * @throws Exception failed during creation of a transformer instance or
+     * no transformer became available within acquire timeout
      */
     public Transformer take() throws Exception {
-        Transformer t = _pool.poll();
-        if (t != null) {
-            return t;
+        if (!_permits.tryAcquire()) {
+            _waited.incrementAndGet();
+            long start = System.nanoTime();
+            boolean acquired;
+            try {
+                acquired = _permits.tryAcquire(_acquireTimeout, TimeUnit.MILLISECONDS);
+            } finally {
+                _waitTime.addAndGet(System.nanoTime() - start);
+            }
+            if (!acquired) {
+                _timeouts.incrementAndGet();
+                throw TransformMessages.MESSAGES.transformerPoolExhausted(_maxSize + _burstSize, _acquireTimeout);
+            }
         }
-        
-        // nothing available - so we need to create or wait
-        if (_count.get() < _maxSize) {
-            addTransformer();
+
+        Transformer t = poll();
+        if (t == null) {
+            try {
+                t = newTransformer();
+            } catch (Exception e) {
+                _permits.release();
+                throw e;
+            }
         }
-        return _pool.take();
+        _borrowed.incrementAndGet();
+        return t;
     }
     
     /**
-     * Returns a pooled Transformer instance to the pool.
+     * Returns a Transformer instance obtained by {@link #take()} to the pool.
      * @param transformer pooled transformer
-     * @return true if the transformer was added to the pool, false otherwise
+     * @return true if the transformer was added to the pool, false if it was
+     * dropped because the pool is full
      */
     public boolean give(Transformer transformer) {
-        return _pool.offer(transformer);
+        boolean pooled = offer(new Slot(transformer, System.nanoTime()));
+        if (!pooled) {
+            _size.decrementAndGet();
+            if (_logger.isDebugEnabled()) {
+                _logger.debug("Pool is full, dropping " + transformer);
+            }
+        }
+        _permits.release();
+        evictIdle();
+        return pooled;
     }
-    
-    private void addTransformer() throws Exception {
+
+    /**
+     * Sets number of transformers which may be created above max size under burst.
+     * @param burstSize number of additional transformers
+     */
+    public synchronized void setBurstSize(int burstSize) {
+        int delta = Math.max(burstSize, 0) - _burstSize;
+        if (delta > 0) {
+            _permits.release(delta);
+        } else if (delta < 0) {
+            _permits.reduce(-delta);
+        }
+        _burstSize += delta;
+    }
+
+    /**
+     * Sets time a client waits for a transformer when the pool is exhausted.
+     * @param acquireTimeout timeout in milliseconds
+     */
+    public void setAcquireTimeout(long acquireTimeout) {
+        _acquireTimeout = acquireTimeout;
+    }
+
+    /**
+     * Sets time after which idle transformer is evicted.
+     * @param idleTimeout timeout in milliseconds, zero or less disables eviction
+     */
+    public void setIdleTimeout(long idleTimeout) {
+        _idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Registers this pool with the platform MBean server.
+     * @param objectName name of the MBean
+     */
+    public synchronized void register(ObjectName objectName) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(this, objectName);
+            _objectName = objectName;
+        } catch (Exception e) {
+            TransformLogger.ROOT_LOGGER.unableToRegisterTransformerPool(objectName.toString(), e);
+        }
+    }
+
+    /**
+     * Removes this pool from the platform MBean server if it was registered.
+     */
+    public synchronized void unregister() {
+        if (_objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(_objectName);
+        } catch (Exception e) {
+            _logger.debug("Failed to unregister " + _objectName, e);
+        }
+        _objectName = null;
+    }
+
+    @Override
+    public int getMaxSize() {
+        return _maxSize;
+    }
+
+    @Override
+    public int getBurstSize() {
+        return _burstSize;
+    }
+
+    @Override
+    public int getSize() {
+        return _size.get();
+    }
+
+    @Override
+    public int getIdleCount() {
+        int idle = 0;
+        for (int i = 0; i < _slots.length(); i++) {
+            if (_slots.get(i) != null) {
+                idle++;
+            }
+        }
+        return idle;
+    }
+
+    @Override
+    public long getBorrowedCount() {
+        return _borrowed.get();
+    }
+
+    @Override
+    public long getCreatedCount() {
+        return _created.get();
+    }
+
+    @Override
+    public long getEvictedCount() {
+        return _evicted.get();
+    }
+
+    @Override
+    public long getWaitedCount() {
+        return _waited.get();
+    }
+
+    @Override
+    public long getWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(_waitTime.get());
+    }
+
+    @Override
+    public long getTimeoutCount() {
+        return _timeouts.get();
+    }
+
+    @Override
+    public long getAcquireTimeout() {
+        return _acquireTimeout;
+    }
+
+    @Override
+    public long getIdleTimeout() {
+        return _idleTimeout;
+    }
+
+    private Transformer newTransformer() throws Exception {
         Transformer transformer = _templates.newTransformer();
         if (_errorListener != null) {
             transformer.setErrorListener(_errorListener);
         }
-        _count.incrementAndGet();
-        boolean result = _pool.offer(transformer);
-        if ((!result) && (_logger.isDebugEnabled())) {
-            _logger.debug("Unable to add " + transformer.toString() + " to blocking queue");
+        _size.incrementAndGet();
+        _created.incrementAndGet();
+        return transformer;
+    }
+
+    private Transformer poll() {
+        int length = _slots.length();
+        int start = stripe(length);
+        for (int i = 0; i < length; i++) {
+            int index = (start + i) % length;
+            Slot slot = _slots.get(index);
+            if (slot != null && _slots.compareAndSet(index, slot, null)) {
+                return slot._transformer;
+            }
+        }
+        return null;
+    }
+
+    private boolean offer(Slot slot) {
+        int length = _slots.length();
+        int start = stripe(length);
+        for (int i = 0; i < length; i++) {
+            int index = (start + i) % length;
+            if (_slots.get(index) == null && _slots.compareAndSet(index, null, slot)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void evictIdle() {
+        long idleTimeout = _idleTimeout;
+        if (idleTimeout <= 0) {
+            return;
+        }
+        // sweep at most twice per idle timeout, by whichever thread gets there first
+        long now = System.nanoTime();
+        long next = _nextEviction.get();
+        long timeout = TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+        if (now - next < 0 || !_nextEviction.compareAndSet(next, now + timeout / 2)) {
+            return;
+        }
+        for (int i = 0; i < _slots.length(); i++) {
+            Slot slot = _slots.get(i);
+            if (slot != null && now - slot._idleSince > timeout && _slots.compareAndSet(i, slot, null)) {
+                _size.decrementAndGet();
+                _evicted.incrementAndGet();
+            }
+        }
+    }
+
+    private static int stripe(int length) {
+        return (int) (Thread.currentThread().getId() % length);
+    }
+
+    /**
+     * Idle transformer together with time it was returned to the pool.
+     */
+    private static final class Slot {
+        private final Transformer _transformer;
+        private final long _idleSince;
+
+        Slot(Transformer transformer, long idleSince) {
+            _transformer = transformer;
+            _idleSince = idleSince;
+        }
+    }
+
+    /**
+     * Semaphore which can take permits away when burst size shrinks.
+     */
+    @SuppressWarnings("serial")
+    private static final class Permits extends Semaphore {
+        Permits(int permits) {
+            super(permits);
+        }
+
+        void reduce(int reduction) {
+            reducePermits(reduction);
         }
     }
     
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.switchyard.transform.xslt.internal;
+
+/**
+ * Management interface of {@link TransformerPool}.
+ */
+public interface TransformerPoolMXBean {
+
+    /**
+     * @return maximum number of transformers kept in the pool
+     */
+    int getMaxSize();
+
+    /**
+     * @return number of transformers which may be created above max size under burst
+     */
+    int getBurstSize();
+
+    /**
+     * @return number of transformers currently owned by the pool, idle or borrowed
+     */
+    int getSize();
+
+    /**
+     * @return number of idle transformers
+     */
+    int getIdleCount();
+
+    /**
+     * @return number of successful take calls
+     */
+    long getBorrowedCount();
+
+    /**
+     * @return number of transformers created
+     */
+    long getCreatedCount();
+
+    /**
+     * @return number of idle transformers evicted
+     */
+    long getEvictedCount();
+
+    /**
+     * @return number of take calls which had to wait for a transformer
+     */
+    long getWaitedCount();
+
+    /**
+     * @return total time in milliseconds spent waiting for a transformer
+     */
+    long getWaitTime();
+
+    /**
+     * @return number of take calls which timed out
+     */
+    long getTimeoutCount();
+
+    /**
+     * @return time in milliseconds take waits for a transformer
+     */
+    long getAcquireTimeout();
+
+    /**
+     * @return time in milliseconds after which an idle transformer is evicted
+     */
+    long getIdleTimeout();
+}
@@ -15,7 +15,10 @@ package org.switchyard.transform.xslt.internal;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Hashtable;
 
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
 import javax.xml.namespace.QName;
 import javax.xml.transform.ErrorListener;
 import javax.xml.transform.Templates;
@@ -47,6 +50,26 @@ public final class XsltTransformFactory implements TransformerFactory<XsltTransf
      * Default max size for transformer pool.
      */
     public static final int DEFAULT_MAX_POOL_SIZE = 50;
+    /**
+     * Property used in a domain property to configure number of transformers created above max pool size under burst.
+     */
+    public static final String POOL_BURST_SIZE = "org.switchyard.transform.xslt.poolBurstSize";
+    /**
+     * Property used in a domain property to configure time in milliseconds to wait for a pooled transformer.
+     */
+    public static final String POOL_ACQUIRE_TIMEOUT = "org.switchyard.transform.xslt.poolAcquireTimeout";
+    /**
+     * Property used in a domain property to configure time in milliseconds after which idle transformer is evicted.
+     */
+    public static final String POOL_IDLE_TIMEOUT = "org.switchyard.transform.xslt.poolIdleTimeout";
+    /**
+     * Property used in a domain property to register transformer pools as MBeans.
+     */
+    public static final String POOL_JMX = "org.switchyard.transform.xslt.poolJmx";
+    /**
+     * Domain of the transformer pool MBeans.
+     */
+    public static final String POOL_JMX_DOMAIN = "org.switchyard.transform";
     
     /**
      * Create a {@link Transformer} instance from the supplied {@link XsltTransformModel}.
@@ -76,7 +99,10 @@ public final class XsltTransformFactory implements TransformerFactory<XsltTransf
             tFactory.setURIResolver(new XsltUriResolver());
             Templates templates = tFactory.newTemplates(new StreamSource(stylesheetStream));
             
-            return new XsltTransformer(from, to, templates, failOnWarning, getTransformPoolSize(model));
+            XsltTransformer transformer = new XsltTransformer(
+                    from, to, templates, failOnWarning, getTransformPoolSize(model), model.isStreaming());
+            configurePool(transformer.getTransformerPool(), model, domain != null ? domain.getName() : null, from, to);
+            return transformer;
         } catch (TransformerConfigurationException e) {
             throw TransformMessages.MESSAGES.unexpectedErrorOcurred(e);
         } catch (IOException e) {
@@ -87,20 +113,57 @@ public final class XsltTransformFactory implements TransformerFactory<XsltTransf
     // This method looks for the MAX_POOL_SIZE property within switchyard.xml to 
     // configure the default transformer pool size
     int getTransformPoolSize(XsltTransformModel model) {
-        int poolSize = DEFAULT_MAX_POOL_SIZE;
+        String poolSize = getDomainProperty(model, MAX_POOL_SIZE);
+        return poolSize != null ? Integer.parseInt(poolSize) : DEFAULT_MAX_POOL_SIZE;
+    }
+
+    // Applies the remaining POOL_* domain properties to the transformer pool; the MBean is named
+    // after the application's domain too, since several applications may transform the same types
+    void configurePool(TransformerPool pool, XsltTransformModel model, QName application, QName from, QName to) {
+        if (pool == null) {
+            return;
+        }
+        String burstSize = getDomainProperty(model, POOL_BURST_SIZE);
+        if (burstSize != null) {
+            pool.setBurstSize(Integer.parseInt(burstSize));
+        }
+        String acquireTimeout = getDomainProperty(model, POOL_ACQUIRE_TIMEOUT);
+        if (acquireTimeout != null) {
+            pool.setAcquireTimeout(Long.parseLong(acquireTimeout));
+        }
+        String idleTimeout = getDomainProperty(model, POOL_IDLE_TIMEOUT);
+        if (idleTimeout != null) {
+            pool.setIdleTimeout(Long.parseLong(idleTimeout));
+        }
+        if (Boolean.parseBoolean(getDomainProperty(model, POOL_JMX))) {
+            Hashtable<String, String> keys = new Hashtable<String, String>();
+            keys.put("type", "XsltTransformerPool");
+            if (application != null) {
+                keys.put("application", ObjectName.quote(application.toString()));
+            }
+            keys.put("from", ObjectName.quote(String.valueOf(from)));
+            keys.put("to", ObjectName.quote(String.valueOf(to)));
+            try {
+                pool.register(new ObjectName(POOL_JMX_DOMAIN, keys));
+            } catch (MalformedObjectNameException e) {
+                TransformLogger.ROOT_LOGGER.unableToRegisterTransformerPool(keys.toString(), e);
+            }
+        }
+    }
+
+    private String getDomainProperty(XsltTransformModel model, String name) {
         // attempt to navigate to parent
         Model root = model.getModelRoot();
         if (root instanceof SwitchYardModel) {
             SwitchYardModel syModel = (SwitchYardModel)root;
             if (syModel.getDomain() != null && syModel.getDomain().getProperties() != null) {
-                PropertyModel poolProp = 
-                        syModel.getDomain().getProperties().getProperty(MAX_POOL_SIZE);
-                if (poolProp != null) {
-                    poolSize = Integer.parseInt(poolProp.getValue());
+                PropertyModel prop = syModel.getDomain().getProperties().getProperty(name);
+                if (prop != null) {
+                    return prop.getValue();
                 }
             }
         }
-        return poolSize;
+        return null;
     }
     
     private class XsltTransformFactoryErrorListener implements ErrorListener {
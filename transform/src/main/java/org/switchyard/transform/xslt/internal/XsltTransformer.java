@@ -14,12 +14,25 @@
 
 package org.switchyard.transform.xslt.internal;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.ErrorListener;
+import javax.xml.transform.Source;
 import javax.xml.transform.Templates;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.stax.StAXSource;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
 
 import org.jboss.logging.Logger;
 import org.switchyard.Message;
@@ -28,6 +41,7 @@ import org.switchyard.transform.BaseTransformer;
 import org.switchyard.transform.internal.TransformLogger;
 import org.switchyard.transform.internal.TransformMessages;
 import org.w3c.dom.Document;
+import org.w3c.dom.Node;
 
 /**
  * XSLT Transformer {@link org.switchyard.transform.Transformer}.
@@ -43,6 +57,7 @@ public class XsltTransformer<F, T> extends BaseTransformer<Message, Message> {
     private Templates _templates;
     private TransformerPool _transformerPool;
     private boolean  _failOnWarning;
+    private boolean _streaming;
     
     /**
      * Public constructor.
@@ -54,9 +69,24 @@ public class XsltTransformer<F, T> extends BaseTransformer<Message, Message> {
      * @param maxPoolSize maximum size for the transformer pool
      */
     public XsltTransformer(QName from, QName to, Templates templates, boolean failOnWarning, int maxPoolSize) {
+        this(from, to, templates, failOnWarning, maxPoolSize, false);
+    }
+
+    /**
+     * Public constructor.
+     * 
+     * @param from From type.
+     * @param to To type.
+     * @param templates XSL Template instance
+     * @param failOnWarning whether a warning should be reported as an SwitchYardException or just log
+     * @param maxPoolSize maximum size for the transformer pool
+     * @param streaming whether content is read from a stream and the result written as a String
+     */
+    public XsltTransformer(QName from, QName to, Templates templates, boolean failOnWarning, int maxPoolSize, boolean streaming) {
         super(from, to);
         this._templates = templates;
         this._failOnWarning = failOnWarning;
+        this._streaming = streaming;
         // max pool size < 0 indicates that pooling should be disabled
         if (maxPoolSize > 0) {
             _transformerPool = new TransformerPool(
@@ -69,9 +99,9 @@ public class XsltTransformer<F, T> extends BaseTransformer<Message, Message> {
         javax.xml.transform.Transformer transformer = null;
         
         try {
-            DOMSource source = message.getContent(DOMSource.class);
-            DOMResult result = new DOMResult();
-            
+            Object content = message.getContent();
+            boolean streaming = _streaming && !(content instanceof Node);
+
             if (_transformerPool != null) {
                 transformer = _transformerPool.take();
             } else {
@@ -80,8 +110,19 @@ public class XsltTransformer<F, T> extends BaseTransformer<Message, Message> {
                 transformer.setErrorListener(new XsltTransformerErrorListener(_failOnWarning));
             }
             
-            transformer.transform(source, result);
-            message.setContent(((Document)result.getNode()).getDocumentElement());
+            if (streaming) {
+                // no DOM tree is built for either the input or the output, but the output is still
+                // held whole in a String, since the message carries content rather than a stream
+                StringWriter writer = new StringWriter();
+                transformer.transform(getStreamSource(message, content), new StreamResult(writer));
+                message.setContent(writer.toString());
+            } else {
+                DOMSource source = content instanceof Node
+                        ? new DOMSource((Node) content) : message.getContent(DOMSource.class);
+                DOMResult result = new DOMResult();
+                transformer.transform(source, result);
+                message.setContent(((Document)result.getNode()).getDocumentElement());
+            }
 
         } catch (Exception e) {
             throw TransformMessages.MESSAGES.errorDuringXsltTransformation(e);
@@ -93,6 +134,44 @@ public class XsltTransformer<F, T> extends BaseTransformer<Message, Message> {
         return message;
     }
     
+    boolean isStreaming() {
+        return _streaming;
+    }
+
+    private Source getStreamSource(Message message, Object content) throws XMLStreamException {
+        if (content instanceof Source) {
+            return (Source) content;
+        } else if (content instanceof String) {
+            return new StreamSource(new StringReader((String) content));
+        } else if (content instanceof InputStream) {
+            return new StreamSource((InputStream) content);
+        } else if (content instanceof Reader) {
+            return new StreamSource((Reader) content);
+        } else if (content instanceof byte[]) {
+            return new StreamSource(new ByteArrayInputStream((byte[]) content));
+        } else if (content instanceof XMLStreamReader) {
+            return new StAXSource((XMLStreamReader) content);
+        } else if (content instanceof XMLEventReader) {
+            return new StAXSource((XMLEventReader) content);
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Content of type " + (content != null ? content.getClass().getName() : null)
+                    + " can't be streamed, converting it to DOM");
+        }
+        return message.getContent(DOMSource.class);
+    }
+
+    /**
+     * Releases resources held by this transformer, unregistering the
+     * transformer pool MBean if one was registered.
+     */
+    @Override
+    public void destroy() {
+        if (_transformerPool != null) {
+            _transformerPool.unregister();
+        }
+    }
+
     TransformerPool getTransformerPool() {
         return _transformerPool;
     }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.transform.jaxb.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.namespace.QName;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.switchyard.AllocationCounter;
+import org.switchyard.metadata.JavaTypes;
+
+/**
+ * Checks that JAXB transformers share the cached context, and compares time and
+ * allocation of creating many transformers against a context each.
+ */
+public class JAXBContextBenchmarkTest {
+
+    private static final String CONTEXT_PATH = "org.switchyard.transform.jaxb.internal";
+
+    @Test
+    public void transformersShareContext() throws Exception {
+        JAXBContextCache.clear(Thread.currentThread().getContextClassLoader());
+        QName poType = JavaTypes.toMessageType(POType.class);
+        JAXBMarshalTransformer<?, ?> first = new JAXBMarshalTransformer<Object, Object>(poType, new QName("A"), CONTEXT_PATH);
+        JAXBMarshalTransformer<?, ?> second = new JAXBMarshalTransformer<Object, Object>(poType, new QName("B"), CONTEXT_PATH);
+        Assert.assertSame(JAXBContextCache.getContext(CONTEXT_PATH), first.getJAXBContext());
+        Assert.assertSame(first.getJAXBContext(), second.getJAXBContext());
+    }
+
+    @Test
+    public void uncachedVersusCached() throws Exception {
+        boolean debug = false; // toggle this is you're interested in performance
+        int count = debug ? 50 : 2;
+
+        // warm up
+        run(false, count, false);
+        run(true, count, false);
+
+        Assert.assertEquals(count, run(false, count, debug));
+        Assert.assertEquals(count, run(true, count, debug));
+    }
+
+    private int run(boolean cached, int count, boolean debug) throws Exception {
+        JAXBContextCache.clear(Thread.currentThread().getContextClassLoader());
+        List<Object> transformers = new ArrayList<Object>();
+        QName poType = JavaTypes.toMessageType(POType.class);
+        long bytes = AllocationCounter.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            if (cached) {
+                transformers.add(new JAXBMarshalTransformer<Object, Object>(poType, new QName("A" + i), CONTEXT_PATH));
+            } else {
+                // what every transformer used to do
+                transformers.add(JAXBContext.newInstance(CONTEXT_PATH));
+            }
+        }
+        long time = System.nanoTime() - start;
+        bytes = AllocationCounter.allocatedSince(bytes);
+
+        if (debug) {
+            System.out.println(String.format("%s creation of %d JAXB transformers: %d ms, %s KB allocated",
+                cached ? "Cached" : "Uncached", transformers.size(), time / 1000000,
+                bytes < 0 ? "n/a" : String.valueOf(bytes / 1024)));
+        }
+        return transformers.size();
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.switchyard.transform.jaxb.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.namespace.QName;
+
+import org.junit.Before;
+import org.junit.Assert;
+import org.junit.Test;
+import org.switchyard.config.model.ModelPuller;
+import org.switchyard.config.model.switchyard.SwitchYardModel;
+import org.switchyard.internal.transform.BaseTransformerRegistry;
+import org.switchyard.metadata.JavaTypes;
+import org.switchyard.transform.internal.TransformerRegistryLoader;
+
+public class JAXBContextCacheTest {
+
+    private static final String CONTEXT_PATH = "org.switchyard.transform.jaxb.internal";
+
+    @Before
+    public void clear() {
+        JAXBContextCache.clear(Thread.currentThread().getContextClassLoader());
+        JAXBContextCache.clear(POType.class.getClassLoader());
+    }
+
+    @Test
+    public void contextSharedByTransformers() throws Exception {
+        QName poType = JavaTypes.toMessageType(POType.class);
+        JAXBMarshalTransformer<?, ?> marshal = new JAXBMarshalTransformer<Object, Object>(poType, new QName("A"), CONTEXT_PATH);
+        JAXBUnmarshalTransformer<?, ?> unmarshal = new JAXBUnmarshalTransformer<Object, Object>(new QName("A"), poType, CONTEXT_PATH);
+
+        JAXBContext context = JAXBContextCache.getContext(CONTEXT_PATH);
+        Assert.assertSame(context, marshal.getJAXBContext());
+        Assert.assertSame(context, unmarshal.getJAXBContext());
+    }
+
+    @Test
+    public void contextPerClass() throws Exception {
+        JAXBContext context = JAXBContextCache.getContext(POType.class);
+        Assert.assertSame(context, JAXBContextCache.getContext(POType.class));
+        Assert.assertNotSame(context, JAXBContextCache.getContext(CONTEXT_PATH));
+        Assert.assertNotSame(context, JAXBContextCache.getContext(USAddress.class));
+    }
+
+    @Test
+    public void invalidContextPath() throws Exception {
+        try {
+            JAXBContextCache.getContext("org.switchyard.transform.jaxb.missing");
+            Assert.fail("Expected JAXBException");
+        } catch (JAXBException e) {
+            // expected, and not cached
+            Assert.assertEquals(0, JAXBContextCache.size(Thread.currentThread().getContextClassLoader()));
+        }
+    }
+
+    @Test
+    public void preload() throws Exception {
+        List<Class<?>> types = Arrays.<Class<?>>asList(POType.class, USAddress.class);
+        List<JAXBContext> contexts = JAXBContextCache.preload(Arrays.asList(CONTEXT_PATH, "org.switchyard.transform.jaxb.missing"), types);
+
+        // the invalid context path is skipped
+        Assert.assertEquals(3, contexts.size());
+        Assert.assertSame(contexts.get(0), JAXBContextCache.getContext(CONTEXT_PATH));
+        Assert.assertSame(contexts.get(1), JAXBContextCache.getContext(POType.class));
+        Assert.assertSame(contexts.get(2), JAXBContextCache.getContext(USAddress.class));
+        Assert.assertTrue(JAXBContextCache.preload(Collections.<String>emptyList(), Collections.<Class<?>>emptyList()).isEmpty());
+    }
+
+    @Test
+    public void clearLoader() throws Exception {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        JAXBContext context = JAXBContextCache.getContext(CONTEXT_PATH);
+        Assert.assertEquals(1, JAXBContextCache.size(loader));
+        JAXBContextCache.clear(loader);
+        Assert.assertEquals(0, JAXBContextCache.size(loader));
+        Assert.assertNotSame(context, JAXBContextCache.getContext(CONTEXT_PATH));
+    }
+    @Test
+    public void clearedOnUnregister() throws Exception {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        SwitchYardModel config = new ModelPuller<SwitchYardModel>().pull(
+                "org/switchyard/transform/jaxb/internal/switchyard-config-02.xml", JAXBContextCacheTest.class);
+        TransformerRegistryLoader registryLoader = new TransformerRegistryLoader(new BaseTransformerRegistry());
+        registryLoader.registerTransformers(config.getTransforms());
+        Assert.assertEquals(1, JAXBContextCache.size(loader));
+        registryLoader.unregisterTransformers();
+        Assert.assertEquals(0, JAXBContextCache.size(loader));
+    }
+
+}
@@ -30,7 +30,9 @@ import org.switchyard.internal.DefaultMessage;
 import org.switchyard.metadata.JavaTypes;
 import org.switchyard.transform.AbstractTransformerTestCase;
 import org.switchyard.transform.Transformer;
+import org.switchyard.transform.config.model.JAXBResultType;
 import org.switchyard.transform.config.model.JAXBTransformModel;
+import org.w3c.dom.Element;
 import org.xml.sax.SAXException;
 
 /**
@@ -79,6 +81,74 @@ public class JAXBTransformerTest extends AbstractTransformerTestCase {
         }
     }
 
+    @Test
+    public void test_configReadOutputMode() throws IOException {
+        JAXBMarshalTransformer marshalTransformer = (JAXBMarshalTransformer) getTransformer("switchyard-config-04.xml");
+        Assert.assertFalse(marshalTransformer.isFormatted());
+        Assert.assertEquals(JAXBResultType.DOM, marshalTransformer.getResultType());
+
+        // defaults keep the formatted String output
+        marshalTransformer = (JAXBMarshalTransformer) getTransformer("switchyard-config-02.xml");
+        Assert.assertTrue(marshalTransformer.isFormatted());
+        Assert.assertEquals(JAXBResultType.STRING, marshalTransformer.getResultType());
+    }
+
+    @Test
+    public void test_compactOutput() throws Exception {
+        JAXBMarshalTransformer marshalTransformer = new JAXBMarshalTransformer(
+                JavaTypes.toMessageType(POType.class), new QName("purchaseOrder"), null, false, JAXBResultType.STRING);
+
+        String resultXML = roundTrip(marshalTransformer).getContent(String.class);
+        Assert.assertFalse(resultXML.contains("\n"));
+        XMLUnit.setIgnoreWhitespace(true);
+        Assert.assertTrue(XMLUnit.compareXML(PO_XML, resultXML).similar());
+    }
+
+    @Test
+    public void test_bytesOutput() throws Exception {
+        JAXBMarshalTransformer marshalTransformer = new JAXBMarshalTransformer(
+                JavaTypes.toMessageType(POType.class), new QName("purchaseOrder"), null, false, JAXBResultType.BYTES);
+
+        Object content = roundTrip(marshalTransformer).getContent();
+        Assert.assertTrue(content instanceof byte[]);
+        XMLUnit.setIgnoreWhitespace(true);
+        Assert.assertTrue(XMLUnit.compareXML(PO_XML, new String((byte[]) content, "UTF-8")).similar());
+    }
+
+    @Test
+    public void test_domOutput() throws Exception {
+        JAXBMarshalTransformer marshalTransformer = new JAXBMarshalTransformer(
+                JavaTypes.toMessageType(POType.class), new QName("purchaseOrder"), null, false, JAXBResultType.DOM);
+
+        Object content = roundTrip(marshalTransformer).getContent();
+        Assert.assertTrue(content instanceof Element);
+        Assert.assertEquals("purchaseOrder", ((Element) content).getLocalName());
+        Assert.assertEquals(3, ((Element) content).getElementsByTagName("item").getLength());
+    }
+
+    @Test
+    public void test_marshallerReused() throws Exception {
+        JAXBMarshalTransformer marshalTransformer = new JAXBMarshalTransformer(
+                JavaTypes.toMessageType(POType.class), new QName("purchaseOrder"), null);
+
+        String first = roundTrip(marshalTransformer).getContent(String.class);
+        String second = roundTrip(marshalTransformer).getContent(String.class);
+        Assert.assertEquals(first, second);
+        // a destroyed transformer drops its pooled marshallers but can still create new ones
+        marshalTransformer.destroy();
+        Assert.assertEquals(first, roundTrip(marshalTransformer).getContent(String.class));
+    }
+
+    private DefaultMessage roundTrip(JAXBMarshalTransformer marshalTransformer) {
+        JAXBUnmarshalTransformer unmarshalTransformer = new JAXBUnmarshalTransformer(
+                new QName("purchaseOrder"), JavaTypes.toMessageType(POType.class), null);
+
+        DefaultMessage message = new DefaultMessage();
+        message.setContent(new StreamSource(new StringReader(PO_XML)));
+        unmarshalTransformer.transform(message);
+        return (DefaultMessage) marshalTransformer.transform(message);
+    }
+
     @Test
     public void test_createMissingFactoryMethodMessage() throws IOException, SAXException {
         String message = JAXBTransformerFactory.createMissingFactoryMethodMessage(
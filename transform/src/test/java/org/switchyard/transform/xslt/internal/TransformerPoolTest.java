@@ -14,7 +14,10 @@
 package org.switchyard.transform.xslt.internal;
 
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
@@ -23,6 +26,7 @@ import javax.xml.transform.stream.StreamSource;
 import junit.framework.Assert;
 
 import org.junit.Test;
+import org.switchyard.SwitchYardException;
 import org.switchyard.transform.xslt.internal.TransformerPool;
 import org.switchyard.transform.xslt.internal.XsltUriResolver;
 
@@ -76,4 +80,80 @@ public class TransformerPoolTest {
         Assert.assertEquals(t, t2);
     }
     
+    @Test
+    public void timeoutOnTake() throws Exception {
+        TransformerPool pool = new TransformerPool(templates, 1);
+        pool.setAcquireTimeout(100);
+        pool.take();
+        try {
+            pool.take();
+            Assert.fail("Pool should be exhausted");
+        } catch (SwitchYardException e) {
+            Assert.assertTrue(e.getMessage().contains("SWITCHYARD016863"));
+        }
+        Assert.assertEquals(1, pool.getWaitedCount());
+        Assert.assertEquals(1, pool.getTimeoutCount());
+    }
+
+    @Test
+    public void burstAboveMaxSize() throws Exception {
+        TransformerPool pool = new TransformerPool(templates, 1);
+        pool.setBurstSize(1);
+        pool.setAcquireTimeout(100);
+        Transformer t1 = pool.take();
+        Transformer t2 = pool.take();
+        Assert.assertNotSame(t1, t2);
+        Assert.assertEquals(2, pool.getSize());
+        Assert.assertEquals(0, pool.getWaitedCount());
+
+        // only max size transformers are kept once returned
+        Assert.assertTrue(pool.give(t1));
+        Assert.assertFalse(pool.give(t2));
+        Assert.assertEquals(1, pool.getSize());
+        Assert.assertEquals(1, pool.getIdleCount());
+
+        pool.setBurstSize(0);
+        pool.take();
+        try {
+            pool.take();
+            Assert.fail("Pool should be exhausted");
+        } catch (SwitchYardException e) {
+            Assert.assertEquals(1, pool.getTimeoutCount());
+        }
+    }
+
+    @Test
+    public void evictIdle() throws Exception {
+        TransformerPool pool = new TransformerPool(templates, 2);
+        pool.setIdleTimeout(50);
+        Transformer t1 = pool.take();
+        Transformer t2 = pool.take();
+        pool.give(t1);
+        Thread.sleep(100);
+        // returning t2 sweeps t1 out of the pool
+        pool.give(t2);
+        Assert.assertEquals(1, pool.getEvictedCount());
+        Assert.assertEquals(1, pool.getSize());
+        Assert.assertSame(t2, pool.take());
+        Assert.assertEquals(3, pool.getBorrowedCount());
+        Assert.assertEquals(2, pool.getCreatedCount());
+    }
+
+    @Test
+    public void registerMBean() throws Exception {
+        TransformerPool pool = new TransformerPool(templates, 2);
+        ObjectName name = new ObjectName("org.switchyard.transform:type=XsltTransformerPool,name=test");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        pool.register(name);
+        try {
+            pool.give(pool.take());
+            Assert.assertEquals(2, server.getAttribute(name, "MaxSize"));
+            Assert.assertEquals(1L, server.getAttribute(name, "BorrowedCount"));
+            Assert.assertEquals(1, server.getAttribute(name, "IdleCount"));
+        } finally {
+            pool.unregister();
+        }
+        Assert.assertFalse(server.isRegistered(name));
+    }
+
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2013 Red Hat Inc. and/or its affiliates and other contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,  
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.switchyard.transform.xslt.internal;
+
+import java.io.InputStream;
+
+import javax.xml.namespace.QName;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.switchyard.AllocationCounter;
+import org.switchyard.common.type.Classes;
+import org.switchyard.internal.DefaultMessage;
+import org.switchyard.internal.transform.BaseTransformerRegistry;
+import org.switchyard.transform.TransformerRegistry;
+import org.switchyard.transform.internal.TransformerRegistryLoader;
+
+/**
+ * Compares heap allocated by DOM and streaming XSLT transformation of a large
+ * payload.  Allocation is read from HotSpot thread MX bean, when it's not
+ * available only time is reported.
+ */
+public class XsltStreamingBenchmarkTest {
+
+    @Test
+    public void domVersusStreaming() throws Exception {
+        boolean debug = false; // toggle this is you're interested in performance
+        TransformerRegistry registry = new BaseTransformerRegistry();
+        new TransformerRegistryLoader(registry).loadOOTBTransforms();
+        Templates templates = newTemplates();
+        XsltTransformer<?, ?> dom = new XsltTransformer<Object, Object>(
+                new QName("A"), new QName("B"), templates, false, 1, false);
+        XsltTransformer<?, ?> streaming = new XsltTransformer<Object, Object>(
+                new QName("A"), new QName("B"), templates, false, 1, true);
+        int topics = debug ? 20000 : 10;
+        String payload = payload(topics);
+
+        // warm up
+        run(dom, registry, payload, false);
+        run(streaming, registry, payload, false);
+
+        // DOM result is serialized too, so both modes produce the same output
+        String last = "Topic " + (topics - 1);
+        Assert.assertTrue(run(dom, registry, payload, debug).contains(last));
+        Assert.assertTrue(run(streaming, registry, payload, debug).contains(last));
+    }
+
+    private String run(XsltTransformer<?, ?> transformer, TransformerRegistry registry, String payload, boolean debug) {
+        DefaultMessage message = new DefaultMessage().setContent(payload);
+        message.setTransformerRegistry(registry);
+
+        long bytes = AllocationCounter.allocatedBytes();
+        long start = System.nanoTime();
+        transformer.transform(message);
+        String result = message.getContent(String.class);
+        long time = System.nanoTime() - start;
+        bytes = AllocationCounter.allocatedSince(bytes);
+
+        if (debug) {
+            System.out.println(String.format("%s transformation of %d KB payload to %d KB: %d ms, %s KB allocated",
+                transformer.isStreaming() ? "Streaming" : "DOM", payload.length() / 1024, result.length() / 1024,
+                time / 1000000, bytes < 0 ? "n/a" : String.valueOf(bytes / 1024)));
+        }
+        return result;
+    }
+
+    private Templates newTemplates() throws Exception {
+        InputStream xslt = Classes.getResourceAsStream("org/switchyard/transform/xslt/internal/topics.xslt");
+        try {
+            return TransformerFactory.newInstance().newTemplates(new StreamSource(xslt));
+        } finally {
+            xslt.close();
+        }
+    }
+
+    private String payload(int topics) {
+        StringBuilder payload = new StringBuilder("<?xml version=\"1.0\"?><project>");
+        for (int i = 0; i < topics; i++) {
+            payload.append("<topic><title>Topic ").append(i).append("</title><url>http://www.jboss.org/topic/")
+                .append(i).append("</url></topic>");
+        }
+        return payload.append("</project>").toString();
+    }
+
+}
@@ -13,10 +13,13 @@
  */
 package org.switchyard.transform.xslt.internal;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
 
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
 
 import org.custommonkey.xmlunit.Diff;
 import org.custommonkey.xmlunit.XMLUnit;
@@ -35,6 +38,8 @@ import org.switchyard.transform.config.model.TransformNamespace;
 import org.switchyard.transform.config.model.XsltTransformModel;
 import org.switchyard.transform.config.model.v1.V1XsltTransformModel;
 import org.switchyard.transform.internal.TransformerRegistryLoader;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.xml.sax.SAXException;
 
 /**
@@ -200,6 +205,45 @@ public class XsltTransformerTest extends AbstractTransformerTestCase {
         Assert.assertNull(xslt.getTransformerPool());
     }
     
+    @Test
+    public void test_streaming_validation() throws Exception {
+        SwitchYardModel switchyard = new ModelPuller<SwitchYardModel>().pull(
+                "xslt-config-08.xml", getClass());
+        switchyard.assertModelValid();
+        XsltTransformModel model = (XsltTransformModel)
+                switchyard.getTransforms().getTransforms().get(0);
+        Assert.assertTrue(model.isStreaming());
+    }
+
+    @Test
+    public void test_streaming_result() throws Exception {
+        XsltTransformer xslt = (XsltTransformer)getTransformer("xslt-config-08.xml");
+        Assert.assertTrue(xslt.isStreaming());
+        XMLUnit.setIgnoreWhitespace(true);
+
+        Object[] contents = {
+            INITIAL,
+            new ByteArrayInputStream(INITIAL.getBytes("UTF-8")),
+            new StringReader(INITIAL),
+            XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(INITIAL))
+        };
+        for (Object content : contents) {
+            DefaultMessage message = newMessage(content);
+            xslt.transform(message);
+            Assert.assertTrue(message.getContent() instanceof String);
+            Diff diff = new Diff(EXPECTED, message.getContent(String.class));
+            Assert.assertTrue(content.getClass() + ": " + diff, diff.identical());
+        }
+    }
+
+    @Test
+    public void test_streaming_keeps_dom_for_nodes() throws Exception {
+        XsltTransformer xslt = (XsltTransformer)getTransformer("xslt-config-08.xml");
+        DefaultMessage message = newMessage(newMessage(INITIAL).getContent(Document.class));
+        xslt.transform(message);
+        Assert.assertTrue(message.getContent() instanceof Element);
+    }
+
     private DefaultMessage newMessage(Object content) {
         DefaultMessage message = new DefaultMessage().setContent(content);
         message.setTransformerRegistry(xformReg);
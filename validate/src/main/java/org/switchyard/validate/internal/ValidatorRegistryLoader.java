@@ -17,18 +17,31 @@ package org.switchyard.validate.internal;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import org.jboss.logging.Logger;
+import org.switchyard.SwitchYardException;
 import org.switchyard.common.type.Classes;
 import org.switchyard.config.model.ModelPuller;
+import org.switchyard.config.model.SchemaCache;
 import org.switchyard.config.model.validate.ValidateModel;
 import org.switchyard.config.model.validate.ValidatesModel;
+import org.switchyard.validate.BaseValidator;
 import org.switchyard.validate.Validator;
 import org.switchyard.validate.ValidatorRegistry;
 import org.switchyard.validate.ValidateMessages;
+import org.switchyard.validate.config.model.XmlValidateModel;
 
 /**
  * {@link ValidatorRegistry} loader class.
@@ -54,6 +67,10 @@ public class ValidatorRegistryLoader {
      * The registry instance into which the validates were loaded.
      */
     private ValidatorRegistry _validatorRegistry;
+    /**
+     * The class loader the validators were registered with, which XML validators compile their schemas for.
+     */
+    private ClassLoader _classLoader;
 
     /**
      * Public constructor.
@@ -75,10 +92,15 @@ public class ValidatorRegistryLoader {
         if (validates == null) {
             return;
         }
+        _classLoader = Thread.currentThread().getContextClassLoader();
 
         try {
+            Map<ValidateModel, Collection<Validator<?>>> xmlValidators = newXmlValidators(validates.getValidates());
             for (ValidateModel validateModel : validates.getValidates()) {
-                Collection<Validator<?>> validators = ValidatorUtil.newValidators(validateModel);
+                Collection<Validator<?>> validators = xmlValidators.get(validateModel);
+                if (validators == null) {
+                    validators = ValidatorUtil.newValidators(validateModel);
+                }
 
                 for (Validator<?> validator : validators) {
                     if (_validatorRegistry.hasValidator(validator.getName())) {
@@ -102,12 +124,71 @@ public class ValidatorRegistryLoader {
         }
     }
 
+    // XML validators spend most of their creation compiling schemas, so they are
+    // created in parallel when there are several of them
+    private Map<ValidateModel, Collection<Validator<?>>> newXmlValidators(List<ValidateModel> validateModels) {
+        Map<ValidateModel, Collection<Validator<?>>> xmlValidators = new IdentityHashMap<ValidateModel, Collection<Validator<?>>>();
+        List<ValidateModel> xmlModels = new ArrayList<ValidateModel>();
+        for (ValidateModel validateModel : validateModels) {
+            if (validateModel instanceof XmlValidateModel) {
+                xmlModels.add(validateModel);
+            }
+        }
+        if (xmlModels.size() < 2) {
+            return xmlValidators;
+        }
+
+        List<Callable<Collection<Validator<?>>>> tasks = new ArrayList<Callable<Collection<Validator<?>>>>();
+        for (final ValidateModel validateModel : xmlModels) {
+            tasks.add(new Callable<Collection<Validator<?>>>() {
+                public Collection<Validator<?>> call() {
+                    return ValidatorUtil.newValidators(validateModel);
+                }
+            });
+        }
+        final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        int threads = Math.min(tasks.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "SwitchYard-XmlValidator-setup");
+                thread.setDaemon(true);
+                thread.setContextClassLoader(loader);
+                return thread;
+            }
+        });
+        try {
+            List<Future<Collection<Validator<?>>>> futures = executor.invokeAll(tasks);
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    xmlValidators.put(xmlModels.get(i), futures.get(i).get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new SwitchYardException(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SwitchYardException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return xmlValidators;
+    }
+
     /**
-     * Unregister all validators.
+     * Unregister all validators, and drop the schemas compiled for them.
      */
     public void unregisterValidators() {
         for (Validator validator : _validators) {
             _validatorRegistry.removeValidator(validator);
+            if (validator instanceof BaseValidator) {
+                ((BaseValidator<?>) validator).destroy();
+            }
+        }
+        if (_classLoader != null) {
+            SchemaCache.remove(_classLoader);
         }
     }
 
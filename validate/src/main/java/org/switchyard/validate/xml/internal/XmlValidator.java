@@ -15,21 +15,36 @@
 package org.switchyard.validate.xml.internal;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.CharArrayReader;
+import java.io.CharArrayWriter;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
+import java.io.StringWriter;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Result;
 import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stax.StAXResult;
+import javax.xml.transform.stax.StAXSource;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
@@ -40,7 +55,9 @@ import org.apache.xml.resolver.tools.CatalogResolver;
 import org.switchyard.Message;
 import org.switchyard.SwitchYardException;
 import org.switchyard.common.type.Classes;
+import org.switchyard.common.util.ObjectPool;
 import org.switchyard.config.model.Scannable;
+import org.switchyard.config.model.SchemaCache;
 import org.switchyard.validate.BaseValidator;
 import org.switchyard.validate.ValidateLogger;
 import org.switchyard.validate.ValidateMessages;
@@ -48,6 +65,7 @@ import org.switchyard.validate.ValidationResult;
 import org.switchyard.validate.config.model.FileEntryModel;
 import org.switchyard.validate.config.model.XmlSchemaType;
 import org.switchyard.validate.config.model.XmlValidateModel;
+import org.w3c.dom.Node;
 import org.w3c.dom.ls.LSInput;
 import org.w3c.dom.ls.LSResourceResolver;
 import org.xml.sax.InputSource;
@@ -58,6 +76,10 @@ import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * XML Validator {@link org.switchyard.validate.Validator}.
+ * <p/>
+ * Parsers and validators are not thread safe, so each one is borrowed from a small
+ * pool owned by the validator for the length of a single validation, then reset.
+ * A document which fails to parse doesn't break the parser, so it is reused too.
  * 
  * @author <a href="mailto:tm.igarashi@gmail.com">Tomohisa Igarashi</a>
  */
@@ -65,6 +87,8 @@ import org.xml.sax.helpers.DefaultHandler;
 public class XmlValidator extends BaseValidator<Message> {
 
     private static final Logger LOGGER = Logger.getLogger(XmlValidator.class);
+    private static final int BUFFER_SIZE = 4096;
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
     private XmlSchemaType _schemaType;
     private String _schemaTypeUri;
     private boolean _failOnWarning;
@@ -75,6 +99,25 @@ public class XmlValidator extends BaseValidator<Message> {
     private XmlValidatorCatalogResolver _catalogResolver;
     private List<String> _schemaFileNames = new ArrayList<String>();
     private List<String> _catalogFileNames = new ArrayList<String>();
+    private Schema _schema;
+    private final ObjectPool<XMLReader> _validatingParsers = new ObjectPool<XMLReader>() {
+        @Override
+        protected XMLReader create() {
+            try {
+                return createValidatingParser();
+            } catch (SAXException e) {
+                throw new SwitchYardException(e);
+            } catch (ParserConfigurationException pce) {
+                throw new SwitchYardException(pce);
+            }
+        }
+    };
+    private final ObjectPool<javax.xml.validation.Validator> _validators = new ObjectPool<javax.xml.validation.Validator>() {
+        @Override
+        protected javax.xml.validation.Validator create() {
+            return _schema.newValidator();
+        }
+    };
     
     /**
      * constructor.
@@ -175,12 +218,7 @@ public class XmlValidator extends BaseValidator<Message> {
                 throw ValidateMessages.MESSAGES.schemaFileMustBeSpecified(_schemaType.toString());
             }
             
-            SchemaFactory schemaFactory = SchemaFactory.newInstance(_schemaTypeUri);
-            if (_catalogResolver != null) {
-                schemaFactory.setResourceResolver(_catalogResolver);
-            }
-            
-            List<Source> foundSchemas = new ArrayList<Source>();
+            final List<Source> foundSchemas = new ArrayList<Source>();
             for (FileEntryModel entry : _schemaConfig) {
                 URL located = locateFile(entry.getFile());
                 if (located != null) {
@@ -196,8 +234,18 @@ public class XmlValidator extends BaseValidator<Message> {
             }
             
             try {
-                Schema schema = schemaFactory.newSchema(foundSchemas.toArray(new Source[0]));
-                _parserFactory.setSchema(schema);
+                // compiled schemas are shared by the validators of a deployment using the same files and catalogs
+                ClassLoader loader = Thread.currentThread().getContextClassLoader();
+                _schema = SchemaCache.getSchema(loader, _schemaTypeUri, _schemaFileNames, _catalogFileNames, new Callable<Schema>() {
+                    public Schema call() throws SAXException {
+                        SchemaFactory schemaFactory = SchemaFactory.newInstance(_schemaTypeUri);
+                        if (_catalogResolver != null) {
+                            schemaFactory.setResourceResolver(_catalogResolver);
+                        }
+                        return schemaFactory.newSchema(foundSchemas.toArray(new Source[0]));
+                    }
+                });
+                _parserFactory.setSchema(_schema);
             } catch (SAXException e) {
                 throw new SwitchYardException(e);
             }
@@ -211,30 +259,45 @@ public class XmlValidator extends BaseValidator<Message> {
                         .append(formatUnparsedConfigs()).append(" / ").append(formatParsedConfigs()).append("]"));
         }
         
+        XmlValidationErrorHandler errorHandler = new XmlValidationErrorHandler(_failOnWarning);
         try {
-            XMLReader validatingParser = createValidatingParser();
-            XmlValidationErrorHandler errorHandler = new XmlValidationErrorHandler(_failOnWarning);
-            validatingParser.setErrorHandler(errorHandler);
-            String input = msg.getContent(String.class);
-            if (InputStream.class.isAssignableFrom(msg.getContent().getClass())) {
-                msg.setContent(new ByteArrayInputStream(input.getBytes()));
-            } else if (Reader.class.isAssignableFrom(msg.getContent().getClass())) {
-                msg.setContent(new StringReader(input));
+            Object content = msg.getContent();
+            if (_schema != null && (content instanceof Node || content instanceof DOMSource)) {
+                // already parsed, validate the tree as it is
+                validateSource(content instanceof Node ? new DOMSource((Node)content) : (DOMSource)content, null, errorHandler);
+            } else if (_schema != null
+                    && (content instanceof StAXSource || content instanceof XMLStreamReader || content instanceof XMLEventReader)) {
+                msg.setContent(validateStAX(content, errorHandler));
+            } else {
+                XMLReader validatingParser = _validatingParsers.acquire();
+                validatingParser.setErrorHandler(errorHandler);
+                try {
+                    validatingParser.parse(toInputSource(msg, content));
+                } finally {
+                    // every parse starts afresh, so only the handler has to go
+                    validatingParser.setErrorHandler(null);
+                    _validatingParsers.release(validatingParser);
+                }
             }
-            validatingParser.parse(new InputSource(new StringReader(input)));
             if (errorHandler.validationFailed()) {
                 return invalidResult(formatErrorMessage(errorHandler.getErrors()).toString());
             }
         } catch (SAXException e) {
             throw new SwitchYardException(e);
-        } catch (ParserConfigurationException pce) {
-            throw new SwitchYardException(pce);
         } catch (IOException ioe) {
             throw new SwitchYardException(ioe);
+        } catch (XMLStreamException xse) {
+            throw new SwitchYardException(xse);
         }
         return validResult();
     }
 
+    @Override
+    public void destroy() {
+        _validatingParsers.clear();
+        _validators.clear();
+    }
+
     protected XMLReader createValidatingParser() throws SAXException, ParserConfigurationException {
         XMLReader validatingParser = _parserFactory.newSAXParser().getXMLReader();
         if (XMLConstants.XML_DTD_NS_URI.equals(_schemaTypeUri) && _catalogResolver != null) {
@@ -242,6 +305,86 @@ public class XmlValidator extends BaseValidator<Message> {
         }
         return validatingParser;
     }
+
+    // reads stream content once, the message gets a copy of the buffered content back
+    private InputSource toInputSource(Message msg, Object content) throws IOException {
+        if (content instanceof byte[]) {
+            return new InputSource(new ByteArrayInputStream((byte[])content));
+        } else if (content instanceof InputStream) {
+            // keep the bytes so the parser detects the document encoding itself
+            byte[] bytes = readBytes((InputStream)content);
+            msg.setContent(new ByteArrayInputStream(bytes));
+            return new InputSource(new ByteArrayInputStream(bytes));
+        } else if (content instanceof Reader) {
+            char[] chars = readChars((Reader)content);
+            msg.setContent(new CharArrayReader(chars));
+            return new InputSource(new CharArrayReader(chars));
+        } else if (content instanceof String) {
+            return new InputSource(new StringReader((String)content));
+        }
+        return new InputSource(new StringReader(msg.getContent(String.class)));
+    }
+
+    private void validateSource(Source source, Result result, XmlValidationErrorHandler errorHandler)
+            throws SAXException, IOException {
+        javax.xml.validation.Validator validator = _validators.acquire();
+        if (_catalogResolver != null) {
+            validator.setResourceResolver(_catalogResolver);
+        }
+        validator.setErrorHandler(errorHandler);
+        try {
+            validator.validate(source, result);
+        } finally {
+            // back to the state Schema.newValidator() left it in, resolver and handler included
+            validator.reset();
+            _validators.release(validator);
+        }
+    }
+
+    // a StAX reader can be consumed only once, so the events are written to a String while validating
+    private String validateStAX(Object content, XmlValidationErrorHandler errorHandler)
+            throws SAXException, IOException, XMLStreamException {
+        XMLStreamReader streamReader = null;
+        XMLEventReader eventReader = null;
+        if (content instanceof StAXSource) {
+            streamReader = ((StAXSource)content).getXMLStreamReader();
+            eventReader = ((StAXSource)content).getXMLEventReader();
+        } else if (content instanceof XMLStreamReader) {
+            streamReader = (XMLStreamReader)content;
+        } else {
+            eventReader = (XMLEventReader)content;
+        }
+
+        StringWriter writer = new StringWriter();
+        if (streamReader != null) {
+            XMLStreamWriter streamWriter = OUTPUT_FACTORY.createXMLStreamWriter(writer);
+            validateSource(new StAXSource(streamReader), new StAXResult(streamWriter), errorHandler);
+            streamWriter.close();
+        } else {
+            XMLEventWriter eventWriter = OUTPUT_FACTORY.createXMLEventWriter(writer);
+            validateSource(new StAXSource(eventReader), new StAXResult(eventWriter), errorHandler);
+            eventWriter.close();
+        }
+        return writer.toString();
+    }
+
+    private static byte[] readBytes(InputStream input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for (int n = input.read(buffer); n != -1; n = input.read(buffer)) {
+            output.write(buffer, 0, n);
+        }
+        return output.toByteArray();
+    }
+
+    private static char[] readChars(Reader input) throws IOException {
+        CharArrayWriter output = new CharArrayWriter();
+        char[] buffer = new char[BUFFER_SIZE];
+        for (int n = input.read(buffer); n != -1; n = input.read(buffer)) {
+            output.write(buffer, 0, n);
+        }
+        return output.toCharArray();
+    }
     
     protected URL locateFile(String path) {
         if (path == null) {
@@ -14,17 +14,39 @@
 
 package org.switchyard.validate.internal.xml;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stax.StAXSource;
 
 import org.jboss.logging.Logger;
 import org.junit.Assert;
 import org.junit.Test;
 import org.switchyard.SwitchYardException;
+import org.switchyard.config.model.ModelPuller;
+import org.switchyard.config.model.SchemaCache;
+import org.switchyard.config.model.SchemaCache.SchemaStatistics;
+import org.switchyard.config.model.switchyard.SwitchYardModel;
 import org.switchyard.internal.DefaultMessage;
+import org.switchyard.internal.validate.BaseValidatorRegistry;
 import org.switchyard.validate.ValidationResult;
 import org.switchyard.validate.Validator;
+import org.switchyard.validate.ValidatorRegistry;
 import org.switchyard.validate.AbstractValidatorTestCase;
+import org.switchyard.validate.internal.ValidatorRegistryLoader;
 import org.switchyard.validate.xml.internal.XmlValidator;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 /**
@@ -118,6 +140,114 @@ public class XmlValidatorTest extends AbstractValidatorTestCase {
         Assert.assertNull(result.getDetail());
     }
     
+    @Test
+    public void test_inputstream_encoding() throws Exception {
+        Validator validator = getValidator("sw-config-xmlv-01.xml");
+        String source = "<?xml version='1.0' encoding='UTF-8'?><person2 firstName='ﾀﾛｳ' lastName='ﾔﾏﾀﾞ' age='50' />";
+        DefaultMessage message = new DefaultMessage().setContent(new ByteArrayInputStream(source.getBytes("UTF-8")));
+        ValidationResult result = validator.validate(message);
+        if (!result.isValid()) {
+            Assert.fail(result.getDetail());
+        }
+        // content is still readable and holds the same bytes
+        InputStream content = (InputStream) message.getContent();
+        byte[] bytes = new byte[source.getBytes("UTF-8").length];
+        Assert.assertEquals(bytes.length, content.read(bytes));
+        Assert.assertEquals(source, new String(bytes, "UTF-8"));
+    }
+
+    @Test
+    public void test_reader_content() throws Exception {
+        Validator validator = getValidator("sw-config-xmlv-01.xml");
+        DefaultMessage message = new DefaultMessage().setContent(new StringReader("<person name='foo'/>"));
+        Assert.assertFalse(validator.validate(message).isValid());
+        char[] chars = new char[64];
+        int n = ((Reader) message.getContent()).read(chars);
+        Assert.assertEquals("<person name='foo'/>", new String(chars, 0, n));
+    }
+
+    @Test
+    public void test_dom_content() throws Exception {
+        Validator validator = getValidator("sw-config-xmlv-01.xml");
+        Document valid = parse("<person name='foo' age='50' />");
+        ValidationResult result = validator.validate(new DefaultMessage().setContent(valid.getDocumentElement()));
+        if (!result.isValid()) {
+            Assert.fail(result.getDetail());
+        }
+        result = validator.validate(new DefaultMessage().setContent(new DOMSource(parse("<person name='foo'/>"))));
+        Assert.assertFalse(result.isValid());
+        Assert.assertTrue(result.getDetail().startsWith("1 validation error(s)"));
+    }
+
+    @Test
+    public void test_stax_content() throws Exception {
+        Validator validator = getValidator("sw-config-xmlv-01.xml");
+        XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(
+                new StringReader("<person name='foo' age='50' />"));
+        DefaultMessage message = new DefaultMessage().setContent(reader);
+        ValidationResult result = validator.validate(message);
+        if (!result.isValid()) {
+            Assert.fail(result.getDetail());
+        }
+        // the reader is consumed, so the message carries the validated XML instead
+        Assert.assertTrue(message.getContent() instanceof String);
+        Assert.assertTrue(((String) message.getContent()).contains("<person"));
+
+        XMLEventReader eventReader = XMLInputFactory.newInstance().createXMLEventReader(
+                new StringReader("<person name='foo'/>"));
+        Assert.assertFalse(validator.validate(new DefaultMessage().setContent(new StAXSource(eventReader))).isValid());
+    }
+
+    @Test
+    public void test_reuse_after_failure() throws Exception {
+        Validator validator = getValidator("sw-config-xmlv-01.xml");
+        Assert.assertFalse(validator.validate(new DefaultMessage().setContent("<person name='foo'/>")).isValid());
+        try {
+            validator.validate(new DefaultMessage().setContent("<person name='foo'"));
+        } catch (SwitchYardException e) {
+            // malformed content fails either way
+            Assert.assertNotNull(e.getCause());
+        }
+        ValidationResult result = validator.validate(new DefaultMessage().setContent("<person name='foo' age='50' />"));
+        Assert.assertTrue(result.getDetail(), result.isValid());
+        // a destroyed validator drops its pooled parsers but can still create new ones
+        ((XmlValidator) validator).destroy();
+        Assert.assertTrue(validator.validate(new DefaultMessage().setContent("<person name='foo' age='50' />")).isValid());
+    }
+
+    @Test
+    public void test_register_shares_schemas() throws Exception {
+        SchemaCache.remove(Thread.currentThread().getContextClassLoader());
+        SwitchYardModel config = new ModelPuller<SwitchYardModel>().pull(
+                "org/switchyard/validate/internal/xml/sw-config-xmlv-multi.xml", getClass());
+        ValidatorRegistry registry = new BaseValidatorRegistry();
+        ValidatorRegistryLoader loader = new ValidatorRegistryLoader(registry);
+        loader.registerValidators(config.getValidates());
+
+        for (String name : new String[] {"A", "B", "C"}) {
+            Assert.assertTrue(registry.getValidator(new QName(name)) instanceof XmlValidator);
+        }
+        Assert.assertTrue(((XmlValidator) registry.getValidator(new QName("B"))).validate(
+                new DefaultMessage().setContent("<person name='foo' age='50' />")).isValid());
+
+        // A and B compile person.xsd once
+        List<SchemaStatistics> schemas = SchemaCache.getStatistics();
+        Assert.assertEquals(2, schemas.size());
+        long hits = 0;
+        for (SchemaStatistics schema : schemas) {
+            hits += schema.getHitCount();
+        }
+        Assert.assertEquals(1, hits);
+        loader.unregisterValidators();
+        Assert.assertTrue(SchemaCache.getStatistics().isEmpty());
+    }
+
+    private Document parse(String xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+    }
+
     protected Validator getValidator(String config) throws IOException {
         Validator validator = super.getValidator(config);
 